@@ -0,0 +1,126 @@
+package com.daem.benchmark;
+
+import com.daem.infrastructure.security.admission.AdmissionControlProperties;
+import com.daem.infrastructure.security.admission.ClientRateLimiter;
+import com.daem.infrastructure.security.admission.SourceRateLimiter;
+import com.daem.infrastructure.security.admission.TokenEndpointAdmissionFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-request cost of the token endpoint admission filter at 8 threads, compared with calling the rest of the
+ * chain directly: for admitted requests, all threads on one client (one contended bucket) or each on its own,
+ * and for requests rejected with {@code 429}. The chain stands in for client authentication by leaving the
+ * authenticated client in the security context, so admitted requests are charged to their client.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(8)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AdmissionControlBenchmark {
+
+    private static final int CLIENTS = 64;
+    @Param({"true", "false"})
+    public boolean sharedClient;
+
+    private InMemoryRegisteredClientRepository repository;
+    private TokenEndpointAdmissionFilter admitting;
+    private TokenEndpointAdmissionFilter rejecting;
+    private final AtomicInteger threads = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        List<RegisteredClient> clients = new ArrayList<>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            clients.add(RegisteredClient.withId("id-" + i)
+                    .clientId("client-" + i)
+                    .clientSecret("{noop}secret-" + i)
+                    .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+                    .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                    .build());
+        }
+        repository = new InMemoryRegisteredClientRepository(clients);
+        admitting = filter(new AdmissionControlProperties(true, 1e9, 1_000_000_000, 1e9, 1_000_000_000, 1_000,
+                10_000, 10_000, Duration.ofMinutes(10)));
+        rejecting = filter(new AdmissionControlProperties(true, 0.001, 1, 1e9, 1_000_000_000, 1_000,
+                10_000, 10_000, Duration.ofMinutes(10)));
+    }
+
+    private static TokenEndpointAdmissionFilter filter(AdmissionControlProperties properties) {
+        return new TokenEndpointAdmissionFilter(new ClientRateLimiter(properties), new SourceRateLimiter(properties),
+                properties, "/oauth2/token", new SimpleMeterRegistry());
+    }
+
+    @State(Scope.Thread)
+    public static class TokenRequest {
+
+        public MockHttpServletRequest request;
+        public MockHttpServletResponse response;
+        public FilterChain chain;
+
+        @Setup
+        public void setUp(AdmissionControlBenchmark benchmark) {
+            int client = benchmark.sharedClient ? 0 : benchmark.threads.getAndIncrement() % CLIENTS;
+            request = new MockHttpServletRequest("POST", "/oauth2/token");
+            request.addHeader(HttpHeaders.AUTHORIZATION, "Basic " + Base64.getEncoder()
+                    .encodeToString(("client-" + client + ":secret-" + client).getBytes(StandardCharsets.UTF_8)));
+            request.addParameter("grant_type", "client_credentials");
+            response = new MockHttpServletResponse();
+            OAuth2ClientAuthenticationToken authentication = new OAuth2ClientAuthenticationToken(
+                    benchmark.repository.findByClientId("client-" + client),
+                    ClientAuthenticationMethod.CLIENT_SECRET_BASIC, null);
+            chain = (req, res) -> SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
+    }
+
+    @Benchmark
+    public int withoutFilter(TokenRequest tokenRequest) throws Exception {
+        tokenRequest.chain.doFilter(tokenRequest.request, tokenRequest.response);
+        return tokenRequest.response.getStatus();
+    }
+
+    @Benchmark
+    public int admitted(TokenRequest tokenRequest) throws Exception {
+        admitting.doFilter(tokenRequest.request, tokenRequest.response, tokenRequest.chain);
+        return tokenRequest.response.getStatus();
+    }
+
+    @Benchmark
+    public int rejected(TokenRequest tokenRequest) throws Exception {
+        tokenRequest.response.reset();
+        rejecting.doFilter(tokenRequest.request, tokenRequest.response, tokenRequest.chain);
+        return tokenRequest.response.getStatus();
+    }
+}
@@ -0,0 +1,80 @@
+package com.daem.benchmark;
+
+import com.daem.infrastructure.audit.AuditEventType;
+import com.daem.infrastructure.audit.AuditLog;
+import com.daem.infrastructure.audit.AuditProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link AuditLog#record} on the request thread at 8 threads, with the writer running against a file in
+ * a temporary directory. With {@code DROP}, events the writer cannot keep up with are dropped, so the score is the
+ * cost of claiming and filling a slot; with {@code BLOCK} producers are held back to the writer's pace.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(8)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AuditLogBenchmark {
+
+    @Param({"DROP", "BLOCK"})
+    public AuditProperties.OverflowPolicy overflow;
+
+    private Path directory;
+    private AuditLog auditLog;
+    private String accessToken;
+    private String refreshToken;
+
+    @Setup
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("audit-benchmark");
+        AuditProperties properties = new AuditProperties(true, 16384, 512, Duration.ofMillis(200), overflow,
+                Duration.ofMillis(5), directory.resolve("audit.log"), DataSize.ofMegabytes(100), 2,
+                AuditProperties.FsyncPolicy.INTERVAL, Duration.ofSeconds(1), false);
+        auditLog = new AuditLog(properties, null, new SimpleMeterRegistry());
+        auditLog.start();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String claims = "{\"sub\":\"user\",\"aud\":\"client\",\"jti\":\"" + UUID.randomUUID()
+                + "\",\"scope\":[\"read\"],\"iss\":\"http://localhost:9000\"}";
+        accessToken = encoder.encodeToString("{\"alg\":\"ES256\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(new byte[64]);
+        refreshToken = encoder.encodeToString(new byte[96]);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        auditLog.destroy();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void record() {
+        auditLog.record(AuditEventType.TOKEN_ISSUED, "client", null, "authorization_code", accessToken, refreshToken);
+    }
+}
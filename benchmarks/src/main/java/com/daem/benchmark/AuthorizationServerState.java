@@ -0,0 +1,80 @@
+package com.daem.benchmark;
+
+import com.daem.OAuth2AuthorizationServerApplication;
+import jakarta.servlet.Filter;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The whole authorization server, started once per trial against an in-memory H2 database created from
+ * {@code benchmark-schema.sql} instead of the PostgreSQL migrations.
+ * <p>
+ * PostgreSQL-only features are switched off: cluster notifications and the typed-column backfill. The
+ * verified-secret cache is on so that token issuance is not dominated by BCrypt, which
+ * {@link ClientSecretVerificationBenchmark} measures on its own. Admission control stays in the path with limits
+ * no benchmark reaches.
+ */
+@State(Scope.Benchmark)
+public class AuthorizationServerState {
+
+    @Param({"ES256", "RS256"})
+    public String signingAlgorithm;
+
+    public ConfigurableApplicationContext context;
+    public MockMvc mockMvc;
+
+    @Setup(Level.Trial)
+    public void start() {
+        // Command line arguments, so that they override the application.yml of the server
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spring.profiles.active=dev",
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=none",
+                "--spring.flyway.enabled=false",
+                "--spring.sql.init.mode=always",
+                "--spring.sql.init.schema-locations=classpath:benchmark-schema.sql",
+                "--logging.level.root=WARN",
+                "--daem.oauth2.cluster.notifications.enabled=false",
+                "--daem.oauth2.client-storage.backfill-on-startup=false",
+                "--daem.oauth2.secret-cache.enabled=true",
+                "--daem.oauth2.admission-control.requests-per-second=1000000",
+                "--daem.oauth2.admission-control.burst=1000000",
+                "--daem.oauth2.admission-control.max-concurrent-requests=1000",
+                "--daem.oauth2.signing-keys.algorithm=" + signingAlgorithm));
+        arguments.addAll(additionalArguments());
+        context = new SpringApplicationBuilder(OAuth2AuthorizationServerApplication.class)
+                .run(arguments.toArray(String[]::new));
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .addFilters(context.getBean("springSecurityFilterChain", Filter.class))
+                .build();
+    }
+
+    /**
+     * Further command line arguments for states that benchmark a configuration switch.
+     */
+    protected List<String> additionalArguments() {
+        return List.of();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+}
@@ -0,0 +1,83 @@
+package com.daem.benchmark;
+
+import com.daem.infrastructure.config.ClientStorageProperties;
+import com.daem.infrastructure.persistence.adapter.RegisteredClientRepositoryAdapter;
+import com.daem.infrastructure.persistence.jpa.entity.RegisteredClientEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.core.oidc.OidcScopes;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.settings.ClientSettings;
+import org.springframework.security.oauth2.server.authorization.settings.TokenSettings;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code RegisteredClient} to row mapping and back, for the legacy JSON columns and for the typed columns.
+ * The persistence collaborators are not needed for mapping and are left out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ClientMappingBenchmark {
+
+    @Param({"LEGACY", "TYPED"})
+    private ClientStorageProperties.Mode mode;
+
+    private RegisteredClientRepositoryAdapter adapter;
+    private RegisteredClient registeredClient;
+    private RegisteredClientEntity entity;
+
+    @Setup
+    public void setUp() {
+        adapter = new RegisteredClientRepositoryAdapter(null, null, new ObjectMapper(),
+                new ClientStorageProperties(mode, false, 200, Duration.ZERO), null, new SimpleMeterRegistry());
+        registeredClient = RegisteredClient.withId("8f1c6d0e-3a7b-4c52-9d1e-5b2f7a9c4e10")
+                .clientId("reporting-service")
+                .clientSecret("{bcrypt}$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z5iYv8Ke0mVdA0ZvQ8yJQ5Wa")
+                .clientName("Reporting Service")
+                .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+                .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_POST)
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .authorizationGrantType(AuthorizationGrantType.REFRESH_TOKEN)
+                .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                .redirectUri("https://reports.example.com/login/oauth2/code/daem")
+                .redirectUri("https://reports-staging.example.com/login/oauth2/code/daem")
+                .postLogoutRedirectUri("https://reports.example.com/")
+                .scope(OidcScopes.OPENID)
+                .scope(OidcScopes.PROFILE)
+                .scope("reports.read")
+                .scope("reports.write")
+                .clientSettings(ClientSettings.builder().requireAuthorizationConsent(true).requireProofKey(true).build())
+                .tokenSettings(TokenSettings.builder().accessTokenTimeToLive(Duration.ofMinutes(15)).build())
+                .build();
+        entity = adapter.toEntity(registeredClient);
+    }
+
+    @Benchmark
+    public RegisteredClientEntity toEntity() {
+        return adapter.toEntity(registeredClient);
+    }
+
+    @Benchmark
+    public RegisteredClient toObject() {
+        return adapter.toObject(entity);
+    }
+}
@@ -0,0 +1,59 @@
+package com.daem.benchmark;
+
+import com.daem.infrastructure.security.CachingPasswordEncoder;
+import com.daem.infrastructure.security.SecretCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * client_secret_basic verification throughput on a single core, with and without the verified-secret cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ClientSecretVerificationBenchmark {
+
+    private static final String SECRET = "machine-client-secret";
+
+    private PasswordEncoder bcrypt;
+    private PasswordEncoder cached;
+    private String encodedSecret;
+
+    @Setup
+    public void setUp() {
+        bcrypt = new BCryptPasswordEncoder();
+        cached = new CachingPasswordEncoder(bcrypt, new SecretCacheProperties(true, 10_000, Duration.ofMinutes(5)),
+                new SimpleMeterRegistry());
+        encodedSecret = bcrypt.encode(SECRET);
+        cached.matches(SECRET, encodedSecret);
+    }
+
+    @Benchmark
+    public boolean bcrypt() {
+        return bcrypt.matches(SECRET, encodedSecret);
+    }
+
+    @Benchmark
+    public boolean cachedVerification() {
+        return cached.matches(SECRET, encodedSecret);
+    }
+}
@@ -0,0 +1,103 @@
+package com.daem.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Latency of {@code /oauth2/introspect} under 32 concurrent callers, with and without the introspection cache:
+ * for a pool of issued, active tokens and for unknown tokens.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Threads(32)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class TokenIntrospectionBenchmark {
+
+    private static final String BASIC_AUTHORIZATION = "Basic " + Base64.getEncoder()
+            .encodeToString("admin-client:secret".getBytes(StandardCharsets.UTF_8));
+    private static final int ACTIVE_TOKENS = 256;
+
+    /**
+     * The server with the introspection cache switched on or off, and a pool of access tokens issued up front.
+     */
+    @State(Scope.Benchmark)
+    public static class IntrospectionServerState extends AuthorizationServerState {
+
+        @Param({"true", "false"})
+        public boolean introspectionCache;
+
+        public List<String> activeTokens;
+
+        @Override
+        protected List<String> additionalArguments() {
+            return List.of("--daem.oauth2.introspection-cache.enabled=" + introspectionCache);
+        }
+
+        @Setup(Level.Trial)
+        public void issueTokens() throws Exception {
+            activeTokens = new ArrayList<>(ACTIVE_TOKENS);
+            for (int i = 0; i < ACTIVE_TOKENS; i++) {
+                MvcResult result = mockMvc.perform(post("/oauth2/token")
+                                .header(HttpHeaders.AUTHORIZATION, BASIC_AUTHORIZATION)
+                                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                                .param("grant_type", "client_credentials")
+                                .param("scope", "server.admin"))
+                        .andReturn();
+                String body = result.getResponse().getContentAsString();
+                int start = body.indexOf("\"access_token\":\"") + "\"access_token\":\"".length();
+                activeTokens.add(body.substring(start, body.indexOf('"', start)));
+            }
+        }
+    }
+
+    @Benchmark
+    public String activeToken(IntrospectionServerState server) throws Exception {
+        String token = server.activeTokens.get(ThreadLocalRandom.current().nextInt(ACTIVE_TOKENS));
+        return introspect(server, token);
+    }
+
+    @Benchmark
+    public String unknownToken(IntrospectionServerState server) throws Exception {
+        // A small set of unknown values, as when a resource server keeps retrying a stale token
+        return introspect(server, new UUID(0, ThreadLocalRandom.current().nextInt(64)).toString());
+    }
+
+    private static String introspect(IntrospectionServerState server, String token) throws Exception {
+        MvcResult result = server.mockMvc.perform(post("/oauth2/introspect")
+                        .header(HttpHeaders.AUTHORIZATION, BASIC_AUTHORIZATION)
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .param("token", token))
+                .andReturn();
+        if (result.getResponse().getStatus() != 200) {
+            throw new IllegalStateException("Introspection failed: " + result.getResponse().getContentAsString());
+        }
+        return result.getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,85 @@
+package com.daem.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * JWT signing through the configured {@link JwtEncoder}, and a complete client_credentials token request
+ * dispatched in-process through the security filter chain (client authentication, token generation,
+ * authorization persistence).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class TokenIssuanceBenchmark {
+
+    private static final String CLIENT_ID = "admin-client";
+    private static final String CLIENT_SECRET = "secret";
+
+    private JwtEncoder jwtEncoder;
+    private String basicAuthorization;
+
+    @Setup
+    public void setUp(AuthorizationServerState server) {
+        jwtEncoder = server.context.getBean(JwtEncoder.class);
+        basicAuthorization = "Basic " + Base64.getEncoder()
+                .encodeToString((CLIENT_ID + ":" + CLIENT_SECRET).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public Jwt jwtEncoding() {
+        Instant issuedAt = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("http://localhost:9000")
+                .subject(CLIENT_ID)
+                .audience(List.of(CLIENT_ID))
+                .issuedAt(issuedAt)
+                .notBefore(issuedAt)
+                .expiresAt(issuedAt.plus(Duration.ofMinutes(5)))
+                .id("c0ffee00-0000-4000-8000-000000000000")
+                .claim("scope", List.of("server.admin"))
+                .build();
+        return jwtEncoder.encode(JwtEncoderParameters.from(claims));
+    }
+
+    @Benchmark
+    public String clientCredentialsToken(AuthorizationServerState server) throws Exception {
+        MvcResult result = server.mockMvc.perform(post("/oauth2/token")
+                        .header(HttpHeaders.AUTHORIZATION, basicAuthorization)
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .param("grant_type", "client_credentials")
+                        .param("scope", "server.admin"))
+                .andReturn();
+        if (result.getResponse().getStatus() != 200) {
+            throw new IllegalStateException("Token request failed: " + result.getResponse().getContentAsString());
+        }
+        return result.getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,143 @@
+-- H2 version of the schema in docs/sql. H2 has no text[] or jsonb, so the typed client columns use
+-- varchar array and json instead. Keep in step with the JPA entities.
+CREATE TABLE oauth2_registered_client (
+    id varchar(100) NOT NULL,
+    client_id varchar(100) NOT NULL,
+    tenant_id varchar(63) DEFAULT 'default' NOT NULL,
+    client_id_issued_at timestamp with time zone NOT NULL,
+    client_secret varchar(200),
+    client_secret_expires_at timestamp with time zone,
+    client_name varchar(200) NOT NULL,
+    client_authentication_methods varchar(1000),
+    authorization_grant_types varchar(1000),
+    redirect_uris varchar(1000),
+    post_logout_redirect_uris varchar(1000),
+    scopes varchar(1000),
+    client_settings varchar(2000),
+    token_settings varchar(2000),
+    client_authentication_methods_v2 varchar array,
+    authorization_grant_types_v2 varchar array,
+    redirect_uris_v2 varchar array,
+    post_logout_redirect_uris_v2 varchar array,
+    scopes_v2 varchar array,
+    client_settings_v2 json,
+    token_settings_v2 json,
+    require_proof_key boolean,
+    require_authorization_consent boolean,
+    jwk_set_url varchar(1000),
+    token_endpoint_authentication_signing_algorithm varchar(32),
+    x509_certificate_subject_dn varchar(1000),
+    reuse_access_token boolean,
+    token_requests_per_second double precision,
+    token_request_burst integer,
+    authorization_code_time_to_live interval second(9),
+    access_token_time_to_live interval second(9),
+    access_token_format varchar(32),
+    device_code_time_to_live interval second(9),
+    reuse_refresh_tokens boolean,
+    refresh_token_time_to_live interval second(9),
+    id_token_signature_algorithm varchar(32),
+    x509_certificate_bound_access_tokens boolean,
+    version bigint DEFAULT 0 NOT NULL,
+    PRIMARY KEY (id)
+);
+CREATE UNIQUE INDEX ux_oauth2_registered_client_client_id_tenant ON oauth2_registered_client (client_id, tenant_id);
+
+CREATE TABLE oauth2_authorization (
+    id varchar(100) NOT NULL,
+    registered_client_id varchar(100) NOT NULL,
+    principal_name varchar(200) NOT NULL,
+    authorization_grant_type varchar(100) NOT NULL,
+    authorized_scopes varchar(1000),
+    attributes text,
+    state varchar(500),
+    authorization_code_value text,
+    authorization_code_hash char(64),
+    authorization_code_issued_at timestamp with time zone,
+    authorization_code_expires_at timestamp with time zone,
+    authorization_code_metadata text,
+    access_token_value text,
+    access_token_hash char(64),
+    access_token_issued_at timestamp with time zone,
+    access_token_expires_at timestamp with time zone,
+    access_token_metadata text,
+    access_token_type varchar(100),
+    access_token_scopes varchar(1000),
+    oidc_id_token_value text,
+    oidc_id_token_hash char(64),
+    oidc_id_token_issued_at timestamp with time zone,
+    oidc_id_token_expires_at timestamp with time zone,
+    oidc_id_token_metadata text,
+    refresh_token_value text,
+    refresh_token_hash char(64),
+    refresh_token_issued_at timestamp with time zone,
+    refresh_token_expires_at timestamp with time zone,
+    refresh_token_metadata text,
+    user_code_value text,
+    user_code_hash char(64),
+    user_code_issued_at timestamp with time zone,
+    user_code_expires_at timestamp with time zone,
+    user_code_metadata text,
+    device_code_value text,
+    device_code_hash char(64),
+    device_code_issued_at timestamp with time zone,
+    device_code_expires_at timestamp with time zone,
+    device_code_metadata text,
+    expires_at timestamp with time zone,
+    PRIMARY KEY (id)
+);
+CREATE INDEX ix_oauth2_authorization_state ON oauth2_authorization (state);
+CREATE INDEX ix_oauth2_authorization_code_hash ON oauth2_authorization (authorization_code_hash);
+CREATE INDEX ix_oauth2_authorization_access_token_hash ON oauth2_authorization (access_token_hash);
+CREATE INDEX ix_oauth2_authorization_refresh_token_hash ON oauth2_authorization (refresh_token_hash);
+CREATE INDEX ix_oauth2_authorization_oidc_id_token_hash ON oauth2_authorization (oidc_id_token_hash);
+CREATE INDEX ix_oauth2_authorization_user_code_hash ON oauth2_authorization (user_code_hash);
+CREATE INDEX ix_oauth2_authorization_device_code_hash ON oauth2_authorization (device_code_hash);
+CREATE INDEX ix_oauth2_authorization_expires_at ON oauth2_authorization (expires_at);
+
+CREATE TABLE oauth2_authorization_consent (
+    registered_client_id varchar(100) NOT NULL,
+    principal_name varchar(200) NOT NULL,
+    authorities varchar(1000) NOT NULL,
+    PRIMARY KEY (registered_client_id, principal_name)
+);
+
+CREATE TABLE oauth2_revoked_token (
+    feed_version bigserial NOT NULL,
+    jti varchar(255) NOT NULL,
+    revoked_at timestamp with time zone NOT NULL,
+    expires_at timestamp with time zone NOT NULL,
+    PRIMARY KEY (feed_version),
+    CONSTRAINT uk_oauth2_revoked_token_jti UNIQUE (jti)
+);
+
+CREATE TABLE oauth2_signing_key (
+    kid varchar(100) NOT NULL,
+    algorithm varchar(20) NOT NULL,
+    private_jwk text NOT NULL,
+    created_at timestamp with time zone NOT NULL,
+    activate_at timestamp with time zone NOT NULL,
+    expire_at timestamp with time zone,
+    tenant_id varchar(63) DEFAULT 'default' NOT NULL,
+    PRIMARY KEY (kid)
+);
+CREATE INDEX ix_oauth2_signing_key_tenant_id ON oauth2_signing_key (tenant_id, activate_at);
+
+CREATE TABLE oauth2_tenant (
+    id varchar(63) NOT NULL,
+    created_at timestamp with time zone DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE oauth2_audit_event (
+    id bigserial NOT NULL,
+    occurred_at timestamp with time zone NOT NULL,
+    type varchar(32) NOT NULL,
+    client_id varchar(100),
+    principal_name varchar(200),
+    grant_type varchar(100),
+    token_id varchar(255),
+    token_hash char(64),
+    refresh_token_hash char(64),
+    PRIMARY KEY (id)
+);
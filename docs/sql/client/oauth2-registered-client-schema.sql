@@ -1,6 +1,7 @@
 CREATE TABLE oauth2_registered_client (
     id varchar(100) NOT NULL,
     client_id varchar(100) NOT NULL,
+    tenant_id varchar(63) DEFAULT 'default' NOT NULL,
     client_id_issued_at timestamp DEFAULT CURRENT_TIMESTAMP NOT NULL,
     client_secret varchar(200) DEFAULT NULL,
     client_secret_expires_at timestamp DEFAULT NULL,
@@ -12,5 +13,33 @@ CREATE TABLE oauth2_registered_client (
     scopes varchar(1000) NOT NULL,
     client_settings varchar(2000) NOT NULL,
     token_settings varchar(2000) NOT NULL,
+    client_authentication_methods_v2 text[] DEFAULT NULL,
+    authorization_grant_types_v2 text[] DEFAULT NULL,
+    redirect_uris_v2 text[] DEFAULT NULL,
+    post_logout_redirect_uris_v2 text[] DEFAULT NULL,
+    scopes_v2 text[] DEFAULT NULL,
+    client_settings_v2 jsonb DEFAULT NULL,
+    token_settings_v2 jsonb DEFAULT NULL,
+    require_proof_key boolean DEFAULT NULL,
+    require_authorization_consent boolean DEFAULT NULL,
+    jwk_set_url varchar(1000) DEFAULT NULL,
+    token_endpoint_authentication_signing_algorithm varchar(32) DEFAULT NULL,
+    x509_certificate_subject_dn varchar(1000) DEFAULT NULL,
+    reuse_access_token boolean DEFAULT NULL,
+    token_requests_per_second double precision DEFAULT NULL,
+    token_request_burst integer DEFAULT NULL,
+    authorization_code_time_to_live interval DEFAULT NULL,
+    access_token_time_to_live interval DEFAULT NULL,
+    access_token_format varchar(32) DEFAULT NULL,
+    device_code_time_to_live interval DEFAULT NULL,
+    reuse_refresh_tokens boolean DEFAULT NULL,
+    refresh_token_time_to_live interval DEFAULT NULL,
+    id_token_signature_algorithm varchar(32) DEFAULT NULL,
+    x509_certificate_bound_access_tokens boolean DEFAULT NULL,
+    version bigint DEFAULT 0 NOT NULL,
     PRIMARY KEY (id)
 );
+
+CREATE UNIQUE INDEX ux_oauth2_registered_client_client_id_tenant ON oauth2_registered_client (client_id, tenant_id);
+CREATE INDEX ix_oauth2_registered_client_scopes_v2 ON oauth2_registered_client USING gin (scopes_v2);
+CREATE INDEX ix_oauth2_registered_client_grant_types_v2 ON oauth2_registered_client USING gin (authorization_grant_types_v2);
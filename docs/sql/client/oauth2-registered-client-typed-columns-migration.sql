@@ -0,0 +1,132 @@
+/*
+Online migration of oauth2_registered_client from JSON varchar columns to native text[] columns and a column per
+client or token setting; settings this server does not know are kept in jsonb columns.
+
+Every step is safe to run while the servers keep serving traffic:
+
+  1. Run the DDL below. Adding nullable columns without defaults is a catalog-only change, and the indexes are
+     built CONCURRENTLY.
+  2. Roll out with daem.oauth2.client-storage.mode=DUAL_WRITE (the default). New writes fill both layouts,
+     and TypedColumnBackfill converts the existing rows in small batches after startup. Reads prefer the typed
+     columns as soon as a row has them.
+     Nodes not yet rolled out keep updating the legacy columns only. The trigger below (Flyway's V7, widened by
+     V8) notices such an update, because it leaves the typed columns as they were, and clears them; the row is
+     read from its legacy columns again, and TypedColumnBackfill, which repeats every
+     daem.oauth2.client-storage.backfill-interval in DUAL_WRITE mode, converts it anew.
+  3. Once every node runs in DUAL_WRITE mode and, after the next backfill round,
+     "SELECT count(*) FROM oauth2_registered_client WHERE authorization_grant_types_v2 IS NULL" returns 0,
+     run the "relax legacy constraints" statements and switch to mode=TYPED. Checking before the last node
+     without typed columns is gone is not enough: it may clear a row again right after.
+  4. After every node runs in TYPED mode, the legacy columns can be dropped at leisure.
+*/
+
+-- Step 1
+ALTER TABLE oauth2_registered_client ADD COLUMN IF NOT EXISTS client_authentication_methods_v2 text[];
+ALTER TABLE oauth2_registered_client ADD COLUMN IF NOT EXISTS authorization_grant_types_v2 text[];
+ALTER TABLE oauth2_registered_client ADD COLUMN IF NOT EXISTS redirect_uris_v2 text[];
+ALTER TABLE oauth2_registered_client ADD COLUMN IF NOT EXISTS post_logout_redirect_uris_v2 text[];
+ALTER TABLE oauth2_registered_client ADD COLUMN IF NOT EXISTS scopes_v2 text[];
+ALTER TABLE oauth2_registered_client ADD COLUMN IF NOT EXISTS client_settings_v2 jsonb;
+ALTER TABLE oauth2_registered_client ADD COLUMN IF NOT EXISTS token_settings_v2 jsonb;
+-- Settings that have a column of their own; client_settings_v2 and token_settings_v2 only keep the others
+ALTER TABLE oauth2_registered_client
+    ADD COLUMN IF NOT EXISTS require_proof_key boolean,
+    ADD COLUMN IF NOT EXISTS require_authorization_consent boolean,
+    ADD COLUMN IF NOT EXISTS jwk_set_url varchar(1000),
+    ADD COLUMN IF NOT EXISTS token_endpoint_authentication_signing_algorithm varchar(32),
+    ADD COLUMN IF NOT EXISTS x509_certificate_subject_dn varchar(1000),
+    ADD COLUMN IF NOT EXISTS reuse_access_token boolean,
+    ADD COLUMN IF NOT EXISTS token_requests_per_second double precision,
+    ADD COLUMN IF NOT EXISTS token_request_burst integer,
+    ADD COLUMN IF NOT EXISTS authorization_code_time_to_live interval,
+    ADD COLUMN IF NOT EXISTS access_token_time_to_live interval,
+    ADD COLUMN IF NOT EXISTS access_token_format varchar(32),
+    ADD COLUMN IF NOT EXISTS device_code_time_to_live interval,
+    ADD COLUMN IF NOT EXISTS reuse_refresh_tokens boolean,
+    ADD COLUMN IF NOT EXISTS refresh_token_time_to_live interval,
+    ADD COLUMN IF NOT EXISTS id_token_signature_algorithm varchar(32),
+    ADD COLUMN IF NOT EXISTS x509_certificate_bound_access_tokens boolean;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_oauth2_registered_client_scopes_v2
+    ON oauth2_registered_client USING gin (scopes_v2);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_oauth2_registered_client_grant_types_v2
+    ON oauth2_registered_client USING gin (authorization_grant_types_v2);
+
+-- Step 2: clear the typed columns of a row whose legacy columns alone were updated
+CREATE OR REPLACE FUNCTION oauth2_registered_client_clear_stale_typed_columns() RETURNS trigger AS $$
+BEGIN
+    IF NEW.authorization_grant_types IS NOT NULL
+        AND (NEW.client_authentication_methods, NEW.authorization_grant_types, NEW.redirect_uris,
+             NEW.post_logout_redirect_uris, NEW.scopes, NEW.client_settings, NEW.token_settings)
+            IS DISTINCT FROM (OLD.client_authentication_methods, OLD.authorization_grant_types, OLD.redirect_uris,
+                              OLD.post_logout_redirect_uris, OLD.scopes, OLD.client_settings, OLD.token_settings)
+        AND (NEW.client_authentication_methods_v2, NEW.authorization_grant_types_v2, NEW.redirect_uris_v2,
+             NEW.post_logout_redirect_uris_v2, NEW.scopes_v2, NEW.client_settings_v2, NEW.token_settings_v2,
+             NEW.require_proof_key, NEW.require_authorization_consent, NEW.jwk_set_url,
+             NEW.token_endpoint_authentication_signing_algorithm, NEW.x509_certificate_subject_dn,
+             NEW.reuse_access_token, NEW.token_requests_per_second, NEW.token_request_burst,
+             NEW.authorization_code_time_to_live, NEW.access_token_time_to_live, NEW.access_token_format,
+             NEW.device_code_time_to_live, NEW.reuse_refresh_tokens, NEW.refresh_token_time_to_live,
+             NEW.id_token_signature_algorithm, NEW.x509_certificate_bound_access_tokens)
+            IS NOT DISTINCT FROM (OLD.client_authentication_methods_v2, OLD.authorization_grant_types_v2,
+                                  OLD.redirect_uris_v2, OLD.post_logout_redirect_uris_v2, OLD.scopes_v2,
+                                  OLD.client_settings_v2, OLD.token_settings_v2,
+                                  OLD.require_proof_key, OLD.require_authorization_consent, OLD.jwk_set_url,
+                                  OLD.token_endpoint_authentication_signing_algorithm, OLD.x509_certificate_subject_dn,
+                                  OLD.reuse_access_token, OLD.token_requests_per_second, OLD.token_request_burst,
+                                  OLD.authorization_code_time_to_live, OLD.access_token_time_to_live,
+                                  OLD.access_token_format, OLD.device_code_time_to_live, OLD.reuse_refresh_tokens,
+                                  OLD.refresh_token_time_to_live, OLD.id_token_signature_algorithm,
+                                  OLD.x509_certificate_bound_access_tokens)
+    THEN
+        NEW.client_authentication_methods_v2 := NULL;
+        NEW.authorization_grant_types_v2 := NULL;
+        NEW.redirect_uris_v2 := NULL;
+        NEW.post_logout_redirect_uris_v2 := NULL;
+        NEW.scopes_v2 := NULL;
+        NEW.client_settings_v2 := NULL;
+        NEW.token_settings_v2 := NULL;
+        NEW.require_proof_key := NULL;
+        NEW.require_authorization_consent := NULL;
+        NEW.jwk_set_url := NULL;
+        NEW.token_endpoint_authentication_signing_algorithm := NULL;
+        NEW.x509_certificate_subject_dn := NULL;
+        NEW.reuse_access_token := NULL;
+        NEW.token_requests_per_second := NULL;
+        NEW.token_request_burst := NULL;
+        NEW.authorization_code_time_to_live := NULL;
+        NEW.access_token_time_to_live := NULL;
+        NEW.access_token_format := NULL;
+        NEW.device_code_time_to_live := NULL;
+        NEW.reuse_refresh_tokens := NULL;
+        NEW.refresh_token_time_to_live := NULL;
+        NEW.id_token_signature_algorithm := NULL;
+        NEW.x509_certificate_bound_access_tokens := NULL;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS tr_oauth2_registered_client_stale_typed_columns ON oauth2_registered_client;
+CREATE TRIGGER tr_oauth2_registered_client_stale_typed_columns
+    BEFORE UPDATE ON oauth2_registered_client
+    FOR EACH ROW EXECUTE FUNCTION oauth2_registered_client_clear_stale_typed_columns();
+
+-- Step 3: relax legacy constraints before switching to TYPED
+ALTER TABLE oauth2_registered_client ALTER COLUMN client_authentication_methods DROP NOT NULL;
+ALTER TABLE oauth2_registered_client ALTER COLUMN authorization_grant_types DROP NOT NULL;
+ALTER TABLE oauth2_registered_client ALTER COLUMN scopes DROP NOT NULL;
+ALTER TABLE oauth2_registered_client ALTER COLUMN client_settings DROP NOT NULL;
+ALTER TABLE oauth2_registered_client ALTER COLUMN token_settings DROP NOT NULL;
+
+-- Step 4
+-- DROP TRIGGER tr_oauth2_registered_client_stale_typed_columns ON oauth2_registered_client;
+-- DROP FUNCTION oauth2_registered_client_clear_stale_typed_columns();
+-- ALTER TABLE oauth2_registered_client
+--     DROP COLUMN client_authentication_methods,
+--     DROP COLUMN authorization_grant_types,
+--     DROP COLUMN redirect_uris,
+--     DROP COLUMN post_logout_redirect_uris,
+--     DROP COLUMN scopes,
+--     DROP COLUMN client_settings,
+--     DROP COLUMN token_settings;
@@ -12,30 +12,51 @@ CREATE TABLE oauth2_authorization (
     attributes text DEFAULT NULL,
     state varchar(500) DEFAULT NULL,
     authorization_code_value text DEFAULT NULL,
+    authorization_code_hash char(64) DEFAULT NULL,
     authorization_code_issued_at timestamp DEFAULT NULL,
     authorization_code_expires_at timestamp DEFAULT NULL,
     authorization_code_metadata text DEFAULT NULL,
     access_token_value text DEFAULT NULL,
+    access_token_hash char(64) DEFAULT NULL,
     access_token_issued_at timestamp DEFAULT NULL,
     access_token_expires_at timestamp DEFAULT NULL,
     access_token_metadata text DEFAULT NULL,
     access_token_type varchar(100) DEFAULT NULL,
     access_token_scopes varchar(1000) DEFAULT NULL,
     oidc_id_token_value text DEFAULT NULL,
+    oidc_id_token_hash char(64) DEFAULT NULL,
     oidc_id_token_issued_at timestamp DEFAULT NULL,
     oidc_id_token_expires_at timestamp DEFAULT NULL,
     oidc_id_token_metadata text DEFAULT NULL,
     refresh_token_value text DEFAULT NULL,
+    refresh_token_hash char(64) DEFAULT NULL,
     refresh_token_issued_at timestamp DEFAULT NULL,
     refresh_token_expires_at timestamp DEFAULT NULL,
     refresh_token_metadata text DEFAULT NULL,
     user_code_value text DEFAULT NULL,
+    user_code_hash char(64) DEFAULT NULL,
     user_code_issued_at timestamp DEFAULT NULL,
     user_code_expires_at timestamp DEFAULT NULL,
     user_code_metadata text DEFAULT NULL,
     device_code_value text DEFAULT NULL,
+    device_code_hash char(64) DEFAULT NULL,
     device_code_issued_at timestamp DEFAULT NULL,
     device_code_expires_at timestamp DEFAULT NULL,
     device_code_metadata text DEFAULT NULL,
+    expires_at timestamp DEFAULT NULL,
     PRIMARY KEY (id)
 );
+
+-- Token lookups go through the SHA-256 digests of the token values, never the text columns.
+CREATE INDEX ix_oauth2_authorization_state ON oauth2_authorization (state);
+CREATE INDEX ix_oauth2_authorization_code_hash ON oauth2_authorization (authorization_code_hash);
+CREATE INDEX ix_oauth2_authorization_access_token_hash ON oauth2_authorization (access_token_hash);
+CREATE INDEX ix_oauth2_authorization_refresh_token_hash ON oauth2_authorization (refresh_token_hash);
+CREATE INDEX ix_oauth2_authorization_oidc_id_token_hash ON oauth2_authorization (oidc_id_token_hash);
+CREATE INDEX ix_oauth2_authorization_user_code_hash ON oauth2_authorization (user_code_hash);
+CREATE INDEX ix_oauth2_authorization_device_code_hash ON oauth2_authorization (device_code_hash);
+CREATE INDEX ix_oauth2_authorization_expires_at ON oauth2_authorization (expires_at);
+
+-- expires_at is when the last token of the authorization expires and drives the background purge. Rows from before
+-- the column existed are backfilled by the Flyway migration V6__authorization_expires_at_backfill.sql; NULL means a
+-- token never expires.
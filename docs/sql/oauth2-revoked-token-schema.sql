@@ -0,0 +1,11 @@
+-- Revoked JWT access tokens published by the revocation feed (GET /oauth2/revoked-tokens) until they expire.
+-- feed_version increases with every revocation; inserts are serialized so that its order is commit order.
+CREATE TABLE oauth2_revoked_token (
+    feed_version bigserial NOT NULL,
+    jti varchar(255) NOT NULL,
+    revoked_at timestamp NOT NULL,
+    expires_at timestamp NOT NULL,
+    PRIMARY KEY (feed_version),
+    CONSTRAINT uk_oauth2_revoked_token_jti UNIQUE (jti)
+);
+CREATE INDEX ix_oauth2_revoked_token_expires_at ON oauth2_revoked_token (expires_at);
@@ -0,0 +1,11 @@
+-- JWS signing keys managed by SigningKeyManager. private_jwk holds the full JWK (private part included),
+-- AES-GCM encrypted with a key derived from daem.oauth2.signing-keys.encryption-password and base64 encoded.
+CREATE TABLE oauth2_signing_key (
+    kid varchar(100) NOT NULL,
+    algorithm varchar(20) NOT NULL,
+    private_jwk text NOT NULL,
+    created_at timestamp NOT NULL,
+    activate_at timestamp NOT NULL,
+    expire_at timestamp DEFAULT NULL,
+    PRIMARY KEY (kid)
+);
@@ -0,0 +1,15 @@
+package com.daem.application.client;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param hashingParallelism threads used to hash client secrets; {@code 0} means one per available core
+ */
+@ConfigurationProperties(prefix = "daem.oauth2.bulk-import")
+public record BulkImportProperties(
+        @DefaultValue("500") int chunkSize,
+        @DefaultValue("0") int hashingParallelism,
+        @DefaultValue("100000") int maxRecords
+) {
+}
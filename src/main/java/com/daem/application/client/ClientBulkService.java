@@ -0,0 +1,328 @@
+package com.daem.application.client;
+
+import com.daem.application.client.dto.BulkImportReportDto;
+import com.daem.application.client.dto.BulkImportReportDto.Result;
+import com.daem.application.client.dto.BulkImportReportDto.Status;
+import com.daem.application.client.dto.ClientRecordDto;
+import com.daem.application.client.event.ClientChangedEvent;
+import com.daem.domain.client.ClientRepository;
+import com.daem.domain.client.ClientSettingNames;
+import com.daem.domain.tenant.TenantIds;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.settings.ClientSettings;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Bulk import and export of registered clients.
+ * <p>
+ * Imports are read as a stream (NDJSON or a JSON array) and processed in chunks: each chunk is validated, its
+ * secrets are hashed in parallel on a dedicated pool, and it is written with one batched upsert in its own
+ * transaction. A failing chunk does not roll back the chunks before it; the report says which records landed.
+ */
+@Service
+public class ClientBulkService {
+
+    private static final int MAX_CLIENT_ID_LENGTH = 100;
+
+    private final ClientRepository clientRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final BulkImportProperties properties;
+    private final ObjectReader recordReader;
+    private final ExecutorService hashingExecutor;
+
+    public ClientBulkService(ClientRepository clientRepository, PasswordEncoder passwordEncoder,
+                             ApplicationEventPublisher eventPublisher, TransactionTemplate transactionTemplate,
+                             BulkImportProperties properties, ObjectMapper objectMapper) {
+        this.clientRepository = clientRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.recordReader = objectMapper.readerFor(ClientRecordDto.class);
+        int parallelism = properties.hashingParallelism() > 0
+                ? properties.hashingParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.hashingExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "client-secret-hashing-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingExecutor.shutdown();
+    }
+
+    public BulkImportReportDto importClients(InputStream input) throws IOException {
+        List<Result> results = new ArrayList<>();
+        List<IndexedRecord> chunk = new ArrayList<>(properties.chunkSize());
+        Set<ClientKey> seenClients = new HashSet<>();
+        int index = 0;
+        try (MappingIterator<ClientRecordDto> records = recordReader.readValues(input)) {
+            while (records.hasNextValue()) {
+                if (index >= properties.maxRecords()) {
+                    results.add(new Result(index, null, Status.INVALID, "Too many records, the limit is " + properties.maxRecords()));
+                    break;
+                }
+                ClientRecordDto record = records.nextValue();
+                String error = validate(record, seenClients);
+                if (error != null) {
+                    results.add(new Result(index, record.clientId(), Status.INVALID, error));
+                } else {
+                    chunk.add(new IndexedRecord(index, record));
+                    if (chunk.size() >= properties.chunkSize()) {
+                        writeChunk(chunk, results);
+                    }
+                }
+                index++;
+            }
+        } catch (JsonProcessingException e) {
+            // The stream cannot be resynchronized after malformed JSON; keep what was read so far
+            results.add(new Result(index, null, Status.INVALID, "Malformed JSON: " + e.getOriginalMessage()));
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, results);
+        }
+        results.sort(Comparator.comparingInt(Result::index));
+        return new BulkImportReportDto(
+                results.size(),
+                count(results, Status.CREATED) + count(results, Status.UPDATED),
+                count(results, Status.INVALID),
+                count(results, Status.FAILED),
+                results);
+    }
+
+    /**
+     * Hands every client to the consumer in the import format, without secrets.
+     */
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<ClientRecordDto> consumer) {
+        try (Stream<RegisteredClient> clients = clientRepository.streamAll()) {
+            clients.map(this::toRecord).forEach(consumer);
+        }
+    }
+
+    private void writeChunk(List<IndexedRecord> chunk, List<Result> results) {
+        List<CompletableFuture<RegisteredClient>> futures = new ArrayList<>(chunk.size());
+        for (IndexedRecord indexed : chunk) {
+            futures.add(CompletableFuture.supplyAsync(() -> toRegisteredClient(indexed.record()), hashingExecutor));
+        }
+
+        List<IndexedRecord> hashed = new ArrayList<>(chunk.size());
+        List<RegisteredClient> hashedClients = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            IndexedRecord indexed = chunk.get(i);
+            try {
+                hashedClients.add(futures.get(i).join());
+                hashed.add(indexed);
+            } catch (CompletionException e) {
+                results.add(new Result(indexed.index(), indexed.record().clientId(), Status.INVALID, e.getCause().getMessage()));
+            }
+        }
+
+        try {
+            // Whether a client exists is decided on rows locked until the upsert commits, so that a concurrent
+            // delete cannot turn an update without a secret into the insert of a confidential client without one
+            results.addAll(transactionTemplate.execute(status -> {
+                Map<ClientKey, RegisteredClient> existing = lockAll(hashed);
+                List<Result> written = new ArrayList<>(hashed.size());
+                List<RegisteredClient> clients = new ArrayList<>(hashed.size());
+                List<ClientChangedEvent> events = new ArrayList<>(hashed.size());
+                for (int i = 0; i < hashed.size(); i++) {
+                    IndexedRecord indexed = hashed.get(i);
+                    ClientKey key = ClientKey.of(indexed.record());
+                    RegisteredClient previous = existing.get(key);
+                    RegisteredClient client = withSettings(hashedClients.get(i), indexed.record(), previous);
+                    if (client.getClientSecret() == null && previous == null && !isPublic(client)) {
+                        written.add(new Result(indexed.index(), indexed.record().clientId(), Status.INVALID,
+                                "clientSecret is required for a new confidential client"));
+                        continue;
+                    }
+                    clients.add(client);
+                    events.add(new ClientChangedEvent(ClientChangedEvent.Type.IMPORTED, key.tenant(), key.clientId(), previous));
+                    written.add(new Result(indexed.index(), indexed.record().clientId(),
+                            previous != null ? Status.UPDATED : Status.CREATED, null));
+                }
+                clientRepository.upsertAll(clients);
+                events.forEach(eventPublisher::publishEvent);
+                return written;
+            }));
+        } catch (DataAccessException e) {
+            String message = e.getMostSpecificCause().getMessage();
+            for (IndexedRecord indexed : hashed) {
+                results.add(new Result(indexed.index(), indexed.record().clientId(), Status.FAILED, message));
+            }
+        }
+        chunk.clear();
+    }
+
+    /**
+     * Locks the stored clients of the records tenant by tenant, in a fixed order so that concurrent imports cannot
+     * deadlock.
+     */
+    private Map<ClientKey, RegisteredClient> lockAll(List<IndexedRecord> records) {
+        Map<String, List<String>> clientIdsByTenant = records.stream().map(indexed -> ClientKey.of(indexed.record()))
+                .collect(Collectors.groupingBy(ClientKey::tenant, TreeMap::new,
+                        Collectors.mapping(ClientKey::clientId, Collectors.toList())));
+        Map<ClientKey, RegisteredClient> existing = new HashMap<>();
+        clientIdsByTenant.forEach((tenant, clientIds) -> clientRepository.lockAllByClientId(tenant, clientIds)
+                .forEach((clientId, client) -> existing.put(new ClientKey(tenant, clientId), client)));
+        return existing;
+    }
+
+    private static String validate(ClientRecordDto record, Set<ClientKey> seenClients) {
+        if (!StringUtils.hasText(record.clientId())) {
+            return "clientId is required";
+        }
+        if (record.clientId().length() > MAX_CLIENT_ID_LENGTH) {
+            return "clientId must be at most " + MAX_CLIENT_ID_LENGTH + " characters";
+        }
+        if (record.tenant() != null && !TenantIds.isValid(record.tenant())) {
+            return "Tenant " + record.tenant() + " is not a valid tenant id";
+        }
+        if (!seenClients.add(ClientKey.of(record))) {
+            return "Duplicate clientId in this import";
+        }
+        if (record.clientAuthenticationMethods() == null || record.clientAuthenticationMethods().isEmpty()) {
+            return "clientAuthenticationMethods is required";
+        }
+        if (record.authorizationGrantTypes() == null || record.authorizationGrantTypes().isEmpty()) {
+            return "authorizationGrantTypes is required";
+        }
+        return null;
+    }
+
+    /**
+     * Builds and validates the client first, so that the expensive hash is only computed for valid records.
+     */
+    private RegisteredClient toRegisteredClient(ClientRecordDto record) {
+        RegisteredClient validated = RegisteredClient.withId(UUID.randomUUID().toString())
+                .clientId(record.clientId())
+                .clientName(StringUtils.hasText(record.clientName()) ? record.clientName() : record.clientId())
+                .clientAuthenticationMethods(methods -> record.clientAuthenticationMethods().forEach(
+                        method -> methods.add(new ClientAuthenticationMethod(method))))
+                .authorizationGrantTypes(grantTypes -> record.authorizationGrantTypes().forEach(
+                        grantType -> grantTypes.add(new AuthorizationGrantType(grantType))))
+                .redirectUris(uris -> addAll(uris, record.redirectUris()))
+                .postLogoutRedirectUris(uris -> addAll(uris, record.postLogoutRedirectUris()))
+                .scopes(scopes -> addAll(scopes, record.scopes()))
+                .build();
+        if (!StringUtils.hasText(record.clientSecret())) {
+            return validated;
+        }
+        return RegisteredClient.from(validated)
+                .clientSecret(passwordEncoder.encode(record.clientSecret()))
+                .build();
+    }
+
+    /**
+     * Applies the settings of the record on top of those of the stored client of its tenant, or of a new client if
+     * there is none.
+     */
+    private static RegisteredClient withSettings(RegisteredClient client, ClientRecordDto record, RegisteredClient previous) {
+        ClientSettings.Builder clientSettings = previous != null
+                ? ClientSettings.withSettings(previous.getClientSettings().getSettings())
+                : ClientSettings.builder().setting(ClientSettingNames.REUSE_ACCESS_TOKEN, false);
+        if (record.reuseAccessTokens() != null) {
+            clientSettings.setting(ClientSettingNames.REUSE_ACCESS_TOKEN, record.reuseAccessTokens());
+        }
+        if (record.tokenRequestsPerSecond() != null) {
+            clientSettings.setting(ClientSettingNames.TOKEN_REQUESTS_PER_SECOND, record.tokenRequestsPerSecond());
+        }
+        if (record.tokenRequestBurst() != null) {
+            clientSettings.setting(ClientSettingNames.TOKEN_REQUEST_BURST, record.tokenRequestBurst());
+        }
+        if (record.tenant() != null && !TenantIds.DEFAULT.equals(record.tenant())) {
+            clientSettings.setting(ClientSettingNames.TENANT, record.tenant());
+        }
+        RegisteredClient.Builder builder = RegisteredClient.from(client).clientSettings(clientSettings.build());
+        if (previous != null) {
+            builder.tokenSettings(previous.getTokenSettings());
+        }
+        return builder.build();
+    }
+
+    private ClientRecordDto toRecord(RegisteredClient registeredClient) {
+        return new ClientRecordDto(
+                registeredClient.getClientId(),
+                null, // Never export the secret
+                registeredClient.getClientName(),
+                registeredClient.getClientAuthenticationMethods().stream().map(ClientAuthenticationMethod::getValue).collect(Collectors.toSet()),
+                registeredClient.getAuthorizationGrantTypes().stream().map(AuthorizationGrantType::getValue).collect(Collectors.toSet()),
+                registeredClient.getRedirectUris(),
+                registeredClient.getPostLogoutRedirectUris(),
+                registeredClient.getScopes(),
+                Boolean.TRUE.equals(registeredClient.getClientSettings().getSetting(ClientSettingNames.REUSE_ACCESS_TOKEN)),
+                registeredClient.getClientSettings().getSetting(ClientSettingNames.TOKEN_REQUESTS_PER_SECOND) instanceof Number rate
+                        ? rate.doubleValue() : null,
+                registeredClient.getClientSettings().getSetting(ClientSettingNames.TOKEN_REQUEST_BURST) instanceof Number burst
+                        ? burst.intValue() : null,
+                registeredClient.getClientSettings().getSetting(ClientSettingNames.TENANT) instanceof String tenant
+                        ? tenant : TenantIds.DEFAULT
+        );
+    }
+
+    private static boolean isPublic(RegisteredClient client) {
+        return client.getClientAuthenticationMethods().equals(Set.of(ClientAuthenticationMethod.NONE));
+    }
+
+    private static void addAll(Set<String> target, Set<String> values) {
+        if (values != null) {
+            target.addAll(values);
+        }
+    }
+
+    private static int count(List<Result> results, Status status) {
+        return (int) results.stream().filter(result -> result.status() == status).count();
+    }
+
+    private record IndexedRecord(int index, ClientRecordDto record) {
+    }
+
+    /**
+     * What identifies a client: its client id within its tenant.
+     */
+    private record ClientKey(String tenant, String clientId) {
+
+        static ClientKey of(ClientRecordDto record) {
+            return new ClientKey(record.tenant() != null ? record.tenant() : TenantIds.DEFAULT, record.clientId());
+        }
+    }
+}
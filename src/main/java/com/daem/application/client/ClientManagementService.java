@@ -1,64 +1,191 @@
 package com.daem.application.client;
 
 import com.daem.application.client.dto.ClientDto;
+import com.daem.application.client.dto.ClientPageDto;
+import com.daem.application.client.dto.VersionedClientDto;
+import com.daem.application.client.event.ClientChangedEvent;
+import com.daem.domain.client.ClientQuery;
 import com.daem.domain.client.ClientRepository;
+import com.daem.domain.client.ClientSettingNames;
+import com.daem.domain.client.ClientSummary;
+import com.daem.domain.client.VersionedClient;
+import com.daem.domain.tenant.TenantIds;
+import com.daem.application.exception.ClientAlreadyExistsException;
+import com.daem.application.exception.ClientConcurrentModificationException;
 import com.daem.application.exception.ClientNotFoundException;
+import com.daem.application.exception.ClientVersionConflictException;
+import com.daem.application.exception.InvalidCursorException;
+import com.daem.application.exception.InvalidTenantException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.settings.ClientSettings;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
+import java.util.OptionalLong;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ClientManagementService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+    // Writes without an expected version are retried this often when the client changes under them
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
     private final ClientRepository clientRepository; // Changed type
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ClientManagementService(ClientRepository clientRepository, PasswordEncoder passwordEncoder) { // Changed constructor
+    public ClientManagementService(ClientRepository clientRepository, PasswordEncoder passwordEncoder, ApplicationEventPublisher eventPublisher) { // Changed constructor
         this.clientRepository = clientRepository;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
     }
 
+    /**
+     * Creates the client in the tenant it names, the default tenant if it names none. Only a client of the same
+     * tenant can take its client id.
+     */
     @Transactional
     public void create(ClientDto clientDto) {
-        RegisteredClient registeredClient = toRegisteredClient(clientDto);
-        clientRepository.save(registeredClient);
+        String tenant = tenantOrDefault(clientDto.tenant());
+        RegisteredClient registeredClient = toRegisteredClient(clientDto, UUID.randomUUID().toString(), encodeSecret(clientDto), tenant);
+        if (clientRepository.upsert(registeredClient, null).isEmpty()) {
+            throw new ClientAlreadyExistsException("Client with client ID " + clientDto.clientId() + " already exists in tenant " + tenant + ".");
+        }
+        eventPublisher.publishEvent(new ClientChangedEvent(ClientChangedEvent.Type.CREATED, tenant, registeredClient.getClientId(), null));
+    }
+
+    /**
+     * @param tenant the tenant of the client, {@code null} for the default tenant
+     */
+    @Transactional(readOnly = true)
+    public VersionedClientDto get(String tenant, String clientId) {
+        VersionedClient client = clientRepository.findVersionedByClientId(tenantOrDefault(tenant), clientId);
+        if (client == null) {
+            throw new ClientNotFoundException("Client with client ID " + clientId + " not found.");
+        }
+        return new VersionedClientDto(toDto(client.client()), client.version());
     }
 
     @Transactional(readOnly = true)
-    public List<ClientDto> findAll() {
-        return clientRepository.findAll().stream().map(this::toDto).collect(Collectors.toList());
+    public ClientPageDto findPage(ClientQuery query, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Fetch one extra row to learn whether another page follows
+        Cursor after = decodeCursor(cursor);
+        List<ClientSummary> summaries = clientRepository.findSummaries(query, after != null ? after.clientId() : null,
+                after != null ? after.tenant() : null, pageSize + 1);
+        boolean hasMore = summaries.size() > pageSize;
+        List<ClientSummary> page = hasMore ? summaries.subList(0, pageSize) : summaries;
+        String nextCursor = hasMore ? encodeCursor(page.get(page.size() - 1)) : null;
+        return new ClientPageDto(page.stream().map(this::toDto).collect(Collectors.toList()), nextCursor);
     }
 
+    /**
+     * Hands every matching client to the consumer one at a time, without materializing the whole result.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(ClientQuery query, Consumer<ClientDto> consumer) {
+        try (Stream<ClientSummary> summaries = clientRepository.streamSummaries(query)) {
+            summaries.map(this::toDto).forEach(consumer);
+        }
+    }
+
+    /**
+     * Replaces the stored client. A {@code null} secret keeps the stored one; the tenant is part of what identifies
+     * the client and never changes.
+     *
+     * @param tenant          the tenant of the client, {@code null} for the default tenant
+     * @param expectedVersion version the stored client must still have, or {@code null} to replace whatever is stored
+     * @return the version of the client after the change
+     */
     @Transactional
-    public void update(ClientDto clientDto) {
-        RegisteredClient existingClient = clientRepository.findByClientId(clientDto.clientId());
-        if (existingClient == null) {
-            throw new ClientNotFoundException("Client with client ID " + clientDto.clientId() + " not found.");
+    public long update(String tenant, ClientDto clientDto, Long expectedVersion) {
+        String tenantId = tenantOrDefault(tenant);
+        String encodedSecret = encodeSecret(clientDto);
+        return write(tenantId, clientDto.clientId(), expectedVersion,
+                current -> toRegisteredClient(clientDto, current.getId(), encodedSecret != null ? encodedSecret : current.getClientSecret(),
+                        tenantId));
+    }
+
+    /**
+     * Changes the non-null components of {@code patch} on the stored client and keeps everything else, including its
+     * tenant.
+     *
+     * @param tenant          the tenant of the client, {@code null} for the default tenant
+     * @param expectedVersion version the stored client must still have, or {@code null} to patch whatever is stored
+     * @return the version of the client after the change
+     */
+    @Transactional
+    public long patch(String tenant, String clientId, ClientDto patch, Long expectedVersion) {
+        String encodedSecret = encodeSecret(patch);
+        return write(tenantOrDefault(tenant), clientId, expectedVersion, current -> merge(current, patch, encodedSecret));
+    }
+
+    /**
+     * Reads the client, applies the change and writes the result with one conditional statement. Without an expected
+     * version, a concurrent change is picked up by reading and applying again; the change must therefore not hash.
+     * Losing the race with an expected version fails its precondition; losing it every time without one is a conflict.
+     */
+    private long write(String tenant, String clientId, Long expectedVersion, UnaryOperator<RegisteredClient> change) {
+        for (int attempt = 1; ; attempt++) {
+            VersionedClient current = clientRepository.findVersionedByClientId(tenant, clientId);
+            if (current == null) {
+                throw new ClientNotFoundException("Client with client ID " + clientId + " not found.");
+            }
+            if (expectedVersion != null && expectedVersion != current.version()) {
+                throw new ClientVersionConflictException("Client with client ID " + clientId + " is at version " + current.version() + ".");
+            }
+            RegisteredClient changed = change.apply(current.client());
+            OptionalLong version = clientRepository.upsert(changed, current.version());
+            if (version.isPresent()) {
+                eventPublisher.publishEvent(new ClientChangedEvent(ClientChangedEvent.Type.UPDATED, tenant, clientId, current.client()));
+                return version.getAsLong();
+            }
+            if (expectedVersion != null) {
+                throw new ClientVersionConflictException("Client with client ID " + clientId + " was changed concurrently.");
+            }
+            if (attempt == MAX_WRITE_ATTEMPTS) {
+                throw new ClientConcurrentModificationException("Client with client ID " + clientId + " kept changing during "
+                        + MAX_WRITE_ATTEMPTS + " attempts.");
+            }
         }
-        // Create a new client with the updated details
-        RegisteredClient updatedClient = toRegisteredClient(clientDto, existingClient.getId());
-        clientRepository.save(updatedClient);
     }
 
+    /**
+     * @param tenant the tenant of the client, {@code null} for the default tenant
+     */
     @Transactional
-    public void delete(String clientId) {
-        RegisteredClient existingClient = clientRepository.findByClientId(clientId);
+    public void delete(String tenant, String clientId) {
+        String tenantId = tenantOrDefault(tenant);
+        RegisteredClient existingClient = clientRepository.findByClientId(tenantId, clientId);
         if (existingClient == null) {
             throw new com.daem.application.exception.ClientNotFoundException("Client with client ID " + clientId + " not found.");
         }
-        clientRepository.deleteByClientId(clientId);
+        clientRepository.deleteByClientId(tenantId, clientId);
+        eventPublisher.publishEvent(new ClientChangedEvent(ClientChangedEvent.Type.DELETED, tenantId, clientId, existingClient));
+    }
+
+    /**
+     * Hashes the secret of the request, if it has one.
+     */
+    private String encodeSecret(ClientDto clientDto) {
+        return clientDto.clientSecret() != null ? passwordEncoder.encode(clientDto.clientSecret()) : null;
     }
 
-    private RegisteredClient toRegisteredClient(ClientDto clientDto, String id) {
+    private static RegisteredClient toRegisteredClient(ClientDto clientDto, String id, String encodedSecret, String tenant) {
         RegisteredClient.Builder builder = RegisteredClient.withId(id);
         builder.clientId(clientDto.clientId())
-                .clientSecret(passwordEncoder.encode(clientDto.clientSecret()))
+                .clientSecret(encodedSecret)
                 .clientAuthenticationMethods(methods -> methods.addAll(clientDto.clientAuthenticationMethods().stream()
                         .map(ClientAuthenticationMethod::new)
                         .collect(Collectors.toSet())))
@@ -67,9 +194,74 @@ public class ClientManagementService {
                         .collect(Collectors.toSet())))
                 .redirectUris(uris -> uris.addAll(clientDto.redirectUris()))
                 .scopes(scopes -> scopes.addAll(clientDto.scopes()));
+        ClientSettings.Builder clientSettings = ClientSettings.builder()
+                .setting(ClientSettingNames.REUSE_ACCESS_TOKEN, Boolean.TRUE.equals(clientDto.reuseAccessTokens()));
+        if (clientDto.tokenRequestsPerSecond() != null) {
+            clientSettings.setting(ClientSettingNames.TOKEN_REQUESTS_PER_SECOND, clientDto.tokenRequestsPerSecond());
+        }
+        if (clientDto.tokenRequestBurst() != null) {
+            clientSettings.setting(ClientSettingNames.TOKEN_REQUEST_BURST, clientDto.tokenRequestBurst());
+        }
+        if (!TenantIds.DEFAULT.equals(tenant)) {
+            clientSettings.setting(ClientSettingNames.TENANT, tenant);
+        }
+        builder.clientSettings(clientSettings.build());
         return builder.build();
     }
 
+    private static RegisteredClient merge(RegisteredClient current, ClientDto patch, String encodedSecret) {
+        RegisteredClient.Builder builder = RegisteredClient.from(current);
+        if (encodedSecret != null) {
+            builder.clientSecret(encodedSecret);
+        }
+        if (patch.clientAuthenticationMethods() != null) {
+            builder.clientAuthenticationMethods(methods -> {
+                methods.clear();
+                patch.clientAuthenticationMethods().forEach(method -> methods.add(new ClientAuthenticationMethod(method)));
+            });
+        }
+        if (patch.authorizationGrantTypes() != null) {
+            builder.authorizationGrantTypes(grantTypes -> {
+                grantTypes.clear();
+                patch.authorizationGrantTypes().forEach(grantType ->
+                        grantTypes.add(new org.springframework.security.oauth2.core.AuthorizationGrantType(grantType)));
+            });
+        }
+        if (patch.redirectUris() != null) {
+            builder.redirectUris(uris -> {
+                uris.clear();
+                uris.addAll(patch.redirectUris());
+            });
+        }
+        if (patch.scopes() != null) {
+            builder.scopes(scopes -> {
+                scopes.clear();
+                scopes.addAll(patch.scopes());
+            });
+        }
+        ClientSettings.Builder clientSettings = ClientSettings.withSettings(current.getClientSettings().getSettings());
+        if (patch.reuseAccessTokens() != null) {
+            clientSettings.setting(ClientSettingNames.REUSE_ACCESS_TOKEN, patch.reuseAccessTokens());
+        }
+        if (patch.tokenRequestsPerSecond() != null) {
+            clientSettings.setting(ClientSettingNames.TOKEN_REQUESTS_PER_SECOND, patch.tokenRequestsPerSecond());
+        }
+        if (patch.tokenRequestBurst() != null) {
+            clientSettings.setting(ClientSettingNames.TOKEN_REQUEST_BURST, patch.tokenRequestBurst());
+        }
+        return builder.clientSettings(clientSettings.build()).build();
+    }
+
+    private static String tenantOrDefault(String tenant) {
+        if (tenant == null) {
+            return TenantIds.DEFAULT;
+        }
+        if (!TenantIds.isValid(tenant)) {
+            throw new InvalidTenantException("Tenant " + tenant + " is not a valid tenant id.");
+        }
+        return tenant;
+    }
+
     private ClientDto toDto(RegisteredClient registeredClient) {
         return new ClientDto(
                 registeredClient.getClientId(),
@@ -77,11 +269,60 @@ public class ClientManagementService {
                 registeredClient.getClientAuthenticationMethods().stream().map(ClientAuthenticationMethod::getValue).collect(Collectors.toSet()),
                 registeredClient.getAuthorizationGrantTypes().stream().map(org.springframework.security.oauth2.core.AuthorizationGrantType::getValue).collect(Collectors.toSet()),
                 registeredClient.getRedirectUris(),
-                registeredClient.getScopes()
+                registeredClient.getScopes(),
+                Boolean.TRUE.equals(registeredClient.getClientSettings().getSetting(ClientSettingNames.REUSE_ACCESS_TOKEN)),
+                registeredClient.getClientSettings().getSetting(ClientSettingNames.TOKEN_REQUESTS_PER_SECOND) instanceof Number rate
+                        ? rate.doubleValue() : null,
+                registeredClient.getClientSettings().getSetting(ClientSettingNames.TOKEN_REQUEST_BURST) instanceof Number burst
+                        ? burst.intValue() : null,
+                registeredClient.getClientSettings().getSetting(ClientSettingNames.TENANT) instanceof String tenant
+                        ? tenant : TenantIds.DEFAULT
         );
     }
 
-    private RegisteredClient toRegisteredClient(ClientDto clientDto) {
-        return toRegisteredClient(clientDto, UUID.randomUUID().toString());
+    private ClientDto toDto(ClientSummary summary) {
+        return new ClientDto(
+                summary.clientId(),
+                null, // Never expose the secret
+                summary.clientAuthenticationMethods(),
+                summary.authorizationGrantTypes(),
+                summary.redirectUris(),
+                summary.scopes(),
+                null, // Listings do not load the settings
+                null,
+                null,
+                summary.tenant()
+        );
+    }
+
+    /**
+     * The tenant and client id of the last client of a page; tenant ids hold no colon.
+     */
+    private static String encodeCursor(ClientSummary last) {
+        String key = last.tenant() + ":" + last.clientId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the client a page starts after, or {@code null} for the first page
+     */
+    private static Cursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String key;
+        try {
+            key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid page cursor: " + cursor);
+        }
+        int separator = key.indexOf(':');
+        if (separator < 0 || !TenantIds.isValid(key.substring(0, separator))) {
+            throw new InvalidCursorException("Invalid page cursor: " + cursor);
+        }
+        return new Cursor(key.substring(0, separator), key.substring(separator + 1));
+    }
+
+    private record Cursor(String tenant, String clientId) {
     }
 }
@@ -0,0 +1,30 @@
+package com.daem.application.client.dto;
+
+import java.util.List;
+
+public record BulkImportReportDto(
+        int total,
+        int written,
+        int invalid,
+        int failed,
+        List<Result> results
+) {
+
+    /**
+     * @param index zero-based position of the record in the request stream
+     */
+    public record Result(
+            int index,
+            String clientId,
+            Status status,
+            String message
+    ) {
+    }
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        INVALID,
+        FAILED
+    }
+}
@@ -2,12 +2,25 @@ package com.daem.application.client.dto;
 
 import java.util.Set;
 
+/**
+ * {@code reuseAccessTokens} opts a client credentials client into getting its still-valid access token back
+ * instead of a new one. {@code tokenRequestsPerSecond} and {@code tokenRequestBurst} override the server-wide
+ * token endpoint rate limit for the client when set. The three are {@code null} in listings, which do not load
+ * client settings. {@code tenant} is the tenant the client belongs to with multi-tenancy enabled, which with the
+ * client id identifies it; {@code null} means the default tenant on creation. A replacement or patch cannot move a
+ * client to another tenant, so there it is either {@code null} or the tenant addressed. In a patch, {@code null}
+ * components leave the stored value as it is.
+ */
 public record ClientDto(
         String clientId,
         String clientSecret,
         Set<String> clientAuthenticationMethods,
         Set<String> authorizationGrantTypes,
         Set<String> redirectUris,
-        Set<String> scopes
+        Set<String> scopes,
+        Boolean reuseAccessTokens,
+        Double tokenRequestsPerSecond,
+        Integer tokenRequestBurst,
+        String tenant
 ) {
 }
@@ -0,0 +1,12 @@
+package com.daem.application.client.dto;
+
+import java.util.List;
+
+/**
+ * @param nextCursor opaque cursor for the next page, or {@code null} on the last page
+ */
+public record ClientPageDto(
+        List<ClientDto> items,
+        String nextCursor
+) {
+}
@@ -0,0 +1,26 @@
+package com.daem.application.client.dto;
+
+import java.util.Set;
+
+/**
+ * One client in a bulk import or export stream. {@code clientSecret} is only read on import and never exported;
+ * importing a record without a secret keeps the stored one. Records are matched by {@code tenant} and
+ * {@code clientId}, a {@code null} tenant meaning the default tenant. {@code reuseAccessTokens},
+ * {@code tokenRequestsPerSecond} and {@code tokenRequestBurst} mean what they mean in {@link ClientDto}; on import a
+ * {@code null} keeps the stored value, or leaves a new client with the default.
+ */
+public record ClientRecordDto(
+        String clientId,
+        String clientSecret,
+        String clientName,
+        Set<String> clientAuthenticationMethods,
+        Set<String> authorizationGrantTypes,
+        Set<String> redirectUris,
+        Set<String> postLogoutRedirectUris,
+        Set<String> scopes,
+        Boolean reuseAccessTokens,
+        Double tokenRequestsPerSecond,
+        Integer tokenRequestBurst,
+        String tenant
+) {
+}
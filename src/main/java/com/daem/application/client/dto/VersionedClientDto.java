@@ -0,0 +1,10 @@
+package com.daem.application.client.dto;
+
+/**
+ * @param version version of the stored client, served as its ETag
+ */
+public record VersionedClientDto(
+        ClientDto client,
+        long version
+) {
+}
@@ -0,0 +1,26 @@
+package com.daem.application.client.event;
+
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+/**
+ * Published by {@code ClientManagementService} whenever a registered client is created, updated or deleted,
+ * and by {@code ClientBulkService} for every imported client.
+ *
+ * @param tenant   the tenant of the client, which together with its client id identifies it
+ * @param previous the client as it was before the change, or {@code null} when it was just created
+ */
+public record ClientChangedEvent(
+        Type type,
+        String tenant,
+        String clientId,
+        RegisteredClient previous
+) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        /** Created or updated through a bulk import. */
+        IMPORTED,
+        DELETED
+    }
+}
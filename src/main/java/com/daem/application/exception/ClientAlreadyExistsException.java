@@ -0,0 +1,7 @@
+package com.daem.application.exception;
+
+public class ClientAlreadyExistsException extends RuntimeException {
+    public ClientAlreadyExistsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.daem.application.exception;
+
+public class ClientConcurrentModificationException extends RuntimeException {
+    public ClientConcurrentModificationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.daem.application.exception;
+
+public class ClientTenantMismatchException extends RuntimeException {
+    public ClientTenantMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.daem.application.exception;
+
+public class ClientVersionConflictException extends RuntimeException {
+    public ClientVersionConflictException(String message) {
+        super(message);
+    }
+}
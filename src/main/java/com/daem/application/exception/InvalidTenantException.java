@@ -0,0 +1,7 @@
+package com.daem.application.exception;
+
+public class InvalidTenantException extends RuntimeException {
+    public InvalidTenantException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.daem.domain.client;
+
+/**
+ * Server-side filters for listing registered clients. {@code null} means "no filter".
+ */
+public record ClientQuery(
+        String tenant,
+        String clientIdPrefix,
+        String authorizationGrantType,
+        String scope
+) {
+}
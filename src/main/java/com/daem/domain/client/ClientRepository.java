@@ -1,11 +1,75 @@
 package com.daem.domain.client;
 
+import com.daem.domain.tenant.TenantIds;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
 
+/**
+ * Registered clients, keyed by their tenant and client id: tenants may register the same client id independently.
+ */
 public interface ClientRepository extends RegisteredClientRepository {
+
+    /**
+     * The client with the given client id in the default tenant.
+     */
+    @Override
+    default RegisteredClient findByClientId(String clientId) {
+        return findByClientId(TenantIds.DEFAULT, clientId);
+    }
+
+    RegisteredClient findByClientId(String tenant, String clientId);
     List<RegisteredClient> findAll();
-    void deleteByClientId(String clientId);
+    void deleteByClientId(String tenant, String clientId);
+    List<RegisteredClient> findAllByScope(String scope);
+    List<RegisteredClient> findAllByAuthorizationGrantType(String authorizationGrantType);
+
+    /**
+     * Keyset page of clients ordered by client id and tenant, starting after the client {@code afterClientId} of
+     * {@code afterTenant} (exclusive; both null for the first page).
+     */
+    List<ClientSummary> findSummaries(ClientQuery query, String afterClientId, String afterTenant, int limit);
+
+    /**
+     * Streams every matching client ordered by client id and tenant. Must be consumed and closed inside a transaction.
+     */
+    Stream<ClientSummary> streamSummaries(ClientQuery query);
+
+    /**
+     * Streams every client ordered by client id and tenant. Must be consumed and closed inside a transaction.
+     */
+    Stream<RegisteredClient> streamAll();
+
+    /**
+     * The stored clients of the tenant with the given client ids, keyed by client id, read past any cache. Their rows
+     * stay locked against concurrent writes and deletes until the surrounding transaction ends.
+     */
+    Map<String, RegisteredClient> lockAllByClientId(String tenant, Collection<String> clientIds);
+
+    /**
+     * Inserts or updates (by tenant and client id) all given clients with batched statements. A client without a secret keeps
+     * its stored secret, and existing clients keep their id and issue time.
+     */
+    void upsertAll(List<RegisteredClient> registeredClients);
+
+    /**
+     * The client of the tenant with the given client id and the version of its row, read past any cache; {@code null}
+     * if there is none.
+     */
+    VersionedClient findVersionedByClientId(String tenant, String clientId);
+
+    /**
+     * Writes the client with a single statement. With {@code expectedVersion} {@code null} the client is inserted
+     * unless its client id is taken in its tenant; otherwise the stored client of the tenant with that client id is
+     * overwritten, except for its id and issue time, provided its row is still at {@code expectedVersion}. A client
+     * without a secret keeps its stored secret.
+     *
+     * @return the version of the written row, or empty if nothing was written
+     */
+    OptionalLong upsert(RegisteredClient registeredClient, Long expectedVersion);
 }
@@ -0,0 +1,32 @@
+package com.daem.domain.client;
+
+/**
+ * Names of the client settings this server adds to the standard Spring Authorization Server ones.
+ */
+public final class ClientSettingNames {
+
+    /**
+     * {@code Boolean}: a client credentials request is answered with the client's still-valid access token for
+     * the same scopes instead of a new one.
+     */
+    public static final String REUSE_ACCESS_TOKEN = "settings.client.reuse-access-token";
+
+    /**
+     * {@code Number}: sustained token requests per second the client may send; zero or less means unlimited.
+     */
+    public static final String TOKEN_REQUESTS_PER_SECOND = "settings.client.token-requests-per-second";
+
+    /**
+     * {@code Number}: token requests the client may send at once before its rate applies.
+     */
+    public static final String TOKEN_REQUEST_BURST = "settings.client.token-request-burst";
+
+    /**
+     * {@code String}: the tenant the client belongs to with multi-tenancy enabled; clients without it belong to the
+     * default tenant.
+     */
+    public static final String TENANT = "settings.client.tenant";
+
+    private ClientSettingNames() {
+    }
+}
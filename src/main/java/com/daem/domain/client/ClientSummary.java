@@ -0,0 +1,18 @@
+package com.daem.domain.client;
+
+import java.util.Set;
+
+/**
+ * Lightweight listing projection of a registered client; it carries no secret and no settings.
+ */
+public record ClientSummary(
+        String id,
+        String clientId,
+        String tenant,
+        String clientName,
+        Set<String> clientAuthenticationMethods,
+        Set<String> authorizationGrantTypes,
+        Set<String> redirectUris,
+        Set<String> scopes
+) {
+}
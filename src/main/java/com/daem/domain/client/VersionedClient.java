@@ -0,0 +1,12 @@
+package com.daem.domain.client;
+
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+/**
+ * A registered client together with the version of its stored row, for optimistic concurrency on edits.
+ */
+public record VersionedClient(
+        RegisteredClient client,
+        long version
+) {
+}
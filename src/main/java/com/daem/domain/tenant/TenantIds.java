@@ -0,0 +1,27 @@
+package com.daem.domain.tenant;
+
+import java.util.regex.Pattern;
+
+/**
+ * Identifiers of tenants, which name a tenant both as a path segment and as a DNS label of its issuer.
+ */
+public final class TenantIds {
+
+    /**
+     * The tenant of the issuer without a tenant, and of every client and key from before tenants existed.
+     */
+    public static final String DEFAULT = "default";
+
+    private static final Pattern VALID = Pattern.compile("[a-z0-9](?:[a-z0-9-]{0,61}[a-z0-9])?");
+
+    private TenantIds() {
+    }
+
+    /**
+     * @return whether the string may name a tenant: lower-case letters, digits and inner hyphens, at most 63
+     * characters
+     */
+    public static boolean isValid(String tenantId) {
+        return tenantId != null && VALID.matcher(tenantId).matches();
+    }
+}
@@ -0,0 +1,26 @@
+package com.daem.infrastructure.audit;
+
+public enum AuditEventType {
+
+    TOKEN_ISSUED("token_issued"),
+    /** Tokens issued for a {@code refresh_token} grant. */
+    TOKEN_REFRESHED("token_refreshed"),
+    TOKEN_REVOKED("token_revoked"),
+    CLIENT_CREATED("client_created"),
+    CLIENT_UPDATED("client_updated"),
+    CLIENT_IMPORTED("client_imported"),
+    CLIENT_DELETED("client_deleted");
+
+    private final String value;
+
+    AuditEventType(String value) {
+        this.value = value;
+    }
+
+    /**
+     * The name written to the audit file and table.
+     */
+    public String value() {
+        return value;
+    }
+}
@@ -0,0 +1,386 @@
+package com.daem.infrastructure.audit;
+
+import com.daem.infrastructure.persistence.jdbc.AuditEventRow;
+import com.daem.infrastructure.persistence.jdbc.AuditJdbcRepository;
+import com.daem.infrastructure.security.TokenDigests;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records token and client events without doing I/O on the request thread.
+ * <p>
+ * Events go into a ring of preallocated slots. {@link #record} claims the next slot with a compare-and-set and
+ * stores references to values the caller already holds, so it neither locks nor allocates. A background writer
+ * reads the slots in order and writes them in batches as JSON lines to a {@link RotatingAuditFile rotating file}
+ * and, optionally, to {@code oauth2_audit_event}. The costly parts of an event, the token digests and the
+ * {@code sub} and {@code jti} claims of JWTs, are only worked out on the writer. Token values never leave memory.
+ * <p>
+ * When the ring is full the {@code overflow} policy decides between dropping the event at once and waiting up to
+ * {@code block-timeout} for room. A file or database write that fails is logged and counted; its events are not
+ * retried. Published metrics:
+ * <ul>
+ *     <li>{@code daem.oauth2.audit.events}: events by outcome, {@code written} or {@code dropped}</li>
+ *     <li>{@code daem.oauth2.audit.write_failures}: batches that could not be written, by target ({@code file} or
+ *     {@code database})</li>
+ *     <li>{@code daem.oauth2.audit.queued}: events waiting for the writer</li>
+ *     <li>{@code daem.oauth2.audit.flush}: time to write one batch</li>
+ * </ul>
+ */
+@Component
+public class AuditLog implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final long SHORT_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final AuditProperties properties;
+    private final AuditJdbcRepository auditJdbcRepository;
+    private final Slot[] slots;
+    private final int mask;
+    private final int batchSize;
+    private final long blockTimeoutNanos;
+    // Next sequence to hand out, and first sequence the writer has not consumed; slots below it are free
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter fileFailures;
+    private final Counter databaseFailures;
+    private final Timer flushTimer;
+
+    // Writer thread only
+    private final RotatingAuditFile file;
+    private final ByteArrayOutputStream lines = new ByteArrayOutputStream();
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    public AuditLog(AuditProperties properties, AuditJdbcRepository auditJdbcRepository, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.auditJdbcRepository = auditJdbcRepository;
+        int capacity = Integer.highestOneBit(Math.max(2, properties.capacity() - 1)) << 1;
+        this.slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot(i - capacity);
+        }
+        this.mask = capacity - 1;
+        this.batchSize = Math.min(properties.batchSize(), capacity);
+        this.blockTimeoutNanos = properties.blockTimeout().toNanos();
+        this.file = new RotatingAuditFile(properties);
+        this.written = eventCounter(meterRegistry, "written");
+        this.dropped = eventCounter(meterRegistry, "dropped");
+        this.fileFailures = failureCounter(meterRegistry, "file");
+        this.databaseFailures = failureCounter(meterRegistry, "database");
+        this.flushTimer = Timer.builder("daem.oauth2.audit.flush")
+                .description("Time to write one batch of audit events")
+                .register(meterRegistry);
+        Gauge.builder("daem.oauth2.audit.queued", this, auditLog -> auditLog.claimed.get() - auditLog.consumed.get())
+                .description("Audit events waiting for the writer")
+                .register(meterRegistry);
+    }
+
+    private static Counter eventCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("daem.oauth2.audit.events")
+                .description("Audit events by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter failureCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("daem.oauth2.audit.write_failures")
+                .description("Batches of audit events that could not be written")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!properties.enabled() || writer != null) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::runWriter, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops the writer and writes whatever is still buffered.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = writer;
+        }
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        thread.join(properties.flushInterval().toMillis() * 10);
+        if (!thread.isAlive()) {
+            drain();
+            closeFile();
+        }
+    }
+
+    /**
+     * Records an event. Tokens are passed by value, and only their digests and claims are written.
+     *
+     * @param principalName the resource owner or, for client changes, the administrator; for tokens that are JWTs
+     *                      it may be {@code null} and is then taken from the {@code sub} claim of the access token
+     */
+    public void record(AuditEventType type, String clientId, String principalName, String grantType,
+                       String token, String refreshToken) {
+        if (!properties.enabled()) {
+            return;
+        }
+        long sequence = claim();
+        if (sequence < 0) {
+            dropped.increment();
+            return;
+        }
+        Slot slot = slots[(int) (sequence & mask)];
+        slot.occurredAtMillis = System.currentTimeMillis();
+        slot.type = type;
+        slot.clientId = clientId;
+        slot.principalName = principalName;
+        slot.grantType = grantType;
+        slot.token = token;
+        slot.refreshToken = refreshToken;
+        slot.published = sequence;
+        Thread thread = writer;
+        if (thread != null && sequence - consumed.get() == batchSize - 1) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * @return the claimed sequence, or {@code -1} if the ring stayed full
+     */
+    private long claim() {
+        long deadline = 0;
+        while (true) {
+            long sequence = claimed.get();
+            if (sequence - consumed.get() >= slots.length) {
+                if (properties.overflow() == AuditProperties.OverflowPolicy.DROP) {
+                    return -1;
+                }
+                long now = System.nanoTime();
+                if (deadline == 0) {
+                    deadline = now + blockTimeoutNanos;
+                } else if (now - deadline >= 0) {
+                    return -1;
+                }
+                Thread thread = writer;
+                if (thread != null) {
+                    LockSupport.unpark(thread);
+                }
+                // Parked rather than spinning, so that waiting producers leave the CPU to the writer
+                LockSupport.parkNanos(this, SHORT_PARK_NANOS);
+            } else if (claimed.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+    }
+
+    private void runWriter() {
+        long flushIntervalNanos = properties.flushInterval().toNanos();
+        boolean progressed = true;
+        while (running) {
+            if (claimed.get() - consumed.get() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            } else if (!progressed) {
+                // The next slot is claimed but not yet published; give its producer the CPU
+                LockSupport.parkNanos(this, SHORT_PARK_NANOS);
+            }
+            progressed = drain() > 0;
+            try {
+                file.forceIfDue();
+            } catch (IOException e) {
+                log.warn("Forcing the audit file {} to disk failed", properties.file(), e);
+            }
+        }
+        drain();
+        closeFile();
+    }
+
+    /**
+     * Writes every published event, in batches.
+     *
+     * @return the number of events written
+     */
+    private int drain() {
+        int drained = 0;
+        while (true) {
+            List<AuditEventRow> rows = new ArrayList<>(batchSize);
+            long next = consumed.get();
+            while (rows.size() < batchSize) {
+                Slot slot = slots[(int) (next & mask)];
+                if (slot.published != next) {
+                    // Not yet published, or still being filled in by a producer that claimed it
+                    break;
+                }
+                rows.add(toRow(slot));
+                slot.clear();
+                next++;
+            }
+            if (rows.isEmpty()) {
+                return drained;
+            }
+            drained += rows.size();
+            // The slots are free again before any I/O, so a slow disk only delays the writer, not the requests
+            consumed.set(next);
+            long start = System.nanoTime();
+            write(rows);
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void write(List<AuditEventRow> rows) {
+        try {
+            lines.reset();
+            for (AuditEventRow row : rows) {
+                writeLine(row);
+            }
+            file.write(ByteBuffer.wrap(lines.toByteArray()));
+            written.increment(rows.size());
+        } catch (IOException e) {
+            fileFailures.increment();
+            log.warn("Writing {} audit events to {} failed", rows.size(), properties.file(), e);
+        }
+        if (properties.database()) {
+            try {
+                auditJdbcRepository.batchInsert(rows);
+            } catch (RuntimeException e) {
+                databaseFailures.increment();
+                log.warn("Inserting {} audit events failed", rows.size(), e);
+            }
+        }
+    }
+
+    private void writeLine(AuditEventRow row) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(lines)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.writeStartObject();
+            generator.writeStringField("time", row.occurredAt().toString());
+            generator.writeStringField("type", row.type());
+            writeOptional(generator, "client_id", row.clientId());
+            writeOptional(generator, "principal", row.principalName());
+            writeOptional(generator, "grant_type", row.grantType());
+            writeOptional(generator, "token_id", row.tokenId());
+            writeOptional(generator, "token_sha256", row.tokenHash());
+            writeOptional(generator, "refresh_token_sha256", row.refreshTokenHash());
+            generator.writeEndObject();
+        }
+        lines.write('\n');
+    }
+
+    private static void writeOptional(JsonGenerator generator, String name, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        }
+    }
+
+    private static AuditEventRow toRow(Slot slot) {
+        String principalName = slot.principalName;
+        String tokenId = null;
+        if (slot.token != null) {
+            JsonNode claims = jwtClaims(slot.token);
+            if (claims != null) {
+                tokenId = claims.path("jti").textValue();
+                if (principalName == null) {
+                    principalName = claims.path("sub").textValue();
+                }
+            }
+        }
+        return new AuditEventRow(
+                Instant.ofEpochMilli(slot.occurredAtMillis),
+                slot.type.value(),
+                slot.clientId,
+                principalName,
+                slot.grantType,
+                tokenId,
+                slot.token != null ? TokenDigests.sha256Hex(slot.token) : null,
+                slot.refreshToken != null ? TokenDigests.sha256Hex(slot.refreshToken) : null);
+    }
+
+    /**
+     * The claims of a JWT, without verifying it; {@code null} for any other kind of token.
+     */
+    private static JsonNode jwtClaims(String token) {
+        int payloadStart = token.indexOf('.') + 1;
+        int payloadEnd = token.indexOf('.', payloadStart);
+        if (payloadStart == 0 || payloadEnd < 0) {
+            return null;
+        }
+        try {
+            JsonNode claims = OBJECT_MAPPER.readTree(Base64.getUrlDecoder().decode(token.substring(payloadStart, payloadEnd)));
+            return claims.isObject() ? claims : null;
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void closeFile() {
+        try {
+            file.close();
+        } catch (IOException e) {
+            log.warn("Closing the audit file {} failed", properties.file(), e);
+        }
+    }
+
+    /**
+     * One preallocated event. Written by the producer that claimed it, then handed over to the writer by the
+     * volatile write of {@link #published}.
+     */
+    private static final class Slot {
+
+        private long occurredAtMillis;
+        private AuditEventType type;
+        private String clientId;
+        private String principalName;
+        private String grantType;
+        private String token;
+        private String refreshToken;
+        private volatile long published;
+
+        private Slot(long published) {
+            this.published = published;
+        }
+
+        private void clear() {
+            type = null;
+            clientId = null;
+            principalName = null;
+            grantType = null;
+            token = null;
+            refreshToken = null;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.daem.infrastructure.audit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * @param enabled       whether token and client events are audited at all
+ * @param capacity      events the ring buffer holds before the overflow policy applies; rounded up to a power of two
+ * @param batchSize     events written per batch; a batch this large wakes the writer early
+ * @param flushInterval longest time an event waits in the buffer while the writer keeps up
+ * @param overflow      what recording an event does when the buffer is full
+ * @param blockTimeout  with the {@code BLOCK} policy, how long recording waits for room before the event is dropped
+ * @param file          the audit file; rotated files get the suffixes {@code .1} (newest) to {@code .<max-files>}
+ * @param maxFileSize   size at which the file is rotated
+ * @param maxFiles      rotated files kept
+ * @param fsync         when written batches are forced to disk
+ * @param fsyncInterval with the {@code INTERVAL} policy, the longest time written events may stay unforced
+ * @param database      whether events are also inserted into {@code oauth2_audit_event}
+ */
+@ConfigurationProperties(prefix = "daem.oauth2.audit")
+public record AuditProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("16384") int capacity,
+        @DefaultValue("512") int batchSize,
+        @DefaultValue("200ms") Duration flushInterval,
+        @DefaultValue("DROP") OverflowPolicy overflow,
+        @DefaultValue("5ms") Duration blockTimeout,
+        @DefaultValue("logs/audit.log") Path file,
+        @DefaultValue("100MB") DataSize maxFileSize,
+        @DefaultValue("10") int maxFiles,
+        @DefaultValue("INTERVAL") FsyncPolicy fsync,
+        @DefaultValue("1s") Duration fsyncInterval,
+        @DefaultValue("false") boolean database
+) {
+
+    public enum OverflowPolicy {
+        /** The event is dropped and counted, so the request never waits for the audit log. */
+        DROP,
+        /** The request waits up to {@code block-timeout} for room, then the event is dropped. */
+        BLOCK
+    }
+
+    public enum FsyncPolicy {
+        /** After every written batch. */
+        BATCH,
+        /** At most {@code fsync-interval} after a batch was written. */
+        INTERVAL,
+        /** Left to the operating system. */
+        NEVER
+    }
+}
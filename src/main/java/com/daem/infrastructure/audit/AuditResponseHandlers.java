@@ -0,0 +1,56 @@
+package com.daem.infrastructure.audit;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2AccessTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenRevocationAuthenticationToken;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+
+/**
+ * Success handlers for the token and revocation endpoints that record an {@link AuditLog} event once the
+ * response is handled.
+ */
+public final class AuditResponseHandlers {
+
+    private AuditResponseHandlers() {
+    }
+
+    /**
+     * Records {@link AuditEventType#TOKEN_REFRESHED} for the refresh token grant and
+     * {@link AuditEventType#TOKEN_ISSUED} for any other, after {@code delegate} has written the token response.
+     */
+    public static AuthenticationSuccessHandler accessTokenResponseHandler(AuditLog auditLog,
+                                                                          AuthenticationSuccessHandler delegate) {
+        return (request, response, authentication) -> {
+            delegate.onAuthenticationSuccess(request, response, authentication);
+            OAuth2AccessTokenAuthenticationToken tokens = (OAuth2AccessTokenAuthenticationToken) authentication;
+            String grantType = request.getParameter(OAuth2ParameterNames.GRANT_TYPE);
+            OAuth2RefreshToken refreshToken = tokens.getRefreshToken();
+            auditLog.record(
+                    AuthorizationGrantType.REFRESH_TOKEN.getValue().equals(grantType)
+                            ? AuditEventType.TOKEN_REFRESHED : AuditEventType.TOKEN_ISSUED,
+                    tokens.getRegisteredClient().getClientId(),
+                    null,
+                    grantType,
+                    tokens.getAccessToken().getTokenValue(),
+                    refreshToken != null ? refreshToken.getTokenValue() : null);
+        };
+    }
+
+    /**
+     * Records {@link AuditEventType#TOKEN_REVOKED} and answers with 200, as the default handler does. Revocation
+     * requests for unknown tokens succeed as well (RFC 7009, section 2.2) and are recorded too.
+     */
+    public static AuthenticationSuccessHandler revocationResponseHandler(AuditLog auditLog) {
+        return (request, response, authentication) -> {
+            OAuth2TokenRevocationAuthenticationToken revocation = (OAuth2TokenRevocationAuthenticationToken) authentication;
+            String clientId = revocation.getPrincipal() instanceof OAuth2ClientAuthenticationToken client
+                    && client.getRegisteredClient() != null ? client.getRegisteredClient().getClientId() : null;
+            auditLog.record(AuditEventType.TOKEN_REVOKED, clientId, null, null, revocation.getToken(), null);
+            response.setStatus(HttpStatus.OK.value());
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package com.daem.infrastructure.audit;
+
+import com.daem.application.client.event.ClientChangedEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Records a client event in the {@link AuditLog} once a change to a registered client has been committed, with the
+ * signed-in administrator as principal.
+ */
+@Component
+public class ClientChangeAuditor {
+
+    private final AuditLog auditLog;
+
+    public ClientChangeAuditor(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClientChanged(ClientChangedEvent event) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        auditLog.record(type(event.type()), event.clientId(),
+                authentication != null ? authentication.getName() : null, null, null, null);
+    }
+
+    private static AuditEventType type(ClientChangedEvent.Type type) {
+        return switch (type) {
+            case CREATED -> AuditEventType.CLIENT_CREATED;
+            case UPDATED -> AuditEventType.CLIENT_UPDATED;
+            case IMPORTED -> AuditEventType.CLIENT_IMPORTED;
+            case DELETED -> AuditEventType.CLIENT_DELETED;
+        };
+    }
+}
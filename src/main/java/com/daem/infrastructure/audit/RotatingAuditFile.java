@@ -0,0 +1,110 @@
+package com.daem.infrastructure.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An append-only file that is renamed to {@code <file>.1} once it would grow beyond the size limit, shifting older
+ * rotations up by one and deleting the one beyond {@code max-files}. Only used by the audit writer thread.
+ */
+class RotatingAuditFile implements AutoCloseable {
+
+    private final Path file;
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final AuditProperties.FsyncPolicy fsync;
+    private final long fsyncIntervalNanos;
+
+    private FileChannel channel;
+    private long size;
+    private boolean unforced;
+    private long lastForceNanos = System.nanoTime();
+
+    RotatingAuditFile(AuditProperties properties) {
+        this.file = properties.file().toAbsolutePath();
+        this.maxFileSize = properties.maxFileSize().toBytes();
+        this.maxFiles = properties.maxFiles();
+        this.fsync = properties.fsync();
+        this.fsyncIntervalNanos = properties.fsyncInterval().toNanos();
+    }
+
+    /**
+     * Appends one batch of complete lines, so that a batch never straddles two files.
+     */
+    void write(ByteBuffer lines) throws IOException {
+        if (channel == null) {
+            open();
+        }
+        if (size > 0 && size + lines.remaining() > maxFileSize) {
+            rotate();
+        }
+        while (lines.hasRemaining()) {
+            size += channel.write(lines);
+        }
+        unforced = true;
+        if (fsync == AuditProperties.FsyncPolicy.BATCH) {
+            force();
+        }
+    }
+
+    /**
+     * Forces written lines to disk when the fsync policy says they are due; called by the writer when idle too.
+     */
+    void forceIfDue() throws IOException {
+        if (unforced && fsync == AuditProperties.FsyncPolicy.INTERVAL && System.nanoTime() - lastForceNanos >= fsyncIntervalNanos) {
+            force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            if (unforced && fsync != AuditProperties.FsyncPolicy.NEVER) {
+                force();
+            }
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void open() throws IOException {
+        Path directory = file.getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        size = channel.size();
+    }
+
+    private void rotate() throws IOException {
+        close();
+        Files.deleteIfExists(rotated(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path source = rotated(i);
+            if (Files.exists(source)) {
+                Files.move(source, rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxFiles > 0) {
+            Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(file);
+        }
+        open();
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private void force() throws IOException {
+        channel.force(false);
+        unforced = false;
+        lastForceNanos = System.nanoTime();
+    }
+}
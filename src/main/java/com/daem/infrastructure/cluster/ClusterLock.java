@@ -0,0 +1,145 @@
+package com.daem.infrastructure.cluster;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs housekeeping tasks, and writes that must be serialized, on at most one node of the cluster at a time.
+ * <p>
+ * On PostgreSQL this is a transaction-scoped advisory lock, released automatically on commit, rollback or a lost
+ * connection. Other databases only get the in-process lock, which is enough for a single node.
+ */
+@Component
+public class ClusterLock {
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, ReentrantLock> localLocks = new ConcurrentHashMap<>();
+
+    private volatile Boolean postgres;
+
+    public ClusterLock(DataSource dataSource, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Runs the task in a new transaction, unless another thread or node currently holds the lock of that name.
+     *
+     * @return {@code true} if the task ran, {@code false} if the lock was held elsewhere
+     */
+    public boolean tryRunExclusively(String lockName, Runnable task) {
+        ReentrantLock localLock = localLocks.computeIfAbsent(lockName, name -> new ReentrantLock());
+        if (!localLock.tryLock()) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (isPostgres() && !Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                        "SELECT pg_try_advisory_xact_lock(hashtext(?))", Boolean.class, lockName))) {
+                    return false;
+                }
+                task.run();
+                return true;
+            }));
+        } finally {
+            localLock.unlock();
+        }
+    }
+
+    /**
+     * Runs the task in a new transaction, waiting for the lock of that name first. The lock is held until the
+     * transaction has committed, so tasks run under the same lock commit in the order they ran.
+     */
+    public void runExclusively(String lockName, Runnable task) {
+        ReentrantLock localLock = localLocks.computeIfAbsent(lockName, name -> new ReentrantLock());
+        localLock.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (isPostgres()) {
+                    jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(hashtext(?))::text", String.class, lockName);
+                }
+                task.run();
+            });
+        } finally {
+            localLock.unlock();
+        }
+    }
+
+    /**
+     * Runs the task unless another thread or node currently holds the lock of that name. Unlike
+     * {@link #tryRunExclusively}, the lock is a session-level advisory lock on a connection of its own, so it is
+     * held across the task's transactions; the task manages its own transactions.
+     *
+     * @return {@code true} if the task ran, {@code false} if the lock was held elsewhere
+     */
+    public boolean tryRunAsLeader(String lockName, Runnable task) {
+        ReentrantLock localLock = localLocks.computeIfAbsent(lockName, name -> new ReentrantLock());
+        if (!localLock.tryLock()) {
+            return false;
+        }
+        try {
+            if (!isPostgres()) {
+                task.run();
+                return true;
+            }
+            try (Connection connection = dataSource.getConnection()) {
+                if (!sessionLock(connection, "SELECT pg_try_advisory_lock(hashtext(?))", lockName)) {
+                    return false;
+                }
+                try {
+                    task.run();
+                    return true;
+                } finally {
+                    sessionLock(connection, "SELECT pg_advisory_unlock(hashtext(?))", lockName);
+                }
+            } catch (SQLException e) {
+                throw new DataAccessResourceFailureException("Could not use advisory lock " + lockName, e);
+            }
+        } finally {
+            localLock.unlock();
+        }
+    }
+
+    private static boolean sessionLock(Connection connection, String sql, String lockName) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, lockName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            try {
+                String productName = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+                result = "PostgreSQL".equals(productName);
+            } catch (MetaDataAccessException e) {
+                result = false;
+            }
+            postgres = result;
+        }
+        return result;
+    }
+}
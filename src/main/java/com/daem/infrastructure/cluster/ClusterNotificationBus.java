@@ -0,0 +1,15 @@
+package com.daem.infrastructure.cluster;
+
+/**
+ * Broadcasts small invalidation messages to every node of the cluster, including the sender.
+ */
+public interface ClusterNotificationBus {
+
+    /**
+     * Publishes a message on the given channel. When called inside a transaction the message is only
+     * delivered once that transaction commits.
+     */
+    void publish(String channel, String payload);
+
+    void subscribe(String channel, ClusterNotificationListener listener);
+}
@@ -0,0 +1,12 @@
+package com.daem.infrastructure.cluster;
+
+public interface ClusterNotificationListener {
+
+    void onNotification(String payload);
+
+    /**
+     * Called after the bus had to re-establish its connection, meaning notifications may have been missed.
+     */
+    default void onReconnect() {
+    }
+}
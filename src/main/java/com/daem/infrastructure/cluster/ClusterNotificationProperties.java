@@ -0,0 +1,14 @@
+package com.daem.infrastructure.cluster;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "daem.oauth2.cluster.notifications")
+public record ClusterNotificationProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("500ms") Duration pollTimeout,
+        @DefaultValue("5s") Duration reconnectDelay
+) {
+}
@@ -0,0 +1,155 @@
+package com.daem.infrastructure.cluster;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * {@link ClusterNotificationBus} backed by PostgreSQL {@code LISTEN}/{@code NOTIFY}.
+ * <p>
+ * Publishing runs {@code pg_notify} on the caller's connection, so PostgreSQL itself holds the message back
+ * until the surrounding transaction commits. A single daemon thread keeps one connection listening on all
+ * subscribed channels and dispatches incoming payloads to the local listeners.
+ */
+@Component
+public class PostgresNotificationBus implements ClusterNotificationBus, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresNotificationBus.class);
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ClusterNotificationProperties properties;
+    private final Map<String, List<ClusterNotificationListener>> listeners = new ConcurrentHashMap<>();
+    private final Queue<String> pendingChannels = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public PostgresNotificationBus(DataSource dataSource, JdbcTemplate jdbcTemplate, ClusterNotificationProperties properties) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    @Override
+    public void publish(String channel, String payload) {
+        if (!properties.enabled()) {
+            return;
+        }
+        jdbcTemplate.queryForRowSet("SELECT pg_notify(?, ?)", channel, payload);
+    }
+
+    @Override
+    public void subscribe(String channel, ClusterNotificationListener listener) {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid notification channel name: " + channel);
+        }
+        listeners.computeIfAbsent(channel, key -> {
+            pendingChannels.add(key);
+            return new CopyOnWriteArrayList<>();
+        }).add(listener);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!properties.enabled() || running) {
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listenLoop, "pg-notification-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public synchronized void destroy() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listenLoop() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                pendingChannels.clear();
+                for (String channel : listeners.keySet()) {
+                    listen(connection, channel);
+                }
+                if (reconnecting) {
+                    listeners.values().forEach(list -> list.forEach(this::notifyReconnect));
+                }
+                reconnecting = true;
+                while (running) {
+                    String channel;
+                    while ((channel = pendingChannels.poll()) != null) {
+                        listen(connection, channel);
+                    }
+                    PGNotification[] notifications = pgConnection.getNotifications((int) properties.pollTimeout().toMillis());
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification.getName(), notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException ex) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Lost cluster notification connection, retrying in {}", properties.reconnectDelay(), ex);
+                try {
+                    Thread.sleep(properties.reconnectDelay().toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void listen(Connection connection, String channel) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + channel);
+        }
+    }
+
+    private void dispatch(String channel, String payload) {
+        for (ClusterNotificationListener listener : listeners.getOrDefault(channel, List.of())) {
+            try {
+                listener.onNotification(payload);
+            } catch (RuntimeException ex) {
+                log.warn("Cluster notification listener failed on channel {}", channel, ex);
+            }
+        }
+    }
+
+    private void notifyReconnect(ClusterNotificationListener listener) {
+        try {
+            listener.onReconnect();
+        } catch (RuntimeException ex) {
+            log.warn("Cluster notification listener failed on reconnect", ex);
+        }
+    }
+}
@@ -1,29 +1,86 @@
 package com.daem.infrastructure.config;
 
 import com.daem.domain.client.ClientRepository;
+import com.daem.infrastructure.audit.AuditLog;
+import com.daem.infrastructure.audit.AuditProperties;
+import com.daem.infrastructure.audit.AuditResponseHandlers;
+import com.daem.infrastructure.cluster.ClusterNotificationBus;
+import com.daem.infrastructure.metrics.MeteredAuthorizationService;
+import com.daem.infrastructure.metrics.MetricsProperties;
+import com.daem.infrastructure.metrics.OAuth2EndpointMetricsFilter;
+import com.daem.infrastructure.persistence.adapter.OAuth2AuthorizationConsentServiceAdapter;
+import com.daem.infrastructure.persistence.adapter.OAuth2AuthorizationServiceAdapter;
 import com.daem.infrastructure.persistence.adapter.RegisteredClientRepositoryAdapter;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.source.JWKSource;
-import com.nimbusds.jose.proc.SecurityContext;
+import com.daem.infrastructure.persistence.cache.CachingAuthorizationConsentService;
+import com.daem.infrastructure.persistence.cache.CachingClientRepository;
+import com.daem.infrastructure.persistence.jpa.repository.AuthorizationConsentJpaRepository;
+import com.daem.infrastructure.persistence.jpa.repository.AuthorizationJpaRepository;
+import com.daem.infrastructure.persistence.purge.PurgeProperties;
+import com.daem.infrastructure.persistence.tiered.AuthorizationTieringProperties;
+import com.daem.infrastructure.persistence.tiered.ShortLivedAuthorizationStore;
+import com.daem.infrastructure.persistence.tiered.TieredAuthorizationService;
+import com.daem.infrastructure.persistence.writebehind.AuthorizationWriteBuffer;
+import com.daem.infrastructure.persistence.writebehind.WriteBehindAuthorizationService;
+import com.daem.infrastructure.persistence.writebehind.WriteBehindProperties;
+import com.daem.infrastructure.security.admission.AdmissionControlProperties;
+import com.daem.infrastructure.security.admission.ClientRateLimiter;
+import com.daem.infrastructure.security.admission.SourceRateLimiter;
+import com.daem.infrastructure.security.admission.TokenEndpointAdmissionFilter;
+import com.daem.infrastructure.security.device.DeviceCodeIndex;
+import com.daem.infrastructure.security.device.DeviceCodePollingAuthenticationProvider;
+import com.daem.infrastructure.security.device.DeviceCodeTrackingAuthorizationService;
+import com.daem.infrastructure.security.device.DevicePollingProperties;
+import com.daem.infrastructure.security.introspection.CachingTokenIntrospectionAuthenticationProvider;
+import com.daem.infrastructure.security.introspection.IntrospectionCacheProperties;
+import com.daem.infrastructure.security.introspection.IntrospectionEvictingAuthorizationService;
+import com.daem.infrastructure.security.introspection.IntrospectionResponseHandler;
+import com.daem.infrastructure.security.introspection.TokenIntrospectionCache;
+import com.daem.infrastructure.security.key.SigningKeyJwtEncoder;
+import com.daem.infrastructure.security.key.SigningKeyManager;
+import com.daem.infrastructure.security.key.SigningKeyProperties;
+import com.daem.infrastructure.security.reuse.ReusingClientCredentialsAuthenticationProvider;
+import com.daem.infrastructure.security.reuse.TokenReuseProperties;
+import com.daem.infrastructure.security.revocation.RevocationFeed;
+import com.daem.infrastructure.security.revocation.RevocationFeedEndpointFilter;
+import com.daem.infrastructure.security.revocation.RevocationFeedProperties;
+import com.daem.infrastructure.security.revocation.RevocationRecordingAuthorizationService;
+import com.daem.infrastructure.security.session.StatelessSessionSupport;
+import com.daem.infrastructure.tenant.MultiTenancyProperties;
+import com.daem.infrastructure.tenant.TenantFilter;
+import com.daem.infrastructure.tenant.TenantRegistry;
+import com.daem.infrastructure.tenant.TenantResolver;
+import com.daem.infrastructure.tenant.TenantScopedAuthorizationService;
+import com.daem.infrastructure.tenant.TenantScopedClientRepository;
+import com.daem.infrastructure.web.MetadataCacheProperties;
+import com.daem.infrastructure.web.MetadataResponseCacheFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsentService;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientCredentialsAuthenticationProvider;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2DeviceCodeAuthenticationProvider;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenIntrospectionAuthenticationProvider;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.config.annotation.web.configuration.OAuth2AuthorizationServerConfiguration;
 import org.springframework.security.oauth2.server.authorization.config.annotation.web.configurers.OAuth2AuthorizationServerConfigurer;
 import org.springframework.security.oauth2.server.authorization.settings.AuthorizationServerSettings;
+import org.springframework.security.oauth2.server.authorization.web.authentication.OAuth2AccessTokenResponseAuthenticationSuccessHandler;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.header.HeaderWriterFilter;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
 import org.springframework.context.support.ResourceBundleMessageSource;
 import org.springframework.security.web.authentication.LoginUrlAuthenticationEntryPoint;
+import org.springframework.util.Assert;
 
-import java.security.KeyPair;
-import java.security.KeyPairGenerator;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
-import java.util.UUID;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
 
 @Configuration
 public class AuthorizationServerConfig {
@@ -38,56 +95,235 @@ public class AuthorizationServerConfig {
 
     @Bean
     @Order(1)
-    public SecurityFilterChain authorizationServerSecurityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain authorizationServerSecurityFilterChain(HttpSecurity http,
+                                                                      SigningKeyManager signingKeyManager,
+                                                                      SigningKeyProperties signingKeyProperties,
+                                                                      MetadataCacheProperties metadataCacheProperties,
+                                                                      AuthorizationServerSettings authorizationServerSettings,
+                                                                      MetricsProperties metricsProperties,
+                                                                      MeterRegistry meterRegistry,
+                                                                      IntrospectionCacheProperties introspectionCacheProperties,
+                                                                      TokenIntrospectionCache tokenIntrospectionCache,
+                                                                      RegisteredClientRepository registeredClientRepository,
+                                                                      OAuth2AuthorizationService authorizationService,
+                                                                      RevocationFeedProperties revocationFeedProperties,
+                                                                      RevocationFeed revocationFeed,
+                                                                      TokenReuseProperties tokenReuseProperties,
+                                                                      StatelessSessionSupport statelessSessionSupport,
+                                                                      AdmissionControlProperties admissionControlProperties,
+                                                                      DevicePollingProperties devicePollingProperties,
+                                                                      DeviceCodeIndex deviceCodeIndex,
+                                                                      AuditProperties auditProperties,
+                                                                      AuditLog auditLog,
+                                                                      TenantResolver tenantResolver,
+                                                                      TenantRegistry tenantRegistry) throws Exception {
         OAuth2AuthorizationServerConfiguration.applyDefaultSecurity(http);
-        http.getConfigurer(OAuth2AuthorizationServerConfigurer.class)
-                .oidc(oidc -> {}); // Enable OpenID Connect 1.0
+        statelessSessionSupport.apply(http);
+        OAuth2AuthorizationServerConfigurer authorizationServerConfigurer = http.getConfigurer(OAuth2AuthorizationServerConfigurer.class);
+        RevocationFeedEndpointFilter revocationFeedEndpointFilter = revocationFeedProperties.enabled()
+                ? new RevocationFeedEndpointFilter(revocationFeed, revocationFeedProperties.pollInterval()) : null;
+        authorizationServerConfigurer
+                .tokenEndpoint(token -> {
+                    token.authenticationProviders(providers -> providers.replaceAll(provider -> {
+                        if (tokenReuseProperties.enabled() && provider instanceof OAuth2ClientCredentialsAuthenticationProvider) {
+                            return new ReusingClientCredentialsAuthenticationProvider(provider, authorizationService,
+                                    tokenReuseProperties, meterRegistry);
+                        }
+                        if (devicePollingProperties.enabled() && provider instanceof OAuth2DeviceCodeAuthenticationProvider) {
+                            return new DeviceCodePollingAuthenticationProvider(provider, authorizationService, deviceCodeIndex,
+                                    devicePollingProperties, meterRegistry);
+                        }
+                        return provider;
+                    }));
+                    if (auditProperties.enabled()) {
+                        token.accessTokenResponseHandler(AuditResponseHandlers.accessTokenResponseHandler(auditLog,
+                                new OAuth2AccessTokenResponseAuthenticationSuccessHandler()));
+                    }
+                })
+                .tokenRevocationEndpoint(revocation -> {
+                    if (auditProperties.enabled()) {
+                        revocation.revocationResponseHandler(AuditResponseHandlers.revocationResponseHandler(auditLog));
+                    }
+                })
+                .tokenIntrospectionEndpoint(introspection -> {
+                    introspection.introspectionResponseHandler(
+                            OAuth2EndpointMetricsFilter.introspectionResponseHandler(new IntrospectionResponseHandler()));
+                    if (introspectionCacheProperties.enabled()) {
+                        AuthenticationProvider cachingProvider = new CachingTokenIntrospectionAuthenticationProvider(
+                                registeredClientRepository, authorizationService, tokenIntrospectionCache, tenantResolver);
+                        introspection.authenticationProviders(providers -> {
+                            providers.removeIf(OAuth2TokenIntrospectionAuthenticationProvider.class::isInstance);
+                            providers.add(0, cachingProvider);
+                        });
+                    }
+                })
+                .authorizationServerMetadataEndpoint(metadata -> metadata
+                        .authorizationServerMetadataCustomizer(configuration -> configuration
+                                .claims(claims -> advertiseRevocationFeed(claims, revocationFeedEndpointFilter, tenantResolver))))
+                .oidc(oidc -> oidc // Enable OpenID Connect 1.0
+                        .providerConfigurationEndpoint(providerConfiguration -> providerConfiguration
+                                .providerConfigurationCustomizer(configuration -> configuration
+                                        .idTokenSigningAlgorithms(algorithms -> {
+                                            algorithms.clear();
+                                            algorithms.addAll(signingKeyManager.publishedAlgorithms());
+                                        })
+                                        .claims(claims -> advertiseRevocationFeed(claims, revocationFeedEndpointFilter, tenantResolver)))));
+        if (revocationFeedEndpointFilter != null) {
+            // Not a standard endpoint, so it has to be added to the chain's matcher as well
+            http.securityMatcher(new OrRequestMatcher(authorizationServerConfigurer.getEndpointsMatcher(),
+                    revocationFeedEndpointFilter.getRequestMatcher()));
+            http.addFilterAfter(revocationFeedEndpointFilter, HeaderWriterFilter.class);
+        }
         http
                 .exceptionHandling(exceptions -> exceptions
                         .authenticationEntryPoint(new LoginUrlAuthenticationEntryPoint("/login"))
                 )
                 .oauth2ResourceServer(resourceServer -> resourceServer
                         .jwt(jwt -> {}));
+        if (tenantResolver.isEnabled()) {
+            // Ahead of everything that loads signing keys or clients for the tenant
+            http.addFilterAfter(new TenantFilter(tenantResolver, tenantRegistry), HeaderWriterFilter.class);
+        }
+        if (metadataCacheProperties.enabled()) {
+            http.addFilterAfter(metadataResponseCacheFilter(signingKeyManager, signingKeyProperties,
+                    metadataCacheProperties, authorizationServerSettings), HeaderWriterFilter.class);
+        }
+        http.addFilterAfter(new OAuth2EndpointMetricsFilter(meterRegistry, metricsProperties, authorizationServerSettings),
+                HeaderWriterFilter.class);
+        if (admissionControlProperties.enabled()) {
+            // Held polls give their admission slot back, but once woken they all issue tokens at the same moment
+            Assert.isTrue(!devicePollingProperties.enabled() || devicePollingProperties.maxPollHold().isZero()
+                            || devicePollingProperties.maxWaitingPolls() <= admissionControlProperties.maxConcurrentRequests() / 2,
+                    "daem.oauth2.device-polling.max-waiting-polls must be at most half of daem.oauth2.admission-control.max-concurrent-requests");
+            // Inside the metrics filter, so that rejections are timed too, and ahead of client authentication
+            http.addFilterAfter(new TokenEndpointAdmissionFilter(
+                    new ClientRateLimiter(admissionControlProperties, tenantResolver::currentTenantOrDefault),
+                    new SourceRateLimiter(admissionControlProperties),
+                    admissionControlProperties, authorizationServerSettings.getTokenEndpoint(), meterRegistry),
+                    HeaderWriterFilter.class);
+        }
         return http.build();
     }
 
+    private static void advertiseRevocationFeed(Map<String, Object> claims, RevocationFeedEndpointFilter revocationFeedEndpointFilter,
+                                                TenantResolver tenantResolver) {
+        if (revocationFeedEndpointFilter != null) {
+            // One feed for all tenants, served below the issuer without a tenant path
+            claims.put(RevocationFeedEndpointFilter.METADATA_CLAIM,
+                    tenantResolver.withoutTenantPath((String) claims.get("issuer")) + RevocationFeedEndpointFilter.DEFAULT_ENDPOINT_URI);
+        }
+    }
+
+    private static MetadataResponseCacheFilter metadataResponseCacheFilter(SigningKeyManager signingKeyManager,
+                                                                           SigningKeyProperties signingKeyProperties,
+                                                                           MetadataCacheProperties metadataCacheProperties,
+                                                                           AuthorizationServerSettings authorizationServerSettings) {
+        // A client that fetched the key set just before a new key was inserted must refetch before that key signs
+        Duration rotationBound = signingKeyProperties.publishAhead().minus(signingKeyProperties.checkInterval());
+        Duration maxAge = rotationBound.isNegative() ? Duration.ZERO
+                : rotationBound.compareTo(metadataCacheProperties.maxAge()) < 0 ? rotationBound : metadataCacheProperties.maxAge();
+        Set<String> paths = Set.of(
+                authorizationServerSettings.getJwkSetEndpoint(),
+                "/.well-known/openid-configuration",
+                "/.well-known/oauth-authorization-server");
+        return new MetadataResponseCacheFilter(signingKeyManager, paths, maxAge, metadataCacheProperties.maximumEntries());
+    }
+
     @Bean
     @Primary
-    public ClientRepository registeredClientRepository(RegisteredClientRepositoryAdapter registeredClientRepositoryAdapter) {
-        return registeredClientRepositoryAdapter;
+    public ClientRepository registeredClientRepository(RegisteredClientRepositoryAdapter registeredClientRepositoryAdapter,
+                                                       ClientCacheProperties clientCacheProperties,
+                                                       ClusterNotificationBus clusterNotificationBus,
+                                                       MeterRegistry meterRegistry,
+                                                       TenantResolver tenantResolver,
+                                                       TenantRegistry tenantRegistry) {
+        ClientRepository clientRepository = registeredClientRepositoryAdapter;
+        if (clientCacheProperties.enabled()) {
+            clientRepository = new CachingClientRepository(registeredClientRepositoryAdapter, clientCacheProperties,
+                    clusterNotificationBus, meterRegistry);
+        }
+        if (tenantResolver.isEnabled()) {
+            // Above the cache, so that all tenants share its entries
+            clientRepository = new TenantScopedClientRepository(clientRepository, tenantResolver, tenantRegistry);
+        }
+        return clientRepository;
     }
 
     @Bean
-    public JWKSource<SecurityContext> jwkSource() {
-        RSAKey rsaKey = generateRsa();
-        JWKSet jwkSet = new JWKSet(rsaKey);
-        return (jwkSelector, securityContext) -> jwkSelector.select(jwkSet);
+    public JwtEncoder jwtEncoder(SigningKeyManager signingKeyManager, MeterRegistry meterRegistry) {
+        return new SigningKeyJwtEncoder(signingKeyManager, meterRegistry);
     }
 
-    private static RSAKey generateRsa() {
-        KeyPair keyPair = generateRsaKey();
-        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
-        RSAPrivateKey privateKey = (RSAPrivateKey) keyPair.getPrivate();
-        return new RSAKey.Builder(publicKey)
-                .privateKey(privateKey)
-                .keyID(UUID.randomUUID().toString())
-                .build();
+    /**
+     * The only {@link OAuth2AuthorizationService} bean; the authorization server looks it up by type and does not
+     * honour {@code @Primary}, so decorators are composed here instead of registered alongside the adapter.
+     */
+    @Bean
+    public OAuth2AuthorizationService authorizationService(AuthorizationJpaRepository authorizationJpaRepository,
+                                                           RegisteredClientRepository registeredClientRepository,
+                                                           IntrospectionCacheProperties introspectionCacheProperties,
+                                                           TokenIntrospectionCache tokenIntrospectionCache,
+                                                           RevocationFeedProperties revocationFeedProperties,
+                                                           RevocationFeed revocationFeed,
+                                                           PurgeProperties purgeProperties,
+                                                           WriteBehindProperties writeBehindProperties,
+                                                           AuthorizationWriteBuffer authorizationWriteBuffer,
+                                                           AuthorizationTieringProperties authorizationTieringProperties,
+                                                           ShortLivedAuthorizationStore shortLivedAuthorizationStore,
+                                                           DevicePollingProperties devicePollingProperties,
+                                                           DeviceCodeIndex deviceCodeIndex,
+                                                           TenantResolver tenantResolver,
+                                                           MeterRegistry meterRegistry) {
+        OAuth2AuthorizationServiceAdapter adapter = new OAuth2AuthorizationServiceAdapter(authorizationJpaRepository,
+                registeredClientRepository, purgeProperties.pendingAuthorizationTimeToLive());
+        OAuth2AuthorizationService authorizationService = adapter;
+        if (writeBehindProperties.enabled()) {
+            authorizationService = new WriteBehindAuthorizationService(adapter, authorizationWriteBuffer, meterRegistry);
+        }
+        if (authorizationTieringProperties.enabled()) {
+            authorizationService = new TieredAuthorizationService(authorizationService, shortLivedAuthorizationStore);
+        }
+        if (devicePollingProperties.enabled()) {
+            authorizationService = new DeviceCodeTrackingAuthorizationService(authorizationService, deviceCodeIndex);
+        }
+        if (introspectionCacheProperties.enabled()) {
+            authorizationService = new IntrospectionEvictingAuthorizationService(authorizationService, tokenIntrospectionCache);
+        }
+        if (revocationFeedProperties.enabled()) {
+            authorizationService = new RevocationRecordingAuthorizationService(authorizationService, revocationFeed);
+        }
+        if (tenantResolver.isEnabled()) {
+            authorizationService = new TenantScopedAuthorizationService(authorizationService, registeredClientRepository,
+                    tenantResolver);
+        }
+        return new MeteredAuthorizationService(authorizationService, meterRegistry);
     }
 
-    private static KeyPair generateRsaKey() {
-        KeyPair keyPair;
-        try {
-            KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
-            keyPairGenerator.initialize(2048);
-            keyPair = keyPairGenerator.generateKeyPair();
-        } catch (Exception ex) {
-            throw new IllegalStateException(ex);
+    /**
+     * The only {@link OAuth2AuthorizationConsentService} bean, for the same reason as {@link #authorizationService}.
+     */
+    @Bean
+    public OAuth2AuthorizationConsentService authorizationConsentService(AuthorizationConsentJpaRepository authorizationConsentJpaRepository,
+                                                                         ConsentCacheProperties consentCacheProperties,
+                                                                         ClusterNotificationBus clusterNotificationBus,
+                                                                         MeterRegistry meterRegistry) {
+        OAuth2AuthorizationConsentService authorizationConsentService =
+                new OAuth2AuthorizationConsentServiceAdapter(authorizationConsentJpaRepository);
+        if (!consentCacheProperties.enabled()) {
+            return authorizationConsentService;
         }
-        return keyPair;
+        return new CachingAuthorizationConsentService(authorizationConsentService, consentCacheProperties,
+                clusterNotificationBus, meterRegistry);
     }
 
+    /**
+     * With multi-tenancy enabled, the issuer, and with it the tenant, is resolved from every request, and all
+     * tenants share these endpoint paths below their issuer.
+     */
     @Bean
-    public AuthorizationServerSettings authorizationServerSettings() {
-        return AuthorizationServerSettings.builder().build();
+    public AuthorizationServerSettings authorizationServerSettings(MultiTenancyProperties multiTenancyProperties) {
+        return AuthorizationServerSettings.builder()
+                .multipleIssuersAllowed(multiTenancyProperties.enabled())
+                .build();
     }
 }
@@ -0,0 +1,15 @@
+package com.daem.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "daem.oauth2.client-cache")
+public record ClientCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10000") long maximumSize,
+        @DefaultValue("10m") Duration timeToLive,
+        @DefaultValue("30s") Duration negativeTimeToLive
+) {
+}
@@ -0,0 +1,42 @@
+package com.daem.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "daem.oauth2.client-storage")
+public record ClientStorageProperties(
+        @DefaultValue("DUAL_WRITE") Mode mode,
+        @DefaultValue("true") boolean backfillOnStartup,
+        @DefaultValue("200") int backfillBatchSize,
+        @DefaultValue("5m") Duration backfillInterval
+) {
+
+    /**
+     * How registered clients are laid out in {@code oauth2_registered_client}.
+     * <p>
+     * The online migration runs {@code LEGACY -> DUAL_WRITE (plus backfill) -> TYPED}; see
+     * {@code docs/sql/client/oauth2-registered-client-typed-columns-migration.sql}.
+     */
+    public enum Mode {
+        /** Only the JSON {@code varchar} columns are read and written. */
+        LEGACY,
+        /**
+         * Both layouts are written; the typed columns are read whenever a row has them. A row a node without the
+         * typed columns rewrites loses them (see {@code V7__registered_client_typed_column_guard.sql}) and is read
+         * from the legacy columns until the backfill converts it again.
+         */
+        DUAL_WRITE,
+        /** Only the {@code text[]}/{@code jsonb} columns are written. */
+        TYPED
+    }
+
+    public boolean writesLegacyColumns() {
+        return mode != Mode.TYPED;
+    }
+
+    public boolean writesTypedColumns() {
+        return mode != Mode.LEGACY;
+    }
+}
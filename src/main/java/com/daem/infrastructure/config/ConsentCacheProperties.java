@@ -0,0 +1,14 @@
+package com.daem.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "daem.oauth2.consent-cache")
+public record ConsentCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("50000") long maximumSize,
+        @DefaultValue("10m") Duration timeToLive
+) {
+}
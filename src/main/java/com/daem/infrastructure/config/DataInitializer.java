@@ -13,21 +13,30 @@ import org.springframework.stereotype.Component;
 import java.util.Locale; // Added import
 import java.util.UUID;
 
+/**
+ * Creates the development {@code admin-client}. Off in the {@code fast-startup} profile, which is meant for
+ * deployments where clients are provisioned through the client API.
+ */
 @Component
 public class DataInitializer implements CommandLineRunner {
 
     private final RegisteredClientRepository registeredClientRepository;
     private final PasswordEncoder passwordEncoder;
     private final MessageSource messageSource; // Added MessageSource
+    private final SeedProperties properties;
 
-    public DataInitializer(RegisteredClientRepository registeredClientRepository, PasswordEncoder passwordEncoder, MessageSource messageSource) { // Added MessageSource to constructor
+    public DataInitializer(RegisteredClientRepository registeredClientRepository, PasswordEncoder passwordEncoder, MessageSource messageSource, SeedProperties properties) { // Added MessageSource to constructor
         this.registeredClientRepository = registeredClientRepository;
         this.passwordEncoder = passwordEncoder;
         this.messageSource = messageSource; // Injected MessageSource
+        this.properties = properties;
     }
 
     @Override
     public void run(String... args) {
+        if (!properties.enabled()) {
+            return;
+        }
         String clientId = "admin-client";
         if (registeredClientRepository.findByClientId(clientId) == null) {
             RegisteredClient registeredClient = RegisteredClient.withId(UUID.randomUUID().toString())
@@ -0,0 +1,61 @@
+package com.daem.infrastructure.config;
+
+import com.daem.infrastructure.persistence.routing.DataSourceRoutingProperties;
+import com.daem.infrastructure.persistence.routing.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class DataSourceConfig {
+
+    // A replica that does not hand out a connection within this long is skipped in favour of the primary
+    private static final long REPLICA_CONNECTION_TIMEOUT_MILLIS = 1000;
+
+    /**
+     * The Hikari pool Spring Boot would create from {@code spring.datasource}, or, with datasource routing enabled,
+     * a {@link ReplicaRoutingDataSource} with that pool as the primary.
+     */
+    @Bean
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, Environment environment,
+                                 DataSourceRoutingProperties routingProperties, MeterRegistry meterRegistry) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (StringUtils.hasText(dataSourceProperties.getName())) {
+            primary.setPoolName(dataSourceProperties.getName());
+        }
+        if (!routingProperties.enabled() || routingProperties.replicas().isEmpty()) {
+            return primary;
+        }
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (DataSourceRoutingProperties.Replica replica : routingProperties.replicas()) {
+            HikariDataSource pool = DataSourceBuilder.create(dataSourceProperties.getClassLoader())
+                    .type(HikariDataSource.class)
+                    .driverClassName(dataSourceProperties.determineDriverClassName())
+                    .url(replica.url())
+                    .username(replica.username() != null ? replica.username() : dataSourceProperties.determineUsername())
+                    .password(replica.password() != null ? replica.password() : dataSourceProperties.determinePassword())
+                    .build();
+            pool.setPoolName("replica-" + replicas.size());
+            pool.setReadOnly(true);
+            pool.setMaximumPoolSize(routingProperties.replicaPoolSize());
+            pool.setConnectionTimeout(REPLICA_CONNECTION_TIMEOUT_MILLIS);
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(pool);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, routingProperties, meterRegistry);
+    }
+}
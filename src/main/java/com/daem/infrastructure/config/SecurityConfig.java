@@ -1,5 +1,11 @@
 package com.daem.infrastructure.config;
 
+import com.daem.infrastructure.metrics.MeteredPasswordEncoder;
+import com.daem.infrastructure.security.CachingPasswordEncoder;
+import com.daem.infrastructure.security.SecretCacheProperties;
+import com.daem.infrastructure.security.session.StatelessSessionSupport;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -10,25 +16,31 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
-import static org.springframework.security.config.Customizer.withDefaults;
-
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain defaultSecurityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain defaultSecurityFilterChain(HttpSecurity http, StatelessSessionSupport statelessSessionSupport) throws Exception {
+        statelessSessionSupport.apply(http);
         http
                 .authorizeHttpRequests(authorize -> authorize
+                        // Only reachable on the management port, which is not exposed publicly
+                        .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
                         .requestMatchers("/api/**").hasAuthority("SCOPE_server.admin")
                         .anyRequest().authenticated()
                 )
-                .formLogin(withDefaults());
+                .formLogin(statelessSessionSupport::apply);
         return http.build();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(SecretCacheProperties secretCacheProperties, MeterRegistry meterRegistry) {
+        // Metered inside the cache so the timer only sees real hashing work
+        PasswordEncoder passwordEncoder = new MeteredPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
+        if (!secretCacheProperties.enabled()) {
+            return passwordEncoder;
+        }
+        return new CachingPasswordEncoder(passwordEncoder, secretCacheProperties, meterRegistry);
     }
 }
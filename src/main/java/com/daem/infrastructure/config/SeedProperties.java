@@ -0,0 +1,13 @@
+package com.daem.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled whether startup creates the development {@code admin-client} when it is missing
+ */
+@ConfigurationProperties(prefix = "daem.oauth2.seed")
+public record SeedProperties(
+        @DefaultValue("true") boolean enabled
+) {
+}
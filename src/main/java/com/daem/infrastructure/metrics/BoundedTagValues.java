@@ -0,0 +1,38 @@
+package com.daem.infrastructure.metrics;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the number of distinct values of a metric tag bounded: the first {@code limit} values are passed
+ * through, every later one is reported as {@value #OTHER}. The bound is approximate under concurrent first use.
+ */
+public class BoundedTagValues {
+
+    public static final String OTHER = "other";
+
+    private final int limit;
+    private final Set<String> admitted = ConcurrentHashMap.newKeySet();
+
+    public BoundedTagValues(int limit) {
+        this.limit = limit;
+    }
+
+    public String tag(String value) {
+        if (admitted.contains(value)) {
+            return value;
+        }
+        if (admitted.size() < limit) {
+            admitted.add(value);
+            return value;
+        }
+        return OTHER;
+    }
+
+    /**
+     * @return the value if it is one of the known values, otherwise {@value #OTHER}
+     */
+    public static String known(String value, Set<String> knownValues) {
+        return value != null && knownValues.contains(value) ? value : OTHER;
+    }
+}
@@ -0,0 +1,80 @@
+package com.daem.infrastructure.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Times every call to the wrapped {@link OAuth2AuthorizationService} ({@code daem.oauth2.authorization.store}),
+ * tagged with the operation, the token type of lookups and whether a lookup found anything.
+ * <p>
+ * The token type of a lookup can come from a request parameter ({@code token_type_hint}), so unknown types are
+ * reported as {@code other}.
+ */
+public class MeteredAuthorizationService implements OAuth2AuthorizationService {
+
+    private static final String METRIC = "daem.oauth2.authorization.store";
+    private static final Set<String> TOKEN_TYPES = Set.of(
+            OAuth2ParameterNames.STATE,
+            OAuth2ParameterNames.CODE,
+            OAuth2TokenType.ACCESS_TOKEN.getValue(),
+            OAuth2TokenType.REFRESH_TOKEN.getValue(),
+            OidcParameterNames.ID_TOKEN,
+            OAuth2ParameterNames.USER_CODE,
+            OAuth2ParameterNames.DEVICE_CODE);
+
+    private final OAuth2AuthorizationService delegate;
+    private final MeterRegistry meterRegistry;
+    private final Timer save;
+    private final Timer remove;
+
+    public MeteredAuthorizationService(OAuth2AuthorizationService delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.save = timer("save", "none", "none");
+        this.remove = timer("remove", "none", "none");
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        save.record(() -> delegate.save(authorization));
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        remove.record(() -> delegate.remove(authorization));
+    }
+
+    @Override
+    public OAuth2Authorization findById(String id) {
+        return timedLookup("find_by_id", "none", () -> delegate.findById(id));
+    }
+
+    @Override
+    public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
+        String type = tokenType != null ? BoundedTagValues.known(tokenType.getValue(), TOKEN_TYPES) : "any";
+        return timedLookup("find_by_token", type, () -> delegate.findByToken(token, tokenType));
+    }
+
+    private OAuth2Authorization timedLookup(String operation, String tokenType, Supplier<OAuth2Authorization> lookup) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        OAuth2Authorization authorization = lookup.get();
+        sample.stop(timer(operation, tokenType, authorization != null ? "hit" : "miss"));
+        return authorization;
+    }
+
+    private Timer timer(String operation, String tokenType, String result) {
+        return Timer.builder(METRIC)
+                .tag("operation", operation)
+                .tag("token_type", tokenType)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
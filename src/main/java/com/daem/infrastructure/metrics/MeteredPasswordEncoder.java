@@ -0,0 +1,46 @@
+package com.daem.infrastructure.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the hashing done by the wrapped encoder ({@code daem.oauth2.secret.hashing}), split by operation and,
+ * for verification, by outcome.
+ */
+public class MeteredPasswordEncoder implements PasswordEncoder {
+
+    private static final String METRIC = "daem.oauth2.secret.hashing";
+
+    private final PasswordEncoder delegate;
+    private final Timer encode;
+    private final Timer matched;
+    private final Timer mismatched;
+
+    public MeteredPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.encode = Timer.builder(METRIC).tag("operation", "encode").tag("outcome", "none").register(meterRegistry);
+        this.matched = Timer.builder(METRIC).tag("operation", "match").tag("outcome", "matched").register(meterRegistry);
+        this.mismatched = Timer.builder(METRIC).tag("operation", "match").tag("outcome", "mismatched").register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encode.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        boolean result = delegate.matches(rawPassword, encodedPassword);
+        (result ? matched : mismatched).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
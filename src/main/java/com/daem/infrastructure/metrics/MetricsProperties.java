@@ -0,0 +1,14 @@
+package com.daem.infrastructure.metrics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param maxClientTags number of distinct client ids used as metric tags; clients seen after that are
+ *                      reported as {@code other}
+ */
+@ConfigurationProperties(prefix = "daem.oauth2.metrics")
+public record MetricsProperties(
+        @DefaultValue("100") int maxClientTags
+) {
+}
@@ -0,0 +1,133 @@
+package com.daem.infrastructure.metrics;
+
+import com.daem.infrastructure.tenant.TenantResolver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenIntrospection;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenIntrospectionAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.settings.AuthorizationServerSettings;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Times the token, introspection and revocation endpoints.
+ * <ul>
+ *     <li>{@code daem.oauth2.token.requests}: token endpoint latency by grant type and outcome</li>
+ *     <li>{@code daem.oauth2.tokens.issued}: issued tokens by grant type and client</li>
+ *     <li>{@code daem.oauth2.token.introspection}: introspection latency by outcome ({@code active}, {@code inactive}
+ *     or {@code error})</li>
+ *     <li>{@code daem.oauth2.token.revocation}: revocation latency by outcome</li>
+ * </ul>
+ * Only the counter carries a client tag, bounded by {@link BoundedTagValues}; the timers are published with
+ * histograms, which would otherwise multiply by the number of clients. The client comes from the client
+ * authentication the endpoint performed, so unauthenticated requests never take a client slot.
+ */
+public class OAuth2EndpointMetricsFilter extends OncePerRequestFilter {
+
+    private static final String INTROSPECTION_ACTIVE_ATTRIBUTE = OAuth2EndpointMetricsFilter.class.getName() + ".ACTIVE";
+    private static final Set<String> GRANT_TYPES = Set.of(
+            AuthorizationGrantType.AUTHORIZATION_CODE.getValue(),
+            AuthorizationGrantType.REFRESH_TOKEN.getValue(),
+            AuthorizationGrantType.CLIENT_CREDENTIALS.getValue(),
+            AuthorizationGrantType.DEVICE_CODE.getValue(),
+            AuthorizationGrantType.TOKEN_EXCHANGE.getValue());
+
+    private final MeterRegistry meterRegistry;
+    private final BoundedTagValues clientTags;
+    private final String tokenEndpoint;
+    private final String introspectionEndpoint;
+    private final String revocationEndpoint;
+
+    public OAuth2EndpointMetricsFilter(MeterRegistry meterRegistry, MetricsProperties properties,
+                                       AuthorizationServerSettings authorizationServerSettings) {
+        this.meterRegistry = meterRegistry;
+        this.clientTags = new BoundedTagValues(properties.maxClientTags());
+        this.tokenEndpoint = authorizationServerSettings.getTokenEndpoint();
+        this.introspectionEndpoint = authorizationServerSettings.getTokenIntrospectionEndpoint();
+        this.revocationEndpoint = authorizationServerSettings.getTokenRevocationEndpoint();
+    }
+
+    /**
+     * Wraps the handler that writes introspection responses, remembering whether the token was active for the
+     * metrics.
+     */
+    public static AuthenticationSuccessHandler introspectionResponseHandler(AuthenticationSuccessHandler delegate) {
+        return (request, response, authentication) -> {
+            OAuth2TokenIntrospection tokenClaims = ((OAuth2TokenIntrospectionAuthenticationToken) authentication).getTokenClaims();
+            request.setAttribute(INTROSPECTION_ACTIVE_ATTRIBUTE, tokenClaims.isActive());
+            delegate.onAuthenticationSuccess(request, response, authentication);
+        };
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = TenantResolver.endpointPath(request);
+        return !"POST".equals(request.getMethod())
+                || !(path.equals(tokenEndpoint) || path.equals(introspectionEndpoint) || path.equals(revocationEndpoint));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = TenantResolver.endpointPath(request);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            boolean success = response.getStatus() < 400;
+            if (path.equals(tokenEndpoint)) {
+                String grantType = BoundedTagValues.known(request.getParameter(OAuth2ParameterNames.GRANT_TYPE), GRANT_TYPES);
+                sample.stop(Timer.builder("daem.oauth2.token.requests")
+                        .tag("grant_type", grantType)
+                        .tag("outcome", outcome(response.getStatus()))
+                        .register(meterRegistry));
+                if (success) {
+                    Counter.builder("daem.oauth2.tokens.issued")
+                            .tag("grant_type", grantType)
+                            .tag("client", authenticatedClient())
+                            .register(meterRegistry)
+                            .increment();
+                }
+            } else if (path.equals(introspectionEndpoint)) {
+                Object active = request.getAttribute(INTROSPECTION_ACTIVE_ATTRIBUTE);
+                String outcome = !success || active == null ? "error" : Boolean.TRUE.equals(active) ? "active" : "inactive";
+                sample.stop(Timer.builder("daem.oauth2.token.introspection")
+                        .tag("outcome", outcome)
+                        .register(meterRegistry));
+            } else {
+                sample.stop(Timer.builder("daem.oauth2.token.revocation")
+                        .tag("outcome", outcome(response.getStatus()))
+                        .register(meterRegistry));
+            }
+        }
+    }
+
+    private String authenticatedClient() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof OAuth2ClientAuthenticationToken clientAuthentication
+                && clientAuthentication.isAuthenticated() && clientAuthentication.getRegisteredClient() != null) {
+            return clientTags.tag(clientAuthentication.getRegisteredClient().getClientId());
+        }
+        return "unauthenticated";
+    }
+
+    private static String outcome(int status) {
+        if (status < 400) {
+            return "success";
+        }
+        return status < 500 ? "client_error" : "server_error";
+    }
+}
@@ -0,0 +1,102 @@
+package com.daem.infrastructure.persistence.adapter;
+
+import org.springframework.security.oauth2.jose.jws.JwsAlgorithm;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.server.authorization.settings.ClientSettings;
+import org.springframework.security.oauth2.server.authorization.settings.ConfigurationSettingNames;
+import org.springframework.security.oauth2.server.authorization.settings.OAuth2TokenFormat;
+import org.springframework.security.oauth2.server.authorization.settings.TokenSettings;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Converts {@link ClientSettings} and {@link TokenSettings} to and from plain JSON values (strings, numbers and
+ * booleans) and restores the typed values the settings getters expect: {@link Duration}, {@link OAuth2TokenFormat}
+ * and {@link JwsAlgorithm}.
+ */
+public final class ClientSettingsCodec {
+
+    private static final Set<String> DURATION_SETTINGS = Set.of(
+            ConfigurationSettingNames.Token.AUTHORIZATION_CODE_TIME_TO_LIVE,
+            ConfigurationSettingNames.Token.ACCESS_TOKEN_TIME_TO_LIVE,
+            ConfigurationSettingNames.Token.DEVICE_CODE_TIME_TO_LIVE,
+            ConfigurationSettingNames.Token.REFRESH_TOKEN_TIME_TO_LIVE);
+
+    private ClientSettingsCodec() {
+    }
+
+    public static Map<String, Object> encode(Map<String, Object> settings) {
+        Map<String, Object> encoded = new LinkedHashMap<>(settings.size());
+        settings.forEach((name, value) -> encoded.put(name, encodeValue(value)));
+        return encoded;
+    }
+
+    public static ClientSettings decodeClientSettings(Map<String, Object> settings) {
+        Map<String, Object> decoded = new LinkedHashMap<>(settings);
+        decoded.computeIfPresent(ConfigurationSettingNames.Client.TOKEN_ENDPOINT_AUTHENTICATION_SIGNING_ALGORITHM,
+                (name, value) -> decodeJwsAlgorithm(value));
+        return ClientSettings.withSettings(decoded).build();
+    }
+
+    public static TokenSettings decodeTokenSettings(Map<String, Object> settings) {
+        Map<String, Object> decoded = new LinkedHashMap<>(settings);
+        for (String name : DURATION_SETTINGS) {
+            decoded.computeIfPresent(name, (key, value) -> decodeDuration(value));
+        }
+        decoded.computeIfPresent(ConfigurationSettingNames.Token.ACCESS_TOKEN_FORMAT,
+                (name, value) -> decodeTokenFormat(value));
+        decoded.computeIfPresent(ConfigurationSettingNames.Token.ID_TOKEN_SIGNATURE_ALGORITHM,
+                (name, value) -> value instanceof SignatureAlgorithm ? value : SignatureAlgorithm.from(value.toString()));
+        return TokenSettings.withSettings(decoded).build();
+    }
+
+    private static Object encodeValue(Object value) {
+        if (value instanceof Duration duration) {
+            return duration.toString();
+        }
+        if (value instanceof OAuth2TokenFormat tokenFormat) {
+            return tokenFormat.getValue();
+        }
+        if (value instanceof JwsAlgorithm jwsAlgorithm) {
+            return jwsAlgorithm.getName();
+        }
+        return value;
+    }
+
+    private static Duration decodeDuration(Object value) {
+        if (value instanceof Duration duration) {
+            return duration;
+        }
+        if (value instanceof Number seconds) {
+            // Durations written by Jackson as timestamps, e.g. 300.000000000
+            BigDecimal decimal = new BigDecimal(seconds.toString());
+            return Duration.ofSeconds(decimal.longValue(), decimal.remainder(BigDecimal.ONE).movePointRight(9).intValue());
+        }
+        return Duration.parse(value.toString());
+    }
+
+    private static OAuth2TokenFormat decodeTokenFormat(Object value) {
+        if (value instanceof OAuth2TokenFormat tokenFormat) {
+            return tokenFormat;
+        }
+        if (value instanceof Map<?, ?> map) {
+            // Legacy rows hold the bean form, {"value":"self-contained"}
+            return new OAuth2TokenFormat(String.valueOf(map.get("value")));
+        }
+        return new OAuth2TokenFormat(value.toString());
+    }
+
+    private static JwsAlgorithm decodeJwsAlgorithm(Object value) {
+        if (value instanceof JwsAlgorithm jwsAlgorithm) {
+            return jwsAlgorithm;
+        }
+        String name = value.toString();
+        SignatureAlgorithm signatureAlgorithm = SignatureAlgorithm.from(name);
+        return signatureAlgorithm != null ? signatureAlgorithm : MacAlgorithm.from(name);
+    }
+}
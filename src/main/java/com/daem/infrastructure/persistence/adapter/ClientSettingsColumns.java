@@ -0,0 +1,152 @@
+package com.daem.infrastructure.persistence.adapter;
+
+import com.daem.domain.client.ClientSettingNames;
+import com.daem.infrastructure.persistence.jpa.entity.RegisteredClientEntity;
+import org.springframework.security.oauth2.jose.jws.JwsAlgorithm;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.settings.ClientSettings;
+import org.springframework.security.oauth2.server.authorization.settings.ConfigurationSettingNames;
+import org.springframework.security.oauth2.server.authorization.settings.OAuth2TokenFormat;
+import org.springframework.security.oauth2.server.authorization.settings.TokenSettings;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * The settings of the typed layout. Every setting this server knows goes to a column of its own, so that loading a
+ * client parses no JSON; only unknown settings, or known ones holding a value of an unexpected type, are kept in
+ * {@code client_settings_v2} / {@code token_settings_v2}.
+ * <p>
+ * Reading starts from the JSON columns and lets the setting columns override them, so rows written before the
+ * setting columns existed, which hold every setting as JSON, read the same.
+ */
+final class ClientSettingsColumns {
+
+    private static final List<SettingColumn<?>> CLIENT_SETTINGS = List.of(
+            new SettingColumn<>(ConfigurationSettingNames.Client.REQUIRE_PROOF_KEY, ClientSettingsColumns::bool,
+                    RegisteredClientEntity::getRequireProofKey, RegisteredClientEntity::setRequireProofKey),
+            new SettingColumn<>(ConfigurationSettingNames.Client.REQUIRE_AUTHORIZATION_CONSENT, ClientSettingsColumns::bool,
+                    RegisteredClientEntity::getRequireAuthorizationConsent, RegisteredClientEntity::setRequireAuthorizationConsent),
+            new SettingColumn<>(ConfigurationSettingNames.Client.JWK_SET_URL, ClientSettingsColumns::string,
+                    RegisteredClientEntity::getJwkSetUrl, RegisteredClientEntity::setJwkSetUrl),
+            new SettingColumn<>(ConfigurationSettingNames.Client.TOKEN_ENDPOINT_AUTHENTICATION_SIGNING_ALGORITHM,
+                    ClientSettingsColumns::algorithm, RegisteredClientEntity::getTokenEndpointAuthenticationSigningAlgorithm,
+                    RegisteredClientEntity::setTokenEndpointAuthenticationSigningAlgorithm),
+            new SettingColumn<>(ConfigurationSettingNames.Client.X509_CERTIFICATE_SUBJECT_DN, ClientSettingsColumns::string,
+                    RegisteredClientEntity::getX509CertificateSubjectDn, RegisteredClientEntity::setX509CertificateSubjectDn),
+            new SettingColumn<>(ClientSettingNames.REUSE_ACCESS_TOKEN, ClientSettingsColumns::bool,
+                    RegisteredClientEntity::getReuseAccessToken, RegisteredClientEntity::setReuseAccessToken),
+            new SettingColumn<>(ClientSettingNames.TOKEN_REQUESTS_PER_SECOND, ClientSettingsColumns::number,
+                    RegisteredClientEntity::getTokenRequestsPerSecond, RegisteredClientEntity::setTokenRequestsPerSecond),
+            new SettingColumn<>(ClientSettingNames.TOKEN_REQUEST_BURST, ClientSettingsColumns::integer,
+                    RegisteredClientEntity::getTokenRequestBurst, RegisteredClientEntity::setTokenRequestBurst));
+
+    private static final List<SettingColumn<?>> TOKEN_SETTINGS = List.of(
+            new SettingColumn<>(ConfigurationSettingNames.Token.AUTHORIZATION_CODE_TIME_TO_LIVE, ClientSettingsColumns::duration,
+                    RegisteredClientEntity::getAuthorizationCodeTimeToLive, RegisteredClientEntity::setAuthorizationCodeTimeToLive),
+            new SettingColumn<>(ConfigurationSettingNames.Token.ACCESS_TOKEN_TIME_TO_LIVE, ClientSettingsColumns::duration,
+                    RegisteredClientEntity::getAccessTokenTimeToLive, RegisteredClientEntity::setAccessTokenTimeToLive),
+            new SettingColumn<>(ConfigurationSettingNames.Token.ACCESS_TOKEN_FORMAT, ClientSettingsColumns::tokenFormat,
+                    RegisteredClientEntity::getAccessTokenFormat, RegisteredClientEntity::setAccessTokenFormat),
+            new SettingColumn<>(ConfigurationSettingNames.Token.DEVICE_CODE_TIME_TO_LIVE, ClientSettingsColumns::duration,
+                    RegisteredClientEntity::getDeviceCodeTimeToLive, RegisteredClientEntity::setDeviceCodeTimeToLive),
+            new SettingColumn<>(ConfigurationSettingNames.Token.REUSE_REFRESH_TOKENS, ClientSettingsColumns::bool,
+                    RegisteredClientEntity::getReuseRefreshTokens, RegisteredClientEntity::setReuseRefreshTokens),
+            new SettingColumn<>(ConfigurationSettingNames.Token.REFRESH_TOKEN_TIME_TO_LIVE, ClientSettingsColumns::duration,
+                    RegisteredClientEntity::getRefreshTokenTimeToLive, RegisteredClientEntity::setRefreshTokenTimeToLive),
+            new SettingColumn<>(ConfigurationSettingNames.Token.ID_TOKEN_SIGNATURE_ALGORITHM, ClientSettingsColumns::algorithm,
+                    RegisteredClientEntity::getIdTokenSignatureAlgorithm, RegisteredClientEntity::setIdTokenSignatureAlgorithm),
+            new SettingColumn<>(ConfigurationSettingNames.Token.X509_CERTIFICATE_BOUND_ACCESS_TOKENS, ClientSettingsColumns::bool,
+                    RegisteredClientEntity::getX509CertificateBoundAccessTokens,
+                    RegisteredClientEntity::setX509CertificateBoundAccessTokens));
+
+    private ClientSettingsColumns() {
+    }
+
+    static void write(RegisteredClient registeredClient, RegisteredClientEntity entity) {
+        entity.setClientSettingsV2(write(registeredClient.getClientSettings().getSettings(), CLIENT_SETTINGS, entity));
+        entity.setTokenSettingsV2(write(registeredClient.getTokenSettings().getSettings(), TOKEN_SETTINGS, entity));
+    }
+
+    static ClientSettings readClientSettings(RegisteredClientEntity entity) {
+        return ClientSettingsCodec.decodeClientSettings(read(entity.getClientSettingsV2(), CLIENT_SETTINGS, entity));
+    }
+
+    static TokenSettings readTokenSettings(RegisteredClientEntity entity) {
+        return ClientSettingsCodec.decodeTokenSettings(read(entity.getTokenSettingsV2(), TOKEN_SETTINGS, entity));
+    }
+
+    private static Map<String, Object> write(Map<String, Object> settings, List<SettingColumn<?>> columns,
+                                             RegisteredClientEntity entity) {
+        Map<String, Object> remaining = new LinkedHashMap<>(settings);
+        for (SettingColumn<?> column : columns) {
+            column.write(remaining, entity);
+        }
+        return remaining.isEmpty() ? null : ClientSettingsCodec.encode(remaining);
+    }
+
+    private static Map<String, Object> read(Map<String, Object> json, List<SettingColumn<?>> columns,
+                                            RegisteredClientEntity entity) {
+        Map<String, Object> settings = json != null ? new LinkedHashMap<>(json) : new LinkedHashMap<>();
+        for (SettingColumn<?> column : columns) {
+            column.read(entity, settings);
+        }
+        return settings;
+    }
+
+    private static Boolean bool(Object value) {
+        return value instanceof Boolean b ? b : null;
+    }
+
+    private static String string(Object value) {
+        return value instanceof String s ? s : null;
+    }
+
+    private static Duration duration(Object value) {
+        return value instanceof Duration d ? d : null;
+    }
+
+    private static Double number(Object value) {
+        return value instanceof Number n ? n.doubleValue() : null;
+    }
+
+    private static Integer integer(Object value) {
+        return value instanceof Integer i ? i : null;
+    }
+
+    private static String tokenFormat(Object value) {
+        return value instanceof OAuth2TokenFormat tokenFormat ? tokenFormat.getValue() : string(value);
+    }
+
+    private static String algorithm(Object value) {
+        return value instanceof JwsAlgorithm jwsAlgorithm ? jwsAlgorithm.getName() : string(value);
+    }
+
+    /**
+     * A setting with a column of its own; {@code toColumn} answers {@code null} for a value the column cannot hold.
+     */
+    private record SettingColumn<C>(String name, Function<Object, C> toColumn,
+                                    Function<RegisteredClientEntity, C> getter,
+                                    BiConsumer<RegisteredClientEntity, C> setter) {
+
+        void write(Map<String, Object> remaining, RegisteredClientEntity entity) {
+            Object value = remaining.get(name);
+            C column = value != null ? toColumn.apply(value) : null;
+            if (column != null) {
+                remaining.remove(name);
+            }
+            setter.accept(entity, column);
+        }
+
+        void read(RegisteredClientEntity entity, Map<String, Object> settings) {
+            C column = getter.apply(entity);
+            if (column != null) {
+                settings.put(name, column);
+            }
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.daem.infrastructure.persistence.adapter;
+
+import com.daem.infrastructure.persistence.jpa.entity.AuthorizationEntity;
+import com.daem.infrastructure.persistence.jpa.repository.AuthorizationJpaRepository;
+import com.daem.infrastructure.security.TokenDigests;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2DeviceCode;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.core.OAuth2UserCode;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.jackson2.OAuth2AuthorizationServerJackson2Module;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * JPA-backed {@link OAuth2AuthorizationService}. Tokens are looked up by the SHA-256 digest of their value, so
+ * every {@code findByToken} is a single index probe on a fixed-width column. Registered, wrapped in metrics, by
+ * {@code AuthorizationServerConfig}.
+ */
+public class OAuth2AuthorizationServiceAdapter implements OAuth2AuthorizationService {
+
+    private final AuthorizationJpaRepository authorizationJpaRepository;
+    private final RegisteredClientRepository registeredClientRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration pendingAuthorizationTimeToLive;
+
+    /**
+     * @param pendingAuthorizationTimeToLive how long an authorization without any token yet (an authorization
+     *                                       request waiting for consent) is kept before it may be purged
+     */
+    public OAuth2AuthorizationServiceAdapter(AuthorizationJpaRepository authorizationJpaRepository,
+                                             RegisteredClientRepository registeredClientRepository,
+                                             Duration pendingAuthorizationTimeToLive) {
+        this.authorizationJpaRepository = authorizationJpaRepository;
+        this.registeredClientRepository = registeredClientRepository;
+        this.pendingAuthorizationTimeToLive = pendingAuthorizationTimeToLive;
+        // Attributes and token metadata hold Spring Security types, which need the allow-listed security modules
+        this.objectMapper = new ObjectMapper();
+        ClassLoader classLoader = OAuth2AuthorizationServiceAdapter.class.getClassLoader();
+        this.objectMapper.registerModules(SecurityJackson2Modules.getModules(classLoader));
+        this.objectMapper.registerModule(new OAuth2AuthorizationServerJackson2Module());
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        authorizationJpaRepository.save(toEntity(authorization));
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        authorizationJpaRepository.deleteById(authorization.getId());
+    }
+
+    @Override
+    public OAuth2Authorization findById(String id) {
+        Assert.hasText(id, "id cannot be empty");
+        return authorizationJpaRepository.findById(id).map(this::toObject).orElse(null);
+    }
+
+    @Override
+    public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
+        Assert.hasText(token, "token cannot be empty");
+        String tokenHash = TokenDigests.sha256Hex(token);
+        Optional<AuthorizationEntity> result;
+        if (tokenType == null) {
+            result = authorizationJpaRepository.findByStateOrTokenHash(token, tokenHash);
+        } else if (OAuth2ParameterNames.STATE.equals(tokenType.getValue())) {
+            result = authorizationJpaRepository.findByState(token);
+        } else if (OAuth2ParameterNames.CODE.equals(tokenType.getValue())) {
+            result = authorizationJpaRepository.findByAuthorizationCodeHash(tokenHash);
+        } else if (OAuth2TokenType.ACCESS_TOKEN.equals(tokenType)) {
+            result = authorizationJpaRepository.findByAccessTokenHash(tokenHash);
+        } else if (OAuth2TokenType.REFRESH_TOKEN.equals(tokenType)) {
+            result = authorizationJpaRepository.findByRefreshTokenHash(tokenHash);
+        } else if (OidcParameterNames.ID_TOKEN.equals(tokenType.getValue())) {
+            result = authorizationJpaRepository.findByOidcIdTokenHash(tokenHash);
+        } else if (OAuth2ParameterNames.USER_CODE.equals(tokenType.getValue())) {
+            result = authorizationJpaRepository.findByUserCodeHash(tokenHash);
+        } else if (OAuth2ParameterNames.DEVICE_CODE.equals(tokenType.getValue())) {
+            result = authorizationJpaRepository.findByDeviceCodeHash(tokenHash);
+        } else {
+            result = Optional.empty();
+        }
+        return result.map(this::toObject).orElse(null);
+    }
+
+    private OAuth2Authorization toObject(AuthorizationEntity entity) {
+        RegisteredClient registeredClient = registeredClientRepository.findById(entity.getRegisteredClientId());
+        if (registeredClient == null) {
+            throw new DataRetrievalFailureException(
+                    "The RegisteredClient with id '" + entity.getRegisteredClientId() + "' was not found in the RegisteredClientRepository.");
+        }
+
+        OAuth2Authorization.Builder builder = OAuth2Authorization.withRegisteredClient(registeredClient)
+                .id(entity.getId())
+                .principalName(entity.getPrincipalName())
+                .authorizationGrantType(new AuthorizationGrantType(entity.getAuthorizationGrantType()))
+                .authorizedScopes(StringUtils.commaDelimitedListToSet(entity.getAuthorizedScopes()))
+                .attributes(attributes -> attributes.putAll(parseMap(entity.getAttributes())));
+
+        if (entity.getAuthorizationCodeValue() != null) {
+            OAuth2AuthorizationCode authorizationCode = new OAuth2AuthorizationCode(
+                    entity.getAuthorizationCodeValue(),
+                    entity.getAuthorizationCodeIssuedAt(),
+                    entity.getAuthorizationCodeExpiresAt());
+            builder.token(authorizationCode, metadata -> metadata.putAll(parseMap(entity.getAuthorizationCodeMetadata())));
+        }
+
+        if (entity.getAccessTokenValue() != null) {
+            OAuth2AccessToken accessToken = new OAuth2AccessToken(
+                    OAuth2AccessToken.TokenType.BEARER,
+                    entity.getAccessTokenValue(),
+                    entity.getAccessTokenIssuedAt(),
+                    entity.getAccessTokenExpiresAt(),
+                    StringUtils.commaDelimitedListToSet(entity.getAccessTokenScopes()));
+            builder.token(accessToken, metadata -> metadata.putAll(parseMap(entity.getAccessTokenMetadata())));
+        }
+
+        if (entity.getRefreshTokenValue() != null) {
+            OAuth2RefreshToken refreshToken = new OAuth2RefreshToken(
+                    entity.getRefreshTokenValue(),
+                    entity.getRefreshTokenIssuedAt(),
+                    entity.getRefreshTokenExpiresAt());
+            builder.token(refreshToken, metadata -> metadata.putAll(parseMap(entity.getRefreshTokenMetadata())));
+        }
+
+        if (entity.getOidcIdTokenValue() != null) {
+            Map<String, Object> metadata = parseMap(entity.getOidcIdTokenMetadata());
+            @SuppressWarnings("unchecked")
+            Map<String, Object> claims = (Map<String, Object>) metadata.get(OAuth2Authorization.Token.CLAIMS_METADATA_NAME);
+            OidcIdToken idToken = new OidcIdToken(
+                    entity.getOidcIdTokenValue(),
+                    entity.getOidcIdTokenIssuedAt(),
+                    entity.getOidcIdTokenExpiresAt(),
+                    claims);
+            builder.token(idToken, tokenMetadata -> tokenMetadata.putAll(metadata));
+        }
+
+        if (entity.getUserCodeValue() != null) {
+            OAuth2UserCode userCode = new OAuth2UserCode(
+                    entity.getUserCodeValue(),
+                    entity.getUserCodeIssuedAt(),
+                    entity.getUserCodeExpiresAt());
+            builder.token(userCode, metadata -> metadata.putAll(parseMap(entity.getUserCodeMetadata())));
+        }
+
+        if (entity.getDeviceCodeValue() != null) {
+            OAuth2DeviceCode deviceCode = new OAuth2DeviceCode(
+                    entity.getDeviceCodeValue(),
+                    entity.getDeviceCodeIssuedAt(),
+                    entity.getDeviceCodeExpiresAt());
+            builder.token(deviceCode, metadata -> metadata.putAll(parseMap(entity.getDeviceCodeMetadata())));
+        }
+
+        return builder.build();
+    }
+
+    public AuthorizationEntity toEntity(OAuth2Authorization authorization) {
+        AuthorizationEntity entity = new AuthorizationEntity();
+        entity.setId(authorization.getId());
+        entity.setRegisteredClientId(authorization.getRegisteredClientId());
+        entity.setPrincipalName(authorization.getPrincipalName());
+        entity.setAuthorizationGrantType(authorization.getAuthorizationGrantType().getValue());
+        entity.setAuthorizedScopes(StringUtils.collectionToCommaDelimitedString(authorization.getAuthorizedScopes()));
+        entity.setAttributes(writeMap(authorization.getAttributes()));
+        entity.setState(authorization.getAttribute(OAuth2ParameterNames.STATE));
+
+        setTokenValues(authorization.getToken(OAuth2AuthorizationCode.class),
+                entity::setAuthorizationCodeValue,
+                entity::setAuthorizationCodeHash,
+                entity::setAuthorizationCodeIssuedAt,
+                entity::setAuthorizationCodeExpiresAt,
+                entity::setAuthorizationCodeMetadata);
+
+        OAuth2Authorization.Token<OAuth2AccessToken> accessToken = authorization.getToken(OAuth2AccessToken.class);
+        setTokenValues(accessToken,
+                entity::setAccessTokenValue,
+                entity::setAccessTokenHash,
+                entity::setAccessTokenIssuedAt,
+                entity::setAccessTokenExpiresAt,
+                entity::setAccessTokenMetadata);
+        if (accessToken != null) {
+            entity.setAccessTokenType(accessToken.getToken().getTokenType().getValue());
+            entity.setAccessTokenScopes(StringUtils.collectionToCommaDelimitedString(accessToken.getToken().getScopes()));
+        }
+
+        setTokenValues(authorization.getToken(OAuth2RefreshToken.class),
+                entity::setRefreshTokenValue,
+                entity::setRefreshTokenHash,
+                entity::setRefreshTokenIssuedAt,
+                entity::setRefreshTokenExpiresAt,
+                entity::setRefreshTokenMetadata);
+
+        setTokenValues(authorization.getToken(OidcIdToken.class),
+                entity::setOidcIdTokenValue,
+                entity::setOidcIdTokenHash,
+                entity::setOidcIdTokenIssuedAt,
+                entity::setOidcIdTokenExpiresAt,
+                entity::setOidcIdTokenMetadata);
+
+        setTokenValues(authorization.getToken(OAuth2UserCode.class),
+                entity::setUserCodeValue,
+                entity::setUserCodeHash,
+                entity::setUserCodeIssuedAt,
+                entity::setUserCodeExpiresAt,
+                entity::setUserCodeMetadata);
+
+        setTokenValues(authorization.getToken(OAuth2DeviceCode.class),
+                entity::setDeviceCodeValue,
+                entity::setDeviceCodeHash,
+                entity::setDeviceCodeIssuedAt,
+                entity::setDeviceCodeExpiresAt,
+                entity::setDeviceCodeMetadata);
+        entity.setExpiresAt(expiresAt(entity));
+        return entity;
+    }
+
+    /**
+     * The expiry of the longest-lived token, {@code null} if any token never expires, or the pending time to live
+     * if there is no token yet.
+     */
+    private Instant expiresAt(AuthorizationEntity entity) {
+        Instant expiresAt = null;
+        boolean anyToken = false;
+        String[] values = {entity.getAuthorizationCodeValue(), entity.getAccessTokenValue(), entity.getRefreshTokenValue(),
+                entity.getOidcIdTokenValue(), entity.getUserCodeValue(), entity.getDeviceCodeValue()};
+        Instant[] expiries = {entity.getAuthorizationCodeExpiresAt(), entity.getAccessTokenExpiresAt(), entity.getRefreshTokenExpiresAt(),
+                entity.getOidcIdTokenExpiresAt(), entity.getUserCodeExpiresAt(), entity.getDeviceCodeExpiresAt()};
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                continue;
+            }
+            if (expiries[i] == null) {
+                return null;
+            }
+            anyToken = true;
+            if (expiresAt == null || expiries[i].isAfter(expiresAt)) {
+                expiresAt = expiries[i];
+            }
+        }
+        return anyToken ? expiresAt : Instant.now().plus(pendingAuthorizationTimeToLive);
+    }
+
+    private void setTokenValues(OAuth2Authorization.Token<?> token,
+                                Consumer<String> valueConsumer,
+                                Consumer<String> hashConsumer,
+                                Consumer<Instant> issuedAtConsumer,
+                                Consumer<Instant> expiresAtConsumer,
+                                Consumer<String> metadataConsumer) {
+        if (token != null) {
+            OAuth2Token oAuth2Token = token.getToken();
+            valueConsumer.accept(oAuth2Token.getTokenValue());
+            hashConsumer.accept(TokenDigests.sha256Hex(oAuth2Token.getTokenValue()));
+            issuedAtConsumer.accept(oAuth2Token.getIssuedAt());
+            expiresAtConsumer.accept(oAuth2Token.getExpiresAt());
+            metadataConsumer.accept(writeMap(token.getMetadata()));
+        }
+    }
+
+    private Map<String, Object> parseMap(String data) {
+        if (!StringUtils.hasText(data)) {
+            return Collections.emptyMap();
+        }
+        try {
+            return objectMapper.readValue(data, new TypeReference<Map<String, Object>>() {});
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    private String writeMap(Map<String, Object> data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+}
@@ -1,37 +1,75 @@
 package com.daem.infrastructure.persistence.adapter;
 
+import com.daem.domain.client.ClientQuery;
+import com.daem.domain.client.ClientSummary;
+import com.daem.domain.client.VersionedClient;
+import com.daem.infrastructure.config.ClientStorageProperties;
+import com.daem.infrastructure.persistence.jdbc.RegisteredClientJdbcRepository;
+import com.daem.infrastructure.persistence.jdbc.RegisteredClientSummaryRow;
 import com.daem.infrastructure.persistence.jpa.entity.RegisteredClientEntity;
 import com.daem.infrastructure.persistence.jpa.repository.RegisteredClientJpaRepository;
+import com.daem.infrastructure.tenant.TenantResolver;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
-import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.settings.ClientSettings;
 import org.springframework.security.oauth2.server.authorization.settings.TokenSettings;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 public class RegisteredClientRepositoryAdapter implements com.daem.domain.client.ClientRepository {
 
     private final RegisteredClientJpaRepository registeredClientJpaRepository;
+    private final RegisteredClientJdbcRepository registeredClientJdbcRepository;
     private final ObjectMapper objectMapper; // Changed to be injected
+    private final ClientStorageProperties storageProperties;
+    private final EntityManager entityManager;
+    private final Timer queryByIdTimer;
+    private final Timer mappingByIdTimer;
+    private final Timer queryByClientIdTimer;
+    private final Timer mappingByClientIdTimer;
 
-    public RegisteredClientRepositoryAdapter(RegisteredClientJpaRepository registeredClientJpaRepository, ObjectMapper objectMapper) { // Added ObjectMapper to constructor
+    public RegisteredClientRepositoryAdapter(RegisteredClientJpaRepository registeredClientJpaRepository,
+                                             RegisteredClientJdbcRepository registeredClientJdbcRepository, ObjectMapper objectMapper,
+                                             ClientStorageProperties storageProperties, EntityManager entityManager,
+                                             MeterRegistry meterRegistry) { // Added ObjectMapper to constructor
         this.registeredClientJpaRepository = registeredClientJpaRepository;
+        this.registeredClientJdbcRepository = registeredClientJdbcRepository;
         this.objectMapper = objectMapper; // Injected ObjectMapper
+        this.storageProperties = storageProperties;
+        this.entityManager = entityManager;
+        this.queryByIdTimer = lookupTimer(meterRegistry, "query", "id");
+        this.mappingByIdTimer = lookupTimer(meterRegistry, "mapping", "id");
+        this.queryByClientIdTimer = lookupTimer(meterRegistry, "query", "client_id");
+        this.mappingByClientIdTimer = lookupTimer(meterRegistry, "mapping", "client_id");
+    }
+
+    private static Timer lookupTimer(MeterRegistry meterRegistry, String phase, String key) {
+        return Timer.builder("daem.oauth2.client.lookup")
+                .description("Registered client lookups that reached the database, split into query and mapping")
+                .tag("phase", phase)
+                .tag("key", key)
+                .register(meterRegistry);
     }
 
     @Override
@@ -42,48 +80,182 @@ public class RegisteredClientRepositoryAdapter implements com.daem.domain.client
 
     @Override
     public RegisteredClient findById(String id) {
-        return registeredClientJpaRepository.findById(id).map(this::toObject).orElse(null);
+        Optional<RegisteredClientEntity> entity = queryByIdTimer.record(() -> registeredClientJpaRepository.findById(id));
+        return entity.map(found -> mappingByIdTimer.record(() -> toObject(found))).orElse(null);
     }
 
     @Override
-    public RegisteredClient findByClientId(String clientId) {
-        return registeredClientJpaRepository.findByClientId(clientId).map(this::toObject).orElse(null);
+    public RegisteredClient findByClientId(String tenant, String clientId) {
+        Optional<RegisteredClientEntity> entity = queryByClientIdTimer.record(
+                () -> registeredClientJpaRepository.findByTenantIdAndClientId(tenant, clientId));
+        return entity.map(found -> mappingByClientIdTimer.record(() -> toObject(found))).orElse(null);
     }
 
     public List<RegisteredClient> findAll() {
         return registeredClientJpaRepository.findAll().stream().map(this::toObject).collect(Collectors.toList());
     }
 
-    public void deleteByClientId(String clientId) {
-        registeredClientJpaRepository.deleteByClientId(clientId);
+    public void deleteByClientId(String tenant, String clientId) {
+        registeredClientJpaRepository.deleteByTenantIdAndClientId(tenant, clientId);
     }
 
-    private RegisteredClientEntity toEntity(RegisteredClient registeredClient) {
+    @Override
+    public List<RegisteredClient> findAllByScope(String scope) {
+        List<RegisteredClientEntity> entities = storageProperties.mode() == ClientStorageProperties.Mode.TYPED
+                ? registeredClientJpaRepository.findAllByScope(scope)
+                : registeredClientJpaRepository.findAllByScopeIncludingLegacy(scope);
+        return entities.stream().map(this::toObject).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<RegisteredClient> findAllByAuthorizationGrantType(String authorizationGrantType) {
+        List<RegisteredClientEntity> entities = storageProperties.mode() == ClientStorageProperties.Mode.TYPED
+                ? registeredClientJpaRepository.findAllByAuthorizationGrantType(authorizationGrantType)
+                : registeredClientJpaRepository.findAllByAuthorizationGrantTypeIncludingLegacy(authorizationGrantType);
+        return entities.stream().map(this::toObject).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<ClientSummary> findSummaries(ClientQuery query, String afterClientId, String afterTenant, int limit) {
+        return registeredClientJdbcRepository.findSummaries(query, afterClientId, afterTenant, limit).stream()
+                .map(this::toSummary).collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<ClientSummary> streamSummaries(ClientQuery query) {
+        return registeredClientJdbcRepository.streamSummaries(query).map(this::toSummary);
+    }
+
+    @Override
+    public Stream<RegisteredClient> streamAll() {
+        return registeredClientJpaRepository.streamAllOrderByClientId().map(entity -> {
+            // Keep the persistence context from growing with the size of the table
+            entityManager.detach(entity);
+            return toObject(entity);
+        });
+    }
+
+    @Override
+    public Map<String, RegisteredClient> lockAllByClientId(String tenant, Collection<String> clientIds) {
+        if (clientIds.isEmpty()) {
+            return Map.of();
+        }
+        return registeredClientJpaRepository.findAllForUpdateByTenantIdAndClientIdIn(tenant, clientIds).stream()
+                .collect(Collectors.toMap(RegisteredClientEntity::getClientId, this::toObject));
+    }
+
+    @Override
+    public void upsertAll(List<RegisteredClient> registeredClients) {
+        registeredClientJdbcRepository.batchUpsert(registeredClients.stream().map(this::toEntity).collect(Collectors.toList()));
+    }
+
+    @Override
+    public VersionedClient findVersionedByClientId(String tenant, String clientId) {
+        return registeredClientJpaRepository.findByTenantIdAndClientId(tenant, clientId)
+                .map(entity -> {
+                    // Versioned writes go through JDBC, behind the persistence context's back; an entity left managed
+                    // would be returned with its old version by the next read in the same transaction
+                    entityManager.detach(entity);
+                    return new VersionedClient(toObject(entity), entity.getVersion());
+                })
+                .orElse(null);
+    }
+
+    @Override
+    public OptionalLong upsert(RegisteredClient registeredClient, Long expectedVersion) {
+        RegisteredClientEntity entity = toEntity(registeredClient);
+        if (expectedVersion == null) {
+            return registeredClientJdbcRepository.insertIfAbsent(entity) ? OptionalLong.of(0) : OptionalLong.empty();
+        }
+        return registeredClientJdbcRepository.updateIfVersion(entity, expectedVersion)
+                ? OptionalLong.of(expectedVersion + 1) : OptionalLong.empty();
+    }
+
+    /**
+     * Copies the legacy JSON columns of the given rows into the typed columns. Used by the online migration.
+     */
+    public void backfillTypedColumns(List<RegisteredClientEntity> entities) {
+        for (RegisteredClientEntity entity : entities) {
+            writeTypedColumns(entity, toObject(entity));
+        }
+        registeredClientJpaRepository.saveAll(entities);
+    }
+
+    /**
+     * Maps a client to its row, laid out according to the configured storage mode.
+     */
+    public RegisteredClientEntity toEntity(RegisteredClient registeredClient) {
         RegisteredClientEntity entity = new RegisteredClientEntity();
         entity.setId(registeredClient.getId());
         entity.setClientId(registeredClient.getClientId());
+        entity.setTenantId(TenantResolver.tenantOf(registeredClient));
         entity.setClientIdIssuedAt(registeredClient.getClientIdIssuedAt() != null ? registeredClient.getClientIdIssuedAt() : Instant.now());
         entity.setClientSecret(registeredClient.getClientSecret());
         entity.setClientSecretExpiresAt(registeredClient.getClientSecretExpiresAt());
         entity.setClientName(registeredClient.getClientName());
-        entity.setClientAuthenticationMethods(writeSet(registeredClient.getClientAuthenticationMethods(), ClientAuthenticationMethod::getValue));
-        entity.setAuthorizationGrantTypes(writeSet(registeredClient.getAuthorizationGrantTypes(), AuthorizationGrantType::getValue));
-        entity.setRedirectUris(writeSet(registeredClient.getRedirectUris(), String::new));
-        entity.setPostLogoutRedirectUris(writeSet(registeredClient.getPostLogoutRedirectUris(), String::new)); // Added postLogoutRedirectUris
-        entity.setScopes(writeSet(registeredClient.getScopes(), String::new));
-        entity.setClientSettings(writeMap(registeredClient.getClientSettings().getSettings()));
-        entity.setTokenSettings(writeMap(registeredClient.getTokenSettings().getSettings()));
+        if (storageProperties.writesLegacyColumns()) {
+            entity.setClientAuthenticationMethods(writeSet(registeredClient.getClientAuthenticationMethods(), ClientAuthenticationMethod::getValue));
+            entity.setAuthorizationGrantTypes(writeSet(registeredClient.getAuthorizationGrantTypes(), AuthorizationGrantType::getValue));
+            entity.setRedirectUris(writeSet(registeredClient.getRedirectUris(), String::new));
+            entity.setPostLogoutRedirectUris(writeSet(registeredClient.getPostLogoutRedirectUris(), String::new)); // Added postLogoutRedirectUris
+            entity.setScopes(writeSet(registeredClient.getScopes(), String::new));
+            entity.setClientSettings(writeMap(ClientSettingsCodec.encode(registeredClient.getClientSettings().getSettings())));
+            entity.setTokenSettings(writeMap(ClientSettingsCodec.encode(registeredClient.getTokenSettings().getSettings())));
+        }
+        if (storageProperties.writesTypedColumns()) {
+            writeTypedColumns(entity, registeredClient);
+        }
         return entity;
     }
 
-    private RegisteredClient toObject(RegisteredClientEntity entity) {
-        Set<ClientAuthenticationMethod> clientAuthenticationMethods = parseSet(entity.getClientAuthenticationMethods(), ClientAuthenticationMethod::new);
-        Set<AuthorizationGrantType> authorizationGrantTypes = parseSet(entity.getAuthorizationGrantTypes(), AuthorizationGrantType::new);
-        Set<String> redirectUris = parseSet(entity.getRedirectUris(), String::new);
-        Set<String> postLogoutRedirectUris = parseSet(entity.getPostLogoutRedirectUris(), String::new); // Added postLogoutRedirectUris
-        Set<String> scopesFromEntity = parseSet(entity.getScopes(), String::new); // Renamed to avoid conflict
-        Map<String, Object> clientSettingsMap = parseMap(entity.getClientSettings());
-        Map<String, Object> tokenSettingsMap = parseMap(entity.getTokenSettings());
+    private void writeTypedColumns(RegisteredClientEntity entity, RegisteredClient registeredClient) {
+        entity.setClientAuthenticationMethodsV2(toArray(registeredClient.getClientAuthenticationMethods(), ClientAuthenticationMethod::getValue));
+        entity.setAuthorizationGrantTypesV2(toArray(registeredClient.getAuthorizationGrantTypes(), AuthorizationGrantType::getValue));
+        entity.setRedirectUrisV2(toArray(registeredClient.getRedirectUris(), Function.identity()));
+        entity.setPostLogoutRedirectUrisV2(toArray(registeredClient.getPostLogoutRedirectUris(), Function.identity()));
+        entity.setScopesV2(toArray(registeredClient.getScopes(), Function.identity()));
+        ClientSettingsColumns.write(registeredClient, entity);
+    }
+
+    private ClientSummary toSummary(RegisteredClientSummaryRow row) {
+        boolean typed = row.authorizationGrantTypesV2() != null;
+        return new ClientSummary(
+                row.id(),
+                row.clientId(),
+                row.tenantId(),
+                row.clientName(),
+                typed ? fromArray(row.clientAuthenticationMethodsV2(), Function.identity()) : parseSet(row.clientAuthenticationMethods(), String::new),
+                typed ? fromArray(row.authorizationGrantTypesV2(), Function.identity()) : parseSet(row.authorizationGrantTypes(), String::new),
+                typed ? fromArray(row.redirectUrisV2(), Function.identity()) : parseSet(row.redirectUris(), String::new),
+                typed ? fromArray(row.scopesV2(), Function.identity()) : parseSet(row.scopes(), String::new));
+    }
+
+    /**
+     * Maps a row back to a client, preferring the typed columns whenever the row has them.
+     */
+    public RegisteredClient toObject(RegisteredClientEntity entity) {
+        boolean typed = entity.getAuthorizationGrantTypesV2() != null;
+        Set<ClientAuthenticationMethod> clientAuthenticationMethods = typed
+                ? fromArray(entity.getClientAuthenticationMethodsV2(), ClientAuthenticationMethod::new)
+                : parseSet(entity.getClientAuthenticationMethods(), ClientAuthenticationMethod::new);
+        Set<AuthorizationGrantType> authorizationGrantTypes = typed
+                ? fromArray(entity.getAuthorizationGrantTypesV2(), AuthorizationGrantType::new)
+                : parseSet(entity.getAuthorizationGrantTypes(), AuthorizationGrantType::new);
+        Set<String> redirectUris = typed
+                ? fromArray(entity.getRedirectUrisV2(), Function.identity())
+                : parseSet(entity.getRedirectUris(), String::new);
+        Set<String> postLogoutRedirectUris = typed
+                ? fromArray(entity.getPostLogoutRedirectUrisV2(), Function.identity())
+                : parseSet(entity.getPostLogoutRedirectUris(), String::new); // Added postLogoutRedirectUris
+        Set<String> scopesFromEntity = typed
+                ? fromArray(entity.getScopesV2(), Function.identity())
+                : parseSet(entity.getScopes(), String::new); // Renamed to avoid conflict
+        ClientSettings clientSettings = typed
+                ? ClientSettingsColumns.readClientSettings(entity)
+                : ClientSettingsCodec.decodeClientSettings(parseMap(entity.getClientSettings()));
+        TokenSettings tokenSettings = typed
+                ? ClientSettingsColumns.readTokenSettings(entity)
+                : ClientSettingsCodec.decodeTokenSettings(parseMap(entity.getTokenSettings()));
 
         RegisteredClient.Builder builder = RegisteredClient.withId(entity.getId());
         builder.clientId(entity.getClientId())
@@ -96,8 +268,8 @@ public class RegisteredClientRepositoryAdapter implements com.daem.domain.client
                 .redirectUris(uris -> uris.addAll(redirectUris))
                 .postLogoutRedirectUris(uris -> uris.addAll(postLogoutRedirectUris))
                 .scopes(scopes -> scopes.addAll(scopesFromEntity))
-                .clientSettings(ClientSettings.withSettings(clientSettingsMap).build())
-                .tokenSettings(TokenSettings.withSettings(tokenSettingsMap).build());
+                .clientSettings(clientSettings)
+                .tokenSettings(tokenSettings);
         return builder.build();
     }
 
@@ -128,15 +300,15 @@ public class RegisteredClientRepositoryAdapter implements com.daem.domain.client
         if (!StringUtils.hasText(json)) {
             return Collections.emptySet();
         }
+        if (json.charAt(0) != '[') {
+            // Legacy rows may hold a single bare value instead of a JSON array
+            return Collections.singleton(mapper.apply(json));
+        }
         try {
-            // Try to parse as a List (JSON array)
             List<String> list = objectMapper.readValue(json, new TypeReference<List<String>>() {});
             return list.stream().map(mapper).collect(Collectors.toSet());
         } catch (JsonProcessingException e) {
-            // If parsing as List fails, assume it's a single string and wrap it in a Set
-            Set<T> singleElementSet = new HashSet<>();
-            singleElementSet.add(mapper.apply(json));
-            return singleElementSet;
+            throw new IllegalStateException("Malformed JSON array in oauth2_registered_client: " + json, e);
         }
     }
 
@@ -147,8 +319,18 @@ public class RegisteredClientRepositoryAdapter implements com.daem.domain.client
         try {
             return objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {});
         } catch (JsonProcessingException e) {
-            // If parsing as Map fails, return an empty map
-            return Collections.emptyMap();
+            throw new IllegalStateException("Malformed JSON object in oauth2_registered_client: " + json, e);
+        }
+    }
+
+    private static <T> String[] toArray(Set<T> set, Function<T, String> mapper) {
+        return set.stream().map(mapper).toArray(String[]::new);
+    }
+
+    private static <T> Set<T> fromArray(String[] values, Function<String, T> mapper) {
+        if (values == null || values.length == 0) {
+            return Collections.emptySet();
         }
+        return Arrays.stream(values).map(mapper).collect(Collectors.toSet());
     }
 }
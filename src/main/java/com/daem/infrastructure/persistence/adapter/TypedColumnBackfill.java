@@ -0,0 +1,91 @@
+package com.daem.infrastructure.persistence.adapter;
+
+import com.daem.infrastructure.config.ClientStorageProperties;
+import com.daem.infrastructure.persistence.jpa.entity.RegisteredClientEntity;
+import com.daem.infrastructure.persistence.jpa.repository.RegisteredClientJpaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Online backfill of the typed client columns. Once the application is up, rows that only have the legacy JSON
+ * columns are converted in small batches, one short transaction each, on a background thread.
+ * <p>
+ * In {@code DUAL_WRITE} mode this is repeated every {@code backfillInterval}: while nodes without the typed columns
+ * still run, every client they update loses its typed columns again.
+ */
+@Component
+public class TypedColumnBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(TypedColumnBackfill.class);
+
+    private final RegisteredClientJpaRepository registeredClientJpaRepository;
+    private final RegisteredClientRepositoryAdapter registeredClientRepositoryAdapter;
+    private final TransactionTemplate transactionTemplate;
+    private final ClientStorageProperties storageProperties;
+
+    public TypedColumnBackfill(RegisteredClientJpaRepository registeredClientJpaRepository,
+                               RegisteredClientRepositoryAdapter registeredClientRepositoryAdapter,
+                               TransactionTemplate transactionTemplate,
+                               ClientStorageProperties storageProperties) {
+        this.registeredClientJpaRepository = registeredClientJpaRepository;
+        this.registeredClientRepositoryAdapter = registeredClientRepositoryAdapter;
+        this.transactionTemplate = transactionTemplate;
+        this.storageProperties = storageProperties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!storageProperties.writesTypedColumns() || !storageProperties.backfillOnStartup()) {
+            return;
+        }
+        Thread thread = new Thread(this::runRepeatedly, "client-typed-column-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void runRepeatedly() {
+        run();
+        Duration interval = storageProperties.backfillInterval();
+        if (!storageProperties.writesLegacyColumns() || interval.isZero() || interval.isNegative()) {
+            return;
+        }
+        try {
+            while (true) {
+                Thread.sleep(interval.toMillis());
+                run();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int run() {
+        int migrated = 0;
+        try {
+            Integer batch;
+            do {
+                batch = transactionTemplate.execute(status -> {
+                    List<RegisteredClientEntity> entities = registeredClientJpaRepository.findWithoutTypedColumns(
+                            Limit.of(storageProperties.backfillBatchSize()));
+                    registeredClientRepositoryAdapter.backfillTypedColumns(entities);
+                    return entities.size();
+                });
+                migrated += batch != null ? batch : 0;
+            } while (batch != null && batch > 0);
+            if (migrated > 0) {
+                log.info("Backfilled typed columns for {} registered clients", migrated);
+            }
+        } catch (RuntimeException ex) {
+            log.error("Typed column backfill stopped after {} registered clients", migrated, ex);
+        }
+        return migrated;
+    }
+}
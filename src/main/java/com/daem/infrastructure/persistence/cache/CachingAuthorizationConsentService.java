@@ -0,0 +1,92 @@
+package com.daem.infrastructure.persistence.cache;
+
+import com.daem.infrastructure.cluster.ClusterNotificationBus;
+import com.daem.infrastructure.cluster.ClusterNotificationListener;
+import com.daem.infrastructure.config.ConsentCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsent;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsentService;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+/**
+ * Read-through cache of consents per (registered client, principal) in front of the JPA-backed service.
+ * <p>
+ * Missing consents are cached too: a save or remove evicts the entry locally once the transaction commits and
+ * on every other node through the {@link ClusterNotificationBus}, so a cached absence never hides a new consent.
+ */
+public class CachingAuthorizationConsentService implements OAuth2AuthorizationConsentService {
+
+    static final String CHANNEL = "oauth2_authorization_consent";
+    private static final String SEPARATOR = "\n";
+
+    private final OAuth2AuthorizationConsentService delegate;
+    private final ClusterNotificationBus notificationBus;
+    private final Cache<ConsentKey, Optional<OAuth2AuthorizationConsent>> consents;
+
+    public CachingAuthorizationConsentService(OAuth2AuthorizationConsentService delegate, ConsentCacheProperties properties,
+                                              ClusterNotificationBus notificationBus, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.notificationBus = notificationBus;
+        this.consents = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.timeToLive())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, consents, "oauth2.authorization-consent");
+        notificationBus.subscribe(CHANNEL, new ClusterNotificationListener() {
+            @Override
+            public void onNotification(String payload) {
+                // Client ids never contain the separator; principal names are taken verbatim
+                int separator = payload.indexOf(SEPARATOR);
+                consents.invalidate(new ConsentKey(payload.substring(0, separator), payload.substring(separator + 1)));
+            }
+
+            @Override
+            public void onReconnect() {
+                consents.invalidateAll();
+            }
+        });
+    }
+
+    @Override
+    public void save(OAuth2AuthorizationConsent authorizationConsent) {
+        delegate.save(authorizationConsent);
+        invalidate(authorizationConsent);
+    }
+
+    @Override
+    public void remove(OAuth2AuthorizationConsent authorizationConsent) {
+        delegate.remove(authorizationConsent);
+        invalidate(authorizationConsent);
+    }
+
+    @Override
+    public OAuth2AuthorizationConsent findById(String registeredClientId, String principalName) {
+        return consents.get(new ConsentKey(registeredClientId, principalName),
+                key -> Optional.ofNullable(delegate.findById(key.registeredClientId(), key.principalName()))).orElse(null);
+    }
+
+    private void invalidate(OAuth2AuthorizationConsent authorizationConsent) {
+        ConsentKey key = new ConsentKey(authorizationConsent.getRegisteredClientId(), authorizationConsent.getPrincipalName());
+        notificationBus.publish(CHANNEL, key.registeredClientId() + SEPARATOR + key.principalName());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    consents.invalidate(key);
+                }
+            });
+        } else {
+            consents.invalidate(key);
+        }
+    }
+
+    private record ConsentKey(String registeredClientId, String principalName) {
+    }
+}
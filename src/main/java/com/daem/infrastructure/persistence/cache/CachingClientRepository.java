@@ -0,0 +1,252 @@
+package com.daem.infrastructure.persistence.cache;
+
+import com.daem.domain.client.ClientQuery;
+import com.daem.domain.client.ClientRepository;
+import com.daem.domain.client.ClientSummary;
+import com.daem.domain.client.VersionedClient;
+import com.daem.infrastructure.cluster.ClusterNotificationBus;
+import com.daem.infrastructure.cluster.ClusterNotificationListener;
+import com.daem.infrastructure.config.ClientCacheProperties;
+import com.daem.infrastructure.tenant.TenantResolver;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
+
+/**
+ * Read-through cache of fully built {@link RegisteredClient}s in front of the JPA-backed repository.
+ * <p>
+ * Clients are cached by both id and tenant plus client id, for all tenants in the same caches. Unknown keys are cached as well, with a shorter TTL, so that
+ * token requests for non-existent clients do not reach the database either. Writes evict the affected
+ * entries locally once the transaction commits and broadcast the eviction to the other nodes over the
+ * {@link ClusterNotificationBus}.
+ */
+public class CachingClientRepository implements ClientRepository {
+
+    public static final String CHANNEL = "oauth2_registered_client";
+    private static final String SEPARATOR = "\n";
+    private static final String ALL = "*";
+
+    private final ClientRepository delegate;
+    private final ClusterNotificationBus notificationBus;
+    private final Cache<String, Optional<RegisteredClient>> byId;
+    private final Cache<String, Optional<RegisteredClient>> byClientId;
+
+    public CachingClientRepository(ClientRepository delegate, ClientCacheProperties properties,
+                                   ClusterNotificationBus notificationBus, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.notificationBus = notificationBus;
+        this.byId = newCache(properties);
+        this.byClientId = newCache(properties);
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "oauth2.registered-client.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, byClientId, "oauth2.registered-client.by-client-id");
+        notificationBus.subscribe(CHANNEL, new ClusterNotificationListener() {
+            @Override
+            public void onNotification(String payload) {
+                if (ALL.equals(payload)) {
+                    invalidateAll();
+                    return;
+                }
+                // id, tenant and client id; nodes that predate tenant keys leave out the tenant, which then
+                // matches every tenant
+                int separator = payload.indexOf(SEPARATOR);
+                int tenantEnd = payload.indexOf(SEPARATOR, separator + 1);
+                String id = emptyToNull(payload.substring(0, separator));
+                if (tenantEnd < 0) {
+                    evict(id, null, emptyToNull(payload.substring(separator + 1)));
+                } else {
+                    evict(id, payload.substring(separator + 1, tenantEnd), emptyToNull(payload.substring(tenantEnd + 1)));
+                }
+            }
+
+            @Override
+            public void onReconnect() {
+                invalidateAll();
+            }
+        });
+    }
+
+    @Override
+    public void save(RegisteredClient registeredClient) {
+        delegate.save(registeredClient);
+        invalidate(registeredClient.getId(), TenantResolver.tenantOf(registeredClient), registeredClient.getClientId());
+    }
+
+    @Override
+    public RegisteredClient findById(String id) {
+        Optional<RegisteredClient> client = byId.get(id, key -> Optional.ofNullable(delegate.findById(key)));
+        return client.orElse(null);
+    }
+
+    @Override
+    public RegisteredClient findByClientId(String tenant, String clientId) {
+        Optional<RegisteredClient> client = byClientId.get(clientIdKey(tenant, clientId),
+                key -> Optional.ofNullable(delegate.findByClientId(tenant, clientId)));
+        return client.orElse(null);
+    }
+
+    @Override
+    public List<RegisteredClient> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<RegisteredClient> findAllByScope(String scope) {
+        return delegate.findAllByScope(scope);
+    }
+
+    @Override
+    public List<RegisteredClient> findAllByAuthorizationGrantType(String authorizationGrantType) {
+        return delegate.findAllByAuthorizationGrantType(authorizationGrantType);
+    }
+
+    @Override
+    public List<ClientSummary> findSummaries(ClientQuery query, String afterClientId, String afterTenant, int limit) {
+        return delegate.findSummaries(query, afterClientId, afterTenant, limit);
+    }
+
+    @Override
+    public Stream<ClientSummary> streamSummaries(ClientQuery query) {
+        return delegate.streamSummaries(query);
+    }
+
+    @Override
+    public Stream<RegisteredClient> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public Map<String, RegisteredClient> lockAllByClientId(String tenant, Collection<String> clientIds) {
+        return delegate.lockAllByClientId(tenant, clientIds);
+    }
+
+    /**
+     * Bulk writes drop the whole cache once instead of broadcasting one eviction per client.
+     */
+    @Override
+    public void upsertAll(List<RegisteredClient> registeredClients) {
+        delegate.upsertAll(registeredClients);
+        notificationBus.publish(CHANNEL, ALL);
+        afterCommit(this::invalidateAll);
+    }
+
+    @Override
+    public VersionedClient findVersionedByClientId(String tenant, String clientId) {
+        return delegate.findVersionedByClientId(tenant, clientId);
+    }
+
+    @Override
+    public OptionalLong upsert(RegisteredClient registeredClient, Long expectedVersion) {
+        OptionalLong version = delegate.upsert(registeredClient, expectedVersion);
+        if (version.isPresent()) {
+            invalidate(registeredClient.getId(), TenantResolver.tenantOf(registeredClient), registeredClient.getClientId());
+        }
+        return version;
+    }
+
+    @Override
+    public void deleteByClientId(String tenant, String clientId) {
+        delegate.deleteByClientId(tenant, clientId);
+        invalidate(null, tenant, clientId);
+    }
+
+    public void invalidateAll() {
+        byId.invalidateAll();
+        byClientId.invalidateAll();
+    }
+
+    private void invalidate(String id, String tenant, String clientId) {
+        notificationBus.publish(CHANNEL, nullToEmpty(id) + SEPARATOR + tenant + SEPARATOR + nullToEmpty(clientId));
+        afterCommit(() -> evict(id, tenant, clientId));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Removes every entry that refers to the given id, or to the client id in the given tenant, under either key,
+     * which also covers a client whose client id was changed. A {@code null} tenant stands for every tenant.
+     */
+    private void evict(String id, String tenant, String clientId) {
+        if (id != null) {
+            byId.invalidate(id);
+        }
+        if (clientId != null) {
+            if (tenant != null) {
+                byClientId.invalidate(clientIdKey(tenant, clientId));
+            } else {
+                byClientId.asMap().keySet().removeIf(key -> key.substring(key.indexOf(SEPARATOR) + 1).equals(clientId));
+            }
+        }
+        byId.asMap().values().removeIf(cached -> matches(cached, id, tenant, clientId));
+        byClientId.asMap().values().removeIf(cached -> matches(cached, id, tenant, clientId));
+    }
+
+    private static boolean matches(Optional<RegisteredClient> cached, String id, String tenant, String clientId) {
+        return cached.filter(client -> Objects.equals(client.getId(), id)
+                || Objects.equals(client.getClientId(), clientId)
+                && (tenant == null || tenant.equals(TenantResolver.tenantOf(client)))).isPresent();
+    }
+
+    /**
+     * Tenant ids hold no line breaks, so the key names a single tenant and client id.
+     */
+    private static String clientIdKey(String tenant, String clientId) {
+        return tenant + SEPARATOR + clientId;
+    }
+
+    private static Cache<String, Optional<RegisteredClient>> newCache(ClientCacheProperties properties) {
+        long ttl = properties.timeToLive().toNanos();
+        long negativeTtl = properties.negativeTimeToLive().toNanos();
+        return Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfter(new Expiry<String, Optional<RegisteredClient>>() {
+                    @Override
+                    public long expireAfterCreate(String key, Optional<RegisteredClient> value, long currentTime) {
+                        return value.isPresent() ? ttl : negativeTtl;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Optional<RegisteredClient> value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Optional<RegisteredClient> value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
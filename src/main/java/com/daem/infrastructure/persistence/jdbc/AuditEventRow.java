@@ -0,0 +1,19 @@
+package com.daem.infrastructure.persistence.jdbc;
+
+import java.time.Instant;
+
+/**
+ * One row of {@code oauth2_audit_event}. Tokens are only ever identified by their {@code jti} and the SHA-256
+ * digest of their value.
+ */
+public record AuditEventRow(
+        Instant occurredAt,
+        String type,
+        String clientId,
+        String principalName,
+        String grantType,
+        String tokenId,
+        String tokenHash,
+        String refreshTokenHash
+) {
+}
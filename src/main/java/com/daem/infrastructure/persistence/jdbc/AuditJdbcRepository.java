@@ -0,0 +1,36 @@
+package com.daem.infrastructure.persistence.jdbc;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Batched inserts into {@code oauth2_audit_event}, for the background writer of the audit log.
+ */
+@Repository
+public class AuditJdbcRepository {
+
+    private static final String INSERT = "INSERT INTO oauth2_audit_event (occurred_at, type, client_id, principal_name," +
+            " grant_type, token_id, token_hash, refresh_token_hash) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AuditJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void batchInsert(List<AuditEventRow> rows) {
+        jdbcTemplate.batchUpdate(INSERT, rows, rows.size(), (statement, row) -> {
+            statement.setTimestamp(1, Timestamp.from(row.occurredAt()));
+            statement.setString(2, row.type());
+            statement.setString(3, row.clientId());
+            statement.setString(4, row.principalName());
+            statement.setString(5, row.grantType());
+            statement.setString(6, row.tokenId());
+            statement.setString(7, row.tokenHash());
+            statement.setString(8, row.refreshTokenHash());
+        });
+    }
+}
@@ -0,0 +1,122 @@
+package com.daem.infrastructure.persistence.jdbc;
+
+import com.daem.infrastructure.persistence.jpa.entity.AuthorizationEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Batched writes to {@code oauth2_authorization}, used by the write-behind buffer to flush many authorizations
+ * with one round trip instead of a JPA merge (select plus insert or update) per row, and the scan that reloads the
+ * pending device codes after a restart.
+ */
+@Repository
+public class AuthorizationJdbcRepository {
+
+    private static final Map<String, Function<AuthorizationEntity, Object>> COLUMNS = columns();
+
+    private static final String UPSERT = "INSERT INTO oauth2_authorization (" + String.join(", ", COLUMNS.keySet()) + ")" +
+            " VALUES (" + COLUMNS.keySet().stream().map(column -> "?").collect(Collectors.joining(", ")) + ")" +
+            " ON CONFLICT (id) DO UPDATE SET " + COLUMNS.keySet().stream()
+            .filter(column -> !column.equals("id"))
+            .map(column -> column + " = EXCLUDED." + column)
+            .collect(Collectors.joining(", "));
+
+    // Token metadata is written by Jackson without whitespace; see OAuth2AuthorizationServiceAdapter
+    private static final String INVALIDATED_METADATA = "%\"" + OAuth2Authorization.Token.INVALIDATED_METADATA_NAME + "\":true%";
+
+    // The expires_at range lets the scan use its index; for a device authorization it is the device code expiry
+    private static final String SELECT_PENDING_DEVICE_CODES = "SELECT device_code_hash, registered_client_id, device_code_expires_at" +
+            " FROM oauth2_authorization WHERE expires_at > ? AND device_code_hash IS NOT NULL AND device_code_expires_at > ?" +
+            " AND user_code_metadata NOT LIKE ? AND device_code_metadata NOT LIKE ?" +
+            " ORDER BY device_code_expires_at DESC LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AuthorizationJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts or fully overwrites every entity by id with one JDBC batch.
+     */
+    public void batchUpsert(List<AuthorizationEntity> entities) {
+        jdbcTemplate.batchUpdate(UPSERT, entities, entities.size(), this::setValues);
+    }
+
+    /**
+     * Device codes that expire after {@code now} and that the user has neither approved nor denied yet, latest
+     * expiry first.
+     */
+    public List<PendingDeviceCodeRow> findPendingDeviceCodes(Instant now, int limit) {
+        Timestamp timestamp = Timestamp.from(now);
+        return jdbcTemplate.query(SELECT_PENDING_DEVICE_CODES, (resultSet, rowNum) -> new PendingDeviceCodeRow(
+                        resultSet.getString("device_code_hash"),
+                        resultSet.getString("registered_client_id"),
+                        resultSet.getTimestamp("device_code_expires_at").toInstant()),
+                timestamp, timestamp, INVALIDATED_METADATA, INVALIDATED_METADATA, limit);
+    }
+
+    private void setValues(PreparedStatement statement, AuthorizationEntity entity) throws SQLException {
+        int index = 1;
+        for (Function<AuthorizationEntity, Object> getter : COLUMNS.values()) {
+            Object value = getter.apply(entity);
+            statement.setObject(index++, value instanceof Instant instant ? Timestamp.from(instant) : value);
+        }
+    }
+
+    private static Map<String, Function<AuthorizationEntity, Object>> columns() {
+        Map<String, Function<AuthorizationEntity, Object>> columns = new LinkedHashMap<>();
+        columns.put("id", AuthorizationEntity::getId);
+        columns.put("registered_client_id", AuthorizationEntity::getRegisteredClientId);
+        columns.put("principal_name", AuthorizationEntity::getPrincipalName);
+        columns.put("authorization_grant_type", AuthorizationEntity::getAuthorizationGrantType);
+        columns.put("authorized_scopes", AuthorizationEntity::getAuthorizedScopes);
+        columns.put("attributes", AuthorizationEntity::getAttributes);
+        columns.put("state", AuthorizationEntity::getState);
+        columns.put("authorization_code_value", AuthorizationEntity::getAuthorizationCodeValue);
+        columns.put("authorization_code_hash", AuthorizationEntity::getAuthorizationCodeHash);
+        columns.put("authorization_code_issued_at", AuthorizationEntity::getAuthorizationCodeIssuedAt);
+        columns.put("authorization_code_expires_at", AuthorizationEntity::getAuthorizationCodeExpiresAt);
+        columns.put("authorization_code_metadata", AuthorizationEntity::getAuthorizationCodeMetadata);
+        columns.put("access_token_value", AuthorizationEntity::getAccessTokenValue);
+        columns.put("access_token_hash", AuthorizationEntity::getAccessTokenHash);
+        columns.put("access_token_issued_at", AuthorizationEntity::getAccessTokenIssuedAt);
+        columns.put("access_token_expires_at", AuthorizationEntity::getAccessTokenExpiresAt);
+        columns.put("access_token_metadata", AuthorizationEntity::getAccessTokenMetadata);
+        columns.put("access_token_type", AuthorizationEntity::getAccessTokenType);
+        columns.put("access_token_scopes", AuthorizationEntity::getAccessTokenScopes);
+        columns.put("oidc_id_token_value", AuthorizationEntity::getOidcIdTokenValue);
+        columns.put("oidc_id_token_hash", AuthorizationEntity::getOidcIdTokenHash);
+        columns.put("oidc_id_token_issued_at", AuthorizationEntity::getOidcIdTokenIssuedAt);
+        columns.put("oidc_id_token_expires_at", AuthorizationEntity::getOidcIdTokenExpiresAt);
+        columns.put("oidc_id_token_metadata", AuthorizationEntity::getOidcIdTokenMetadata);
+        columns.put("refresh_token_value", AuthorizationEntity::getRefreshTokenValue);
+        columns.put("refresh_token_hash", AuthorizationEntity::getRefreshTokenHash);
+        columns.put("refresh_token_issued_at", AuthorizationEntity::getRefreshTokenIssuedAt);
+        columns.put("refresh_token_expires_at", AuthorizationEntity::getRefreshTokenExpiresAt);
+        columns.put("refresh_token_metadata", AuthorizationEntity::getRefreshTokenMetadata);
+        columns.put("user_code_value", AuthorizationEntity::getUserCodeValue);
+        columns.put("user_code_hash", AuthorizationEntity::getUserCodeHash);
+        columns.put("user_code_issued_at", AuthorizationEntity::getUserCodeIssuedAt);
+        columns.put("user_code_expires_at", AuthorizationEntity::getUserCodeExpiresAt);
+        columns.put("user_code_metadata", AuthorizationEntity::getUserCodeMetadata);
+        columns.put("device_code_value", AuthorizationEntity::getDeviceCodeValue);
+        columns.put("device_code_hash", AuthorizationEntity::getDeviceCodeHash);
+        columns.put("device_code_issued_at", AuthorizationEntity::getDeviceCodeIssuedAt);
+        columns.put("device_code_expires_at", AuthorizationEntity::getDeviceCodeExpiresAt);
+        columns.put("device_code_metadata", AuthorizationEntity::getDeviceCodeMetadata);
+        columns.put("expires_at", AuthorizationEntity::getExpiresAt);
+        return columns;
+    }
+}
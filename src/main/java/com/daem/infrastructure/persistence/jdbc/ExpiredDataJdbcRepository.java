@@ -0,0 +1,58 @@
+package com.daem.infrastructure.persistence.jdbc;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Chunked deletes for the background purge. Every statement deletes at most {@code limit} rows picked through an
+ * index, and skips rows that token traffic currently has locked instead of waiting for them.
+ */
+@Repository
+public class ExpiredDataJdbcRepository {
+
+    private static final String DELETE_EXPIRED_AUTHORIZATIONS = "DELETE FROM oauth2_authorization WHERE id IN (" +
+            " SELECT id FROM oauth2_authorization WHERE expires_at < ? ORDER BY expires_at LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    private static final String DELETE_ORPHANED_CONSENTS = "DELETE FROM oauth2_authorization_consent" +
+            " WHERE (registered_client_id, principal_name) IN (" +
+            " SELECT c.registered_client_id, c.principal_name FROM oauth2_authorization_consent c" +
+            " WHERE NOT EXISTS (SELECT 1 FROM oauth2_registered_client r WHERE r.id = c.registered_client_id)" +
+            " LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    private static final String DELETE_EXPIRED_REVOKED_TOKENS = "DELETE FROM oauth2_revoked_token WHERE feed_version IN (" +
+            " SELECT feed_version FROM oauth2_revoked_token WHERE expires_at < ? ORDER BY expires_at LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ExpiredDataJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public int deleteExpiredAuthorizations(Instant expiredBefore, int limit) {
+        return jdbcTemplate.update(DELETE_EXPIRED_AUTHORIZATIONS, Timestamp.from(expiredBefore), limit);
+    }
+
+    /**
+     * Consents never expire; they are only purged once their client has been deleted.
+     */
+    public int deleteOrphanedConsents(int limit) {
+        return jdbcTemplate.update(DELETE_ORPHANED_CONSENTS, limit);
+    }
+
+    public int deleteExpiredRevokedTokens(Instant expiredBefore, int limit) {
+        return jdbcTemplate.update(DELETE_EXPIRED_REVOKED_TOKENS, Timestamp.from(expiredBefore), limit);
+    }
+
+    /**
+     * @return the expiry of the oldest authorization still waiting to be purged, or {@code null} if there is none
+     */
+    public Instant oldestExpiredAuthorization(Instant expiredBefore) {
+        Timestamp oldest = jdbcTemplate.queryForObject(
+                "SELECT MIN(expires_at) FROM oauth2_authorization WHERE expires_at < ?", Timestamp.class,
+                Timestamp.from(expiredBefore));
+        return oldest != null ? oldest.toInstant() : null;
+    }
+}
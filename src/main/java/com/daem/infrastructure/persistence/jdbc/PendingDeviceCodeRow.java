@@ -0,0 +1,13 @@
+package com.daem.infrastructure.persistence.jdbc;
+
+import java.time.Instant;
+
+/**
+ * A device code still waiting for the user's decision, as found in {@code oauth2_authorization}.
+ */
+public record PendingDeviceCodeRow(
+        String deviceCodeHash,
+        String registeredClientId,
+        Instant expiresAt
+) {
+}
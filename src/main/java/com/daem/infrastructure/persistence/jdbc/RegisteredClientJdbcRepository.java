@@ -0,0 +1,323 @@
+package com.daem.infrastructure.persistence.jdbc;
+
+import com.daem.domain.client.ClientQuery;
+import com.daem.infrastructure.persistence.jpa.entity.RegisteredClientEntity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Plain JDBC access to {@code oauth2_registered_client} for the paths where loading full JPA entities is too
+ * expensive: listing projections that skip the settings columns, batched bulk writes, and the single-statement
+ * versioned writes of the admin API.
+ */
+@Repository
+public class RegisteredClientJdbcRepository {
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private static final String SUMMARY_COLUMNS = "id, client_id, tenant_id, client_name," +
+            " client_authentication_methods, authorization_grant_types, redirect_uris, scopes," +
+            " client_authentication_methods_v2, authorization_grant_types_v2, redirect_uris_v2, scopes_v2";
+
+    // The settings of the typed layout that have a column of their own, see ClientSettingsColumns
+    private static final String SETTING_COLUMNS =
+            "require_proof_key, require_authorization_consent, jwk_set_url," +
+            " token_endpoint_authentication_signing_algorithm, x509_certificate_subject_dn," +
+            " reuse_access_token, token_requests_per_second, token_request_burst," +
+            " authorization_code_time_to_live, access_token_time_to_live, access_token_format," +
+            " device_code_time_to_live, reuse_refresh_tokens, refresh_token_time_to_live," +
+            " id_token_signature_algorithm, x509_certificate_bound_access_tokens";
+
+    private static final String SETTING_VALUES =
+            ":requireProofKey, :requireAuthorizationConsent, :jwkSetUrl," +
+            " :tokenEndpointAuthenticationSigningAlgorithm, :x509CertificateSubjectDn, :reuseAccessToken," +
+            " :tokenRequestsPerSecond, :tokenRequestBurst, CAST(:authorizationCodeTimeToLive AS interval)," +
+            " CAST(:accessTokenTimeToLive AS interval), :accessTokenFormat," +
+            " CAST(:deviceCodeTimeToLive AS interval), :reuseRefreshTokens," +
+            " CAST(:refreshTokenTimeToLive AS interval), :idTokenSignatureAlgorithm," +
+            " :x509CertificateBoundAccessTokens";
+
+    private static final String INSERT = "INSERT INTO oauth2_registered_client (id, client_id, tenant_id, client_id_issued_at," +
+            " client_secret, client_secret_expires_at, client_name, client_authentication_methods, authorization_grant_types," +
+            " redirect_uris, post_logout_redirect_uris, scopes, client_settings, token_settings," +
+            " client_authentication_methods_v2, authorization_grant_types_v2, redirect_uris_v2, post_logout_redirect_uris_v2," +
+            " scopes_v2, client_settings_v2, token_settings_v2, " + SETTING_COLUMNS + ")" +
+            " VALUES (:id, :clientId, :tenantId, :clientIdIssuedAt, :clientSecret, :clientSecretExpiresAt, :clientName," +
+            " :clientAuthenticationMethods, :authorizationGrantTypes, :redirectUris, :postLogoutRedirectUris, :scopes," +
+            " :clientSettings, :tokenSettings, :clientAuthenticationMethodsV2, :authorizationGrantTypesV2, :redirectUrisV2," +
+            " :postLogoutRedirectUrisV2, :scopesV2, CAST(:clientSettingsV2 AS jsonb), CAST(:tokenSettingsV2 AS jsonb), " +
+            SETTING_VALUES + ")";
+
+    private static final String UPSERT = INSERT +
+            " ON CONFLICT (client_id, tenant_id) DO UPDATE SET" +
+            " client_secret = COALESCE(EXCLUDED.client_secret, oauth2_registered_client.client_secret)," +
+            " client_secret_expires_at = EXCLUDED.client_secret_expires_at," +
+            " client_name = EXCLUDED.client_name," +
+            " client_authentication_methods = EXCLUDED.client_authentication_methods," +
+            " authorization_grant_types = EXCLUDED.authorization_grant_types," +
+            " redirect_uris = EXCLUDED.redirect_uris," +
+            " post_logout_redirect_uris = EXCLUDED.post_logout_redirect_uris," +
+            " scopes = EXCLUDED.scopes," +
+            " client_settings = EXCLUDED.client_settings," +
+            " token_settings = EXCLUDED.token_settings," +
+            " client_authentication_methods_v2 = EXCLUDED.client_authentication_methods_v2," +
+            " authorization_grant_types_v2 = EXCLUDED.authorization_grant_types_v2," +
+            " redirect_uris_v2 = EXCLUDED.redirect_uris_v2," +
+            " post_logout_redirect_uris_v2 = EXCLUDED.post_logout_redirect_uris_v2," +
+            " scopes_v2 = EXCLUDED.scopes_v2," +
+            " client_settings_v2 = EXCLUDED.client_settings_v2," +
+            " token_settings_v2 = EXCLUDED.token_settings_v2," +
+            " require_proof_key = EXCLUDED.require_proof_key," +
+            " require_authorization_consent = EXCLUDED.require_authorization_consent," +
+            " jwk_set_url = EXCLUDED.jwk_set_url," +
+            " token_endpoint_authentication_signing_algorithm = EXCLUDED.token_endpoint_authentication_signing_algorithm," +
+            " x509_certificate_subject_dn = EXCLUDED.x509_certificate_subject_dn," +
+            " reuse_access_token = EXCLUDED.reuse_access_token," +
+            " token_requests_per_second = EXCLUDED.token_requests_per_second," +
+            " token_request_burst = EXCLUDED.token_request_burst," +
+            " authorization_code_time_to_live = EXCLUDED.authorization_code_time_to_live," +
+            " access_token_time_to_live = EXCLUDED.access_token_time_to_live," +
+            " access_token_format = EXCLUDED.access_token_format," +
+            " device_code_time_to_live = EXCLUDED.device_code_time_to_live," +
+            " reuse_refresh_tokens = EXCLUDED.reuse_refresh_tokens," +
+            " refresh_token_time_to_live = EXCLUDED.refresh_token_time_to_live," +
+            " id_token_signature_algorithm = EXCLUDED.id_token_signature_algorithm," +
+            " x509_certificate_bound_access_tokens = EXCLUDED.x509_certificate_bound_access_tokens," +
+            " version = oauth2_registered_client.version + 1";
+
+    private static final String INSERT_IF_ABSENT = INSERT + " ON CONFLICT (client_id, tenant_id) DO NOTHING";
+
+    private static final String UPDATE_IF_VERSION = "UPDATE oauth2_registered_client SET" +
+            " client_secret = COALESCE(:clientSecret, client_secret)," +
+            " client_secret_expires_at = :clientSecretExpiresAt," +
+            " client_name = :clientName," +
+            " client_authentication_methods = :clientAuthenticationMethods," +
+            " authorization_grant_types = :authorizationGrantTypes," +
+            " redirect_uris = :redirectUris," +
+            " post_logout_redirect_uris = :postLogoutRedirectUris," +
+            " scopes = :scopes," +
+            " client_settings = :clientSettings," +
+            " token_settings = :tokenSettings," +
+            " client_authentication_methods_v2 = :clientAuthenticationMethodsV2," +
+            " authorization_grant_types_v2 = :authorizationGrantTypesV2," +
+            " redirect_uris_v2 = :redirectUrisV2," +
+            " post_logout_redirect_uris_v2 = :postLogoutRedirectUrisV2," +
+            " scopes_v2 = :scopesV2," +
+            " client_settings_v2 = CAST(:clientSettingsV2 AS jsonb)," +
+            " token_settings_v2 = CAST(:tokenSettingsV2 AS jsonb)," +
+            " require_proof_key = :requireProofKey," +
+            " require_authorization_consent = :requireAuthorizationConsent," +
+            " jwk_set_url = :jwkSetUrl," +
+            " token_endpoint_authentication_signing_algorithm = :tokenEndpointAuthenticationSigningAlgorithm," +
+            " x509_certificate_subject_dn = :x509CertificateSubjectDn," +
+            " reuse_access_token = :reuseAccessToken," +
+            " token_requests_per_second = :tokenRequestsPerSecond," +
+            " token_request_burst = :tokenRequestBurst," +
+            " authorization_code_time_to_live = CAST(:authorizationCodeTimeToLive AS interval)," +
+            " access_token_time_to_live = CAST(:accessTokenTimeToLive AS interval)," +
+            " access_token_format = :accessTokenFormat," +
+            " device_code_time_to_live = CAST(:deviceCodeTimeToLive AS interval)," +
+            " reuse_refresh_tokens = :reuseRefreshTokens," +
+            " refresh_token_time_to_live = CAST(:refreshTokenTimeToLive AS interval)," +
+            " id_token_signature_algorithm = :idTokenSignatureAlgorithm," +
+            " x509_certificate_bound_access_tokens = :x509CertificateBoundAccessTokens," +
+            " version = version + 1" +
+            " WHERE client_id = :clientId AND tenant_id = :tenantId AND version = :expectedVersion";
+
+    private static final RowMapper<RegisteredClientSummaryRow> SUMMARY_ROW_MAPPER = (rs, rowNum) -> new RegisteredClientSummaryRow(
+            rs.getString("id"),
+            rs.getString("client_id"),
+            rs.getString("tenant_id"),
+            rs.getString("client_name"),
+            rs.getString("client_authentication_methods"),
+            rs.getString("authorization_grant_types"),
+            rs.getString("redirect_uris"),
+            rs.getString("scopes"),
+            getStringArray(rs, "client_authentication_methods_v2"),
+            getStringArray(rs, "authorization_grant_types_v2"),
+            getStringArray(rs, "redirect_uris_v2"),
+            getStringArray(rs, "scopes_v2"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public RegisteredClientJdbcRepository(DataSource dataSource, ObjectMapper objectMapper) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.objectMapper = objectMapper;
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        // PostgreSQL only honours the fetch size (server-side cursor) inside a transaction
+        streaming.setFetchSize(STREAM_FETCH_SIZE);
+        this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(streaming);
+    }
+
+    /**
+     * Keyset page ordered by client id and tenant, starting after the client {@code afterClientId} of
+     * {@code afterTenant} (exclusive; both null for the first page).
+     */
+    public List<RegisteredClientSummaryRow> findSummaries(ClientQuery query, String afterClientId, String afterTenant,
+                                                          int limit) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        StringBuilder sql = summarySelect(query, parameters);
+        if (afterClientId != null) {
+            sql.append(" AND (client_id, tenant_id) > (:afterClientId, :afterTenant)");
+            parameters.addValue("afterClientId", afterClientId);
+            parameters.addValue("afterTenant", afterTenant);
+        }
+        sql.append(" ORDER BY client_id, tenant_id LIMIT :limit");
+        parameters.addValue("limit", limit);
+        return jdbcTemplate.query(sql.toString(), parameters, SUMMARY_ROW_MAPPER);
+    }
+
+    public Stream<RegisteredClientSummaryRow> streamSummaries(ClientQuery query) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        StringBuilder sql = summarySelect(query, parameters).append(" ORDER BY client_id, tenant_id");
+        return streamingJdbcTemplate.queryForStream(sql.toString(), parameters, SUMMARY_ROW_MAPPER);
+    }
+
+    /**
+     * Upserts all entities by tenant and client id with one JDBC batch; existing rows keep their id and issue time, and their
+     * secret if the entity has none.
+     */
+    public void batchUpsert(List<RegisteredClientEntity> entities) {
+        MapSqlParameterSource[] batch = entities.stream().map(this::upsertParameters).toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(UPSERT, batch);
+    }
+
+    /**
+     * Inserts the entity unless its client id is taken in its tenant.
+     *
+     * @return whether the entity was inserted
+     */
+    public boolean insertIfAbsent(RegisteredClientEntity entity) {
+        return jdbcTemplate.update(INSERT_IF_ABSENT, upsertParameters(entity)) == 1;
+    }
+
+    /**
+     * Overwrites the row with the entity's tenant and client id, except for its id and issue time, provided the row is still at
+     * {@code expectedVersion}; a {@code null} secret keeps the stored one.
+     *
+     * @return whether the row was updated; its version is then {@code expectedVersion + 1}
+     */
+    public boolean updateIfVersion(RegisteredClientEntity entity, long expectedVersion) {
+        return jdbcTemplate.update(UPDATE_IF_VERSION, upsertParameters(entity).addValue("expectedVersion", expectedVersion)) == 1;
+    }
+
+    private MapSqlParameterSource upsertParameters(RegisteredClientEntity entity) {
+        return new MapSqlParameterSource()
+                .addValue("id", entity.getId())
+                .addValue("clientId", entity.getClientId())
+                .addValue("tenantId", entity.getTenantId())
+                .addValue("clientIdIssuedAt", toTimestamp(entity.getClientIdIssuedAt()))
+                .addValue("clientSecret", entity.getClientSecret())
+                .addValue("clientSecretExpiresAt", toTimestamp(entity.getClientSecretExpiresAt()))
+                .addValue("clientName", entity.getClientName())
+                .addValue("clientAuthenticationMethods", entity.getClientAuthenticationMethods())
+                .addValue("authorizationGrantTypes", entity.getAuthorizationGrantTypes())
+                .addValue("redirectUris", entity.getRedirectUris())
+                .addValue("postLogoutRedirectUris", entity.getPostLogoutRedirectUris())
+                .addValue("scopes", entity.getScopes())
+                .addValue("clientSettings", entity.getClientSettings())
+                .addValue("tokenSettings", entity.getTokenSettings())
+                .addValue("clientAuthenticationMethodsV2", entity.getClientAuthenticationMethodsV2(), Types.ARRAY)
+                .addValue("authorizationGrantTypesV2", entity.getAuthorizationGrantTypesV2(), Types.ARRAY)
+                .addValue("redirectUrisV2", entity.getRedirectUrisV2(), Types.ARRAY)
+                .addValue("postLogoutRedirectUrisV2", entity.getPostLogoutRedirectUrisV2(), Types.ARRAY)
+                .addValue("scopesV2", entity.getScopesV2(), Types.ARRAY)
+                .addValue("clientSettingsV2", writeJson(entity.getClientSettingsV2()))
+                .addValue("tokenSettingsV2", writeJson(entity.getTokenSettingsV2()))
+                .addValue("requireProofKey", entity.getRequireProofKey())
+                .addValue("requireAuthorizationConsent", entity.getRequireAuthorizationConsent())
+                .addValue("jwkSetUrl", entity.getJwkSetUrl())
+                .addValue("tokenEndpointAuthenticationSigningAlgorithm", entity.getTokenEndpointAuthenticationSigningAlgorithm())
+                .addValue("x509CertificateSubjectDn", entity.getX509CertificateSubjectDn())
+                .addValue("reuseAccessToken", entity.getReuseAccessToken())
+                .addValue("tokenRequestsPerSecond", entity.getTokenRequestsPerSecond())
+                .addValue("tokenRequestBurst", entity.getTokenRequestBurst())
+                .addValue("authorizationCodeTimeToLive", toInterval(entity.getAuthorizationCodeTimeToLive()))
+                .addValue("accessTokenTimeToLive", toInterval(entity.getAccessTokenTimeToLive()))
+                .addValue("accessTokenFormat", entity.getAccessTokenFormat())
+                .addValue("deviceCodeTimeToLive", toInterval(entity.getDeviceCodeTimeToLive()))
+                .addValue("reuseRefreshTokens", entity.getReuseRefreshTokens())
+                .addValue("refreshTokenTimeToLive", toInterval(entity.getRefreshTokenTimeToLive()))
+                .addValue("idTokenSignatureAlgorithm", entity.getIdTokenSignatureAlgorithm())
+                .addValue("x509CertificateBoundAccessTokens", entity.getX509CertificateBoundAccessTokens());
+    }
+
+    private String writeJson(Map<String, Object> value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static String toInterval(Duration duration) {
+        return duration != null ? duration.toString() : null;
+    }
+
+    private static Timestamp toTimestamp(Instant instant) {
+        return instant != null ? Timestamp.from(instant) : null;
+    }
+
+    private static StringBuilder summarySelect(ClientQuery query, MapSqlParameterSource parameters) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(SUMMARY_COLUMNS)
+                .append(" FROM oauth2_registered_client WHERE 1 = 1");
+        if (query.tenant() != null) {
+            sql.append(" AND tenant_id = :tenant");
+            parameters.addValue("tenant", query.tenant());
+        }
+        if (StringUtils.hasText(query.clientIdPrefix())) {
+            sql.append(" AND client_id LIKE :clientIdPrefix ESCAPE '\\'");
+            parameters.addValue("clientIdPrefix", escapeLike(query.clientIdPrefix()) + "%");
+        }
+        if (StringUtils.hasText(query.authorizationGrantType())) {
+            appendContains(sql, parameters, "authorization_grant_types", "grantType", query.authorizationGrantType());
+        }
+        if (StringUtils.hasText(query.scope())) {
+            appendContains(sql, parameters, "scopes", "scope", query.scope());
+        }
+        return sql;
+    }
+
+    /**
+     * Typed rows are matched through the GIN-indexed array; rows not yet backfilled fall back to their JSON string.
+     */
+    private static void appendContains(StringBuilder sql, MapSqlParameterSource parameters, String column, String parameter, String value) {
+        sql.append(" AND (").append(column).append("_v2 @> ARRAY[CAST(:").append(parameter).append(" AS text)]")
+                .append(" OR (authorization_grant_types_v2 IS NULL AND ").append(column)
+                .append(" LIKE :").append(parameter).append("Json ESCAPE '\\'))");
+        parameters.addValue(parameter, value);
+        parameters.addValue(parameter + "Json", "%\"" + escapeLike(value) + "\"%");
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static String[] getStringArray(ResultSet rs, String column) throws SQLException {
+        Array array = rs.getArray(column);
+        return array != null ? (String[]) array.getArray() : null;
+    }
+}
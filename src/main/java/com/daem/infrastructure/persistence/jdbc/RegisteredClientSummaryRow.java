@@ -0,0 +1,20 @@
+package com.daem.infrastructure.persistence.jdbc;
+
+/**
+ * Raw listing columns of {@code oauth2_registered_client}, in whichever layout the row was written.
+ */
+public record RegisteredClientSummaryRow(
+        String id,
+        String clientId,
+        String tenantId,
+        String clientName,
+        String clientAuthenticationMethods,
+        String authorizationGrantTypes,
+        String redirectUris,
+        String scopes,
+        String[] clientAuthenticationMethodsV2,
+        String[] authorizationGrantTypesV2,
+        String[] redirectUrisV2,
+        String[] scopesV2
+) {
+}
@@ -0,0 +1,28 @@
+package com.daem.infrastructure.persistence.jdbc;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Registered tenants of the multi-issuer mode, in {@code oauth2_tenant}.
+ */
+@Repository
+public class TenantJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TenantJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean exists(String tenantId) {
+        return !jdbcTemplate.queryForList("SELECT 1 FROM oauth2_tenant WHERE id = ?", Integer.class, tenantId).isEmpty();
+    }
+
+    /**
+     * @return {@code true} if the tenant was inserted, {@code false} if it was registered already
+     */
+    public boolean insertIfAbsent(String tenantId) {
+        return jdbcTemplate.update("INSERT INTO oauth2_tenant (id) VALUES (?) ON CONFLICT (id) DO NOTHING", tenantId) > 0;
+    }
+}
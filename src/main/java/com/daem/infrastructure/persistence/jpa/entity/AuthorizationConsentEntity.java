@@ -0,0 +1,94 @@
+package com.daem.infrastructure.persistence.jpa.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * The authorities a principal granted to a client. {@code authorities} holds the compact encoding written by
+ * {@code OAuth2AuthorizationConsentServiceAdapter}.
+ */
+@Entity
+@Table(name = "oauth2_authorization_consent")
+@IdClass(AuthorizationConsentEntity.AuthorizationConsentId.class)
+public class AuthorizationConsentEntity {
+
+    @Id
+    @Column(name = "registered_client_id", length = 100)
+    private String registeredClientId;
+
+    @Id
+    @Column(name = "principal_name", length = 200)
+    private String principalName;
+
+    @Column(name = "authorities", nullable = false, length = 1000)
+    private String authorities;
+
+    // Getters and Setters
+    public String getRegisteredClientId() {
+        return registeredClientId;
+    }
+
+    public void setRegisteredClientId(String registeredClientId) {
+        this.registeredClientId = registeredClientId;
+    }
+
+    public String getPrincipalName() {
+        return principalName;
+    }
+
+    public void setPrincipalName(String principalName) {
+        this.principalName = principalName;
+    }
+
+    public String getAuthorities() {
+        return authorities;
+    }
+
+    public void setAuthorities(String authorities) {
+        this.authorities = authorities;
+    }
+
+    public static class AuthorizationConsentId implements Serializable {
+
+        private String registeredClientId;
+        private String principalName;
+
+        public AuthorizationConsentId() {
+        }
+
+        public AuthorizationConsentId(String registeredClientId, String principalName) {
+            this.registeredClientId = registeredClientId;
+            this.principalName = principalName;
+        }
+
+        public String getRegisteredClientId() {
+            return registeredClientId;
+        }
+
+        public String getPrincipalName() {
+            return principalName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof AuthorizationConsentId that)) {
+                return false;
+            }
+            return Objects.equals(registeredClientId, that.registeredClientId) && Objects.equals(principalName, that.principalName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(registeredClientId, principalName);
+        }
+    }
+}
@@ -0,0 +1,469 @@
+package com.daem.infrastructure.persistence.jpa.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+/**
+ * Persistent form of an {@code OAuth2Authorization}. Token values are kept for reconstruction only; lookups go
+ * through the fixed-width SHA-256 {@code *_hash} columns, each of which has its own index. {@code expiresAt} is
+ * when the last of its tokens expires, which drives the background purge.
+ */
+@Entity
+@Table(name = "oauth2_authorization", indexes = {
+        @Index(name = "ix_oauth2_authorization_state", columnList = "state"),
+        @Index(name = "ix_oauth2_authorization_code_hash", columnList = "authorization_code_hash"),
+        @Index(name = "ix_oauth2_authorization_access_token_hash", columnList = "access_token_hash"),
+        @Index(name = "ix_oauth2_authorization_refresh_token_hash", columnList = "refresh_token_hash"),
+        @Index(name = "ix_oauth2_authorization_oidc_id_token_hash", columnList = "oidc_id_token_hash"),
+        @Index(name = "ix_oauth2_authorization_user_code_hash", columnList = "user_code_hash"),
+        @Index(name = "ix_oauth2_authorization_device_code_hash", columnList = "device_code_hash"),
+        @Index(name = "ix_oauth2_authorization_expires_at", columnList = "expires_at")
+})
+public class AuthorizationEntity {
+
+    @Id
+    @Column(length = 100)
+    private String id;
+
+    @Column(name = "registered_client_id", nullable = false, length = 100)
+    private String registeredClientId;
+
+    @Column(name = "principal_name", nullable = false, length = 200)
+    private String principalName;
+
+    @Column(name = "authorization_grant_type", nullable = false, length = 100)
+    private String authorizationGrantType;
+
+    @Column(name = "authorized_scopes", length = 1000)
+    private String authorizedScopes;
+
+    @Column(name = "attributes", columnDefinition = "text")
+    private String attributes;
+
+    @Column(name = "state", length = 500)
+    private String state;
+
+    @Column(name = "authorization_code_value", columnDefinition = "text")
+    private String authorizationCodeValue;
+
+    @Column(name = "authorization_code_hash", columnDefinition = "char(64)")
+    private String authorizationCodeHash;
+
+    @Column(name = "authorization_code_issued_at")
+    private Instant authorizationCodeIssuedAt;
+
+    @Column(name = "authorization_code_expires_at")
+    private Instant authorizationCodeExpiresAt;
+
+    @Column(name = "authorization_code_metadata", columnDefinition = "text")
+    private String authorizationCodeMetadata;
+
+    @Column(name = "access_token_value", columnDefinition = "text")
+    private String accessTokenValue;
+
+    @Column(name = "access_token_hash", columnDefinition = "char(64)")
+    private String accessTokenHash;
+
+    @Column(name = "access_token_issued_at")
+    private Instant accessTokenIssuedAt;
+
+    @Column(name = "access_token_expires_at")
+    private Instant accessTokenExpiresAt;
+
+    @Column(name = "access_token_metadata", columnDefinition = "text")
+    private String accessTokenMetadata;
+
+    @Column(name = "access_token_type", length = 100)
+    private String accessTokenType;
+
+    @Column(name = "access_token_scopes", length = 1000)
+    private String accessTokenScopes;
+
+    @Column(name = "oidc_id_token_value", columnDefinition = "text")
+    private String oidcIdTokenValue;
+
+    @Column(name = "oidc_id_token_hash", columnDefinition = "char(64)")
+    private String oidcIdTokenHash;
+
+    @Column(name = "oidc_id_token_issued_at")
+    private Instant oidcIdTokenIssuedAt;
+
+    @Column(name = "oidc_id_token_expires_at")
+    private Instant oidcIdTokenExpiresAt;
+
+    @Column(name = "oidc_id_token_metadata", columnDefinition = "text")
+    private String oidcIdTokenMetadata;
+
+    @Column(name = "refresh_token_value", columnDefinition = "text")
+    private String refreshTokenValue;
+
+    @Column(name = "refresh_token_hash", columnDefinition = "char(64)")
+    private String refreshTokenHash;
+
+    @Column(name = "refresh_token_issued_at")
+    private Instant refreshTokenIssuedAt;
+
+    @Column(name = "refresh_token_expires_at")
+    private Instant refreshTokenExpiresAt;
+
+    @Column(name = "refresh_token_metadata", columnDefinition = "text")
+    private String refreshTokenMetadata;
+
+    @Column(name = "user_code_value", columnDefinition = "text")
+    private String userCodeValue;
+
+    @Column(name = "user_code_hash", columnDefinition = "char(64)")
+    private String userCodeHash;
+
+    @Column(name = "user_code_issued_at")
+    private Instant userCodeIssuedAt;
+
+    @Column(name = "user_code_expires_at")
+    private Instant userCodeExpiresAt;
+
+    @Column(name = "user_code_metadata", columnDefinition = "text")
+    private String userCodeMetadata;
+
+    @Column(name = "device_code_value", columnDefinition = "text")
+    private String deviceCodeValue;
+
+    @Column(name = "device_code_hash", columnDefinition = "char(64)")
+    private String deviceCodeHash;
+
+    @Column(name = "device_code_issued_at")
+    private Instant deviceCodeIssuedAt;
+
+    @Column(name = "device_code_expires_at")
+    private Instant deviceCodeExpiresAt;
+
+    @Column(name = "device_code_metadata", columnDefinition = "text")
+    private String deviceCodeMetadata;
+
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getRegisteredClientId() {
+        return registeredClientId;
+    }
+
+    public void setRegisteredClientId(String registeredClientId) {
+        this.registeredClientId = registeredClientId;
+    }
+
+    public String getPrincipalName() {
+        return principalName;
+    }
+
+    public void setPrincipalName(String principalName) {
+        this.principalName = principalName;
+    }
+
+    public String getAuthorizationGrantType() {
+        return authorizationGrantType;
+    }
+
+    public void setAuthorizationGrantType(String authorizationGrantType) {
+        this.authorizationGrantType = authorizationGrantType;
+    }
+
+    public String getAuthorizedScopes() {
+        return authorizedScopes;
+    }
+
+    public void setAuthorizedScopes(String authorizedScopes) {
+        this.authorizedScopes = authorizedScopes;
+    }
+
+    public String getAttributes() {
+        return attributes;
+    }
+
+    public void setAttributes(String attributes) {
+        this.attributes = attributes;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public String getAuthorizationCodeValue() {
+        return authorizationCodeValue;
+    }
+
+    public void setAuthorizationCodeValue(String authorizationCodeValue) {
+        this.authorizationCodeValue = authorizationCodeValue;
+    }
+
+    public String getAuthorizationCodeHash() {
+        return authorizationCodeHash;
+    }
+
+    public void setAuthorizationCodeHash(String authorizationCodeHash) {
+        this.authorizationCodeHash = authorizationCodeHash;
+    }
+
+    public Instant getAuthorizationCodeIssuedAt() {
+        return authorizationCodeIssuedAt;
+    }
+
+    public void setAuthorizationCodeIssuedAt(Instant authorizationCodeIssuedAt) {
+        this.authorizationCodeIssuedAt = authorizationCodeIssuedAt;
+    }
+
+    public Instant getAuthorizationCodeExpiresAt() {
+        return authorizationCodeExpiresAt;
+    }
+
+    public void setAuthorizationCodeExpiresAt(Instant authorizationCodeExpiresAt) {
+        this.authorizationCodeExpiresAt = authorizationCodeExpiresAt;
+    }
+
+    public String getAuthorizationCodeMetadata() {
+        return authorizationCodeMetadata;
+    }
+
+    public void setAuthorizationCodeMetadata(String authorizationCodeMetadata) {
+        this.authorizationCodeMetadata = authorizationCodeMetadata;
+    }
+
+    public String getAccessTokenValue() {
+        return accessTokenValue;
+    }
+
+    public void setAccessTokenValue(String accessTokenValue) {
+        this.accessTokenValue = accessTokenValue;
+    }
+
+    public String getAccessTokenHash() {
+        return accessTokenHash;
+    }
+
+    public void setAccessTokenHash(String accessTokenHash) {
+        this.accessTokenHash = accessTokenHash;
+    }
+
+    public Instant getAccessTokenIssuedAt() {
+        return accessTokenIssuedAt;
+    }
+
+    public void setAccessTokenIssuedAt(Instant accessTokenIssuedAt) {
+        this.accessTokenIssuedAt = accessTokenIssuedAt;
+    }
+
+    public Instant getAccessTokenExpiresAt() {
+        return accessTokenExpiresAt;
+    }
+
+    public void setAccessTokenExpiresAt(Instant accessTokenExpiresAt) {
+        this.accessTokenExpiresAt = accessTokenExpiresAt;
+    }
+
+    public String getAccessTokenMetadata() {
+        return accessTokenMetadata;
+    }
+
+    public void setAccessTokenMetadata(String accessTokenMetadata) {
+        this.accessTokenMetadata = accessTokenMetadata;
+    }
+
+    public String getAccessTokenType() {
+        return accessTokenType;
+    }
+
+    public void setAccessTokenType(String accessTokenType) {
+        this.accessTokenType = accessTokenType;
+    }
+
+    public String getAccessTokenScopes() {
+        return accessTokenScopes;
+    }
+
+    public void setAccessTokenScopes(String accessTokenScopes) {
+        this.accessTokenScopes = accessTokenScopes;
+    }
+
+    public String getOidcIdTokenValue() {
+        return oidcIdTokenValue;
+    }
+
+    public void setOidcIdTokenValue(String oidcIdTokenValue) {
+        this.oidcIdTokenValue = oidcIdTokenValue;
+    }
+
+    public String getOidcIdTokenHash() {
+        return oidcIdTokenHash;
+    }
+
+    public void setOidcIdTokenHash(String oidcIdTokenHash) {
+        this.oidcIdTokenHash = oidcIdTokenHash;
+    }
+
+    public Instant getOidcIdTokenIssuedAt() {
+        return oidcIdTokenIssuedAt;
+    }
+
+    public void setOidcIdTokenIssuedAt(Instant oidcIdTokenIssuedAt) {
+        this.oidcIdTokenIssuedAt = oidcIdTokenIssuedAt;
+    }
+
+    public Instant getOidcIdTokenExpiresAt() {
+        return oidcIdTokenExpiresAt;
+    }
+
+    public void setOidcIdTokenExpiresAt(Instant oidcIdTokenExpiresAt) {
+        this.oidcIdTokenExpiresAt = oidcIdTokenExpiresAt;
+    }
+
+    public String getOidcIdTokenMetadata() {
+        return oidcIdTokenMetadata;
+    }
+
+    public void setOidcIdTokenMetadata(String oidcIdTokenMetadata) {
+        this.oidcIdTokenMetadata = oidcIdTokenMetadata;
+    }
+
+    public String getRefreshTokenValue() {
+        return refreshTokenValue;
+    }
+
+    public void setRefreshTokenValue(String refreshTokenValue) {
+        this.refreshTokenValue = refreshTokenValue;
+    }
+
+    public String getRefreshTokenHash() {
+        return refreshTokenHash;
+    }
+
+    public void setRefreshTokenHash(String refreshTokenHash) {
+        this.refreshTokenHash = refreshTokenHash;
+    }
+
+    public Instant getRefreshTokenIssuedAt() {
+        return refreshTokenIssuedAt;
+    }
+
+    public void setRefreshTokenIssuedAt(Instant refreshTokenIssuedAt) {
+        this.refreshTokenIssuedAt = refreshTokenIssuedAt;
+    }
+
+    public Instant getRefreshTokenExpiresAt() {
+        return refreshTokenExpiresAt;
+    }
+
+    public void setRefreshTokenExpiresAt(Instant refreshTokenExpiresAt) {
+        this.refreshTokenExpiresAt = refreshTokenExpiresAt;
+    }
+
+    public String getRefreshTokenMetadata() {
+        return refreshTokenMetadata;
+    }
+
+    public void setRefreshTokenMetadata(String refreshTokenMetadata) {
+        this.refreshTokenMetadata = refreshTokenMetadata;
+    }
+
+    public String getUserCodeValue() {
+        return userCodeValue;
+    }
+
+    public void setUserCodeValue(String userCodeValue) {
+        this.userCodeValue = userCodeValue;
+    }
+
+    public String getUserCodeHash() {
+        return userCodeHash;
+    }
+
+    public void setUserCodeHash(String userCodeHash) {
+        this.userCodeHash = userCodeHash;
+    }
+
+    public Instant getUserCodeIssuedAt() {
+        return userCodeIssuedAt;
+    }
+
+    public void setUserCodeIssuedAt(Instant userCodeIssuedAt) {
+        this.userCodeIssuedAt = userCodeIssuedAt;
+    }
+
+    public Instant getUserCodeExpiresAt() {
+        return userCodeExpiresAt;
+    }
+
+    public void setUserCodeExpiresAt(Instant userCodeExpiresAt) {
+        this.userCodeExpiresAt = userCodeExpiresAt;
+    }
+
+    public String getUserCodeMetadata() {
+        return userCodeMetadata;
+    }
+
+    public void setUserCodeMetadata(String userCodeMetadata) {
+        this.userCodeMetadata = userCodeMetadata;
+    }
+
+    public String getDeviceCodeValue() {
+        return deviceCodeValue;
+    }
+
+    public void setDeviceCodeValue(String deviceCodeValue) {
+        this.deviceCodeValue = deviceCodeValue;
+    }
+
+    public String getDeviceCodeHash() {
+        return deviceCodeHash;
+    }
+
+    public void setDeviceCodeHash(String deviceCodeHash) {
+        this.deviceCodeHash = deviceCodeHash;
+    }
+
+    public Instant getDeviceCodeIssuedAt() {
+        return deviceCodeIssuedAt;
+    }
+
+    public void setDeviceCodeIssuedAt(Instant deviceCodeIssuedAt) {
+        this.deviceCodeIssuedAt = deviceCodeIssuedAt;
+    }
+
+    public Instant getDeviceCodeExpiresAt() {
+        return deviceCodeExpiresAt;
+    }
+
+    public void setDeviceCodeExpiresAt(Instant deviceCodeExpiresAt) {
+        this.deviceCodeExpiresAt = deviceCodeExpiresAt;
+    }
+
+    public String getDeviceCodeMetadata() {
+        return deviceCodeMetadata;
+    }
+
+    public void setDeviceCodeMetadata(String deviceCodeMetadata) {
+        this.deviceCodeMetadata = deviceCodeMetadata;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -3,11 +3,19 @@ package com.daem.infrastructure.persistence.jpa.entity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Map;
 
 @Entity
-@Table(name = "oauth2_registered_client")
+@Table(name = "oauth2_registered_client", indexes = {
+        @Index(name = "ux_oauth2_registered_client_client_id_tenant", columnList = "client_id, tenant_id", unique = true)
+})
 public class RegisteredClientEntity {
 
     @Id
@@ -16,6 +24,9 @@ public class RegisteredClientEntity {
     @Column(name = "client_id", nullable = false, length = 100)
     private String clientId;
 
+    @Column(name = "tenant_id", nullable = false, length = 63)
+    private String tenantId;
+
     @Column(name = "client_id_issued_at", nullable = false)
     private Instant clientIdIssuedAt;
 
@@ -28,10 +39,10 @@ public class RegisteredClientEntity {
     @Column(name = "client_name", nullable = false, length = 200)
     private String clientName;
 
-    @Column(name = "client_authentication_methods", nullable = false, length = 1000)
+    @Column(name = "client_authentication_methods", length = 1000)
     private String clientAuthenticationMethods; // Stored as JSON string
 
-    @Column(name = "authorization_grant_types", nullable = false, length = 1000)
+    @Column(name = "authorization_grant_types", length = 1000)
     private String authorizationGrantTypes; // Stored as JSON string
 
     @Column(name = "redirect_uris", length = 1000)
@@ -40,15 +51,104 @@ public class RegisteredClientEntity {
     @Column(name = "post_logout_redirect_uris", length = 1000)
     private String postLogoutRedirectUris; // Stored as JSON string
 
-    @Column(name = "scopes", nullable = false, length = 1000)
+    @Column(name = "scopes", length = 1000)
     private String scopes; // Stored as JSON string
 
-    @Column(name = "client_settings", nullable = false, length = 2000)
+    @Column(name = "client_settings", length = 2000)
     private String clientSettings; // Stored as JSON string
 
-    @Column(name = "token_settings", nullable = false, length = 2000)
+    @Column(name = "token_settings", length = 2000)
     private String tokenSettings; // Stored as JSON string
 
+    // Typed layout, see ClientStorageProperties.Mode
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "client_authentication_methods_v2", columnDefinition = "text[]")
+    private String[] clientAuthenticationMethodsV2;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "authorization_grant_types_v2", columnDefinition = "text[]")
+    private String[] authorizationGrantTypesV2;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "redirect_uris_v2", columnDefinition = "text[]")
+    private String[] redirectUrisV2;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "post_logout_redirect_uris_v2", columnDefinition = "text[]")
+    private String[] postLogoutRedirectUrisV2;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "scopes_v2", columnDefinition = "text[]")
+    private String[] scopesV2;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "client_settings_v2", columnDefinition = "jsonb")
+    private Map<String, Object> clientSettingsV2;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "token_settings_v2", columnDefinition = "jsonb")
+    private Map<String, Object> tokenSettingsV2;
+
+    // Settings of the typed layout that have a column of their own; client_settings_v2 and token_settings_v2 only
+    // hold the others, and are NULL when there are none
+
+    @Column(name = "require_proof_key")
+    private Boolean requireProofKey;
+
+    @Column(name = "require_authorization_consent")
+    private Boolean requireAuthorizationConsent;
+
+    @Column(name = "jwk_set_url", length = 1000)
+    private String jwkSetUrl;
+
+    @Column(name = "token_endpoint_authentication_signing_algorithm", length = 32)
+    private String tokenEndpointAuthenticationSigningAlgorithm;
+
+    @Column(name = "x509_certificate_subject_dn", length = 1000)
+    private String x509CertificateSubjectDn;
+
+    @Column(name = "reuse_access_token")
+    private Boolean reuseAccessToken;
+
+    @Column(name = "token_requests_per_second")
+    private Double tokenRequestsPerSecond;
+
+    @Column(name = "token_request_burst")
+    private Integer tokenRequestBurst;
+
+    @JdbcTypeCode(SqlTypes.INTERVAL_SECOND)
+    @Column(name = "authorization_code_time_to_live")
+    private Duration authorizationCodeTimeToLive;
+
+    @JdbcTypeCode(SqlTypes.INTERVAL_SECOND)
+    @Column(name = "access_token_time_to_live")
+    private Duration accessTokenTimeToLive;
+
+    @Column(name = "access_token_format", length = 32)
+    private String accessTokenFormat;
+
+    @JdbcTypeCode(SqlTypes.INTERVAL_SECOND)
+    @Column(name = "device_code_time_to_live")
+    private Duration deviceCodeTimeToLive;
+
+    @Column(name = "reuse_refresh_tokens")
+    private Boolean reuseRefreshTokens;
+
+    @JdbcTypeCode(SqlTypes.INTERVAL_SECOND)
+    @Column(name = "refresh_token_time_to_live")
+    private Duration refreshTokenTimeToLive;
+
+    @Column(name = "id_token_signature_algorithm", length = 32)
+    private String idTokenSignatureAlgorithm;
+
+    @Column(name = "x509_certificate_bound_access_tokens")
+    private Boolean x509CertificateBoundAccessTokens;
+
+    // Incremented by the versioned writes of RegisteredClientJdbcRepository only, so JPA never writes it
+    @Column(name = "version", nullable = false, insertable = false, updatable = false)
+    private long version;
+
     // Getters and Setters
     public String getId() {
         return id;
@@ -66,6 +166,14 @@ public class RegisteredClientEntity {
         this.clientId = clientId;
     }
 
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(String tenantId) {
+        this.tenantId = tenantId;
+    }
+
     public Instant getClientIdIssuedAt() {
         return clientIdIssuedAt;
     }
@@ -153,4 +261,192 @@ public class RegisteredClientEntity {
     public void setTokenSettings(String tokenSettings) {
         this.tokenSettings = tokenSettings;
     }
+
+    public String[] getClientAuthenticationMethodsV2() {
+        return clientAuthenticationMethodsV2;
+    }
+
+    public void setClientAuthenticationMethodsV2(String[] clientAuthenticationMethodsV2) {
+        this.clientAuthenticationMethodsV2 = clientAuthenticationMethodsV2;
+    }
+
+    public String[] getAuthorizationGrantTypesV2() {
+        return authorizationGrantTypesV2;
+    }
+
+    public void setAuthorizationGrantTypesV2(String[] authorizationGrantTypesV2) {
+        this.authorizationGrantTypesV2 = authorizationGrantTypesV2;
+    }
+
+    public String[] getRedirectUrisV2() {
+        return redirectUrisV2;
+    }
+
+    public void setRedirectUrisV2(String[] redirectUrisV2) {
+        this.redirectUrisV2 = redirectUrisV2;
+    }
+
+    public String[] getPostLogoutRedirectUrisV2() {
+        return postLogoutRedirectUrisV2;
+    }
+
+    public void setPostLogoutRedirectUrisV2(String[] postLogoutRedirectUrisV2) {
+        this.postLogoutRedirectUrisV2 = postLogoutRedirectUrisV2;
+    }
+
+    public String[] getScopesV2() {
+        return scopesV2;
+    }
+
+    public void setScopesV2(String[] scopesV2) {
+        this.scopesV2 = scopesV2;
+    }
+
+    public Map<String, Object> getClientSettingsV2() {
+        return clientSettingsV2;
+    }
+
+    public void setClientSettingsV2(Map<String, Object> clientSettingsV2) {
+        this.clientSettingsV2 = clientSettingsV2;
+    }
+
+    public Map<String, Object> getTokenSettingsV2() {
+        return tokenSettingsV2;
+    }
+
+    public void setTokenSettingsV2(Map<String, Object> tokenSettingsV2) {
+        this.tokenSettingsV2 = tokenSettingsV2;
+    }
+
+    public Boolean getRequireProofKey() {
+        return requireProofKey;
+    }
+
+    public void setRequireProofKey(Boolean requireProofKey) {
+        this.requireProofKey = requireProofKey;
+    }
+
+    public Boolean getRequireAuthorizationConsent() {
+        return requireAuthorizationConsent;
+    }
+
+    public void setRequireAuthorizationConsent(Boolean requireAuthorizationConsent) {
+        this.requireAuthorizationConsent = requireAuthorizationConsent;
+    }
+
+    public String getJwkSetUrl() {
+        return jwkSetUrl;
+    }
+
+    public void setJwkSetUrl(String jwkSetUrl) {
+        this.jwkSetUrl = jwkSetUrl;
+    }
+
+    public String getTokenEndpointAuthenticationSigningAlgorithm() {
+        return tokenEndpointAuthenticationSigningAlgorithm;
+    }
+
+    public void setTokenEndpointAuthenticationSigningAlgorithm(String tokenEndpointAuthenticationSigningAlgorithm) {
+        this.tokenEndpointAuthenticationSigningAlgorithm = tokenEndpointAuthenticationSigningAlgorithm;
+    }
+
+    public String getX509CertificateSubjectDn() {
+        return x509CertificateSubjectDn;
+    }
+
+    public void setX509CertificateSubjectDn(String x509CertificateSubjectDn) {
+        this.x509CertificateSubjectDn = x509CertificateSubjectDn;
+    }
+
+    public Boolean getReuseAccessToken() {
+        return reuseAccessToken;
+    }
+
+    public void setReuseAccessToken(Boolean reuseAccessToken) {
+        this.reuseAccessToken = reuseAccessToken;
+    }
+
+    public Double getTokenRequestsPerSecond() {
+        return tokenRequestsPerSecond;
+    }
+
+    public void setTokenRequestsPerSecond(Double tokenRequestsPerSecond) {
+        this.tokenRequestsPerSecond = tokenRequestsPerSecond;
+    }
+
+    public Integer getTokenRequestBurst() {
+        return tokenRequestBurst;
+    }
+
+    public void setTokenRequestBurst(Integer tokenRequestBurst) {
+        this.tokenRequestBurst = tokenRequestBurst;
+    }
+
+    public Duration getAuthorizationCodeTimeToLive() {
+        return authorizationCodeTimeToLive;
+    }
+
+    public void setAuthorizationCodeTimeToLive(Duration authorizationCodeTimeToLive) {
+        this.authorizationCodeTimeToLive = authorizationCodeTimeToLive;
+    }
+
+    public Duration getAccessTokenTimeToLive() {
+        return accessTokenTimeToLive;
+    }
+
+    public void setAccessTokenTimeToLive(Duration accessTokenTimeToLive) {
+        this.accessTokenTimeToLive = accessTokenTimeToLive;
+    }
+
+    public String getAccessTokenFormat() {
+        return accessTokenFormat;
+    }
+
+    public void setAccessTokenFormat(String accessTokenFormat) {
+        this.accessTokenFormat = accessTokenFormat;
+    }
+
+    public Duration getDeviceCodeTimeToLive() {
+        return deviceCodeTimeToLive;
+    }
+
+    public void setDeviceCodeTimeToLive(Duration deviceCodeTimeToLive) {
+        this.deviceCodeTimeToLive = deviceCodeTimeToLive;
+    }
+
+    public Boolean getReuseRefreshTokens() {
+        return reuseRefreshTokens;
+    }
+
+    public void setReuseRefreshTokens(Boolean reuseRefreshTokens) {
+        this.reuseRefreshTokens = reuseRefreshTokens;
+    }
+
+    public Duration getRefreshTokenTimeToLive() {
+        return refreshTokenTimeToLive;
+    }
+
+    public void setRefreshTokenTimeToLive(Duration refreshTokenTimeToLive) {
+        this.refreshTokenTimeToLive = refreshTokenTimeToLive;
+    }
+
+    public String getIdTokenSignatureAlgorithm() {
+        return idTokenSignatureAlgorithm;
+    }
+
+    public void setIdTokenSignatureAlgorithm(String idTokenSignatureAlgorithm) {
+        this.idTokenSignatureAlgorithm = idTokenSignatureAlgorithm;
+    }
+
+    public Boolean getX509CertificateBoundAccessTokens() {
+        return x509CertificateBoundAccessTokens;
+    }
+
+    public void setX509CertificateBoundAccessTokens(Boolean x509CertificateBoundAccessTokens) {
+        this.x509CertificateBoundAccessTokens = x509CertificateBoundAccessTokens;
+    }
+
+    public long getVersion() {
+        return version;
+    }
 }
@@ -0,0 +1,65 @@
+package com.daem.infrastructure.persistence.jpa.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+/**
+ * A revoked, self-contained access token, published in the revocation feed until it expires. {@code feedVersion}
+ * is the feed version that introduced the entry.
+ */
+@Entity
+@Table(name = "oauth2_revoked_token")
+public class RevokedTokenEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "feed_version")
+    private Long feedVersion;
+
+    @Column(name = "jti", nullable = false, unique = true, length = 255)
+    private String jti;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    // Getters and Setters
+    public Long getFeedVersion() {
+        return feedVersion;
+    }
+
+    public void setFeedVersion(Long feedVersion) {
+        this.feedVersion = feedVersion;
+    }
+
+    public String getJti() {
+        return jti;
+    }
+
+    public void setJti(String jti) {
+        this.jti = jti;
+    }
+
+    public Instant getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(Instant revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,95 @@
+package com.daem.infrastructure.persistence.jpa.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+/**
+ * A JWS signing key. The private JWK is stored encrypted; a key signs from {@code activateAt} until a newer key
+ * activates, and stays in the published JWK Set until {@code expireAt}. Every tenant has keys of its own.
+ */
+@Entity
+@Table(name = "oauth2_signing_key")
+public class SigningKeyEntity {
+
+    @Id
+    @Column(name = "kid", length = 100)
+    private String kid;
+
+    @Column(name = "algorithm", nullable = false, length = 20)
+    private String algorithm;
+
+    @Column(name = "private_jwk", nullable = false, columnDefinition = "text")
+    private String privateJwk;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "activate_at", nullable = false)
+    private Instant activateAt;
+
+    @Column(name = "expire_at")
+    private Instant expireAt;
+
+    @Column(name = "tenant_id", nullable = false, length = 63)
+    private String tenantId;
+
+    // Getters and Setters
+    public String getKid() {
+        return kid;
+    }
+
+    public void setKid(String kid) {
+        this.kid = kid;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public String getPrivateJwk() {
+        return privateJwk;
+    }
+
+    public void setPrivateJwk(String privateJwk) {
+        this.privateJwk = privateJwk;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getActivateAt() {
+        return activateAt;
+    }
+
+    public void setActivateAt(Instant activateAt) {
+        this.activateAt = activateAt;
+    }
+
+    public Instant getExpireAt() {
+        return expireAt;
+    }
+
+    public void setExpireAt(Instant expireAt) {
+        this.expireAt = expireAt;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(String tenantId) {
+        this.tenantId = tenantId;
+    }
+}
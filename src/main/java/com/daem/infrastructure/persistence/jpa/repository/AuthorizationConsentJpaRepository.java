@@ -0,0 +1,20 @@
+package com.daem.infrastructure.persistence.jpa.repository;
+
+import com.daem.infrastructure.persistence.jpa.entity.AuthorizationConsentEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+// Read-write, so that lookups go to the primary even with datasource routing: the consent cache would keep a
+// consent a replica has not replayed yet for its whole time to live
+@Repository
+@Transactional
+public interface AuthorizationConsentJpaRepository
+        extends JpaRepository<AuthorizationConsentEntity, AuthorizationConsentEntity.AuthorizationConsentId> {
+
+    // Redeclared so that the interface's @Transactional applies instead of the read-only one of the base class
+    @Override
+    Optional<AuthorizationConsentEntity> findById(AuthorizationConsentEntity.AuthorizationConsentId id);
+}
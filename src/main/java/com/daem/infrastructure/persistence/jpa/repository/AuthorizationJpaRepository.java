@@ -0,0 +1,35 @@
+package com.daem.infrastructure.persistence.jpa.repository;
+
+import com.daem.infrastructure.persistence.jpa.entity.AuthorizationEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+// Read-write, so that lookups go to the primary even with datasource routing: a replica that has not replayed a
+// consumed code or a revocation yet would still accept it
+@Repository
+@Transactional
+public interface AuthorizationJpaRepository extends JpaRepository<AuthorizationEntity, String> {
+
+    // Redeclared so that the interface's @Transactional applies instead of the read-only one of the base class
+    @Override
+    Optional<AuthorizationEntity> findById(String id);
+
+    Optional<AuthorizationEntity> findByState(String state);
+    Optional<AuthorizationEntity> findByAuthorizationCodeHash(String authorizationCodeHash);
+    Optional<AuthorizationEntity> findByAccessTokenHash(String accessTokenHash);
+    Optional<AuthorizationEntity> findByRefreshTokenHash(String refreshTokenHash);
+    Optional<AuthorizationEntity> findByOidcIdTokenHash(String oidcIdTokenHash);
+    Optional<AuthorizationEntity> findByUserCodeHash(String userCodeHash);
+    Optional<AuthorizationEntity> findByDeviceCodeHash(String deviceCodeHash);
+
+    @Query("select a from AuthorizationEntity a where a.state = :token" +
+            " or a.authorizationCodeHash = :tokenHash or a.accessTokenHash = :tokenHash" +
+            " or a.refreshTokenHash = :tokenHash or a.oidcIdTokenHash = :tokenHash" +
+            " or a.userCodeHash = :tokenHash or a.deviceCodeHash = :tokenHash")
+    Optional<AuthorizationEntity> findByStateOrTokenHash(@Param("token") String token, @Param("tokenHash") String tokenHash);
+}
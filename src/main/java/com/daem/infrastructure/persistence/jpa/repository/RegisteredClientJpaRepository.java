@@ -1,12 +1,60 @@
 package com.daem.infrastructure.persistence.jpa.repository;
 
 import com.daem.infrastructure.persistence.jpa.entity.RegisteredClientEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface RegisteredClientJpaRepository extends JpaRepository<RegisteredClientEntity, String> {
-    Optional<RegisteredClientEntity> findByClientId(String clientId);
-    void deleteByClientId(String clientId);
+    Optional<RegisteredClientEntity> findByTenantIdAndClientId(String tenantId, String clientId);
+    void deleteByTenantIdAndClientId(String tenantId, String clientId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from RegisteredClientEntity c where c.tenantId = :tenantId and c.clientId in :clientIds"
+            + " order by c.clientId")
+    List<RegisteredClientEntity> findAllForUpdateByTenantIdAndClientIdIn(@Param("tenantId") String tenantId,
+                                                                        @Param("clientIds") Collection<String> clientIds);
+
+    // Containment on the typed array columns is served by their GIN indexes
+    @Query(value = "SELECT * FROM oauth2_registered_client WHERE scopes_v2 @> ARRAY[CAST(:scope AS text)]", nativeQuery = true)
+    List<RegisteredClientEntity> findAllByScope(@Param("scope") String scope);
+
+    @Query(value = "SELECT * FROM oauth2_registered_client WHERE authorization_grant_types_v2 @> ARRAY[CAST(:grantType AS text)]", nativeQuery = true)
+    List<RegisteredClientEntity> findAllByAuthorizationGrantType(@Param("grantType") String authorizationGrantType);
+
+    // Rows without typed columns yet (LEGACY mode, or not reached by the backfill) are matched on their JSON column,
+    // which may also hold a single bare value
+    @Query(value = "SELECT * FROM oauth2_registered_client WHERE scopes_v2 @> ARRAY[CAST(:scope AS text)]"
+            + " OR (authorization_grant_types_v2 IS NULL AND (scopes = :scope"
+            + " OR (scopes LIKE '[%' AND CAST(scopes AS jsonb) @> jsonb_build_array(CAST(:scope AS text)))))", nativeQuery = true)
+    List<RegisteredClientEntity> findAllByScopeIncludingLegacy(@Param("scope") String scope);
+
+    @Query(value = "SELECT * FROM oauth2_registered_client WHERE authorization_grant_types_v2 @> ARRAY[CAST(:grantType AS text)]"
+            + " OR (authorization_grant_types_v2 IS NULL AND (authorization_grant_types = :grantType"
+            + " OR (authorization_grant_types LIKE '[%' AND CAST(authorization_grant_types AS jsonb) @> jsonb_build_array(CAST(:grantType AS text)))))",
+            nativeQuery = true)
+    List<RegisteredClientEntity> findAllByAuthorizationGrantTypeIncludingLegacy(@Param("grantType") String authorizationGrantType);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c from RegisteredClientEntity c order by c.clientId, c.tenantId")
+    Stream<RegisteredClientEntity> streamAllOrderByClientId();
+
+    @Query("select c from RegisteredClientEntity c where c.authorizationGrantTypesV2 is null order by c.id")
+    List<RegisteredClientEntity> findWithoutTypedColumns(Limit limit);
 }
@@ -0,0 +1,26 @@
+package com.daem.infrastructure.persistence.jpa.repository;
+
+import com.daem.infrastructure.persistence.jpa.entity.RevokedTokenEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+// Read-write, so that lookups go to the primary even with datasource routing: the feed must not skip revocations
+// a replica has not replayed yet
+@Repository
+@Transactional
+public interface RevokedTokenJpaRepository extends JpaRepository<RevokedTokenEntity, Long> {
+
+    boolean existsByJti(String jti);
+
+    @Query("SELECT COALESCE(MAX(r.feedVersion), 0) FROM RevokedTokenEntity r")
+    long findLatestFeedVersion();
+
+    @Query("SELECT r FROM RevokedTokenEntity r WHERE r.feedVersion > :after AND r.feedVersion <= :upTo AND r.expiresAt > :now")
+    List<RevokedTokenEntity> findUnexpired(@Param("after") long after, @Param("upTo") long upTo, @Param("now") Instant now);
+}
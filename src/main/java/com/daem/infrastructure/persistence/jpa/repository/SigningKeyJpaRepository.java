@@ -0,0 +1,25 @@
+package com.daem.infrastructure.persistence.jpa.repository;
+
+import com.daem.infrastructure.persistence.jpa.entity.SigningKeyEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+// Read-write, so that lookups go to the primary even with datasource routing: a node must sign with the key it
+// just stored
+@Repository
+@Transactional
+public interface SigningKeyJpaRepository extends JpaRepository<SigningKeyEntity, String> {
+
+    List<SigningKeyEntity> findAllByTenantIdOrderByActivateAtDesc(String tenantId);
+
+    @Modifying
+    @Query("DELETE FROM SigningKeyEntity k WHERE k.expireAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
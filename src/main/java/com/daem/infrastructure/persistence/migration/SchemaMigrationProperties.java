@@ -0,0 +1,22 @@
+package com.daem.infrastructure.persistence.migration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param mode what a node does with the Flyway migrations in {@code db/migration} while it starts
+ */
+@ConfigurationProperties(prefix = "daem.oauth2.schema-migration")
+public record SchemaMigrationProperties(
+        @DefaultValue("MIGRATE") Mode mode
+) {
+
+    public enum Mode {
+        /** Pending migrations are applied; for development and single-node setups. */
+        MIGRATE,
+        /** Startup fails unless every migration has already been applied, unchanged, by a separate migration run. */
+        VALIDATE,
+        /** Neither the schema nor the Flyway history table is touched. */
+        NONE
+    }
+}
@@ -0,0 +1,30 @@
+package com.daem.infrastructure.persistence.migration;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides at runtime, rather than through {@code spring.flyway.enabled}, whether startup migrates the schema. The
+ * Flyway beans then exist in every build, so an AOT-processed application can still run as the one-off migration
+ * step of a deployment ({@code MIGRATE}) while the serving nodes only check the schema ({@code VALIDATE}).
+ */
+@Component
+public class SchemaMigrationStrategy implements FlywayMigrationStrategy {
+
+    private final SchemaMigrationProperties properties;
+
+    public SchemaMigrationStrategy(SchemaMigrationProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void migrate(Flyway flyway) {
+        switch (properties.mode()) {
+            case MIGRATE -> flyway.migrate();
+            case VALIDATE -> flyway.validate();
+            case NONE -> {
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.daem.infrastructure.persistence.purge;
+
+import com.daem.infrastructure.cluster.ClusterLock;
+import com.daem.infrastructure.persistence.jdbc.ExpiredDataJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Deletes expired authorizations, consents of deleted clients and expired revocation feed entries in the
+ * background.
+ * <p>
+ * A run takes the cluster-wide purge lock, so only one node purges at a time, and deletes in chunks of
+ * {@code batch-size} rows, each in its own short transaction, pausing between chunks to stay under
+ * {@code max-rows-per-second}. Published metrics:
+ * <ul>
+ *     <li>{@code daem.oauth2.purge.rows}: rows deleted, by table</li>
+ *     <li>{@code daem.oauth2.purge.lag}: how far behind the purge is, i.e. the age of the oldest authorization
+ *     that is past its retention but not yet deleted, as of the end of the last run on this node</li>
+ * </ul>
+ */
+@Component
+public class ExpiredDataPurger implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiredDataPurger.class);
+    private static final String LOCK_NAME = "oauth2_purge";
+
+    private final ExpiredDataJdbcRepository expiredDataJdbcRepository;
+    private final ClusterLock clusterLock;
+    private final TransactionTemplate transactionTemplate;
+    private final PurgeProperties properties;
+    private final Counter authorizationsPurged;
+    private final Counter consentsPurged;
+    private final Counter revokedTokensPurged;
+
+    private volatile double lagSeconds;
+    private ScheduledExecutorService scheduler;
+
+    public ExpiredDataPurger(ExpiredDataJdbcRepository expiredDataJdbcRepository, ClusterLock clusterLock,
+                             PlatformTransactionManager transactionManager, PurgeProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.expiredDataJdbcRepository = expiredDataJdbcRepository;
+        this.clusterLock = clusterLock;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.authorizationsPurged = purgedCounter(meterRegistry, "oauth2_authorization");
+        this.consentsPurged = purgedCounter(meterRegistry, "oauth2_authorization_consent");
+        this.revokedTokensPurged = purgedCounter(meterRegistry, "oauth2_revoked_token");
+        Gauge.builder("daem.oauth2.purge.lag", this, purger -> purger.lagSeconds)
+                .description("Age of the oldest authorization past its retention that is not purged yet")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    private static Counter purgedCounter(MeterRegistry meterRegistry, String table) {
+        return Counter.builder("daem.oauth2.purge.rows")
+                .description("Rows deleted by the background purge")
+                .tag("table", table)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!properties.enabled() || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "expired-data-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long delay = properties.interval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::runScheduled, delay, delay, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void runScheduled() {
+        try {
+            if (!clusterLock.tryRunAsLeader(LOCK_NAME, this::purge)) {
+                log.debug("Purge skipped, another node holds the purge lock");
+            }
+        } catch (RuntimeException e) {
+            log.warn("Purge failed, retrying in {}", properties.interval(), e);
+        }
+    }
+
+    /**
+     * Runs one purge over all tables.
+     */
+    public void purge() {
+        Instant cutoff = Instant.now().minus(properties.retention());
+        int batchSize = properties.batchSize();
+        try {
+            purgeInChunks(authorizationsPurged, () -> expiredDataJdbcRepository.deleteExpiredAuthorizations(cutoff, batchSize));
+            purgeInChunks(consentsPurged, () -> expiredDataJdbcRepository.deleteOrphanedConsents(batchSize));
+            // Feed entries are useless once the token expired, so they need no retention
+            Instant now = Instant.now();
+            purgeInChunks(revokedTokensPurged, () -> expiredDataJdbcRepository.deleteExpiredRevokedTokens(now, batchSize));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        Instant oldest = expiredDataJdbcRepository.oldestExpiredAuthorization(cutoff);
+        lagSeconds = oldest == null ? 0 : Duration.between(oldest, cutoff).toMillis() / 1000.0;
+    }
+
+    private void purgeInChunks(Counter counter, IntSupplier deleteChunk) throws InterruptedException {
+        long nanosPerRow = TimeUnit.SECONDS.toNanos(1) / Math.max(1, properties.maxRowsPerSecond());
+        int deleted;
+        do {
+            long start = System.nanoTime();
+            Integer result = transactionTemplate.execute(status -> deleteChunk.getAsInt());
+            deleted = result != null ? result : 0;
+            counter.increment(deleted);
+            long pause = deleted * nanosPerRow - (System.nanoTime() - start);
+            if (pause > 0) {
+                TimeUnit.NANOSECONDS.sleep(pause);
+            }
+        } while (deleted >= properties.batchSize());
+    }
+}
@@ -0,0 +1,24 @@
+package com.daem.infrastructure.persistence.purge;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param interval                       pause between two purge runs
+ * @param retention                      how long rows are kept after their last token expired
+ * @param batchSize                      rows deleted per statement and transaction
+ * @param maxRowsPerSecond               upper bound on the delete rate of a run
+ * @param pendingAuthorizationTimeToLive how long an authorization request without any token is kept
+ */
+@ConfigurationProperties(prefix = "daem.oauth2.purge")
+public record PurgeProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("5m") Duration interval,
+        @DefaultValue("1h") Duration retention,
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("2000") int maxRowsPerSecond,
+        @DefaultValue("1h") Duration pendingAuthorizationTimeToLive
+) {
+}
@@ -0,0 +1,38 @@
+package com.daem.infrastructure.persistence.routing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * @param replicas         read replicas of the {@code spring.datasource} database
+ * @param maxReplicaLag    replicas further behind the primary than this get no reads until they caught up
+ * @param lagCheckInterval pause between two lag measurements of the replicas
+ * @param lagQuery         query returning how far a replica is behind its primary, in seconds
+ * @param replicaPoolSize  maximum number of connections per replica
+ */
+@ConfigurationProperties(prefix = "daem.oauth2.datasource-routing")
+public record DataSourceRoutingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue List<Replica> replicas,
+        @DefaultValue("1s") Duration maxReplicaLag,
+        @DefaultValue("1s") Duration lagCheckInterval,
+        @DefaultValue(POSTGRES_LAG_QUERY) String lagQuery,
+        @DefaultValue("10") int replicaPoolSize
+) {
+
+    // A replica that has replayed everything it received is current, however long ago the last commit was
+    static final String POSTGRES_LAG_QUERY = "SELECT CASE"
+            + " WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    /**
+     * @param url      JDBC URL of the replica
+     * @param username defaults to the username of the primary
+     * @param password defaults to the password of the primary
+     */
+    public record Replica(String url, String username, String password) {
+    }
+}
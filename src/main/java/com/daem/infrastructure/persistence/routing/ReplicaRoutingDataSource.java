@@ -0,0 +1,169 @@
+package com.daem.infrastructure.persistence.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends the connections of read-only transactions to the replicas and everything else to the primary.
+ * <p>
+ * Connections are handed out lazily, so the target is picked when the first statement runs, after the transaction
+ * manager has marked the connection read-only. Read-only connections are spread round-robin over the replicas that
+ * were at most {@code max-replica-lag} behind at their last {@link #checkReplicas() check}, and go to the primary
+ * while there is no such replica. After {@link #stickToPrimary()}, reads go to the primary until every replica
+ * that gets reads is guaranteed to have replayed the writes committed before the call. Published metrics:
+ * <ul>
+ *     <li>{@code daem.oauth2.datasource.replica.lag}: lag of each replica as of its last check, {@code NaN} while
+ *     it cannot be measured</li>
+ *     <li>{@code daem.oauth2.datasource.read-only-connections}: read-only connections, by target ({@code replica}
+ *     or {@code primary})</li>
+ * </ul>
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final double maxReplicaLagSeconds;
+    private final String lagQuery;
+    private final long stickinessNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong primaryUntil;
+    private final Counter replicaConnections;
+    private final Counter primaryConnections;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicaPools,
+                                    DataSourceRoutingProperties properties, MeterRegistry meterRegistry) {
+        super(primary);
+        this.primary = primary;
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+        this.maxReplicaLagSeconds = properties.maxReplicaLag().toMillis() / 1000.0;
+        this.lagQuery = properties.lagQuery();
+        // A replica that gets reads was at most max-replica-lag behind as of a check at most one interval ago
+        this.stickinessNanos = properties.maxReplicaLag().plus(properties.lagCheckInterval()).toNanos();
+        this.primaryUntil = new AtomicLong(System.nanoTime());
+        this.replicaConnections = connectionCounter(meterRegistry, "replica");
+        this.primaryConnections = connectionCounter(meterRegistry, "primary");
+        for (Replica replica : replicas) {
+            Gauge.builder("daem.oauth2.datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .description("How far the replica was behind the primary at its last check")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.pool.getPoolName())
+                    .register(meterRegistry);
+        }
+        setReadOnlyDataSource(new ReadOnlyDataSource());
+    }
+
+    private static Counter connectionCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("daem.oauth2.datasource.read-only-connections")
+                .description("Connections of read-only transactions")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sends reads to the primary until the writes committed so far are visible on the replicas.
+     */
+    public void stickToPrimary() {
+        long until = System.nanoTime() + stickinessNanos;
+        primaryUntil.accumulateAndGet(until, (current, candidate) -> candidate - current > 0 ? candidate : current);
+    }
+
+    /**
+     * Measures the lag of every replica. Replicas whose lag cannot be measured count as lagging.
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            double lagSeconds = measureLag(replica);
+            replica.lagSeconds = lagSeconds;
+            boolean healthy = lagSeconds <= maxReplicaLagSeconds;
+            if (healthy != replica.healthy) {
+                log.info("Replica {} {} reads, lag {}s", replica.pool.getPoolName(), healthy ? "takes" : "gets no more",
+                        lagSeconds);
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    private double measureLag(Replica replica) {
+        try (Connection connection = replica.pool.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (resultSet.next()) {
+                double lagSeconds = resultSet.getDouble(1);
+                return resultSet.wasNull() ? Double.NaN : Math.max(0, lagSeconds);
+            }
+        } catch (SQLException e) {
+            log.debug("Lag check of replica {} failed", replica.pool.getPoolName(), e);
+        }
+        return Double.NaN;
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+        primary.close();
+    }
+
+    private Connection readOnlyConnection() throws SQLException {
+        if (System.nanoTime() - primaryUntil.get() >= 0) {
+            int size = replicas.size();
+            int start = Math.floorMod(next.getAndIncrement(), size);
+            for (int i = 0; i < size; i++) {
+                Replica replica = replicas.get((start + i) % size);
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    Connection connection = replica.pool.getConnection();
+                    replicaConnections.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    // Keeps it out of rotation until the next check finds it answering again
+                    replica.healthy = false;
+                    log.warn("Replica {} unavailable, reading from the primary", replica.pool.getPoolName(), e);
+                }
+            }
+        }
+        primaryConnections.increment();
+        return primary.getConnection();
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource pool;
+        private volatile boolean healthy;
+        private volatile double lagSeconds = Double.NaN;
+
+        private Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+    }
+
+    private final class ReadOnlyDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return readOnlyConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return readOnlyConnection();
+        }
+    }
+}
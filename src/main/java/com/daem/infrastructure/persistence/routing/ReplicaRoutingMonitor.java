@@ -0,0 +1,90 @@
+package com.daem.infrastructure.persistence.routing;
+
+import com.daem.application.client.event.ClientChangedEvent;
+import com.daem.infrastructure.cluster.ClusterNotificationBus;
+import com.daem.infrastructure.cluster.ClusterNotificationListener;
+import com.daem.infrastructure.persistence.cache.CachingClientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the replica state of a {@link ReplicaRoutingDataSource} current: measures the replica lag in the
+ * background, and sends reads to the primary after a client change, whether committed on this node or announced by
+ * another one, so that neither the next admin read nor a reload of the client cache sees the client as it was
+ * before. Does nothing when the data source does not route.
+ */
+@Component
+public class ReplicaRoutingMonitor implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingMonitor.class);
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final DataSourceRoutingProperties properties;
+
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaRoutingMonitor(DataSource dataSource, DataSourceRoutingProperties properties,
+                                 ClusterNotificationBus notificationBus) {
+        this.routingDataSource = dataSource instanceof ReplicaRoutingDataSource routing ? routing : null;
+        this.properties = properties;
+        if (routingDataSource != null) {
+            notificationBus.subscribe(CachingClientRepository.CHANNEL, new ClusterNotificationListener() {
+                @Override
+                public void onNotification(String payload) {
+                    routingDataSource.stickToPrimary();
+                }
+
+                @Override
+                public void onReconnect() {
+                    routingDataSource.stickToPrimary();
+                }
+            });
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (routingDataSource == null || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long delay = properties.lagCheckInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::checkReplicas, 0, delay, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClientChanged(ClientChangedEvent event) {
+        if (routingDataSource != null) {
+            routingDataSource.stickToPrimary();
+        }
+    }
+
+    private void checkReplicas() {
+        try {
+            routingDataSource.checkReplicas();
+        } catch (RuntimeException e) {
+            log.warn("Replica lag check failed, retrying in {}", properties.lagCheckInterval(), e);
+        }
+    }
+}
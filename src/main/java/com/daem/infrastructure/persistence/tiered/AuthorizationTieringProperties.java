@@ -0,0 +1,17 @@
+package com.daem.infrastructure.persistence.tiered;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled     whether authorization requests and unredeemed authorization codes are kept in memory until
+ *                    the code is exchanged; off by default because only the node that issued a code can redeem it,
+ *                    so it needs a single node or a load balancer that sends a client's whole code flow to one node
+ * @param maximumSize short-lived authorizations held per node before further ones are written to the database
+ */
+@ConfigurationProperties(prefix = "daem.oauth2.authorization-tiering")
+public record AuthorizationTieringProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("100000") int maximumSize
+) {
+}
@@ -0,0 +1,163 @@
+package com.daem.infrastructure.persistence.tiered;
+
+import com.daem.infrastructure.persistence.purge.PurgeProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The in-memory tier of the authorization store: authorization requests waiting for consent and authorization
+ * codes waiting to be exchanged, indexed by id, state and code value.
+ * <p>
+ * An entry expires with its authorization code, or after {@code pending-authorization-time-to-live} while there
+ * is none yet. Expiry runs on Caffeine's timer wheel with its own scheduler, so expired entries and their index
+ * keys are dropped without waiting for traffic. Once the store holds {@code maximum-size} entries it refuses new
+ * ones, and keeps refusing them for the same authorization, so that an authorization lives either in memory or in
+ * the database but never in both. Published metrics:
+ * <ul>
+ *     <li>{@code daem.oauth2.authorization.memory_tier.size}: authorizations held</li>
+ *     <li>{@code daem.oauth2.authorization.memory_tier.overflow}: authorizations written to the database because
+ *     the store was full</li>
+ * </ul>
+ */
+@Component
+public class ShortLivedAuthorizationStore {
+
+    private final int maximumSize;
+    private final Cache<String, OAuth2Authorization> authorizations;
+    private final Cache<String, Boolean> overflowedIds;
+    // Keyed by the values themselves: the authorizations they point to hold them anyway
+    private final Map<String, String> idsByState = new ConcurrentHashMap<>();
+    private final Map<String, String> idsByCode = new ConcurrentHashMap<>();
+    private final Counter overflows;
+
+    public ShortLivedAuthorizationStore(AuthorizationTieringProperties properties, PurgeProperties purgeProperties,
+                                        MeterRegistry meterRegistry) {
+        this.maximumSize = properties.maximumSize();
+        Duration pendingTimeToLive = purgeProperties.pendingAuthorizationTimeToLive();
+        this.authorizations = Caffeine.newBuilder()
+                .expireAfter(Expiry.<String, OAuth2Authorization>writing((id, authorization) ->
+                        timeToLive(authorization, pendingTimeToLive)))
+                .scheduler(Scheduler.systemScheduler())
+                .evictionListener((String id, OAuth2Authorization authorization, RemovalCause cause) -> {
+                    if (authorization != null) {
+                        unindex(id, authorization, null);
+                    }
+                })
+                .build();
+        this.overflowedIds = Caffeine.newBuilder()
+                .expireAfterWrite(pendingTimeToLive)
+                .build();
+        Gauge.builder("daem.oauth2.authorization.memory_tier.size", authorizations, Cache::estimatedSize)
+                .description("Authorization requests and unredeemed codes held in memory")
+                .register(meterRegistry);
+        this.overflows = Counter.builder("daem.oauth2.authorization.memory_tier.overflow")
+                .description("Short-lived authorizations written to the database because the memory tier was full")
+                .register(meterRegistry);
+    }
+
+    private static Duration timeToLive(OAuth2Authorization authorization, Duration pendingTimeToLive) {
+        OAuth2Authorization.Token<OAuth2AuthorizationCode> code = authorization.getToken(OAuth2AuthorizationCode.class);
+        if (code == null || code.getToken().getExpiresAt() == null) {
+            return pendingTimeToLive;
+        }
+        Duration untilExpiry = Duration.between(Instant.now(), code.getToken().getExpiresAt());
+        return untilExpiry.isNegative() ? Duration.ZERO : untilExpiry;
+    }
+
+    /**
+     * Stores or replaces the authorization.
+     *
+     * @return {@code false} if the store is full, or was when the authorization was first offered; it has to go
+     * to the database then
+     */
+    public boolean offer(OAuth2Authorization authorization) {
+        String id = authorization.getId();
+        if (overflowedIds.getIfPresent(id) != null) {
+            return false;
+        }
+        if (authorizations.getIfPresent(id) == null && authorizations.estimatedSize() >= maximumSize) {
+            overflowedIds.put(id, Boolean.TRUE);
+            overflows.increment();
+            return false;
+        }
+        // Index first, so that a lookup never misses while the authorization is replaced
+        String state = authorization.getAttribute(OAuth2ParameterNames.STATE);
+        String code = codeValue(authorization);
+        if (state != null) {
+            idsByState.put(state, id);
+        }
+        if (code != null) {
+            idsByCode.put(code, id);
+        }
+        OAuth2Authorization previous = authorizations.asMap().put(id, authorization);
+        if (previous != null) {
+            unindex(id, previous, authorization);
+        }
+        return true;
+    }
+
+    /**
+     * @return the removed authorization, or {@code null} if it was not held
+     */
+    public OAuth2Authorization remove(String id) {
+        OAuth2Authorization removed = authorizations.asMap().remove(id);
+        if (removed != null) {
+            unindex(id, removed, null);
+        }
+        return removed;
+    }
+
+    public OAuth2Authorization findById(String id) {
+        return authorizations.getIfPresent(id);
+    }
+
+    public OAuth2Authorization findByState(String state) {
+        OAuth2Authorization authorization = find(idsByState.get(state));
+        return authorization != null && state.equals(authorization.getAttribute(OAuth2ParameterNames.STATE))
+                ? authorization : null;
+    }
+
+    public OAuth2Authorization findByCode(String code) {
+        OAuth2Authorization authorization = find(idsByCode.get(code));
+        return authorization != null && code.equals(codeValue(authorization)) ? authorization : null;
+    }
+
+    private OAuth2Authorization find(String id) {
+        return id != null ? authorizations.getIfPresent(id) : null;
+    }
+
+    /**
+     * Drops the index keys of {@code stale} that {@code current}, if any, no longer has.
+     */
+    private void unindex(String id, OAuth2Authorization stale, OAuth2Authorization current) {
+        String state = stale.getAttribute(OAuth2ParameterNames.STATE);
+        if (state != null && (current == null || !state.equals(current.getAttribute(OAuth2ParameterNames.STATE)))) {
+            idsByState.remove(state, id);
+        }
+        String code = codeValue(stale);
+        if (code != null && (current == null || !Objects.equals(code, codeValue(current)))) {
+            idsByCode.remove(code, id);
+        }
+    }
+
+    private static String codeValue(OAuth2Authorization authorization) {
+        OAuth2Authorization.Token<OAuth2AuthorizationCode> code = authorization.getToken(OAuth2AuthorizationCode.class);
+        return code != null ? code.getToken().getTokenValue() : null;
+    }
+}
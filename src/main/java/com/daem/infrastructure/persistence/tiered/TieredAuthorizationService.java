@@ -0,0 +1,84 @@
+package com.daem.infrastructure.persistence.tiered;
+
+import org.springframework.security.oauth2.core.OAuth2DeviceCode;
+import org.springframework.security.oauth2.core.OAuth2UserCode;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.util.Assert;
+
+/**
+ * Keeps authorizations that carry nothing but an authorization request or an unredeemed authorization code in the
+ * {@link ShortLivedAuthorizationStore}, and writes an authorization to the database only once it has tokens.
+ * <p>
+ * For an authorization code login this replaces the insert of the authorization request, the update that adds
+ * the code and, for a denied consent, the delete with a single write when the code is exchanged. The exchanged
+ * authorization keeps its invalidated code in the database, so a replayed code is still detected. Lookups by
+ * state or code try memory first and fall back to the database for authorizations stored before the tier was
+ * enabled, or while it was full.
+ * <p>
+ * Durability: an authorization request or code held in memory exists on this node only and is lost if the node
+ * stops; the user has to sign in again.
+ */
+public class TieredAuthorizationService implements OAuth2AuthorizationService {
+
+    private final OAuth2AuthorizationService delegate;
+    private final ShortLivedAuthorizationStore store;
+
+    public TieredAuthorizationService(OAuth2AuthorizationService delegate, ShortLivedAuthorizationStore store) {
+        this.delegate = delegate;
+        this.store = store;
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        if (isShortLived(authorization) && store.offer(authorization)) {
+            return;
+        }
+        // Written before it leaves memory, so that lookups find it in one tier or the other throughout
+        delegate.save(authorization);
+        store.remove(authorization.getId());
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        if (store.remove(authorization.getId()) == null) {
+            delegate.remove(authorization);
+        }
+    }
+
+    @Override
+    public OAuth2Authorization findById(String id) {
+        Assert.hasText(id, "id cannot be empty");
+        OAuth2Authorization authorization = store.findById(id);
+        return authorization != null ? authorization : delegate.findById(id);
+    }
+
+    @Override
+    public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
+        Assert.hasText(token, "token cannot be empty");
+        OAuth2Authorization authorization = null;
+        if (tokenType == null) {
+            authorization = store.findByState(token);
+            if (authorization == null) {
+                authorization = store.findByCode(token);
+            }
+        } else if (OAuth2ParameterNames.STATE.equals(tokenType.getValue())) {
+            authorization = store.findByState(token);
+        } else if (OAuth2ParameterNames.CODE.equals(tokenType.getValue())) {
+            authorization = store.findByCode(token);
+        }
+        return authorization != null ? authorization : delegate.findByToken(token, tokenType);
+    }
+
+    private static boolean isShortLived(OAuth2Authorization authorization) {
+        return authorization.getAccessToken() == null && authorization.getRefreshToken() == null
+                && authorization.getToken(OidcIdToken.class) == null
+                && authorization.getToken(OAuth2DeviceCode.class) == null
+                && authorization.getToken(OAuth2UserCode.class) == null;
+    }
+}
@@ -0,0 +1,310 @@
+package com.daem.infrastructure.persistence.writebehind;
+
+import com.daem.infrastructure.persistence.jdbc.AuthorizationJdbcRepository;
+import com.daem.infrastructure.persistence.jpa.entity.AuthorizationEntity;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2DeviceCode;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.core.OAuth2UserCode;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds saved authorizations until a background thread writes them to the database in JDBC batches.
+ * <p>
+ * Ids of dirty authorizations sit in a lock-free queue bounded by a counter; the latest version of each sits in a
+ * pending index, together with its token values, so this node serves reads from memory until the row is flushed.
+ * Several saves of one authorization before a flush are coalesced into one write. When the queue is full
+ * {@link #offer} refuses and the caller writes synchronously, so a database that falls behind slows token issuance
+ * down to its own pace instead of growing the buffer.
+ * <p>
+ * Flushes and {@link #writeThrough synchronous writes} are serialized, so an older buffered version can never
+ * overwrite a newer row. Published metrics:
+ * <ul>
+ *     <li>{@code daem.oauth2.authorization.write_behind.queued}: authorizations waiting for a flush</li>
+ *     <li>{@code daem.oauth2.authorization.write_behind.flush}: duration of a batch flush</li>
+ * </ul>
+ */
+@Component
+public class AuthorizationWriteBuffer implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthorizationWriteBuffer.class);
+
+    private static final List<Class<? extends OAuth2Token>> TOKEN_TYPES = List.of(OAuth2AuthorizationCode.class,
+            OAuth2AccessToken.class, OAuth2RefreshToken.class, OidcIdToken.class, OAuth2UserCode.class, OAuth2DeviceCode.class);
+
+    private final AuthorizationJdbcRepository authorizationJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final WriteBehindProperties properties;
+    private final Timer flushTimer;
+
+    private final Queue<String> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Map<String, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final Map<String, String> authorizationIdsByToken = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile boolean running;
+    private volatile Thread flusher;
+
+    public AuthorizationWriteBuffer(AuthorizationJdbcRepository authorizationJdbcRepository,
+                                    PlatformTransactionManager transactionManager, WriteBehindProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this.authorizationJdbcRepository = authorizationJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.flushTimer = Timer.builder("daem.oauth2.authorization.write_behind.flush")
+                .description("Time to write one batch of buffered authorizations")
+                .register(meterRegistry);
+        Gauge.builder("daem.oauth2.authorization.write_behind.queued", queued, AtomicInteger::get)
+                .description("Authorizations saved on this node but not written to the database yet")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!properties.enabled() || flusher != null) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::runFlusher, "authorization-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Stops the flusher and writes whatever is still buffered.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = flusher;
+        }
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(properties.retryInterval().toMillis() * 2);
+        }
+        if (!flushAll()) {
+            log.error("{} buffered authorizations could not be written before shutdown and are lost", queued.get());
+        }
+    }
+
+    /**
+     * Buffers the authorization, replacing a buffered older version of it.
+     *
+     * @return {@code false} if the buffer is full; the caller must then write the authorization itself
+     */
+    public boolean offer(OAuth2Authorization authorization, AuthorizationEntity entity) {
+        String id = authorization.getId();
+        PendingWrite write = new PendingWrite(authorization, entity, tokenKeys(authorization));
+        PendingWrite previous = pending.put(id, write);
+        write.tokenKeys().forEach(key -> authorizationIdsByToken.put(key, id));
+        if (previous != null) {
+            // Still queued under its id, which now flushes the latest version
+            unindex(id, previous, write.tokenKeys());
+            return true;
+        }
+        if (queued.incrementAndGet() > properties.capacity()) {
+            queued.decrementAndGet();
+            if (pending.remove(id, write)) {
+                unindex(id, write, Set.of());
+            }
+            return false;
+        }
+        queue.add(id);
+        if (queued.get() >= properties.batchSize() && flusher != null) {
+            LockSupport.unpark(flusher);
+        }
+        return true;
+    }
+
+    /**
+     * Runs a synchronous write of the authorization, after dropping any buffered version of it, without
+     * interleaving with a flush.
+     */
+    public void writeThrough(String authorizationId, Runnable write) {
+        writeLock.lock();
+        try {
+            PendingWrite previous = pending.remove(authorizationId);
+            if (previous != null) {
+                // Its id stays queued; the flush that polls it finds nothing pending and just releases the slot
+                unindex(authorizationId, previous, Set.of());
+            }
+            write.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public OAuth2Authorization findById(String id) {
+        PendingWrite write = pending.get(id);
+        return write != null ? write.authorization() : null;
+    }
+
+    public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
+        String id = authorizationIdsByToken.get(token);
+        PendingWrite write = id != null ? pending.get(id) : null;
+        if (write == null || !matches(write.authorization(), token, tokenType)) {
+            return null;
+        }
+        return write.authorization();
+    }
+
+    private void runFlusher() {
+        long flushIntervalNanos = properties.flushInterval().toNanos();
+        long retryIntervalNanos = properties.retryInterval().toNanos();
+        while (running) {
+            if (queued.get() < properties.batchSize()) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            if (!flushAll() && running) {
+                LockSupport.parkNanos(this, retryIntervalNanos);
+            }
+        }
+    }
+
+    /**
+     * @return {@code false} if a batch failed; its authorizations stay buffered for the next attempt
+     */
+    boolean flushAll() {
+        while (!queue.isEmpty()) {
+            try {
+                flushBatch();
+            } catch (RuntimeException e) {
+                log.warn("Flushing {} buffered authorizations failed, retrying in {}", queued.get(),
+                        properties.retryInterval(), e);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void flushBatch() {
+        writeLock.lock();
+        try {
+            Map<String, PendingWrite> batch = new LinkedHashMap<>();
+            String id;
+            while (batch.size() < properties.batchSize() && (id = queue.poll()) != null) {
+                PendingWrite write = pending.get(id);
+                if (write == null || batch.putIfAbsent(id, write) != null) {
+                    // Written through or removed meanwhile, or queued twice after that
+                    queued.decrementAndGet();
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<AuthorizationEntity> entities = new ArrayList<>(batch.size());
+            batch.values().forEach(write -> entities.add(write.entity()));
+            long start = System.nanoTime();
+            try {
+                transactionTemplate.executeWithoutResult(status -> authorizationJdbcRepository.batchUpsert(entities));
+            } catch (RuntimeException e) {
+                queue.addAll(batch.keySet());
+                throw e;
+            }
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batch.forEach((authorizationId, write) -> {
+                if (pending.remove(authorizationId, write)) {
+                    unindex(authorizationId, write, Set.of());
+                    queued.decrementAndGet();
+                } else {
+                    // Saved again during the flush; the newer version goes with the next batch
+                    queue.add(authorizationId);
+                }
+            });
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void unindex(String authorizationId, PendingWrite write, Set<String> retainedKeys) {
+        for (String key : write.tokenKeys()) {
+            if (!retainedKeys.contains(key)) {
+                authorizationIdsByToken.remove(key, authorizationId);
+            }
+        }
+    }
+
+    private static Set<String> tokenKeys(OAuth2Authorization authorization) {
+        Set<String> keys = new HashSet<>();
+        String state = authorization.getAttribute(OAuth2ParameterNames.STATE);
+        if (state != null) {
+            keys.add(state);
+        }
+        for (Class<? extends OAuth2Token> tokenType : TOKEN_TYPES) {
+            OAuth2Authorization.Token<? extends OAuth2Token> token = authorization.getToken(tokenType);
+            if (token != null) {
+                keys.add(token.getToken().getTokenValue());
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * The in-memory counterpart of the adapter's typed token lookup.
+     */
+    private static boolean matches(OAuth2Authorization authorization, String token, OAuth2TokenType tokenType) {
+        if (tokenType == null) {
+            return tokenKeys(authorization).contains(token);
+        }
+        String type = tokenType.getValue();
+        if (OAuth2ParameterNames.STATE.equals(type)) {
+            return token.equals(authorization.getAttribute(OAuth2ParameterNames.STATE));
+        } else if (OAuth2ParameterNames.CODE.equals(type)) {
+            return hasToken(authorization, OAuth2AuthorizationCode.class, token);
+        } else if (OAuth2TokenType.ACCESS_TOKEN.equals(tokenType)) {
+            return hasToken(authorization, OAuth2AccessToken.class, token);
+        } else if (OAuth2TokenType.REFRESH_TOKEN.equals(tokenType)) {
+            return hasToken(authorization, OAuth2RefreshToken.class, token);
+        } else if (OidcParameterNames.ID_TOKEN.equals(type)) {
+            return hasToken(authorization, OidcIdToken.class, token);
+        } else if (OAuth2ParameterNames.USER_CODE.equals(type)) {
+            return hasToken(authorization, OAuth2UserCode.class, token);
+        } else if (OAuth2ParameterNames.DEVICE_CODE.equals(type)) {
+            return hasToken(authorization, OAuth2DeviceCode.class, token);
+        }
+        return false;
+    }
+
+    private static boolean hasToken(OAuth2Authorization authorization, Class<? extends OAuth2Token> tokenType, String token) {
+        OAuth2Authorization.Token<? extends OAuth2Token> candidate = authorization.getToken(tokenType);
+        return candidate != null && Objects.equals(candidate.getToken().getTokenValue(), token);
+    }
+
+    private record PendingWrite(OAuth2Authorization authorization, AuthorizationEntity entity, Set<String> tokenKeys) {
+    }
+}
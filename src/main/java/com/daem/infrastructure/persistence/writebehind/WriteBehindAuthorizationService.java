@@ -0,0 +1,103 @@
+package com.daem.infrastructure.persistence.writebehind;
+
+import com.daem.infrastructure.persistence.adapter.OAuth2AuthorizationServiceAdapter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2DeviceCode;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.core.OAuth2UserCode;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.util.Assert;
+
+import java.util.List;
+
+/**
+ * Saves authorizations through the {@link AuthorizationWriteBuffer} instead of writing them inside the request.
+ * <p>
+ * Durability: a save returns before the row is written. If the node dies, buffered authorizations are lost, so
+ * tokens it has just issued stop working; other nodes only find an authorization once it is flushed, normally
+ * within {@code flush-interval}. Anything that takes a token away is never deferred: saves that carry an
+ * invalidated token (revocation, a consumed authorization or device code, refresh token reuse) and removals are
+ * written synchronously, so an acknowledged revocation or one-time code redemption survives a crash and is
+ * visible to the whole cluster. In practice that leaves client credentials issuances, authorization requests and
+ * freshly issued codes to the buffer.
+ * <p>
+ * {@code daem.oauth2.authorization.write_behind.write_through} counts the saves that were written synchronously,
+ * by reason.
+ */
+public class WriteBehindAuthorizationService implements OAuth2AuthorizationService {
+
+    private static final List<Class<? extends OAuth2Token>> TOKEN_TYPES = List.of(OAuth2AuthorizationCode.class,
+            OAuth2AccessToken.class, OAuth2RefreshToken.class, OidcIdToken.class, OAuth2UserCode.class, OAuth2DeviceCode.class);
+
+    private final OAuth2AuthorizationServiceAdapter delegate;
+    private final AuthorizationWriteBuffer buffer;
+    private final Counter overflowWrites;
+    private final Counter invalidationWrites;
+    private final Counter removals;
+
+    public WriteBehindAuthorizationService(OAuth2AuthorizationServiceAdapter delegate, AuthorizationWriteBuffer buffer,
+                                           MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.buffer = buffer;
+        this.overflowWrites = writeThroughCounter(meterRegistry, "overflow");
+        this.invalidationWrites = writeThroughCounter(meterRegistry, "invalidation");
+        this.removals = writeThroughCounter(meterRegistry, "removal");
+    }
+
+    private static Counter writeThroughCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("daem.oauth2.authorization.write_behind.write_through")
+                .description("Authorization writes that bypassed the write-behind buffer")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        if (hasInvalidatedToken(authorization)) {
+            invalidationWrites.increment();
+            buffer.writeThrough(authorization.getId(), () -> delegate.save(authorization));
+        } else if (!buffer.offer(authorization, delegate.toEntity(authorization))) {
+            overflowWrites.increment();
+            buffer.writeThrough(authorization.getId(), () -> delegate.save(authorization));
+        }
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        removals.increment();
+        buffer.writeThrough(authorization.getId(), () -> delegate.remove(authorization));
+    }
+
+    @Override
+    public OAuth2Authorization findById(String id) {
+        Assert.hasText(id, "id cannot be empty");
+        OAuth2Authorization authorization = buffer.findById(id);
+        return authorization != null ? authorization : delegate.findById(id);
+    }
+
+    @Override
+    public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
+        Assert.hasText(token, "token cannot be empty");
+        OAuth2Authorization authorization = buffer.findByToken(token, tokenType);
+        return authorization != null ? authorization : delegate.findByToken(token, tokenType);
+    }
+
+    private static boolean hasInvalidatedToken(OAuth2Authorization authorization) {
+        for (Class<? extends OAuth2Token> tokenType : TOKEN_TYPES) {
+            OAuth2Authorization.Token<? extends OAuth2Token> token = authorization.getToken(tokenType);
+            if (token != null && token.isInvalidated()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,24 @@
+package com.daem.infrastructure.persistence.writebehind;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param enabled       whether authorizations are saved through the write-behind buffer; off by default because
+ *                      an acknowledged token may be lost if the node dies before its flush
+ * @param capacity      authorizations the buffer holds before saves fall back to synchronous writes
+ * @param batchSize     authorizations written per JDBC batch; reaching it wakes the flusher early
+ * @param flushInterval longest time an authorization waits in the buffer while the database keeps up
+ * @param retryInterval pause after a failed flush before the batch is tried again
+ */
+@ConfigurationProperties(prefix = "daem.oauth2.authorization-write-behind")
+public record WriteBehindProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("10000") int capacity,
+        @DefaultValue("200") int batchSize,
+        @DefaultValue("5ms") Duration flushInterval,
+        @DefaultValue("1s") Duration retryInterval
+) {
+}
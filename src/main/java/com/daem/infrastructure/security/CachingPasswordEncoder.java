@@ -0,0 +1,91 @@
+package com.daem.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * {@link PasswordEncoder} that remembers recently verified secrets so repeated client authentications skip
+ * the delegate's deliberately slow hash.
+ * <p>
+ * After a successful match the cache keeps an HMAC-SHA256 of the presented secret, keyed by the stored encoded
+ * hash. The HMAC key is random per process and never leaves memory, so a cache entry alone cannot be used to
+ * recover or brute-force the secret faster than the stored hash. Because entries are keyed by the encoded hash,
+ * a changed secret never matches an old entry; entries are still evicted explicitly when a client changes.
+ */
+public class CachingPasswordEncoder implements PasswordEncoder {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final PasswordEncoder delegate;
+    private final Cache<String, byte[]> verified;
+    private final ThreadLocal<Mac> mac;
+
+    public CachingPasswordEncoder(PasswordEncoder delegate, SecretCacheProperties properties, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.timeToLive())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "oauth2.verified-secret");
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        SecretKeySpec keySpec = new SecretKeySpec(key, HMAC_ALGORITHM);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(HMAC_ALGORITHM);
+                instance.init(keySpec);
+                return instance;
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+        byte[] presented = hmac(rawPassword);
+        byte[] cached = verified.getIfPresent(encodedPassword);
+        if (cached != null && MessageDigest.isEqual(cached, presented)) {
+            return true;
+        }
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        if (matches) {
+            verified.put(encodedPassword, presented);
+        }
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public void invalidate(String encodedPassword) {
+        if (encodedPassword != null) {
+            verified.invalidate(encodedPassword);
+        }
+    }
+
+    private byte[] hmac(CharSequence rawPassword) {
+        return mac.get().doFinal(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
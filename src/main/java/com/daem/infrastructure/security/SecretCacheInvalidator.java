@@ -0,0 +1,26 @@
+package com.daem.infrastructure.security;
+
+import com.daem.application.client.event.ClientChangedEvent;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Drops the verified-secret entry of a client once a change to that client has been committed.
+ */
+@Component
+public class SecretCacheInvalidator {
+
+    private final PasswordEncoder passwordEncoder;
+
+    public SecretCacheInvalidator(PasswordEncoder passwordEncoder) {
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClientChanged(ClientChangedEvent event) {
+        if (event.previous() != null && passwordEncoder instanceof CachingPasswordEncoder cachingPasswordEncoder) {
+            cachingPasswordEncoder.invalidate(event.previous().getClientSecret());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.daem.infrastructure.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 digests of token values, used wherever a token has to be looked up without storing or indexing
+ * its raw value.
+ */
+public final class TokenDigests {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private TokenDigests() {
+    }
+
+    /**
+     * @return the lower-case hex SHA-256 digest of the token value (64 characters), or {@code null} for a null token
+     */
+    public static String sha256Hex(String tokenValue) {
+        if (tokenValue == null) {
+            return null;
+        }
+        return HEX.formatHex(sha256(tokenValue));
+    }
+
+    public static byte[] sha256(String tokenValue) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(tokenValue.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
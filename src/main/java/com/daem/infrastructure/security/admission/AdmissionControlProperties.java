@@ -0,0 +1,35 @@
+package com.daem.infrastructure.security.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param enabled                 whether the token endpoint sheds load at all
+ * @param requestsPerSecond       sustained authenticated token requests per second and client, for clients without
+ *                                their own limit; zero or less means no per-client limit
+ * @param burst                   token requests a client may send at once before the rate applies
+ * @param sourceRequestsPerSecond sustained token requests per second and source address that fail client
+ *                                authentication; zero or less means no limit. Behind a proxy the source is the
+ *                                proxy unless {@code server.forward-headers-strategy} is set
+ * @param sourceBurst             failing token requests a source may send at once before the rate applies
+ * @param maxConcurrentRequests   token requests processed at the same time on this node, across all clients
+ * @param maximumClients          clients whose request rate is tracked per node
+ * @param maximumSources          source addresses whose failing request rate is tracked per node
+ * @param idleTimeout             how long the rate of a client or source that stopped sending is remembered; it only
+ *                                matters while shorter than {@code burst / requestsPerSecond}
+ */
+@ConfigurationProperties(prefix = "daem.oauth2.admission-control")
+public record AdmissionControlProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("50") double requestsPerSecond,
+        @DefaultValue("100") int burst,
+        @DefaultValue("10") double sourceRequestsPerSecond,
+        @DefaultValue("50") int sourceBurst,
+        @DefaultValue("64") int maxConcurrentRequests,
+        @DefaultValue("10000") long maximumClients,
+        @DefaultValue("100000") long maximumSources,
+        @DefaultValue("10m") Duration idleTimeout
+) {
+}
@@ -0,0 +1,46 @@
+package com.daem.infrastructure.security.admission;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The place a token request takes among the {@code maxConcurrentRequests} of {@link TokenEndpointAdmissionFilter},
+ * kept in a request attribute while the request is processed.
+ * <p>
+ * A request about to wait for something other than this node, such as a device code poll held open for the
+ * user's decision, gives its place back early, so that waiting requests never crowd out working ones.
+ */
+public final class AdmissionSlot {
+
+    static final String ATTRIBUTE = AdmissionSlot.class.getName();
+
+    private final AtomicInteger inFlight;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    AdmissionSlot(AtomicInteger inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    /**
+     * Gives the place back; only the first call has an effect.
+     */
+    void release() {
+        if (released.compareAndSet(false, true)) {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Gives back the place of the token request the current thread is processing, if it holds one.
+     */
+    public static void releaseCurrent() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null
+                && attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof AdmissionSlot slot) {
+            slot.release();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.daem.infrastructure.security.admission;
+
+import com.daem.domain.client.ClientSettingNames;
+import com.daem.domain.tenant.TenantIds;
+import com.daem.infrastructure.tenant.TenantResolver;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.settings.ClientSettings;
+
+import java.util.function.Supplier;
+
+/**
+ * Token buckets per client for the token endpoint. A client is its client id within its tenant, so clients of
+ * different tenants sharing a client id have buckets of their own.
+ * <p>
+ * Only requests the client authenticated are charged to its bucket, so a caller that merely names a client cannot
+ * spend its budget; requests failing authentication are charged to their source instead ({@link SourceRateLimiter}).
+ * A request is checked against the bucket of the client it claims before authentication, so that a client over its
+ * rate costs no BCrypt comparison. Both take the client from the request and the authentication result, never from
+ * the client repository, so made-up client ids neither reach the database nor get a bucket.
+ * <p>
+ * A client's limit comes from its {@link ClientSettingNames#TOKEN_REQUESTS_PER_SECOND} and
+ * {@link ClientSettingNames#TOKEN_REQUEST_BURST} settings, falling back to the configured defaults, and is taken
+ * from the authenticated client on every charge, so changes apply at once. The buckets live in a Caffeine map whose
+ * table is striped, so requests of different clients never touch the same memory.
+ */
+public class ClientRateLimiter {
+
+    private final RateBucket.Limit defaultLimit;
+    private final Supplier<String> currentTenant;
+    private final Cache<BucketKey, RateBucket> buckets;
+
+    public ClientRateLimiter(AdmissionControlProperties properties) {
+        this(properties, () -> TenantIds.DEFAULT);
+    }
+
+    /**
+     * @param currentTenant the tenant of the current request, which the client id it claims belongs to
+     */
+    public ClientRateLimiter(AdmissionControlProperties properties, Supplier<String> currentTenant) {
+        this.currentTenant = currentTenant;
+        this.defaultLimit = new RateBucket.Limit(properties.requestsPerSecond(), properties.burst());
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.maximumClients())
+                .expireAfterAccess(properties.idleTimeout())
+                // Amortized on the request threads instead of waking a pool thread every few hundred reads
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * @param clientId the client id the request claims in the tenant of the request; it is not authenticated yet
+     * @return {@code 0} if the request is admitted, otherwise the nanoseconds until the client may send the next one
+     */
+    public long waitTime(String clientId) {
+        RateBucket bucket = clientId != null ? buckets.getIfPresent(new BucketKey(currentTenant.get(), clientId)) : null;
+        return bucket != null ? bucket.waitTime(System.nanoTime()) : 0;
+    }
+
+    /**
+     * Charges a request the client authenticated.
+     */
+    public void acquire(RegisteredClient registeredClient) {
+        RateBucket.Limit limit = limitOf(registeredClient.getClientSettings());
+        BucketKey key = new BucketKey(TenantResolver.tenantOf(registeredClient), registeredClient.getClientId());
+        if (limit.unlimited()) {
+            buckets.invalidate(key);
+            return;
+        }
+        RateBucket bucket = buckets.get(key, k -> new RateBucket(limit));
+        if (!bucket.limit().equals(limit)) {
+            bucket = buckets.asMap().compute(key, (k, current) ->
+                    current != null && current.limit().equals(limit) ? current : new RateBucket(limit));
+        }
+        bucket.acquire(System.nanoTime());
+    }
+
+    private RateBucket.Limit limitOf(ClientSettings clientSettings) {
+        Object requestsPerSecond = clientSettings.getSetting(ClientSettingNames.TOKEN_REQUESTS_PER_SECOND);
+        Object burst = clientSettings.getSetting(ClientSettingNames.TOKEN_REQUEST_BURST);
+        if (!(requestsPerSecond instanceof Number) && !(burst instanceof Number)) {
+            return defaultLimit;
+        }
+        return new RateBucket.Limit(
+                requestsPerSecond instanceof Number number ? number.doubleValue() : defaultLimit.requestsPerSecond(),
+                burst instanceof Number number ? number.intValue() : defaultLimit.burst());
+    }
+
+    private record BucketKey(String tenant, String clientId) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.daem.infrastructure.security.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket in the form of the generic cell rate algorithm: a single {@link AtomicLong} holding the time at
+ * which the bucket would be full again. Checking it is one volatile read, charging it one atomic update; there is
+ * no lock.
+ * <p>
+ * Requests are checked before they are processed and charged afterwards, once it is known whose budget they
+ * spend, so requests running at the same time may overdraw the bucket by at most their number; the overdraft is
+ * paid back by waiting longer.
+ */
+final class RateBucket {
+
+    private final Limit limit;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong fullAt;
+
+    RateBucket(Limit limit) {
+        this.limit = limit;
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / limit.requestsPerSecond()));
+        this.burstToleranceNanos = emissionIntervalNanos * Math.max(1, limit.burst());
+        this.fullAt = new AtomicLong(System.nanoTime());
+    }
+
+    Limit limit() {
+        return limit;
+    }
+
+    /**
+     * @return {@code 0} if one more request fits, otherwise the nanoseconds until it does
+     */
+    long waitTime(long now) {
+        return Math.max(0, Math.max(fullAt.get(), now) + emissionIntervalNanos - now - burstToleranceNanos);
+    }
+
+    void acquire(long now) {
+        fullAt.accumulateAndGet(now, (current, time) -> Math.max(current, time) + emissionIntervalNanos);
+    }
+
+    /**
+     * @param requestsPerSecond sustained rate; zero or less means no limit
+     * @param burst             requests that may be sent at once before the rate applies
+     */
+    record Limit(double requestsPerSecond, int burst) {
+
+        boolean unlimited() {
+            return requestsPerSecond <= 0;
+        }
+    }
+}
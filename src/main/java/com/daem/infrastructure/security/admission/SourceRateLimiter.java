@@ -0,0 +1,44 @@
+package com.daem.infrastructure.security.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Token buckets per source address for token requests that fail client authentication.
+ * <p>
+ * A source may send any number of requests its clients authenticate, since those are charged to the clients
+ * ({@link ClientRateLimiter}); it is only the unauthenticated ones, guessed secrets or made-up client ids, that
+ * spend its budget, and once that is spent all its requests are rejected before authentication until it refills.
+ * The limit is coarser than a client's: it is shared by everything behind one address.
+ */
+public class SourceRateLimiter {
+
+    private final RateBucket.Limit limit;
+    private final Cache<String, RateBucket> buckets;
+
+    public SourceRateLimiter(AdmissionControlProperties properties) {
+        this.limit = new RateBucket.Limit(properties.sourceRequestsPerSecond(), properties.sourceBurst());
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSources())
+                .expireAfterAccess(properties.idleTimeout())
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * @return {@code 0} if the request is admitted, otherwise the nanoseconds until the source may send the next one
+     */
+    public long waitTime(String source) {
+        RateBucket bucket = buckets.getIfPresent(source);
+        return bucket != null ? bucket.waitTime(System.nanoTime()) : 0;
+    }
+
+    /**
+     * Charges a request that failed client authentication.
+     */
+    public void acquire(String source) {
+        if (!limit.unlimited()) {
+            buckets.get(source, k -> new RateBucket(limit)).acquire(System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.daem.infrastructure.security.admission;
+
+import com.daem.infrastructure.tenant.TenantResolver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for the token endpoint, ahead of client authentication so that a rejected request costs
+ * neither a BCrypt comparison nor a signature.
+ * <ul>
+ *     <li>A request naming a client over its rate ({@link ClientRateLimiter}), or coming from an address over its
+ *     rate of failed authentications ({@link SourceRateLimiter}), gets {@code 429} with a {@code slow_down} error
+ *     and a {@code Retry-After}.</li>
+ *     <li>A request arriving while {@code maxConcurrentRequests} token requests are in progress on this node gets
+ *     {@code 503} with {@code temporarily_unavailable}: the node is full, not the client too fast. A request that
+ *     goes on to wait rather than work gives its place back early ({@link AdmissionSlot}).</li>
+ * </ul>
+ * The client named in the Basic credentials or the {@code client_id} parameter is not authenticated yet, so an
+ * admitted request is only charged once the rest of the chain has run: to its client if client authentication
+ * succeeded, otherwise to its source address. A caller that knows another client's id can therefore only spend
+ * its own address's budget, never that client's.
+ * <p>
+ * {@code daem.oauth2.token.admission.rejected} counts the rejections by reason ({@code client_rate},
+ * {@code source_rate} or {@code concurrency}); {@code daem.oauth2.token.in_flight} is the number of token requests
+ * in progress.
+ */
+public class TokenEndpointAdmissionFilter extends OncePerRequestFilter {
+
+    private static final String SLOW_DOWN = "{\"error\":\"slow_down\","
+            + "\"error_description\":\"Too many token requests for this client\"}";
+    private static final String SOURCE_SLOW_DOWN = "{\"error\":\"slow_down\","
+            + "\"error_description\":\"Too many failed token requests from this address\"}";
+    private static final String TEMPORARILY_UNAVAILABLE = "{\"error\":\"temporarily_unavailable\","
+            + "\"error_description\":\"Too many token requests in progress\"}";
+
+    private final ClientRateLimiter clientRateLimiter;
+    private final SourceRateLimiter sourceRateLimiter;
+    private final String tokenEndpoint;
+    private final int maxConcurrentRequests;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rateRejections;
+    private final Counter sourceRejections;
+    private final Counter concurrencyRejections;
+
+    public TokenEndpointAdmissionFilter(ClientRateLimiter clientRateLimiter, SourceRateLimiter sourceRateLimiter,
+                                        AdmissionControlProperties properties, String tokenEndpoint,
+                                        MeterRegistry meterRegistry) {
+        this.clientRateLimiter = clientRateLimiter;
+        this.sourceRateLimiter = sourceRateLimiter;
+        this.tokenEndpoint = tokenEndpoint;
+        this.maxConcurrentRequests = properties.maxConcurrentRequests();
+        this.rateRejections = rejectionCounter(meterRegistry, "client_rate");
+        this.sourceRejections = rejectionCounter(meterRegistry, "source_rate");
+        this.concurrencyRejections = rejectionCounter(meterRegistry, "concurrency");
+        Gauge.builder("daem.oauth2.token.in_flight", inFlight, AtomicInteger::get)
+                .description("Token requests in progress")
+                .register(meterRegistry);
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("daem.oauth2.token.admission.rejected")
+                .description("Token requests rejected before any client authentication")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || !TenantResolver.endpointPath(request).equals(tokenEndpoint);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long wait = clientRateLimiter.waitTime(clientId(request));
+        if (wait > 0) {
+            rateRejections.increment();
+            reject(response, 429, retryAfterSeconds(wait), SLOW_DOWN);
+            return;
+        }
+        String source = request.getRemoteAddr();
+        wait = sourceRateLimiter.waitTime(source);
+        if (wait > 0) {
+            sourceRejections.increment();
+            reject(response, 429, retryAfterSeconds(wait), SOURCE_SLOW_DOWN);
+            return;
+        }
+        if (inFlight.incrementAndGet() > maxConcurrentRequests) {
+            inFlight.decrementAndGet();
+            concurrencyRejections.increment();
+            reject(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, 1, TEMPORARILY_UNAVAILABLE);
+            return;
+        }
+        AdmissionSlot slot = new AdmissionSlot(inFlight);
+        request.setAttribute(AdmissionSlot.ATTRIBUTE, slot);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            slot.release();
+            // Client authentication leaves its result in the context, which is only cleared once this filter returns
+            if (SecurityContextHolder.getContext().getAuthentication() instanceof OAuth2ClientAuthenticationToken client
+                    && client.isAuthenticated() && client.getRegisteredClient() != null) {
+                clientRateLimiter.acquire(client.getRegisteredClient());
+            } else {
+                sourceRateLimiter.acquire(source);
+            }
+        }
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1;
+    }
+
+    /**
+     * The client id of {@code client_secret_basic} credentials, which are form-encoded before they are
+     * base64-encoded, or else the {@code client_id} parameter.
+     */
+    private static String clientId(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.regionMatches(true, 0, "Basic ", 0, 6)) {
+            try {
+                String credentials = new String(Base64.getDecoder().decode(authorization.substring(6).trim()),
+                        StandardCharsets.UTF_8);
+                int separator = credentials.indexOf(':');
+                if (separator > 0) {
+                    return URLDecoder.decode(credentials.substring(0, separator), StandardCharsets.UTF_8);
+                }
+            } catch (IllegalArgumentException ex) {
+                // Malformed credentials; client authentication rejects them cheaply
+            }
+            return null;
+        }
+        return request.getParameter(OAuth2ParameterNames.CLIENT_ID);
+    }
+
+    private static void reject(HttpServletResponse response, int status, long retryAfterSeconds, String body)
+            throws IOException {
+        response.setStatus(status);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(body);
+    }
+}
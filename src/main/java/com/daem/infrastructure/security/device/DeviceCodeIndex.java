@@ -0,0 +1,229 @@
+package com.daem.infrastructure.security.device;
+
+import com.daem.infrastructure.cluster.ClusterNotificationBus;
+import com.daem.infrastructure.cluster.ClusterNotificationListener;
+import com.daem.infrastructure.persistence.jdbc.AuthorizationJdbcRepository;
+import com.daem.infrastructure.persistence.jdbc.PendingDeviceCodeRow;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The device codes this node knows to be waiting for the user's decision, keyed by the SHA-256 digest of the code,
+ * with the polling state of each.
+ * <p>
+ * A code is added when it is issued on this node, when a poll finds it pending in the database, and, after a
+ * restart, from a scan of {@code oauth2_authorization}. It is dropped as soon as the user approves or denies it,
+ * on whichever node that happens, since decisions are announced over the {@link ClusterNotificationBus} by digest,
+ * never by code. Codes found pending while a decision was announced are not kept, as the lookup may have read the
+ * authorization before the decision committed. After a reconnect to the bus every code is dropped, since decisions
+ * may have been missed. Expired codes are dropped every {@code sweep-interval}.
+ * <p>
+ * {@code daem.oauth2.device.pending} is the number of codes held.
+ */
+@Component
+public class DeviceCodeIndex implements DisposableBean {
+
+    static final String CHANNEL = "oauth2_device_code";
+
+    private static final Logger log = LoggerFactory.getLogger(DeviceCodeIndex.class);
+
+    private final AuthorizationJdbcRepository authorizationJdbcRepository;
+    private final ClusterNotificationBus notificationBus;
+    private final DevicePollingProperties properties;
+    private final ConcurrentMap<String, PendingDeviceCode> codes = new ConcurrentHashMap<>();
+    private final AtomicLong decisions = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    public DeviceCodeIndex(AuthorizationJdbcRepository authorizationJdbcRepository, ClusterNotificationBus notificationBus,
+                           DevicePollingProperties properties, MeterRegistry meterRegistry) {
+        this.authorizationJdbcRepository = authorizationJdbcRepository;
+        this.notificationBus = notificationBus;
+        this.properties = properties;
+        Gauge.builder("daem.oauth2.device.pending", codes, ConcurrentMap::size)
+                .description("Device codes waiting for the user's decision that polls are answered for from memory")
+                .register(meterRegistry);
+        notificationBus.subscribe(CHANNEL, new ClusterNotificationListener() {
+            @Override
+            public void onNotification(String payload) {
+                decidedLocally(payload);
+            }
+
+            @Override
+            public void onReconnect() {
+                decisions.incrementAndGet();
+                codes.values().forEach(code -> code.decision.complete(null));
+                codes.clear();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!properties.enabled() || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "device-code-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.execute(this::recover);
+        long delay = properties.sweepInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::sweep, delay, delay, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the pending code with the given digest, or {@code null} if this node does not know it to be pending
+     */
+    public PendingDeviceCode find(String deviceCodeHash) {
+        PendingDeviceCode code = codes.get(deviceCodeHash);
+        if (code != null && !code.expiresAt.isAfter(Instant.now())) {
+            codes.remove(deviceCodeHash, code);
+            return null;
+        }
+        return code;
+    }
+
+    /**
+     * The number of decisions announced so far, to be read before looking up a code that is then {@link #track
+     * tracked}.
+     */
+    public long decisions() {
+        return decisions.get();
+    }
+
+    /**
+     * Remembers a code as pending, unless a decision was announced since {@code decisionsBefore} was read or the
+     * index is full.
+     */
+    public void track(String deviceCodeHash, String registeredClientId, Instant expiresAt, long decisionsBefore) {
+        if (codes.size() >= properties.maximumPending()) {
+            return;
+        }
+        PendingDeviceCode code = new PendingDeviceCode(registeredClientId, expiresAt);
+        if (codes.putIfAbsent(deviceCodeHash, code) == null && decisions.get() != decisionsBefore) {
+            codes.remove(deviceCodeHash, code);
+        }
+    }
+
+    /**
+     * Drops the code on every node and wakes the polls waiting for it. Only to be called once the decision is
+     * stored.
+     */
+    public void decided(String deviceCodeHash) {
+        decidedLocally(deviceCodeHash);
+        notificationBus.publish(CHANNEL, deviceCodeHash);
+    }
+
+    private void decidedLocally(String deviceCodeHash) {
+        decisions.incrementAndGet();
+        PendingDeviceCode code = codes.remove(deviceCodeHash);
+        if (code != null) {
+            code.decision.complete(null);
+        }
+    }
+
+    private void recover() {
+        try {
+            long decisionsBefore = decisions.get();
+            int recovered = 0;
+            for (PendingDeviceCodeRow row : authorizationJdbcRepository.findPendingDeviceCodes(Instant.now(),
+                    properties.maximumPending())) {
+                track(row.deviceCodeHash(), row.registeredClientId(), row.expiresAt(), decisionsBefore);
+                recovered++;
+            }
+            log.info("Loaded {} pending device codes", recovered);
+        } catch (RuntimeException e) {
+            // Codes missing from the index are looked up when they are polled
+            log.warn("Loading pending device codes failed", e);
+        }
+    }
+
+    private void sweep() {
+        Instant now = Instant.now();
+        codes.entrySet().removeIf(entry -> !entry.getValue().expiresAt.isAfter(now));
+    }
+
+    /**
+     * Polling state of one pending code.
+     */
+    public static final class PendingDeviceCode {
+
+        // RFC 8628 section 3.5: the default polling interval, and how much each slow_down adds to it
+        private static final long DEFAULT_INTERVAL_NANOS = Duration.ofSeconds(5).toNanos();
+        private static final long SLOW_DOWN_INCREMENT_NANOS = Duration.ofSeconds(5).toNanos();
+        // Network jitter can bring a client that waits exactly the interval in a little early
+        private static final long EARLY_POLL_TOLERANCE_NANOS = Duration.ofSeconds(1).toNanos();
+
+        private final String registeredClientId;
+        private final Instant expiresAt;
+        private final CompletableFuture<Void> decision = new CompletableFuture<>();
+        private long intervalNanos = DEFAULT_INTERVAL_NANOS;
+        private long lastPollNanos;
+        private boolean polled;
+
+        private PendingDeviceCode(String registeredClientId, Instant expiresAt) {
+            this.registeredClientId = registeredClientId;
+            this.expiresAt = expiresAt;
+        }
+
+        public String registeredClientId() {
+            return registeredClientId;
+        }
+
+        /**
+         * Completes when the user has approved or denied the code, or when this node no longer knows.
+         */
+        public CompletableFuture<Void> decision() {
+            return decision;
+        }
+
+        /**
+         * Records a poll.
+         *
+         * @return {@code false} if the poll came sooner than the interval after the previous one, in which case the
+         * interval grows and the client is to be told to slow down
+         */
+        public synchronized boolean poll() {
+            long now = System.nanoTime();
+            boolean early = polled && now - lastPollNanos < intervalNanos - EARLY_POLL_TOLERANCE_NANOS;
+            if (early) {
+                intervalNanos += SLOW_DOWN_INCREMENT_NANOS;
+            }
+            polled = true;
+            lastPollNanos = now;
+            return !early;
+        }
+
+        /**
+         * Restarts the interval once the answer to a held poll is sent, since the client waits from then on.
+         */
+        public synchronized void answered() {
+            lastPollNanos = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.daem.infrastructure.security.device;
+
+import com.daem.infrastructure.security.TokenDigests;
+import com.daem.infrastructure.security.admission.AdmissionSlot;
+import com.daem.infrastructure.security.device.DeviceCodeIndex.PendingDeviceCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2DeviceCode;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2DeviceCodeAuthenticationProvider;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2DeviceCodeAuthenticationToken;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Wraps the default {@link OAuth2DeviceCodeAuthenticationProvider} so that polls for a device code the user has not
+ * decided on yet are answered from the {@link DeviceCodeIndex} instead of the database.
+ * <p>
+ * A poll for a pending code that comes sooner than the polling interval after the previous one is answered with
+ * {@code slow_down}, and the interval for that code grows by five seconds (RFC 8628 section 3.5). Any other poll
+ * is held open for up to {@code max-poll-hold}, while fewer than {@code max-waiting-polls} are, and answered with
+ * {@code authorization_pending} unless the user decides in the meantime. Polls for codes this node does not hold
+ * look the code up once and remember it if it is pending; polls for decided codes, and polls that were woken by
+ * the decision, go to the default provider, which issues the tokens or reports the denial. A held poll does not
+ * count towards the token endpoint's concurrent requests, only towards {@code max-waiting-polls}.
+ * <p>
+ * {@code daem.oauth2.device.polls} counts the polls by outcome: {@code pending} and {@code slow_down} (answered
+ * from memory) or {@code lookup} (read the database).
+ */
+public class DeviceCodePollingAuthenticationProvider implements AuthenticationProvider {
+
+    private static final String AUTHORIZATION_PENDING = "authorization_pending";
+    private static final String SLOW_DOWN = "slow_down";
+    private static final String DEVICE_ERROR_URI = "https://datatracker.ietf.org/doc/html/rfc8628#section-3.5";
+    private static final OAuth2TokenType DEVICE_CODE_TOKEN_TYPE = new OAuth2TokenType(OAuth2ParameterNames.DEVICE_CODE);
+
+    private final AuthenticationProvider delegate;
+    private final OAuth2AuthorizationService authorizationService;
+    private final DeviceCodeIndex index;
+    private final long maxPollHoldMillis;
+    private final Semaphore waitingPolls;
+    private final Counter pending;
+    private final Counter slowDown;
+    private final Counter lookup;
+
+    public DeviceCodePollingAuthenticationProvider(AuthenticationProvider delegate,
+                                                   OAuth2AuthorizationService authorizationService,
+                                                   DeviceCodeIndex index, DevicePollingProperties properties,
+                                                   MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.authorizationService = authorizationService;
+        this.index = index;
+        this.maxPollHoldMillis = properties.maxPollHold().toMillis();
+        this.waitingPolls = new Semaphore(properties.maxWaitingPolls());
+        this.pending = pollCounter(meterRegistry, "pending");
+        this.slowDown = pollCounter(meterRegistry, "slow_down");
+        this.lookup = pollCounter(meterRegistry, "lookup");
+    }
+
+    private static Counter pollCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("daem.oauth2.device.polls")
+                .description("Device code polls of the token endpoint")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        OAuth2DeviceCodeAuthenticationToken request = (OAuth2DeviceCodeAuthenticationToken) authentication;
+        if (!(request.getPrincipal() instanceof OAuth2ClientAuthenticationToken clientPrincipal)
+                || !clientPrincipal.isAuthenticated()) {
+            return delegate.authenticate(authentication);
+        }
+        String registeredClientId = clientPrincipal.getRegisteredClient().getId();
+        String deviceCodeHash = TokenDigests.sha256Hex(request.getDeviceCode());
+        PendingDeviceCode code = index.find(deviceCodeHash);
+        if (code == null) {
+            lookup.increment();
+            code = lookUp(request.getDeviceCode(), deviceCodeHash, registeredClientId);
+            if (code == null) {
+                return delegate.authenticate(authentication);
+            }
+        } else if (!code.registeredClientId().equals(registeredClientId)) {
+            // Another client presenting the code gets it invalidated by the default provider
+            lookup.increment();
+            return delegate.authenticate(authentication);
+        }
+
+        if (!code.poll()) {
+            slowDown.increment();
+            throw new OAuth2AuthenticationException(new OAuth2Error(SLOW_DOWN, null, DEVICE_ERROR_URI));
+        }
+        if (awaitDecision(code)) {
+            lookup.increment();
+            return delegate.authenticate(authentication);
+        }
+        pending.increment();
+        throw new OAuth2AuthenticationException(new OAuth2Error(AUTHORIZATION_PENDING, null, DEVICE_ERROR_URI));
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return OAuth2DeviceCodeAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+
+    /**
+     * Reads the code from the database and remembers it if it is pending for the client.
+     *
+     * @return the remembered code, or {@code null} if the default provider has to answer the poll
+     */
+    private PendingDeviceCode lookUp(String deviceCode, String deviceCodeHash, String registeredClientId) {
+        long decisionsBefore = index.decisions();
+        OAuth2Authorization authorization = authorizationService.findByToken(deviceCode, DEVICE_CODE_TOKEN_TYPE);
+        if (authorization == null || !registeredClientId.equals(authorization.getRegisteredClientId())
+                || !DeviceCodeTrackingAuthorizationService.isPending(authorization)) {
+            return null;
+        }
+        index.track(deviceCodeHash, registeredClientId,
+                authorization.getToken(OAuth2DeviceCode.class).getToken().getExpiresAt(), decisionsBefore);
+        PendingDeviceCode code = index.find(deviceCodeHash);
+        if (code == null) {
+            // Pending as read, but not kept (index full or a decision announced meanwhile); the next poll looks again
+            throw new OAuth2AuthenticationException(new OAuth2Error(AUTHORIZATION_PENDING, null, DEVICE_ERROR_URI));
+        }
+        return code;
+    }
+
+    /**
+     * Holds the poll until the user decides, the hold time is up, or right away if too many polls are held.
+     *
+     * @return whether the user decided
+     */
+    private boolean awaitDecision(PendingDeviceCode code) {
+        if (maxPollHoldMillis <= 0 || !waitingPolls.tryAcquire()) {
+            return false;
+        }
+        // A held poll waits for the user, not for this node, so it must not keep other token requests out
+        AdmissionSlot.releaseCurrent();
+        try {
+            code.decision().get(maxPollHoldMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            code.answered();
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        } finally {
+            waitingPolls.release();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.daem.infrastructure.security.device;
+
+import com.daem.infrastructure.security.TokenDigests;
+import org.springframework.security.oauth2.core.OAuth2DeviceCode;
+import org.springframework.security.oauth2.core.OAuth2UserCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+
+/**
+ * Keeps the {@link DeviceCodeIndex} in step with the stored device authorizations: a newly issued device code is
+ * tracked as pending, and a code the user approved or denied, or that was removed, is announced as decided.
+ */
+public class DeviceCodeTrackingAuthorizationService implements OAuth2AuthorizationService {
+
+    private final OAuth2AuthorizationService delegate;
+    private final DeviceCodeIndex index;
+
+    public DeviceCodeTrackingAuthorizationService(OAuth2AuthorizationService delegate, DeviceCodeIndex index) {
+        this.delegate = delegate;
+        this.index = index;
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        long decisionsBefore = index.decisions();
+        delegate.save(authorization);
+        OAuth2Authorization.Token<OAuth2DeviceCode> deviceCode = authorization.getToken(OAuth2DeviceCode.class);
+        if (deviceCode == null) {
+            return;
+        }
+        String deviceCodeHash = TokenDigests.sha256Hex(deviceCode.getToken().getTokenValue());
+        if (isPending(authorization)) {
+            if (deviceCode.getToken().getExpiresAt() != null) {
+                index.track(deviceCodeHash, authorization.getRegisteredClientId(), deviceCode.getToken().getExpiresAt(),
+                        decisionsBefore);
+            }
+        } else if (authorization.getAccessToken() == null) {
+            // Once tokens are issued the decision was announced already; refreshes need not announce it again
+            index.decided(deviceCodeHash);
+        }
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        delegate.remove(authorization);
+        OAuth2Authorization.Token<OAuth2DeviceCode> deviceCode = authorization.getToken(OAuth2DeviceCode.class);
+        if (deviceCode != null) {
+            index.decided(TokenDigests.sha256Hex(deviceCode.getToken().getTokenValue()));
+        }
+    }
+
+    @Override
+    public OAuth2Authorization findById(String id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
+        return delegate.findByToken(token, tokenType);
+    }
+
+    /**
+     * Whether the device code of the authorization still waits for the user, i.e. a poll would be answered with
+     * {@code authorization_pending}.
+     */
+    static boolean isPending(OAuth2Authorization authorization) {
+        OAuth2Authorization.Token<OAuth2DeviceCode> deviceCode = authorization.getToken(OAuth2DeviceCode.class);
+        OAuth2Authorization.Token<OAuth2UserCode> userCode = authorization.getToken(OAuth2UserCode.class);
+        return deviceCode != null && userCode != null && !deviceCode.isInvalidated() && !deviceCode.isExpired()
+                && !userCode.isInvalidated();
+    }
+}
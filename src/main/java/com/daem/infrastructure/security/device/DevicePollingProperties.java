@@ -0,0 +1,26 @@
+package com.daem.infrastructure.security.device;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param enabled         whether device code polls for codes still waiting for the user are answered from memory
+ * @param maximumPending  pending device codes remembered per node; polls for codes beyond that go to the database
+ * @param maxPollHold     how long a poll for a pending code may be held open waiting for the user's decision before
+ *                        it is answered with {@code authorization_pending}; zero answers at once
+ * @param maxWaitingPolls polls held open at the same time per node, each of which occupies a request thread; at
+ *                        most half of the admission control's {@code max-concurrent-requests}, since every poll
+ *                        woken by a decision goes on to issue tokens at once
+ * @param sweepInterval   how often expired codes are dropped from memory
+ */
+@ConfigurationProperties(prefix = "daem.oauth2.device-polling")
+public record DevicePollingProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100000") int maximumPending,
+        @DefaultValue("5s") Duration maxPollHold,
+        @DefaultValue("32") int maxWaitingPolls,
+        @DefaultValue("1m") Duration sweepInterval
+) {
+}
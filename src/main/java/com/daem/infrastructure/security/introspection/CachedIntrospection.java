@@ -0,0 +1,11 @@
+package com.daem.infrastructure.security.introspection;
+
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenIntrospection;
+
+/**
+ * An introspection result together with its serialized response body.
+ *
+ * @param authorizationId the authorization the token belongs to, or {@code null} for an unknown token
+ */
+public record CachedIntrospection(String authorizationId, OAuth2TokenIntrospection claims, byte[] responseBody) {
+}
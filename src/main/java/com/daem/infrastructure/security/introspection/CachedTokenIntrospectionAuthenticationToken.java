@@ -0,0 +1,22 @@
+package com.daem.infrastructure.security.introspection;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenIntrospectionAuthenticationToken;
+
+/**
+ * An introspection result that carries its response body already serialized.
+ */
+public class CachedTokenIntrospectionAuthenticationToken extends OAuth2TokenIntrospectionAuthenticationToken {
+
+    private final byte[] responseBody;
+
+    public CachedTokenIntrospectionAuthenticationToken(String token, Authentication clientPrincipal,
+                                                       CachedIntrospection introspection) {
+        super(token, clientPrincipal, introspection.claims());
+        this.responseBody = introspection.responseBody();
+    }
+
+    public byte[] getResponseBody() {
+        return responseBody;
+    }
+}
@@ -0,0 +1,132 @@
+package com.daem.infrastructure.security.introspection;
+
+import com.daem.infrastructure.tenant.TenantResolver;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenIntrospection;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenIntrospectionAuthenticationProvider;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenIntrospectionAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.http.converter.OAuth2TokenIntrospectionHttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Replaces the default introspection provider with one that answers from the {@link TokenIntrospectionCache}.
+ * <p>
+ * The requesting client is still required to be authenticated on every call; only the token lookup and the
+ * response serialization are cached. The result itself never depends on which client asks. Cache misses are
+ * answered by the default provider, so the claims stay exactly those of an uncached introspection.
+ */
+public class CachingTokenIntrospectionAuthenticationProvider implements AuthenticationProvider {
+
+    private final RegisteredClientRepository registeredClientRepository;
+    private final OAuth2AuthorizationService authorizationService;
+    private final TokenIntrospectionCache cache;
+    private final TenantResolver tenantResolver;
+    private final HttpMessageConverter<OAuth2TokenIntrospection> converter = new OAuth2TokenIntrospectionHttpMessageConverter();
+
+    public CachingTokenIntrospectionAuthenticationProvider(RegisteredClientRepository registeredClientRepository,
+                                                           OAuth2AuthorizationService authorizationService,
+                                                           TokenIntrospectionCache cache,
+                                                           TenantResolver tenantResolver) {
+        this.registeredClientRepository = registeredClientRepository;
+        this.authorizationService = authorizationService;
+        this.cache = cache;
+        this.tenantResolver = tenantResolver;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        OAuth2TokenIntrospectionAuthenticationToken request = (OAuth2TokenIntrospectionAuthenticationToken) authentication;
+        Authentication clientPrincipal = (Authentication) request.getPrincipal();
+        if (!(clientPrincipal instanceof OAuth2ClientAuthenticationToken) || !clientPrincipal.isAuthenticated()) {
+            throw new OAuth2AuthenticationException(OAuth2ErrorCodes.INVALID_CLIENT);
+        }
+        CachedIntrospection introspection = cache.get(tenantResolver.currentTenant(), request.getToken(),
+                request.getTokenTypeHint(), () -> introspect(request));
+        return new CachedTokenIntrospectionAuthenticationToken(request.getToken(), clientPrincipal, introspection);
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return OAuth2TokenIntrospectionAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+
+    private CachedIntrospection introspect(OAuth2TokenIntrospectionAuthenticationToken request) {
+        CapturingAuthorizationService capturing = new CapturingAuthorizationService(authorizationService);
+        OAuth2TokenIntrospectionAuthenticationToken result = (OAuth2TokenIntrospectionAuthenticationToken)
+                new OAuth2TokenIntrospectionAuthenticationProvider(registeredClientRepository, capturing).authenticate(request);
+        OAuth2TokenIntrospection claims = result.getTokenClaims();
+        return new CachedIntrospection(capturing.authorizationId, claims, serialize(claims));
+    }
+
+    private byte[] serialize(OAuth2TokenIntrospection claims) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+        HttpHeaders headers = new HttpHeaders();
+        try {
+            converter.write(claims, null, new HttpOutputMessage() {
+                @Override
+                public OutputStream getBody() {
+                    return body;
+                }
+
+                @Override
+                public HttpHeaders getHeaders() {
+                    return headers;
+                }
+            });
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return body.toByteArray();
+    }
+
+    /**
+     * Remembers which authorization the default provider found, so that the result can be evicted with it.
+     */
+    private static final class CapturingAuthorizationService implements OAuth2AuthorizationService {
+
+        private final OAuth2AuthorizationService delegate;
+        private String authorizationId;
+
+        private CapturingAuthorizationService(OAuth2AuthorizationService delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
+            OAuth2Authorization authorization = delegate.findByToken(token, tokenType);
+            authorizationId = authorization != null ? authorization.getId() : null;
+            return authorization;
+        }
+
+        @Override
+        public OAuth2Authorization findById(String id) {
+            return delegate.findById(id);
+        }
+
+        @Override
+        public void save(OAuth2Authorization authorization) {
+            delegate.save(authorization);
+        }
+
+        @Override
+        public void remove(OAuth2Authorization authorization) {
+            delegate.remove(authorization);
+        }
+    }
+}
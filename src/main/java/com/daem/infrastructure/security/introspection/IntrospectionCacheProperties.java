@@ -0,0 +1,22 @@
+package com.daem.infrastructure.security.introspection;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param maxTimeToLive      longest time an active result is served from the cache; it also bounds how long
+ *                           another node may report a replaced (not revoked) token as active
+ * @param expirySkew         active results leave the cache this long before the token expires
+ * @param negativeTimeToLive how long unknown, expired or revoked tokens are reported from the cache
+ */
+@ConfigurationProperties(prefix = "daem.oauth2.introspection-cache")
+public record IntrospectionCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100000") long maximumSize,
+        @DefaultValue("5m") Duration maxTimeToLive,
+        @DefaultValue("5s") Duration expirySkew,
+        @DefaultValue("5s") Duration negativeTimeToLive
+) {
+}
@@ -0,0 +1,64 @@
+package com.daem.infrastructure.security.introspection;
+
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+
+import java.util.List;
+
+/**
+ * Evicts cached introspection results whenever an authorization changes.
+ * <p>
+ * Every save evicts locally, which covers tokens replaced by a refresh on this node. Other nodes are only told
+ * when an introspectable token was invalidated (revocation, refresh token reuse) or the authorization was
+ * removed, so ordinary token issuance does not send a cluster notification.
+ */
+public class IntrospectionEvictingAuthorizationService implements OAuth2AuthorizationService {
+
+    private static final List<Class<? extends OAuth2Token>> INTROSPECTABLE_TOKENS =
+            List.of(OAuth2AccessToken.class, OAuth2RefreshToken.class, OidcIdToken.class);
+
+    private final OAuth2AuthorizationService delegate;
+    private final TokenIntrospectionCache cache;
+
+    public IntrospectionEvictingAuthorizationService(OAuth2AuthorizationService delegate, TokenIntrospectionCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        delegate.save(authorization);
+        cache.evict(authorization.getId(), hasInvalidatedToken(authorization));
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        delegate.remove(authorization);
+        cache.evict(authorization.getId(), true);
+    }
+
+    @Override
+    public OAuth2Authorization findById(String id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
+        return delegate.findByToken(token, tokenType);
+    }
+
+    private static boolean hasInvalidatedToken(OAuth2Authorization authorization) {
+        for (Class<? extends OAuth2Token> tokenType : INTROSPECTABLE_TOKENS) {
+            OAuth2Authorization.Token<? extends OAuth2Token> token = authorization.getToken(tokenType);
+            if (token != null && token.isInvalidated()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
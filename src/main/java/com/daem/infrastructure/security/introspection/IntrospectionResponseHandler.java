@@ -0,0 +1,36 @@
+package com.daem.infrastructure.security.introspection;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenIntrospection;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenIntrospectionAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.http.converter.OAuth2TokenIntrospectionHttpMessageConverter;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+
+import java.io.IOException;
+
+/**
+ * Writes introspection responses, reusing the serialized body of cached results.
+ */
+public class IntrospectionResponseHandler implements AuthenticationSuccessHandler {
+
+    private final HttpMessageConverter<OAuth2TokenIntrospection> converter = new OAuth2TokenIntrospectionHttpMessageConverter();
+
+    @Override
+    public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response,
+                                        Authentication authentication) throws IOException {
+        if (authentication instanceof CachedTokenIntrospectionAuthenticationToken cached) {
+            byte[] body = cached.getResponseBody();
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+            return;
+        }
+        OAuth2TokenIntrospection tokenClaims = ((OAuth2TokenIntrospectionAuthenticationToken) authentication).getTokenClaims();
+        converter.write(tokenClaims, null, new ServletServerHttpResponse(response));
+    }
+}
@@ -0,0 +1,199 @@
+package com.daem.infrastructure.security.introspection;
+
+import com.daem.infrastructure.cluster.ClusterNotificationBus;
+import com.daem.infrastructure.cluster.ClusterNotificationListener;
+import com.daem.infrastructure.security.TokenDigests;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Introspection results keyed by the SHA-256 digest of the token (and the token type hint, which changes the
+ * lookup). Active results live until shortly before the token expires, other results for a short time.
+ * <p>
+ * Entries are also indexed by authorization id, so that a change to an authorization evicts every result for
+ * its tokens, including tokens the change replaced. Evictions only ever carry authorization ids, never token
+ * values, over the {@link ClusterNotificationBus}.
+ * <p>
+ * A load races with evictions of its own authorization only: every eviction is stamped from a sequence and
+ * remembered for a short while, and a result is dropped again if its authorization was evicted after the load
+ * started. Evictions of unrelated authorizations, which happen on every token issuance, do not affect it.
+ */
+@Component
+public class TokenIntrospectionCache {
+
+    static final String CHANNEL = "oauth2_introspection";
+
+    /**
+     * How long an eviction is remembered; a load that takes longer is never kept.
+     */
+    private static final Duration EVICTION_MEMORY = Duration.ofSeconds(10);
+
+    private final ClusterNotificationBus notificationBus;
+    private final Cache<String, CachedIntrospection> results;
+    private final ConcurrentMap<String, Set<String>> keysByAuthorization = new ConcurrentHashMap<>();
+    private final AtomicLong evictionSequence = new AtomicLong();
+    private final Cache<String, Long> recentEvictions = Caffeine.newBuilder()
+            .expireAfterWrite(EVICTION_MEMORY)
+            .build();
+    private volatile long lastEvictedAll;
+
+    public TokenIntrospectionCache(IntrospectionCacheProperties properties, ClusterNotificationBus notificationBus,
+                                   MeterRegistry meterRegistry) {
+        this.notificationBus = notificationBus;
+        long maxTtl = properties.maxTimeToLive().toNanos();
+        long negativeTtl = properties.negativeTimeToLive().toNanos();
+        long skew = properties.expirySkew().toNanos();
+        this.results = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfter(new Expiry<String, CachedIntrospection>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedIntrospection value, long currentTime) {
+                        if (!value.claims().isActive()) {
+                            return negativeTtl;
+                        }
+                        Instant expiresAt = value.claims().getExpiresAt();
+                        if (expiresAt == null) {
+                            return maxTtl;
+                        }
+                        long untilExpiry = Duration.between(Instant.now(), expiresAt).toNanos() - skew;
+                        return Math.max(0, Math.min(maxTtl, untilExpiry));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedIntrospection value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedIntrospection value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .evictionListener((String key, CachedIntrospection value, RemovalCause cause) -> {
+                    if (value != null && value.authorizationId() != null) {
+                        unindex(value.authorizationId(), key);
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "oauth2.token-introspection");
+        notificationBus.subscribe(CHANNEL, new ClusterNotificationListener() {
+            @Override
+            public void onNotification(String payload) {
+                evictLocally(payload);
+            }
+
+            @Override
+            public void onReconnect() {
+                lastEvictedAll = evictionSequence.incrementAndGet();
+                keysByAuthorization.clear();
+                results.invalidateAll();
+            }
+        });
+    }
+
+    /**
+     * Returns the cached result for the token, or loads and caches it.
+     * <p>
+     * A result whose authorization was evicted while it was loading is returned but not kept: the load may have read
+     * the authorization before the change committed.
+     *
+     * @param tenant the tenant of the request with multi-tenancy enabled, otherwise {@code null}; a token is only
+     *               active for the tenant that issued it, so results are kept per tenant
+     */
+    public CachedIntrospection get(String tenant, String token, String tokenTypeHint, Supplier<CachedIntrospection> loader) {
+        String key = tokenTypeHint == null ? TokenDigests.sha256Hex(token) : TokenDigests.sha256Hex(token) + " " + tokenTypeHint;
+        if (tenant != null) {
+            key = tenant + " " + key;
+        }
+        CachedIntrospection cached = results.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long started = evictionSequence.get();
+        long startedNanos = System.nanoTime();
+        cached = loader.get();
+        String authorizationId = cached.authorizationId();
+        results.put(key, cached);
+        // Indexed after the put, so that a concurrent unindex of the same key cannot leave this result unindexed
+        index(authorizationId, key);
+        // Evictions record their stamp before they collect the keys, so one that missed the key above is seen here
+        Long evicted = authorizationId != null ? recentEvictions.getIfPresent(authorizationId) : null;
+        if ((evicted != null && evicted > started) || lastEvictedAll > started
+                || System.nanoTime() - startedNanos >= EVICTION_MEMORY.toNanos()) {
+            results.invalidate(key);
+            // Explicit invalidation does not reach the eviction listener
+            unindex(authorizationId, key);
+            if (results.getIfPresent(key) != null) {
+                // A load of the same token put its result in between
+                index(authorizationId, key);
+            }
+        }
+        return cached;
+    }
+
+    private void index(String authorizationId, String key) {
+        if (authorizationId != null) {
+            // Added under the map's lock, so that it cannot land in a set unindex has just dropped
+            keysByAuthorization.compute(authorizationId, (id, keys) -> {
+                Set<String> indexed = keys != null ? keys : ConcurrentHashMap.newKeySet();
+                indexed.add(key);
+                return indexed;
+            });
+        }
+    }
+
+    private void unindex(String authorizationId, String key) {
+        if (authorizationId != null) {
+            keysByAuthorization.computeIfPresent(authorizationId, (id, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    /**
+     * Evicts the results for every token of the authorization once the current transaction commits.
+     *
+     * @param broadcast whether the other nodes must evict as well; only needed when a token stopped being active
+     *                  rather than merely being replaced
+     */
+    public void evict(String authorizationId, boolean broadcast) {
+        if (broadcast) {
+            notificationBus.publish(CHANNEL, authorizationId);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictLocally(authorizationId);
+                }
+            });
+        } else {
+            evictLocally(authorizationId);
+        }
+    }
+
+    private void evictLocally(String authorizationId) {
+        recentEvictions.asMap().merge(authorizationId, evictionSequence.incrementAndGet(), Math::max);
+        Set<String> keys = keysByAuthorization.remove(authorizationId);
+        if (keys != null) {
+            results.invalidateAll(keys);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.daem.infrastructure.security.key;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.JWKGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+
+import java.util.UUID;
+
+final class SigningKeyGenerator {
+
+    private SigningKeyGenerator() {
+    }
+
+    static JWK generate(SigningKeyProperties.Algorithm algorithm) {
+        JWKGenerator<? extends JWK> generator = switch (algorithm) {
+            case RS256 -> new RSAKeyGenerator(2048);
+            case ES256 -> new ECKeyGenerator(Curve.P_256);
+        };
+        try {
+            return generator
+                    .keyUse(KeyUse.SIGNATURE)
+                    .algorithm(algorithm.jwsAlgorithm())
+                    .keyID(UUID.randomUUID().toString())
+                    .generate();
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Failed to generate " + algorithm + " signing key", e);
+        }
+    }
+}
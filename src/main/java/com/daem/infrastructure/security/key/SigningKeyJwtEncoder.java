@@ -0,0 +1,113 @@
+package com.daem.infrastructure.security.key;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.factories.DefaultJWSSignerFactory;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.produce.JWSSignerFactory;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.JWTClaimNames;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+
+import java.net.URL;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Signs every token with the currently active key of the {@link SigningKeyManager}.
+ * <p>
+ * The {@code alg} and {@code kid} headers always come from that key; the algorithm requested by the token
+ * generator (RS256 unless a client's token settings say otherwise) is ignored, so switching the key algorithm
+ * needs no per-client changes.
+ * <p>
+ * Signing time is recorded as {@code daem.oauth2.jwt.signing}, tagged with the algorithm of the signing key.
+ */
+public class SigningKeyJwtEncoder implements JwtEncoder {
+
+    private static final JWSSignerFactory SIGNER_FACTORY = new DefaultJWSSignerFactory();
+
+    private final SigningKeyManager signingKeyManager;
+    private final MeterRegistry meterRegistry;
+    private final Map<JWSAlgorithm, Timer> signingTimers = new ConcurrentHashMap<>();
+
+    private volatile CachedSigner cachedSigner;
+
+    public SigningKeyJwtEncoder(SigningKeyManager signingKeyManager, MeterRegistry meterRegistry) {
+        this.signingKeyManager = signingKeyManager;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Jwt encode(JwtEncoderParameters parameters) throws JwtEncodingException {
+        JWK key = signingKeyManager.signingKey();
+        JWSAlgorithm algorithm = JWSAlgorithm.parse(key.getAlgorithm().getName());
+        JWSHeader.Builder header = new JWSHeader.Builder(algorithm).keyID(key.getKeyID());
+        JwsHeader requestedHeader = parameters.getJwsHeader();
+        if (requestedHeader != null && requestedHeader.getType() != null) {
+            header.type(new JOSEObjectType(requestedHeader.getType()));
+        }
+        JwtClaimsSet claims = parameters.getClaims();
+        SignedJWT signedJwt = new SignedJWT(header.build(), convert(claims));
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            signedJwt.sign(signerFor(key));
+        } catch (JOSEException e) {
+            throw new JwtEncodingException("An error occurred while signing the JWT with key " + key.getKeyID(), e);
+        } finally {
+            sample.stop(signingTimers.computeIfAbsent(algorithm, this::signingTimer));
+        }
+        return Jwt.withTokenValue(signedJwt.serialize())
+                .headers(headers -> headers.putAll(signedJwt.getHeader().toJSONObject()))
+                .claims(jwtClaims -> jwtClaims.putAll(claims.getClaims()))
+                .build();
+    }
+
+    private Timer signingTimer(JWSAlgorithm algorithm) {
+        return Timer.builder("daem.oauth2.jwt.signing")
+                .description("Time spent signing issued JWTs")
+                .tag("algorithm", algorithm.getName())
+                .register(meterRegistry);
+    }
+
+    private JWSSigner signerFor(JWK key) throws JOSEException {
+        CachedSigner current = cachedSigner;
+        if (current == null || !current.kid().equals(key.getKeyID())) {
+            current = new CachedSigner(key.getKeyID(), SIGNER_FACTORY.createJWSSigner(key));
+            cachedSigner = current;
+        }
+        return current.signer();
+    }
+
+    private static JWTClaimsSet convert(JwtClaimsSet claims) {
+        JWTClaimsSet.Builder builder = new JWTClaimsSet.Builder();
+        claims.getClaims().forEach((name, value) -> {
+            if (value instanceof Instant instant) {
+                builder.claim(name, Date.from(instant));
+            } else if (value instanceof URL url) {
+                builder.claim(name, url.toExternalForm());
+            } else {
+                builder.claim(name, value);
+            }
+        });
+        if (claims.getAudience() != null) {
+            builder.claim(JWTClaimNames.AUDIENCE, claims.getAudience());
+        }
+        return builder.build();
+    }
+
+    private record CachedSigner(String kid, JWSSigner signer) {
+    }
+}
@@ -0,0 +1,304 @@
+package com.daem.infrastructure.security.key;
+
+import com.daem.domain.tenant.TenantIds;
+import com.daem.infrastructure.cluster.ClusterLock;
+import com.daem.infrastructure.cluster.ClusterNotificationBus;
+import com.daem.infrastructure.persistence.jpa.entity.SigningKeyEntity;
+import com.daem.infrastructure.persistence.jpa.repository.SigningKeyJpaRepository;
+import com.daem.infrastructure.tenant.MultiTenancyProperties;
+import com.daem.infrastructure.tenant.TenantResolver;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.crypto.encrypt.BytesEncryptor;
+import org.springframework.security.crypto.encrypt.Encryptors;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Owns the JWS signing keys: persists them encrypted in {@code oauth2_signing_key}, rotates them on a schedule and
+ * serves them as the authorization server's {@link JWKSource}.
+ * <p>
+ * Rotation is driven by timestamps rather than by messages, so all nodes agree on the active key without talking
+ * to each other: the active key is the newest one whose {@code activate_at} has passed. A successor is inserted
+ * {@code publishAhead} before it takes over and the old key stays published for {@code retention} afterwards.
+ * Only one node performs the rotation, under a {@link ClusterLock}. Key pairs are generated ahead of time on the
+ * rotation thread, so neither rotation nor signing ever waits for key generation.
+ * <p>
+ * Every tenant has keys of its own, and the keys of the request's tenant are the ones served and used. They are
+ * loaded, and the first one generated, when the tenant is first used on a node; only the most recently used
+ * {@code maximum-active-tenants} stay in memory, and each leaves after {@code key-idle-timeout} without use. The
+ * rotation thread keeps the default tenant and the tenants in memory rotated.
+ */
+@Component
+public class SigningKeyManager implements JWKSource<SecurityContext>, DisposableBean {
+
+    static final String CHANNEL = "oauth2_signing_key";
+
+    private static final Logger log = LoggerFactory.getLogger(SigningKeyManager.class);
+    private static final String LOCK_NAME = "oauth2_signing_key_rotation";
+
+    private final SigningKeyJpaRepository signingKeyJpaRepository;
+    private final SigningKeyProperties properties;
+    private final ClusterLock clusterLock;
+    private final ClusterNotificationBus notificationBus;
+    private final BytesEncryptor encryptor;
+    private final TenantResolver tenantResolver;
+    private final AtomicReference<JWK> pregeneratedKey = new AtomicReference<>();
+    private final Cache<String, KeySnapshot> snapshots;
+
+    private ScheduledExecutorService scheduler;
+
+    public SigningKeyManager(SigningKeyJpaRepository signingKeyJpaRepository, SigningKeyProperties properties,
+                             ClusterLock clusterLock, ClusterNotificationBus notificationBus,
+                             TenantResolver tenantResolver, MultiTenancyProperties multiTenancyProperties,
+                             MeterRegistry meterRegistry) {
+        Assert.isTrue(StringUtils.hasText(properties.encryptionPassword()), "daem.oauth2.signing-keys.encryption-password must be set");
+        Assert.isTrue(StringUtils.hasText(properties.encryptionSalt()), "daem.oauth2.signing-keys.encryption-salt must be set");
+        this.signingKeyJpaRepository = signingKeyJpaRepository;
+        this.properties = properties;
+        this.clusterLock = clusterLock;
+        this.notificationBus = notificationBus;
+        this.encryptor = Encryptors.stronger(properties.encryptionPassword(), properties.encryptionSalt());
+        this.tenantResolver = tenantResolver;
+        long idleTimeout = multiTenancyProperties.keyIdleTimeout().toNanos();
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(multiTenancyProperties.maximumActiveTenants())
+                // Idle since the last request; the reloads of the rotation thread do not count as use
+                .expireAfter(new Expiry<String, KeySnapshot>() {
+                    @Override
+                    public long expireAfterCreate(String tenant, KeySnapshot snapshot, long currentTime) {
+                        return idleTimeout;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String tenant, KeySnapshot snapshot, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String tenant, KeySnapshot snapshot, long currentTime, long currentDuration) {
+                        return idleTimeout;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "oauth2.signing-keys");
+        // The payload names the tenant whose keys changed; empty for the default tenant
+        notificationBus.subscribe(CHANNEL, payload -> reload(payload.isEmpty() ? TenantIds.DEFAULT : payload));
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) {
+        return jwkSelector.select(currentSnapshot().publicKeys());
+    }
+
+    /**
+     * @return the ids of the keys currently published, newest activation first; a key never changes under its id, so
+     * equal lists mean equal key sets across reloads
+     */
+    public List<String> publishedKeyIds() {
+        return currentSnapshot().keyIds();
+    }
+
+    /**
+     * @return the private key that signs tokens right now
+     */
+    public JWK signingKey() {
+        return currentSnapshot().activeKey(Instant.now());
+    }
+
+    /**
+     * @return the algorithms of all published keys, for the discovery metadata
+     */
+    public Set<String> publishedAlgorithms() {
+        Set<String> algorithms = new LinkedHashSet<>();
+        for (JWK key : currentSnapshot().publicKeys().getKeys()) {
+            algorithms.add(key.getAlgorithm().getName());
+        }
+        return algorithms;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "signing-key-rotation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long delay = properties.checkInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::runScheduled, 0, delay, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void runScheduled() {
+        Set<String> tenants = new LinkedHashSet<>();
+        tenants.add(TenantIds.DEFAULT);
+        tenants.addAll(snapshots.asMap().keySet());
+        for (String tenant : tenants) {
+            try {
+                snapshots.put(tenant, maintain(tenant));
+            } catch (RuntimeException e) {
+                log.warn("Signing key maintenance of tenant {} failed, retrying in {}", tenant, properties.checkInterval(), e);
+            }
+        }
+        try {
+            JWK pregenerated = pregeneratedKey.get();
+            if (pregenerated == null || !pregenerated.getAlgorithm().equals(properties.algorithm().jwsAlgorithm())) {
+                pregeneratedKey.set(SigningKeyGenerator.generate(properties.algorithm()));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Signing key generation failed, retrying in {}", properties.checkInterval(), e);
+        }
+    }
+
+    private KeySnapshot currentSnapshot() {
+        String tenant = tenantResolver.currentTenantOrDefault();
+        KeySnapshot current = snapshots.getIfPresent(tenant);
+        if (current == null) {
+            // First use of the tenant on this node, or the first after it was idle, e.g. a request right after
+            // startup on an empty database; concurrent requests for the tenant wait for the one load
+            current = snapshots.get(tenant, this::maintain);
+        }
+        return current;
+    }
+
+    private KeySnapshot maintain(String tenant) {
+        String lockName = TenantIds.DEFAULT.equals(tenant) ? LOCK_NAME : LOCK_NAME + ":" + tenant;
+        clusterLock.tryRunExclusively(lockName, () -> rotateIfDue(tenant));
+        return load(tenant);
+    }
+
+    private void rotateIfDue(String tenant) {
+        Instant now = Instant.now();
+        if (TenantIds.DEFAULT.equals(tenant)) {
+            // Expired keys of all tenants; the other tenants' are merely skipped on load until then
+            signingKeyJpaRepository.deleteExpired(now);
+        }
+        List<SigningKeyEntity> keys = signingKeyJpaRepository.findAllByTenantIdOrderByActivateAtDesc(tenant);
+        String payload = TenantIds.DEFAULT.equals(tenant) ? "" : tenant;
+        if (keys.isEmpty()) {
+            insertKey(tenant, now);
+            notificationBus.publish(CHANNEL, payload);
+            return;
+        }
+        SigningKeyEntity newest = keys.get(0);
+        if (newest.getActivateAt().isAfter(now)) {
+            return; // A successor is already published and waiting
+        }
+        Instant earliestActivation = now.plus(properties.publishAhead());
+        Instant activateAt;
+        if (!properties.algorithm().jwsAlgorithm().getName().equals(newest.getAlgorithm())) {
+            activateAt = earliestActivation;
+        } else {
+            Instant due = newest.getActivateAt().plus(properties.rotationInterval());
+            if (earliestActivation.isBefore(due)) {
+                return;
+            }
+            activateAt = due.isAfter(earliestActivation) ? due : earliestActivation;
+        }
+        insertKey(tenant, activateAt);
+        newest.setExpireAt(activateAt.plus(properties.retention()));
+        signingKeyJpaRepository.save(newest);
+        notificationBus.publish(CHANNEL, payload);
+        log.info("Signing key {} of tenant {} is superseded at {}", newest.getKid(), tenant, activateAt);
+    }
+
+    private void insertKey(String tenant, Instant activateAt) {
+        JWK key = pregeneratedKey.getAndSet(null);
+        if (key == null || !key.getAlgorithm().equals(properties.algorithm().jwsAlgorithm())) {
+            key = SigningKeyGenerator.generate(properties.algorithm());
+        }
+        SigningKeyEntity entity = new SigningKeyEntity();
+        entity.setKid(key.getKeyID());
+        entity.setAlgorithm(key.getAlgorithm().getName());
+        entity.setPrivateJwk(encrypt(key));
+        entity.setCreatedAt(Instant.now());
+        entity.setActivateAt(activateAt);
+        entity.setTenantId(tenant);
+        signingKeyJpaRepository.save(entity);
+    }
+
+    /**
+     * Reloads the keys of a tenant held in memory; a tenant that is not is loaded when next used.
+     */
+    private void reload(String tenant) {
+        snapshots.asMap().computeIfPresent(tenant, (key, snapshot) -> load(key));
+    }
+
+    private KeySnapshot load(String tenant) {
+        Instant now = Instant.now();
+        List<StoredKey> keys = signingKeyJpaRepository.findAllByTenantIdOrderByActivateAtDesc(tenant).stream()
+                .filter(entity -> entity.getExpireAt() == null || entity.getExpireAt().isAfter(now))
+                .map(entity -> new StoredKey(decrypt(entity), entity.getActivateAt()))
+                .toList();
+        JWKSet publicKeys = new JWKSet(keys.stream().map(key -> key.jwk().toPublicJWK()).toList());
+        return new KeySnapshot(keys, publicKeys, keys.stream().map(key -> key.jwk().getKeyID()).toList());
+    }
+
+    private String encrypt(JWK key) {
+        byte[] encrypted = encryptor.encrypt(key.toJSONString().getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(encrypted);
+    }
+
+    private JWK decrypt(SigningKeyEntity entity) {
+        byte[] json = encryptor.decrypt(Base64.getDecoder().decode(entity.getPrivateJwk()));
+        try {
+            return JWK.parse(new String(json, StandardCharsets.UTF_8));
+        } catch (ParseException e) {
+            throw new IllegalStateException("Stored signing key " + entity.getKid() + " is not a valid JWK", e);
+        }
+    }
+
+    private record StoredKey(JWK jwk, Instant activateAt) {
+    }
+
+    /**
+     * @param keys newest activation first
+     */
+    private record KeySnapshot(List<StoredKey> keys, JWKSet publicKeys, List<String> keyIds) {
+
+        JWK activeKey(Instant now) {
+            for (StoredKey key : keys) {
+                if (!key.activateAt().isAfter(now)) {
+                    return key.jwk();
+                }
+            }
+            throw new IllegalStateException("No signing key is active yet");
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.daem.infrastructure.security.key;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param algorithm          algorithm of newly generated keys; changing it rolls over to a new key after {@code publishAhead}
+ * @param rotationInterval   how long a key signs before its successor takes over
+ * @param publishAhead       how long a new key is published in the JWK Set before it starts signing, so that
+ *                           resource servers caching the set already know it
+ * @param retention          how long a superseded key stays published; must exceed the longest token lifetime
+ * @param checkInterval      how often each node checks whether a rotation is due and reloads the keys
+ * @param encryptionPassword password from which the key encrypting the stored private keys is derived
+ * @param encryptionSalt     hex-encoded salt for that derivation
+ */
+@ConfigurationProperties(prefix = "daem.oauth2.signing-keys")
+public record SigningKeyProperties(
+        @DefaultValue("ES256") Algorithm algorithm,
+        @DefaultValue("30d") Duration rotationInterval,
+        @DefaultValue("1d") Duration publishAhead,
+        @DefaultValue("2d") Duration retention,
+        @DefaultValue("5m") Duration checkInterval,
+        String encryptionPassword,
+        String encryptionSalt
+) {
+
+    public enum Algorithm {
+        RS256,
+        ES256;
+
+        public JWSAlgorithm jwsAlgorithm() {
+            return JWSAlgorithm.parse(name());
+        }
+    }
+}
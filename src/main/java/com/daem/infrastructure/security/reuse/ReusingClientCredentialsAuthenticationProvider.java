@@ -0,0 +1,181 @@
+package com.daem.infrastructure.security.reuse;
+
+import com.daem.domain.client.ClientSettingNames;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2AccessTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientCredentialsAuthenticationProvider;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientCredentialsAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps the default {@link OAuth2ClientCredentialsAuthenticationProvider} so that clients with the
+ * {@link ClientSettingNames#REUSE_ACCESS_TOKEN} setting get the access token they were last issued for the same
+ * scopes back, as long as it is active and enough of its lifetime is left, instead of a newly signed and stored
+ * one. Concurrent requests of one client for the same scopes share a single issuance.
+ * <p>
+ * The reusable tokens are remembered per node, so each node issues at most one token per client and scope set at
+ * a time. A remembered token is checked against the authorization service before it is handed out again, which
+ * catches revocations. Requests with a DPoP proof and clients with certificate-bound tokens always get a new
+ * token, since their token is bound to the key of that request.
+ * <p>
+ * {@code daem.oauth2.token.reuse} counts the requests answered without an issuance, by outcome: {@code reused}
+ * (a remembered token) or {@code coalesced} (the token of a concurrent identical request).
+ */
+public class ReusingClientCredentialsAuthenticationProvider implements AuthenticationProvider {
+
+    private static final String DPOP_PROOF_PARAMETER = "dpop_proof";
+
+    private final AuthenticationProvider delegate;
+    private final OAuth2AuthorizationService authorizationService;
+    private final double minRemainingLifetimeRatio;
+    private final Cache<ReuseKey, OAuth2AccessToken> tokens;
+    private final Map<ReuseKey, CompletableFuture<OAuth2AccessTokenAuthenticationToken>> issuances = new ConcurrentHashMap<>();
+    private final Counter reused;
+    private final Counter coalesced;
+
+    public ReusingClientCredentialsAuthenticationProvider(AuthenticationProvider delegate,
+                                                          OAuth2AuthorizationService authorizationService,
+                                                          TokenReuseProperties properties,
+                                                          MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.authorizationService = authorizationService;
+        this.minRemainingLifetimeRatio = properties.minRemainingLifetimeRatio();
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfter(Expiry.<ReuseKey, OAuth2AccessToken>writing((key, token) -> timeToExpiry(token)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tokens, "oauth2.reusable-access-token");
+        this.reused = reuseCounter(meterRegistry, "reused");
+        this.coalesced = reuseCounter(meterRegistry, "coalesced");
+    }
+
+    private static Counter reuseCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("daem.oauth2.token.reuse")
+                .description("Client credentials requests answered without issuing a new access token")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        OAuth2ClientCredentialsAuthenticationToken request = (OAuth2ClientCredentialsAuthenticationToken) authentication;
+        if (!(request.getPrincipal() instanceof OAuth2ClientAuthenticationToken clientPrincipal)
+                || !clientPrincipal.isAuthenticated() || !isReusable(request, clientPrincipal.getRegisteredClient())) {
+            return delegate.authenticate(authentication);
+        }
+        RegisteredClient registeredClient = clientPrincipal.getRegisteredClient();
+        ReuseKey key = new ReuseKey(registeredClient.getId(), Set.copyOf(request.getScopes()));
+
+        OAuth2AccessToken accessToken = findReusable(key, registeredClient);
+        if (accessToken != null) {
+            reused.increment();
+            return new OAuth2AccessTokenAuthenticationToken(registeredClient, clientPrincipal, accessToken);
+        }
+
+        CompletableFuture<OAuth2AccessTokenAuthenticationToken> issuance = new CompletableFuture<>();
+        CompletableFuture<OAuth2AccessTokenAuthenticationToken> inFlight = issuances.putIfAbsent(key, issuance);
+        if (inFlight != null) {
+            OAuth2AccessTokenAuthenticationToken result = join(inFlight);
+            coalesced.increment();
+            return new OAuth2AccessTokenAuthenticationToken(registeredClient, clientPrincipal, result.getAccessToken());
+        }
+        try {
+            OAuth2AccessTokenAuthenticationToken result = (OAuth2AccessTokenAuthenticationToken) delegate.authenticate(authentication);
+            tokens.put(key, result.getAccessToken());
+            issuance.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            issuance.completeExceptionally(e);
+            throw e;
+        } finally {
+            issuances.remove(key, issuance);
+        }
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return OAuth2ClientCredentialsAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+
+    /**
+     * Anything that would make the default provider reject the request, or bind the token to this request, goes to
+     * the default provider.
+     */
+    private static boolean isReusable(OAuth2ClientCredentialsAuthenticationToken request, RegisteredClient registeredClient) {
+        return Boolean.TRUE.equals(registeredClient.getClientSettings().getSetting(ClientSettingNames.REUSE_ACCESS_TOKEN))
+                && registeredClient.getAuthorizationGrantTypes().contains(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                && registeredClient.getScopes().containsAll(request.getScopes())
+                && !registeredClient.getTokenSettings().isX509CertificateBoundAccessTokens()
+                && !request.getAdditionalParameters().containsKey(DPOP_PROOF_PARAMETER);
+    }
+
+    /**
+     * @return the remembered token, re-dated to now so that the response's {@code expires_in} is its remaining
+     * lifetime, or {@code null} if there is none still worth handing out
+     */
+    private OAuth2AccessToken findReusable(ReuseKey key, RegisteredClient registeredClient) {
+        OAuth2AccessToken accessToken = tokens.getIfPresent(key);
+        if (accessToken == null || accessToken.getIssuedAt() == null || accessToken.getExpiresAt() == null) {
+            return null;
+        }
+        Instant now = Instant.now();
+        Duration lifetime = Duration.between(accessToken.getIssuedAt(), accessToken.getExpiresAt());
+        Duration remaining = Duration.between(now, accessToken.getExpiresAt());
+        if (remaining.toMillis() < lifetime.toMillis() * minRemainingLifetimeRatio) {
+            return null;
+        }
+        OAuth2Authorization authorization = authorizationService.findByToken(accessToken.getTokenValue(), OAuth2TokenType.ACCESS_TOKEN);
+        if (authorization == null || !registeredClient.getId().equals(authorization.getRegisteredClientId())
+                || authorization.getAccessToken() == null || !authorization.getAccessToken().isActive()) {
+            tokens.asMap().remove(key, accessToken);
+            return null;
+        }
+        return new OAuth2AccessToken(accessToken.getTokenType(), accessToken.getTokenValue(), now,
+                accessToken.getExpiresAt(), accessToken.getScopes());
+    }
+
+    private static OAuth2AccessTokenAuthenticationToken join(CompletableFuture<OAuth2AccessTokenAuthenticationToken> issuance) {
+        try {
+            return issuance.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Duration timeToExpiry(OAuth2AccessToken accessToken) {
+        if (accessToken.getExpiresAt() == null) {
+            return Duration.ZERO;
+        }
+        Duration timeToExpiry = Duration.between(Instant.now(), accessToken.getExpiresAt());
+        return timeToExpiry.isNegative() ? Duration.ZERO : timeToExpiry;
+    }
+
+    private record ReuseKey(String registeredClientId, Set<String> scopes) {
+    }
+}
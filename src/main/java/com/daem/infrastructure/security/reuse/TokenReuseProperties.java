@@ -0,0 +1,19 @@
+package com.daem.infrastructure.security.reuse;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled                   whether clients with the reuse setting get their existing token back at all
+ * @param maximumSize               reusable tokens remembered per node
+ * @param minRemainingLifetimeRatio a token is only handed out again while at least this share of its lifetime is
+ *                                  left, so a client that keeps it for the returned {@code expires_in} is not
+ *                                  handed a token about to expire
+ */
+@ConfigurationProperties(prefix = "daem.oauth2.token-reuse")
+public record TokenReuseProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10000") long maximumSize,
+        @DefaultValue("0.5") double minRemainingLifetimeRatio
+) {
+}
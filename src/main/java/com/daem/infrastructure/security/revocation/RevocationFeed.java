@@ -0,0 +1,146 @@
+package com.daem.infrastructure.security.revocation;
+
+import com.daem.infrastructure.cluster.ClusterLock;
+import com.daem.infrastructure.cluster.ClusterNotificationBus;
+import com.daem.infrastructure.cluster.ClusterNotificationListener;
+import com.daem.infrastructure.persistence.jpa.entity.RevokedTokenEntity;
+import com.daem.infrastructure.persistence.jpa.repository.RevokedTokenJpaRepository;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Versioned set of revoked, unexpired JWT access token ids ({@code jti}).
+ * <p>
+ * Every revocation gets the next feed version. Inserts run under a {@link ClusterLock}, so versions become
+ * visible in order and a resource server that has seen version {@code n} only ever needs the entries after
+ * {@code n}. The latest version is kept in memory and refreshed over the {@link ClusterNotificationBus}, so polls
+ * from up-to-date resource servers never reach the database; the full set is rebuilt at most once per version
+ * and poll interval.
+ */
+@Component
+public class RevocationFeed {
+
+    static final String CHANNEL = "oauth2_revoked_token";
+    private static final String LOCK_NAME = "oauth2_revoked_token";
+
+    private final RevokedTokenJpaRepository revokedTokenJpaRepository;
+    private final ClusterLock clusterLock;
+    private final ClusterNotificationBus notificationBus;
+    private final ObjectMapper objectMapper;
+    private final long pollIntervalSeconds;
+
+    private volatile long latestVersion;
+    private volatile Snapshot fullSnapshot;
+
+    public RevocationFeed(RevokedTokenJpaRepository revokedTokenJpaRepository, ClusterLock clusterLock,
+                          ClusterNotificationBus notificationBus, ObjectMapper objectMapper,
+                          RevocationFeedProperties properties) {
+        this.revokedTokenJpaRepository = revokedTokenJpaRepository;
+        this.clusterLock = clusterLock;
+        this.notificationBus = notificationBus;
+        this.objectMapper = objectMapper;
+        this.pollIntervalSeconds = properties.pollInterval().toSeconds();
+        notificationBus.subscribe(CHANNEL, new ClusterNotificationListener() {
+            @Override
+            public void onNotification(String payload) {
+                refreshLatestVersion();
+            }
+
+            @Override
+            public void onReconnect() {
+                refreshLatestVersion();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshLatestVersion() {
+        latestVersion = revokedTokenJpaRepository.findLatestFeedVersion();
+    }
+
+    /**
+     * Adds a revoked token to the feed; a token that is already in it is ignored.
+     */
+    public void record(String jti, Instant expiresAt) {
+        clusterLock.runExclusively(LOCK_NAME, () -> {
+            if (revokedTokenJpaRepository.existsByJti(jti)) {
+                return;
+            }
+            RevokedTokenEntity entity = new RevokedTokenEntity();
+            entity.setJti(jti);
+            entity.setRevokedAt(Instant.now());
+            entity.setExpiresAt(expiresAt);
+            revokedTokenJpaRepository.save(entity);
+            notificationBus.publish(CHANNEL, "");
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refreshLatestVersion();
+                }
+            });
+        });
+    }
+
+    /**
+     * @param since the version the caller already has, {@code 0} for the full set
+     * @return the JSON feed document with the entries added after {@code since}; the full set if {@code since} is
+     * ahead of this server, which happens when the caller polled a server with a different database
+     */
+    public Snapshot read(long since) {
+        long version = latestVersion;
+        if (since > version) {
+            since = 0;
+        }
+        if (since == version) {
+            return new Snapshot(version, Instant.now(), document(version, since > 0, List.of()));
+        }
+        if (since > 0) {
+            return new Snapshot(version, Instant.now(), document(version, true, load(since, version)));
+        }
+        Snapshot snapshot = fullSnapshot;
+        if (snapshot == null || snapshot.version() != version
+                || snapshot.createdAt().plusSeconds(pollIntervalSeconds).isBefore(Instant.now())) {
+            snapshot = new Snapshot(version, Instant.now(), document(version, false, load(0, version)));
+            fullSnapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    private List<RevokedTokenSetEncoding.Entry> load(long after, long upTo) {
+        return revokedTokenJpaRepository.findUnexpired(after, upTo, Instant.now()).stream()
+                .map(entity -> new RevokedTokenSetEncoding.Entry(entity.getJti(), entity.getExpiresAt()))
+                .toList();
+    }
+
+    private byte[] document(long version, boolean delta, List<RevokedTokenSetEncoding.Entry> entries) {
+        String encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(RevokedTokenSetEncoding.encode(entries));
+        try {
+            return objectMapper.writeValueAsBytes(new FeedDocument(version, delta, entries.size(),
+                    RevokedTokenSetEncoding.NAME, encoded, pollIntervalSeconds));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record Snapshot(long version, Instant createdAt, byte[] body) {
+    }
+
+    private record FeedDocument(
+            long version,
+            boolean delta,
+            int count,
+            String encoding,
+            String entries,
+            @JsonProperty("poll_interval") long pollInterval) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.daem.infrastructure.security.revocation;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * {@code GET /oauth2/revoked-tokens?since=<version>}: the {@link RevocationFeed} for resource servers.
+ * <p>
+ * The feed is public like the JWK Set: it only exposes truncated digests of token ids, which cannot be turned
+ * back into a token. Responses carry the version as their ETag.
+ * <p>
+ * With multi-tenancy there is still only this one feed, at the root path, and it lists the revocations of every
+ * tenant; the metadata of each tenant points there.
+ */
+public class RevocationFeedEndpointFilter extends OncePerRequestFilter {
+
+    public static final String DEFAULT_ENDPOINT_URI = "/oauth2/revoked-tokens";
+    public static final String METADATA_CLAIM = "revoked_tokens_endpoint";
+
+    private final RevocationFeed revocationFeed;
+    private final RequestMatcher requestMatcher;
+    private final String cacheControl;
+
+    public RevocationFeedEndpointFilter(RevocationFeed revocationFeed, Duration pollInterval) {
+        this.revocationFeed = revocationFeed;
+        this.requestMatcher = PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.GET, DEFAULT_ENDPOINT_URI);
+        this.cacheControl = "public, max-age=" + pollInterval.toSeconds();
+    }
+
+    public RequestMatcher getRequestMatcher() {
+        return requestMatcher;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!requestMatcher.matches(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long since;
+        try {
+            String parameter = request.getParameter("since");
+            since = parameter == null ? 0 : Long.parseLong(parameter);
+        } catch (NumberFormatException ex) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid since parameter");
+            return;
+        }
+        RevocationFeed.Snapshot snapshot = revocationFeed.read(Math.max(0, since));
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        if (new ServletWebRequest(request, response).checkNotModified("\"" + snapshot.version() + "-" + since + "\"")) {
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(snapshot.body().length);
+        response.getOutputStream().write(snapshot.body());
+    }
+}
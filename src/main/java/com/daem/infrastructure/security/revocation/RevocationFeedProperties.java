@@ -0,0 +1,16 @@
+package com.daem.infrastructure.security.revocation;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param pollInterval interval advertised to resource servers, and the {@code max-age} of feed responses
+ */
+@ConfigurationProperties(prefix = "daem.oauth2.revocation-feed")
+public record RevocationFeedProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("30s") Duration pollInterval
+) {
+}
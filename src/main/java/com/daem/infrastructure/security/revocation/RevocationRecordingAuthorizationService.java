@@ -0,0 +1,60 @@
+package com.daem.infrastructure.security.revocation;
+
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+
+import java.time.Instant;
+
+/**
+ * Adds an access token to the {@link RevocationFeed} when its authorization is saved with the token invalidated
+ * (revocation, refresh or authorization code reuse) or removed while the token is still unexpired.
+ */
+public class RevocationRecordingAuthorizationService implements OAuth2AuthorizationService {
+
+    private final OAuth2AuthorizationService delegate;
+    private final RevocationFeed revocationFeed;
+
+    public RevocationRecordingAuthorizationService(OAuth2AuthorizationService delegate, RevocationFeed revocationFeed) {
+        this.delegate = delegate;
+        this.revocationFeed = revocationFeed;
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        delegate.save(authorization);
+        OAuth2Authorization.Token<OAuth2AccessToken> accessToken = authorization.getAccessToken();
+        if (accessToken != null && accessToken.isInvalidated()) {
+            record(accessToken);
+        }
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        delegate.remove(authorization);
+        OAuth2Authorization.Token<OAuth2AccessToken> accessToken = authorization.getAccessToken();
+        if (accessToken != null) {
+            record(accessToken);
+        }
+    }
+
+    @Override
+    public OAuth2Authorization findById(String id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
+        return delegate.findByToken(token, tokenType);
+    }
+
+    private void record(OAuth2Authorization.Token<OAuth2AccessToken> accessToken) {
+        Instant expiresAt = accessToken.getToken().getExpiresAt();
+        Object jti = accessToken.getClaims() != null ? accessToken.getClaims().get(JwtClaimNames.JTI) : null;
+        if (jti != null && expiresAt != null && expiresAt.isAfter(Instant.now())) {
+            revocationFeed.record(jti.toString(), expiresAt);
+        }
+    }
+}
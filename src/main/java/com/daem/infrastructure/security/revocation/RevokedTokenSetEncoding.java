@@ -0,0 +1,62 @@
+package com.daem.infrastructure.security.revocation;
+
+import com.daem.infrastructure.security.TokenDigests;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The {@code sha256-64/delta-varint} encoding of a set of revoked token ids.
+ * <p>
+ * Each {@code jti} is reduced to the first 8 bytes of its SHA-256 digest, read as an unsigned big-endian
+ * 64-bit key. Entries are sorted by key and written as pairs of unsigned LEB128 varints: the difference to the
+ * previous key (to 0 for the first entry), then the token's expiry in epoch seconds. A resource server decodes
+ * the keys into a hash set and rejects a token whose {@code jti} key is in it; it may drop an entry once the
+ * expiry has passed, since the token is rejected as expired from then on anyway.
+ * <p>
+ * An entry takes 12 to 14 bytes, key deltas shrinking as the set grows, against 36 characters for a bare UUID
+ * without its expiry.
+ */
+public final class RevokedTokenSetEncoding {
+
+    public static final String NAME = "sha256-64/delta-varint";
+
+    private RevokedTokenSetEncoding() {
+    }
+
+    public record Entry(String jti, Instant expiresAt) {
+    }
+
+    public static long key(String jti) {
+        return ByteBuffer.wrap(TokenDigests.sha256(jti), 0, Long.BYTES).getLong();
+    }
+
+    public static byte[] encode(List<Entry> entries) {
+        long[][] keyed = new long[entries.size()][];
+        for (int i = 0; i < keyed.length; i++) {
+            Entry entry = entries.get(i);
+            keyed[i] = new long[] {key(entry.jti()), entry.expiresAt().getEpochSecond()};
+        }
+        Arrays.sort(keyed, Comparator.comparingLong((long[] pair) -> pair[0] ^ Long.MIN_VALUE));
+        ByteArrayOutputStream out = new ByteArrayOutputStream(keyed.length * 12);
+        long previous = 0;
+        for (long[] pair : keyed) {
+            writeVarint(out, pair[0] - previous);
+            writeVarint(out, pair[1]);
+            previous = pair[0];
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,108 @@
+package com.daem.infrastructure.security.session;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.DeferredSecurityContext;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.SecurityContextRepository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the logged-in user in an encrypted cookie instead of the HTTP session.
+ * <p>
+ * Only the name and the authorities are stored; they are restored as an authenticated
+ * {@link UsernamePasswordAuthenticationToken} with the name as principal. The cookie is written once at login
+ * and lives for a fixed {@code login-time-to-live}; logout deletes it from the browser.
+ */
+public class CookieSecurityContextRepository implements SecurityContextRepository {
+
+    public static final String COOKIE_NAME = "DAEM_LOGIN";
+    private static final String NAME = "sub";
+    private static final String AUTHORITIES = "auth";
+
+    private final EncryptedCookieCodec codec;
+    private final Duration timeToLive;
+    private final SecurityContextHolderStrategy securityContextHolderStrategy = SecurityContextHolder.getContextHolderStrategy();
+
+    public CookieSecurityContextRepository(EncryptedCookieCodec codec, Duration timeToLive) {
+        this.codec = codec;
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    @Deprecated
+    public SecurityContext loadContext(HttpRequestResponseHolder requestResponseHolder) {
+        SecurityContext context = readContext(requestResponseHolder.getRequest());
+        return context != null ? context : securityContextHolderStrategy.createEmptyContext();
+    }
+
+    @Override
+    public DeferredSecurityContext loadDeferredContext(HttpServletRequest request) {
+        return new DeferredSecurityContext() {
+
+            private SecurityContext context;
+            private boolean generated;
+
+            @Override
+            public SecurityContext get() {
+                if (context == null) {
+                    context = readContext(request);
+                    if (context == null) {
+                        context = securityContextHolderStrategy.createEmptyContext();
+                        generated = true;
+                    }
+                }
+                return context;
+            }
+
+            @Override
+            public boolean isGenerated() {
+                get();
+                return generated;
+            }
+        };
+    }
+
+    @Override
+    public void saveContext(SecurityContext context, HttpServletRequest request, HttpServletResponse response) {
+        Authentication authentication = context.getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken || !authentication.isAuthenticated()) {
+            if (codec.read(request, COOKIE_NAME) != null) {
+                codec.clear(request, response, COOKIE_NAME);
+            }
+            return;
+        }
+        List<String> authorities = AuthorityUtils.authorityListToSet(authentication.getAuthorities()).stream().sorted().toList();
+        if (!codec.write(request, response, COOKIE_NAME, Map.of(NAME, authentication.getName(), AUTHORITIES, authorities), timeToLive)) {
+            throw new IllegalStateException("The login of '" + authentication.getName() + "' does not fit into a cookie");
+        }
+    }
+
+    @Override
+    public boolean containsContext(HttpServletRequest request) {
+        return readContext(request) != null;
+    }
+
+    private SecurityContext readContext(HttpServletRequest request) {
+        Map<String, Object> content = codec.read(request, COOKIE_NAME);
+        if (content == null || !(content.get(NAME) instanceof String name) || !(content.get(AUTHORITIES) instanceof Collection<?> names)) {
+            return null;
+        }
+        List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList(names.stream().map(String::valueOf).toList());
+        SecurityContext context = securityContextHolderStrategy.createEmptyContext();
+        context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(name, null, authorities));
+        return context;
+    }
+}
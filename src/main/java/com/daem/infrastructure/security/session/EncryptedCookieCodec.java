@@ -0,0 +1,114 @@
+package com.daem.infrastructure.security.session;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.crypto.encrypt.BytesEncryptor;
+import org.springframework.security.crypto.encrypt.Encryptors;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads and writes small JSON documents as AES-GCM encrypted cookies. GCM authenticates the content, so a cookie
+ * that was tampered with or written with another key is treated like a missing one. Every value carries its own
+ * expiry, which is enforced on read regardless of what the browser keeps.
+ */
+public class EncryptedCookieCodec {
+
+    private static final Logger log = LoggerFactory.getLogger(EncryptedCookieCodec.class);
+    private static final String EXPIRES_AT = "exp";
+
+    private final BytesEncryptor encryptor;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int maxCookieSize;
+    private final boolean secure;
+
+    public EncryptedCookieCodec(StatelessSessionProperties properties) {
+        Assert.isTrue(StringUtils.hasText(properties.encryptionPassword()), "daem.oauth2.stateless-session.encryption-password must be set");
+        Assert.isTrue(StringUtils.hasText(properties.encryptionSalt()), "daem.oauth2.stateless-session.encryption-salt must be set");
+        this.encryptor = Encryptors.stronger(properties.encryptionPassword(), properties.encryptionSalt());
+        this.maxCookieSize = properties.maxCookieSize();
+        this.secure = properties.secureCookies();
+    }
+
+    /**
+     * @return whether the cookie was written; it is not if its encoded value exceeds the size limit
+     */
+    public boolean write(HttpServletRequest request, HttpServletResponse response, String name,
+                         Map<String, Object> content, Duration timeToLive) {
+        Map<String, Object> document = new LinkedHashMap<>(content);
+        document.put(EXPIRES_AT, Instant.now().plus(timeToLive).getEpochSecond());
+        String value;
+        try {
+            value = Base64.getUrlEncoder().withoutPadding().encodeToString(encryptor.encrypt(objectMapper.writeValueAsBytes(document)));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        if (name.length() + value.length() > maxCookieSize) {
+            log.warn("Not storing cookie {}: {} bytes exceed the limit of {}", name, name.length() + value.length(), maxCookieSize);
+            return false;
+        }
+        addCookie(request, response, name, value, timeToLive);
+        return true;
+    }
+
+    /**
+     * @return the content of the cookie, or {@code null} if it is missing, expired or cannot be decrypted
+     */
+    public Map<String, Object> read(HttpServletRequest request, String name) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (name.equals(cookie.getName())) {
+                return decode(cookie.getValue());
+            }
+        }
+        return null;
+    }
+
+    public void clear(HttpServletRequest request, HttpServletResponse response, String name) {
+        addCookie(request, response, name, "", Duration.ZERO);
+    }
+
+    private Map<String, Object> decode(String value) {
+        Map<String, Object> document;
+        try {
+            byte[] decrypted = encryptor.decrypt(Base64.getUrlDecoder().decode(value));
+            document = objectMapper.readValue(decrypted, new TypeReference<Map<String, Object>>() {});
+        } catch (IOException | RuntimeException e) {
+            log.debug("Ignoring unreadable cookie", e);
+            return null;
+        }
+        if (!(document.remove(EXPIRES_AT) instanceof Number expiresAt) || Instant.now().getEpochSecond() >= expiresAt.longValue()) {
+            return null;
+        }
+        return document;
+    }
+
+    private void addCookie(HttpServletRequest request, HttpServletResponse response, String name, String value, Duration maxAge) {
+        ResponseCookie cookie = ResponseCookie.from(name, value)
+                .path(request.getContextPath() + "/")
+                .maxAge(maxAge)
+                .httpOnly(true)
+                .secure(secure)
+                // Lax still sends the cookie on the top-level redirects of an authorization request
+                .sameSite("Lax")
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+}
@@ -0,0 +1,66 @@
+package com.daem.infrastructure.security.session;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.savedrequest.RequestCache;
+import org.springframework.security.web.savedrequest.SavedRequest;
+import org.springframework.security.web.savedrequest.SimpleSavedRequest;
+import org.springframework.security.web.util.UrlUtils;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Remembers the request that triggered a login, typically an authorization request with all its parameters, in
+ * an encrypted cookie instead of the HTTP session. Only GET requests are saved, and only their URL, which is all
+ * a redirect back after login needs.
+ */
+public class EncryptedCookieRequestCache implements RequestCache {
+
+    public static final String COOKIE_NAME = "DAEM_SAVED_REQUEST";
+    private static final String URL = "url";
+
+    private final EncryptedCookieCodec codec;
+    private final Duration timeToLive;
+
+    public EncryptedCookieRequestCache(EncryptedCookieCodec codec, Duration timeToLive) {
+        this.codec = codec;
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    public void saveRequest(HttpServletRequest request, HttpServletResponse response) {
+        if (HttpMethod.GET.matches(request.getMethod()) && !"XMLHttpRequest".equals(request.getHeader("X-Requested-With"))) {
+            // Too long a URL is simply not remembered; the user lands on the default page after login
+            codec.write(request, response, COOKIE_NAME, Map.of(URL, UrlUtils.buildFullRequestUrl(request)), timeToLive);
+        }
+    }
+
+    @Override
+    public SavedRequest getRequest(HttpServletRequest request, HttpServletResponse response) {
+        Map<String, Object> content = codec.read(request, COOKIE_NAME);
+        if (content == null || !(content.get(URL) instanceof String url)) {
+            return null;
+        }
+        return new SimpleSavedRequest(url);
+    }
+
+    @Override
+    public HttpServletRequest getMatchingRequest(HttpServletRequest request, HttpServletResponse response) {
+        SavedRequest saved = getRequest(request, response);
+        if (saved == null) {
+            return null;
+        }
+        if (!saved.getRedirectUrl().equals(UrlUtils.buildFullRequestUrl(request))) {
+            return null;
+        }
+        removeRequest(request, response);
+        return request;
+    }
+
+    @Override
+    public void removeRequest(HttpServletRequest request, HttpServletResponse response) {
+        codec.clear(request, response, COOKIE_NAME);
+    }
+}
@@ -0,0 +1,29 @@
+package com.daem.infrastructure.security.session;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param enabled                 keep the login and the saved authorization request in encrypted cookies instead
+ *                                of the HTTP session, so any node can continue any flow
+ * @param encryptionPassword      password from which the cookie encryption key is derived; all nodes must share it
+ * @param encryptionSalt          hex-encoded salt for that derivation
+ * @param loginTimeToLive         how long a login stays valid; it cannot be revoked before that, only dropped by
+ *                                the browser on logout
+ * @param savedRequestTimeToLive  how long the request that triggered the login is remembered
+ * @param maxCookieSize           upper bound on name plus value of one cookie; larger values are not stored
+ * @param secureCookies           mark the cookies {@code Secure}; only turn off for plain-HTTP development
+ */
+@ConfigurationProperties(prefix = "daem.oauth2.stateless-session")
+public record StatelessSessionProperties(
+        @DefaultValue("false") boolean enabled,
+        String encryptionPassword,
+        String encryptionSalt,
+        @DefaultValue("30m") Duration loginTimeToLive,
+        @DefaultValue("10m") Duration savedRequestTimeToLive,
+        @DefaultValue("4096") int maxCookieSize,
+        @DefaultValue("true") boolean secureCookies
+) {
+}
@@ -0,0 +1,74 @@
+package com.daem.infrastructure.security.session;
+
+import org.springframework.security.config.ObjectPostProcessor;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.FormLoginConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies the stateless session mode to a filter chain: the login, the request that triggered it and the CSRF
+ * token live in cookies, and Spring Security never creates an HTTP session. The authorization request waiting
+ * for consent needs no session either; the authorization server keeps it in the authorization store.
+ * <p>
+ * Does nothing unless {@code daem.oauth2.stateless-session.enabled} is set.
+ */
+@Component
+public class StatelessSessionSupport {
+
+    // The default failure URL of form login
+    private static final String FAILURE_URL = "/login?error";
+
+    private final StatelessSessionProperties properties;
+    private final CookieSecurityContextRepository securityContextRepository;
+    private final EncryptedCookieRequestCache requestCache;
+
+    public StatelessSessionSupport(StatelessSessionProperties properties) {
+        this.properties = properties;
+        if (properties.enabled()) {
+            EncryptedCookieCodec codec = new EncryptedCookieCodec(properties);
+            this.securityContextRepository = new CookieSecurityContextRepository(codec, properties.loginTimeToLive());
+            this.requestCache = new EncryptedCookieRequestCache(codec, properties.savedRequestTimeToLive());
+        } else {
+            this.securityContextRepository = null;
+            this.requestCache = null;
+        }
+    }
+
+    public void apply(HttpSecurity http) throws Exception {
+        if (!properties.enabled()) {
+            return;
+        }
+        http
+                .securityContext(securityContext -> securityContext.securityContextRepository(securityContextRepository))
+                .requestCache(cache -> cache.requestCache(requestCache))
+                // NEVER rather than STATELESS, which would also replace the request cache with a no-op one
+                .sessionManagement(sessions -> sessions.sessionCreationPolicy(SessionCreationPolicy.NEVER))
+                .csrf(csrf -> csrf.csrfTokenRepository(new CookieCsrfTokenRepository()))
+                .logout(logout -> logout.deleteCookies(CookieSecurityContextRepository.COOKIE_NAME,
+                        EncryptedCookieRequestCache.COOKIE_NAME));
+    }
+
+    /**
+     * The default failure handler stores the exception in a new session to show it on the login page. It is
+     * swapped on the filter, since setting a handler on the configurer would make the generated login page stop
+     * recognizing its failure URL.
+     */
+    public void apply(FormLoginConfigurer<HttpSecurity> formLogin) {
+        if (!properties.enabled()) {
+            return;
+        }
+        formLogin.withObjectPostProcessor(new ObjectPostProcessor<UsernamePasswordAuthenticationFilter>() {
+            @Override
+            public <O extends UsernamePasswordAuthenticationFilter> O postProcess(O filter) {
+                SimpleUrlAuthenticationFailureHandler failureHandler = new SimpleUrlAuthenticationFailureHandler(FAILURE_URL);
+                failureHandler.setAllowSessionCreation(false);
+                filter.setAuthenticationFailureHandler(failureHandler);
+                return filter;
+            }
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package com.daem.infrastructure.tenant;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param enabled               whether every tenant gets an issuer of its own; off, the server has the single
+ *                              issuer of the {@code default} tenant
+ * @param resolution            which part of the issuer names the tenant
+ * @param baseDomain            with {@code HOST} resolution, the host name of the default tenant; tenants are the
+ *                              host names one label below it
+ * @param maximumActiveTenants  tenants whose signing keys and registration are held in memory at once
+ * @param keyIdleTimeout        how long the signing keys of a tenant without requests stay in memory
+ * @param registryTimeToLive    how long whether a tenant exists is remembered, for unknown tenants as well
+ */
+@ConfigurationProperties(prefix = "daem.oauth2.multi-tenancy")
+public record MultiTenancyProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("PATH") Resolution resolution,
+        String baseDomain,
+        @DefaultValue("1000") int maximumActiveTenants,
+        @DefaultValue("30m") Duration keyIdleTimeout,
+        @DefaultValue("1m") Duration registryTimeToLive
+) {
+
+    public enum Resolution {
+        /** The first path segment: {@code https://login.example.com/acme}. */
+        PATH,
+        /** The label in front of {@code base-domain}: {@code https://acme.login.example.com}. */
+        HOST
+    }
+}
@@ -0,0 +1,36 @@
+package com.daem.infrastructure.tenant;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Answers authorization server requests for a tenant that does not exist with {@code 404 Not Found}, before
+ * anything loads signing keys or clients for it. Must run after Spring Authorization Server has resolved the
+ * issuer of the request.
+ */
+public class TenantFilter extends OncePerRequestFilter {
+
+    private final TenantResolver tenantResolver;
+    private final TenantRegistry tenantRegistry;
+
+    public TenantFilter(TenantResolver tenantResolver, TenantRegistry tenantRegistry) {
+        this.tenantResolver = tenantResolver;
+        this.tenantRegistry = tenantRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String tenant = tenantResolver.currentTenant();
+        if (tenant != null && !tenantRegistry.exists(tenant)) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,73 @@
+package com.daem.infrastructure.tenant;
+
+import com.daem.domain.tenant.TenantIds;
+import com.daem.infrastructure.cluster.ClusterNotificationBus;
+import com.daem.infrastructure.cluster.ClusterNotificationListener;
+import com.daem.infrastructure.persistence.jdbc.TenantJdbcRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+/**
+ * Which tenants exist. A tenant is registered in {@code oauth2_tenant} when its first client is written, and
+ * lookups are cached for the most recently asked {@code maximum-active-tenants}, unknown tenants included, so
+ * that requests naming a tenant that does not exist reach the database at most once per {@code registry-time-to-live}.
+ */
+@Component
+public class TenantRegistry {
+
+    static final String CHANNEL = "oauth2_tenant";
+
+    private final TenantJdbcRepository tenantJdbcRepository;
+    private final ClusterNotificationBus notificationBus;
+    private final Cache<String, Boolean> known;
+
+    public TenantRegistry(TenantJdbcRepository tenantJdbcRepository, MultiTenancyProperties properties,
+                          ClusterNotificationBus notificationBus, MeterRegistry meterRegistry) {
+        this.tenantJdbcRepository = tenantJdbcRepository;
+        this.notificationBus = notificationBus;
+        this.known = Caffeine.newBuilder()
+                .maximumSize(properties.maximumActiveTenants())
+                .expireAfterWrite(properties.registryTimeToLive())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, known, "oauth2.tenant");
+        notificationBus.subscribe(CHANNEL, new ClusterNotificationListener() {
+            @Override
+            public void onNotification(String payload) {
+                known.invalidate(payload);
+            }
+
+            @Override
+            public void onReconnect() {
+                known.invalidateAll();
+            }
+        });
+    }
+
+    public boolean exists(String tenantId) {
+        if (TenantIds.DEFAULT.equals(tenantId)) {
+            return true;
+        }
+        if (!TenantIds.isValid(tenantId)) {
+            return false;
+        }
+        return known.get(tenantId, tenantJdbcRepository::exists);
+    }
+
+    /**
+     * Registers the tenant unless it exists already. Other nodes learn about a new tenant once the current
+     * transaction commits.
+     */
+    public void register(String tenantId) {
+        if (TenantIds.DEFAULT.equals(tenantId) || Boolean.TRUE.equals(known.getIfPresent(tenantId))) {
+            return;
+        }
+        if (tenantJdbcRepository.insertIfAbsent(tenantId)) {
+            // Delivered to this node too, which drops a cached "unknown"
+            notificationBus.publish(CHANNEL, tenantId);
+        }
+    }
+}
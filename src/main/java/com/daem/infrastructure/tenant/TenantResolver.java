@@ -0,0 +1,122 @@
+package com.daem.infrastructure.tenant;
+
+import com.daem.domain.client.ClientSettingNames;
+import com.daem.domain.tenant.TenantIds;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.context.AuthorizationServerContext;
+import org.springframework.security.oauth2.server.authorization.context.AuthorizationServerContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.util.Locale;
+
+/**
+ * Names the tenant of the current authorization server request.
+ * <p>
+ * With multi-tenancy enabled, Spring Authorization Server resolves a separate issuer for every request from its
+ * URL ({@code multipleIssuersAllowed}), and the tenant is read from that issuer: from its path or from its host
+ * name. The issuer without a tenant, and every issuer while multi-tenancy is off, belongs to the
+ * {@link TenantIds#DEFAULT default tenant}.
+ */
+@Component
+public class TenantResolver {
+
+    private final MultiTenancyProperties properties;
+    private final String contextPath;
+    private final String hostSuffix;
+
+    public TenantResolver(MultiTenancyProperties properties, ServletContext servletContext) {
+        Assert.isTrue(!properties.enabled() || properties.resolution() != MultiTenancyProperties.Resolution.HOST
+                || StringUtils.hasText(properties.baseDomain()), "daem.oauth2.multi-tenancy.base-domain must be set for HOST resolution");
+        this.properties = properties;
+        this.contextPath = servletContext.getContextPath();
+        this.hostSuffix = StringUtils.hasText(properties.baseDomain()) ? "." + properties.baseDomain().toLowerCase(Locale.ROOT) : null;
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * @return the tenant named by the issuer of the current request, not yet known to exist; {@code null} while
+     * multi-tenancy is off and outside authorization server requests, e.g. on the admin API or background threads
+     */
+    public String currentTenant() {
+        if (!properties.enabled()) {
+            return null;
+        }
+        AuthorizationServerContext context = AuthorizationServerContextHolder.getContext();
+        return context != null ? tenantOf(context.getIssuer()) : null;
+    }
+
+    public String currentTenantOrDefault() {
+        String tenant = currentTenant();
+        return tenant != null ? tenant : TenantIds.DEFAULT;
+    }
+
+    private String tenantOf(String issuer) {
+        int authorityStart = issuer.indexOf("://") + 3;
+        int pathStart = issuer.indexOf('/', authorityStart);
+        if (properties.resolution() == MultiTenancyProperties.Resolution.PATH) {
+            String path = pathStart < 0 ? "" : issuer.substring(pathStart);
+            if (path.startsWith(contextPath)) {
+                path = path.substring(contextPath.length());
+            }
+            return path.length() <= 1 ? TenantIds.DEFAULT : path.substring(1);
+        }
+        String host = issuer.substring(authorityStart, pathStart < 0 ? issuer.length() : pathStart);
+        int port = host.lastIndexOf(':');
+        if (port >= 0 && host.indexOf(']') < port) {
+            host = host.substring(0, port);
+        }
+        host = host.toLowerCase(Locale.ROOT);
+        if (host.endsWith(hostSuffix)) {
+            return host.substring(0, host.length() - hostSuffix.length());
+        }
+        // The base domain itself, or any host name the deployment is reached by otherwise
+        return TenantIds.DEFAULT;
+    }
+
+    /**
+     * @return the issuer without its tenant path, below which the endpoints that serve all tenants at once are found;
+     * the issuer itself unless tenants are resolved from the path, since every host name serves those endpoints
+     */
+    public String withoutTenantPath(String issuer) {
+        if (!properties.enabled() || properties.resolution() != MultiTenancyProperties.Resolution.PATH) {
+            return issuer;
+        }
+        int pathStart = issuer.indexOf('/', issuer.indexOf("://") + 3);
+        if (pathStart < 0 || !issuer.startsWith(contextPath, pathStart)) {
+            return issuer;
+        }
+        return issuer.substring(0, pathStart + contextPath.length());
+    }
+
+    /**
+     * @return the tenant the client belongs to
+     */
+    public static String tenantOf(RegisteredClient registeredClient) {
+        Object tenant = registeredClient.getClientSettings().getSetting(ClientSettingNames.TENANT);
+        return tenant instanceof String tenantId ? tenantId : TenantIds.DEFAULT;
+    }
+
+    /**
+     * The path of the request below its issuer, which is the endpoint path of the {@code AuthorizationServerSettings}
+     * for every tenant; below the context path outside authorization server requests.
+     */
+    public static String endpointPath(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        AuthorizationServerContext context = AuthorizationServerContextHolder.getContext();
+        if (context != null) {
+            String issuer = context.getIssuer();
+            int pathStart = issuer.indexOf('/', issuer.indexOf("://") + 3);
+            if (pathStart >= 0 && issuer.length() - pathStart > 1 && path.regionMatches(0, issuer, pathStart, issuer.length() - pathStart)) {
+                return path.substring(issuer.length() - pathStart);
+            }
+        }
+        return path.substring(request.getContextPath().length());
+    }
+}
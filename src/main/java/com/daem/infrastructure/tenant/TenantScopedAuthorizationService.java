@@ -0,0 +1,56 @@
+package com.daem.infrastructure.tenant;
+
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+
+/**
+ * Hides the authorizations of other tenants from the authorization server endpoints, so that, for instance, a
+ * token issued for one tenant introspects as inactive at every other. The tenant of an authorization is that of
+ * its client, which the client repository usually has cached.
+ */
+public class TenantScopedAuthorizationService implements OAuth2AuthorizationService {
+
+    private final OAuth2AuthorizationService delegate;
+    private final RegisteredClientRepository registeredClientRepository;
+    private final TenantResolver tenantResolver;
+
+    public TenantScopedAuthorizationService(OAuth2AuthorizationService delegate,
+                                            RegisteredClientRepository registeredClientRepository,
+                                            TenantResolver tenantResolver) {
+        this.delegate = delegate;
+        this.registeredClientRepository = registeredClientRepository;
+        this.tenantResolver = tenantResolver;
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        delegate.save(authorization);
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        delegate.remove(authorization);
+    }
+
+    @Override
+    public OAuth2Authorization findById(String id) {
+        return visible(delegate.findById(id));
+    }
+
+    @Override
+    public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
+        return visible(delegate.findByToken(token, tokenType));
+    }
+
+    private OAuth2Authorization visible(OAuth2Authorization authorization) {
+        String tenant = tenantResolver.currentTenant();
+        if (authorization == null || tenant == null) {
+            return authorization;
+        }
+        RegisteredClient registeredClient = registeredClientRepository.findById(authorization.getRegisteredClientId());
+        return registeredClient != null && tenant.equals(TenantResolver.tenantOf(registeredClient)) ? authorization : null;
+    }
+}
@@ -0,0 +1,117 @@
+package com.daem.infrastructure.tenant;
+
+import com.daem.domain.client.ClientQuery;
+import com.daem.domain.client.ClientRepository;
+import com.daem.domain.client.ClientSummary;
+import com.daem.domain.client.VersionedClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
+
+/**
+ * Partitions the clients by tenant for the authorization server endpoints: a request of one tenant looks client ids
+ * up among its own clients only, so it can neither authenticate as the clients of another nor start an authorization
+ * for them, and each tenant may register any client id. The admin API, which runs outside any tenant, names the
+ * tenant of every client it addresses.
+ * <p>
+ * Lookups by id are not scoped: ids only ever come from stored authorizations, which
+ * {@link TenantScopedAuthorizationService} scopes. Writing a client registers its tenant.
+ */
+public class TenantScopedClientRepository implements ClientRepository {
+
+    private final ClientRepository delegate;
+    private final TenantResolver tenantResolver;
+    private final TenantRegistry tenantRegistry;
+
+    public TenantScopedClientRepository(ClientRepository delegate, TenantResolver tenantResolver,
+                                        TenantRegistry tenantRegistry) {
+        this.delegate = delegate;
+        this.tenantResolver = tenantResolver;
+        this.tenantRegistry = tenantRegistry;
+    }
+
+    @Override
+    public void save(RegisteredClient registeredClient) {
+        tenantRegistry.register(TenantResolver.tenantOf(registeredClient));
+        delegate.save(registeredClient);
+    }
+
+    @Override
+    public RegisteredClient findById(String id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public RegisteredClient findByClientId(String clientId) {
+        return delegate.findByClientId(tenantResolver.currentTenantOrDefault(), clientId);
+    }
+
+    @Override
+    public RegisteredClient findByClientId(String tenant, String clientId) {
+        return delegate.findByClientId(tenant, clientId);
+    }
+
+    @Override
+    public List<RegisteredClient> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public void deleteByClientId(String tenant, String clientId) {
+        delegate.deleteByClientId(tenant, clientId);
+    }
+
+    @Override
+    public List<RegisteredClient> findAllByScope(String scope) {
+        return delegate.findAllByScope(scope);
+    }
+
+    @Override
+    public List<RegisteredClient> findAllByAuthorizationGrantType(String authorizationGrantType) {
+        return delegate.findAllByAuthorizationGrantType(authorizationGrantType);
+    }
+
+    @Override
+    public List<ClientSummary> findSummaries(ClientQuery query, String afterClientId, String afterTenant, int limit) {
+        return delegate.findSummaries(query, afterClientId, afterTenant, limit);
+    }
+
+    @Override
+    public Stream<ClientSummary> streamSummaries(ClientQuery query) {
+        return delegate.streamSummaries(query);
+    }
+
+    @Override
+    public Stream<RegisteredClient> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public Map<String, RegisteredClient> lockAllByClientId(String tenant, Collection<String> clientIds) {
+        return delegate.lockAllByClientId(tenant, clientIds);
+    }
+
+    @Override
+    public void upsertAll(List<RegisteredClient> registeredClients) {
+        registeredClients.stream().map(TenantResolver::tenantOf).distinct().forEach(tenantRegistry::register);
+        delegate.upsertAll(registeredClients);
+    }
+
+    @Override
+    public VersionedClient findVersionedByClientId(String tenant, String clientId) {
+        return delegate.findVersionedByClientId(tenant, clientId);
+    }
+
+    @Override
+    public OptionalLong upsert(RegisteredClient registeredClient, Long expectedVersion) {
+        OptionalLong version = delegate.upsert(registeredClient, expectedVersion);
+        if (version.isPresent()) {
+            tenantRegistry.register(TenantResolver.tenantOf(registeredClient));
+        }
+        return version;
+    }
+}
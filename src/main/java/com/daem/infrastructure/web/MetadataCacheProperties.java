@@ -0,0 +1,19 @@
+package com.daem.infrastructure.web;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param maxAge         upper bound for {@code Cache-Control: max-age}; the effective value is also kept below the
+ *                       signing key publish-ahead window so clients see a new key before it signs anything
+ * @param maximumEntries distinct host/path combinations kept rendered
+ */
+@ConfigurationProperties(prefix = "daem.oauth2.metadata-cache")
+public record MetadataCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1h") Duration maxAge,
+        @DefaultValue("100") long maximumEntries
+) {
+}
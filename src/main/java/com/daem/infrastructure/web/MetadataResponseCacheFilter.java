@@ -0,0 +1,94 @@
+package com.daem.infrastructure.web;
+
+import com.daem.infrastructure.security.key.SigningKeyManager;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the JWK Set and the discovery documents from pre-rendered bytes.
+ * <p>
+ * The first request for a document is handled by the regular endpoint filter and its body is captured. Until the
+ * published key set changes, later requests get the captured bytes with a strong ETag, and a matching
+ * {@code If-None-Match} is answered with {@code 304 Not Modified}. Entries are keyed by request base URL as
+ * well, because the issuer in the discovery documents is derived from it unless configured.
+ * {@code AuthorizationServerSettings} are fixed for the lifetime of the application, so only key changes
+ * invalidate the entries.
+ */
+public class MetadataResponseCacheFilter extends OncePerRequestFilter {
+
+    private final SigningKeyManager signingKeyManager;
+    private final Set<String> paths;
+    private final CacheControl cacheControl;
+    private final Cache<String, RenderedResponse> responses;
+
+    public MetadataResponseCacheFilter(SigningKeyManager signingKeyManager, Set<String> paths, Duration maxAge,
+                                       long maximumEntries) {
+        this.signingKeyManager = signingKeyManager;
+        this.paths = Set.copyOf(paths);
+        this.cacheControl = CacheControl.maxAge(maxAge.toSeconds(), TimeUnit.SECONDS).cachePublic();
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maximumEntries)
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod())
+                || !paths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        List<String> keyIds = signingKeyManager.publishedKeyIds();
+        String cacheKey = request.getScheme() + "://" + request.getServerName() + ":" + request.getServerPort()
+                + request.getRequestURI();
+        RenderedResponse rendered = responses.getIfPresent(cacheKey);
+        if (rendered != null && rendered.keyIds().equals(keyIds)) {
+            if (new ServletWebRequest(request, response).checkNotModified(rendered.etag())) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(rendered.contentType());
+            response.setContentLength(rendered.body().length);
+            response.setHeader(HttpHeaders.ETAG, rendered.etag());
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+            response.getOutputStream().write(rendered.body());
+            return;
+        }
+
+        ContentCachingResponseWrapper capturingResponse = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, capturingResponse);
+        if (capturingResponse.getStatus() == HttpServletResponse.SC_OK) {
+            byte[] body = capturingResponse.getContentAsByteArray();
+            rendered = new RenderedResponse(keyIds, body, capturingResponse.getContentType(), "\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+            responses.put(cacheKey, rendered);
+            capturingResponse.setHeader(HttpHeaders.ETAG, rendered.etag());
+            capturingResponse.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        }
+        capturingResponse.copyBodyToResponse();
+    }
+
+    /**
+     * @param keyIds the ids of the published keys the body was rendered against
+     */
+    private record RenderedResponse(List<String> keyIds, byte[] body, String contentType, String etag) {
+    }
+}
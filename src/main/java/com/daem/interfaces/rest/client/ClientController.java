@@ -1,41 +1,183 @@
 package com.daem.interfaces.rest.client;
 
+import com.daem.application.client.ClientBulkService;
 import com.daem.application.client.ClientManagementService;
+import com.daem.application.client.dto.BulkImportReportDto;
 import com.daem.application.client.dto.ClientDto;
+import com.daem.application.client.dto.ClientPageDto;
+import com.daem.application.client.dto.VersionedClientDto;
 import com.daem.application.exception.ClientIdMismatchException;
+import com.daem.application.exception.ClientTenantMismatchException;
+import com.daem.application.exception.ClientVersionConflictException;
+import com.daem.domain.client.ClientQuery;
+import com.daem.domain.tenant.TenantIds;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 
+/**
+ * The admin API of the registered clients. A client is identified by its client id together with its tenant, given
+ * as the {@code tenant} parameter; without it, the default tenant. Listings cover every tenant unless it is given.
+ */
 @RestController
 @RequestMapping("/api/clients")
 public class ClientController {
 
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    public static final String APPLICATION_MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
     private final ClientManagementService clientManagementService;
+    private final ClientBulkService clientBulkService;
+    private final ObjectWriter ndjsonWriter;
 
-    public ClientController(ClientManagementService clientManagementService) {
+    public ClientController(ClientManagementService clientManagementService, ClientBulkService clientBulkService,
+                            ObjectMapper objectMapper) {
         this.clientManagementService = clientManagementService;
+        this.clientBulkService = clientBulkService;
+        this.ndjsonWriter = objectMapper.writer().withoutFeatures(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
     @GetMapping
-    public List<ClientDto> getAll() {
-        return clientManagementService.findAll();
+    public ClientPageDto getAll(@RequestParam(required = false) String cursor,
+                                @RequestParam(defaultValue = "50") int limit,
+                                @RequestParam(required = false) String tenant,
+                                @RequestParam(required = false) String clientIdPrefix,
+                                @RequestParam(required = false) String grantType,
+                                @RequestParam(required = false) String scope) {
+        return clientManagementService.findPage(new ClientQuery(tenant, clientIdPrefix, grantType, scope), cursor, limit);
+    }
+
+    /**
+     * Streams every matching client as newline-delimited JSON; memory use stays constant regardless of the row count.
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> stream(@RequestParam(required = false) String tenant,
+                                                        @RequestParam(required = false) String clientIdPrefix,
+                                                        @RequestParam(required = false) String grantType,
+                                                        @RequestParam(required = false) String scope) {
+        ClientQuery query = new ClientQuery(tenant, clientIdPrefix, grantType, scope);
+        StreamingResponseBody body = outputStream -> clientManagementService.streamAll(query, client -> writeLine(outputStream, client));
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Creates or updates clients from a JSON array or an NDJSON stream. Records are matched by tenant and clientId; the report
+     * lists the outcome of every record in request order.
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public BulkImportReportDto bulkImport(InputStream body) throws IOException {
+        return clientBulkService.importClients(body);
+    }
+
+    /**
+     * Exports every client as NDJSON in the format accepted by {@code POST /api/clients/bulk}, without secrets.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = outputStream -> clientBulkService.exportAll(record -> writeLine(outputStream, record));
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
     }
 
+    /**
+     * One client with its settings; the ETag is the version to send back in {@code If-Match} when changing it.
+     */
+    @GetMapping("/{clientId}")
+    public ResponseEntity<ClientDto> get(@PathVariable String clientId, @RequestParam(required = false) String tenant) {
+        VersionedClientDto client = clientManagementService.get(tenant, clientId);
+        return ResponseEntity.ok().eTag(eTag(client.version())).body(client.client());
+    }
+
+    /**
+     * Replaces the client; an omitted secret keeps the stored one. With {@code If-Match}, only if the client is
+     * still at that version, otherwise 412; without, 409 if it kept changing concurrently.
+     */
     @PutMapping("/{clientId}")
-    @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void update(@PathVariable String clientId, @RequestBody ClientDto clientDto) {
+    public ResponseEntity<Void> update(@PathVariable String clientId,
+                                       @RequestParam(required = false) String tenant,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                       @RequestBody ClientDto clientDto) {
         // Ensure the client ID in the path matches the one in the body
         if (!clientId.equals(clientDto.clientId())) {
             throw new ClientIdMismatchException("Client ID in path does not match client ID in body"); // Throws custom exception
         }
-        clientManagementService.update(clientDto);
+        requireSameTenant(tenant, clientDto);
+        long version = clientManagementService.update(tenant, clientDto, expectedVersion(ifMatch));
+        return ResponseEntity.noContent().eTag(eTag(version)).build();
+    }
+
+    /**
+     * Changes only the fields present in the body and hashes the secret only if one is given. With
+     * {@code If-Match}, only if the client is still at that version, otherwise 412; without, 409 if it kept changing
+     * concurrently.
+     */
+    @PatchMapping(value = "/{clientId}", consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_MERGE_PATCH_JSON_VALUE})
+    public ResponseEntity<Void> patch(@PathVariable String clientId,
+                                      @RequestParam(required = false) String tenant,
+                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                      @RequestBody ClientDto patch) {
+        if (patch.clientId() != null && !clientId.equals(patch.clientId())) {
+            throw new ClientIdMismatchException("Client ID in path does not match client ID in body");
+        }
+        requireSameTenant(tenant, patch);
+        long version = clientManagementService.patch(tenant, clientId, patch, expectedVersion(ifMatch));
+        return ResponseEntity.noContent().eTag(eTag(version)).build();
     }
 
     @DeleteMapping("/{clientId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void delete(@PathVariable String clientId) {
-        clientManagementService.delete(clientId);
+    public void delete(@PathVariable String clientId, @RequestParam(required = false) String tenant) {
+        clientManagementService.delete(tenant, clientId);
+    }
+
+    /**
+     * The tenant identifies the client along with its client id, so a body may only repeat it.
+     */
+    private static void requireSameTenant(String tenant, ClientDto clientDto) {
+        if (clientDto.tenant() != null && !clientDto.tenant().equals(tenant != null ? tenant : TenantIds.DEFAULT)) {
+            throw new ClientTenantMismatchException("Tenant in query does not match tenant in body");
+        }
+    }
+
+    private static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * The version an {@code If-Match} header asks for, {@code null} without one or for {@code *}. If-Match compares
+     * strongly, so a weak or otherwise foreign tag can never match.
+     */
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // Falls through to the mismatch below
+            }
+        }
+        throw new ClientVersionConflictException("If-Match " + ifMatch + " does not match any version");
+    }
+
+    private void writeLine(OutputStream outputStream, Object value) {
+        try {
+            ndjsonWriter.writeValue(outputStream, value);
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
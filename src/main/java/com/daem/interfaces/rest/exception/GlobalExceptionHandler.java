@@ -1,7 +1,13 @@
 package com.daem.interfaces.rest.exception;
 
+import com.daem.application.exception.ClientAlreadyExistsException;
+import com.daem.application.exception.ClientConcurrentModificationException;
 import com.daem.application.exception.ClientIdMismatchException;
 import com.daem.application.exception.ClientNotFoundException;
+import com.daem.application.exception.ClientTenantMismatchException;
+import com.daem.application.exception.ClientVersionConflictException;
+import com.daem.application.exception.InvalidCursorException;
+import com.daem.application.exception.InvalidTenantException;
 import org.springframework.context.MessageSource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -31,6 +37,42 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorMessage, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(ClientTenantMismatchException.class)
+    public ResponseEntity<String> handleClientTenantMismatchException(ClientTenantMismatchException ex, Locale locale) {
+        String errorMessage = messageSource.getMessage("client.error.tenantMismatch", null, locale);
+        return new ResponseEntity<>(errorMessage, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<String> handleInvalidCursorException(InvalidCursorException ex, Locale locale) {
+        String errorMessage = messageSource.getMessage("client.error.invalidCursor", null, locale);
+        return new ResponseEntity<>(errorMessage, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidTenantException.class)
+    public ResponseEntity<String> handleInvalidTenantException(InvalidTenantException ex, Locale locale) {
+        String errorMessage = messageSource.getMessage("client.error.invalidTenant", null, locale);
+        return new ResponseEntity<>(errorMessage, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ClientVersionConflictException.class)
+    public ResponseEntity<String> handleClientVersionConflictException(ClientVersionConflictException ex, Locale locale) {
+        String errorMessage = messageSource.getMessage("client.error.versionConflict", null, locale);
+        return new ResponseEntity<>(errorMessage, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(ClientConcurrentModificationException.class)
+    public ResponseEntity<String> handleClientConcurrentModificationException(ClientConcurrentModificationException ex, Locale locale) {
+        String errorMessage = messageSource.getMessage("client.error.concurrentModification", null, locale);
+        return new ResponseEntity<>(errorMessage, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ClientAlreadyExistsException.class)
+    public ResponseEntity<String> handleClientAlreadyExistsException(ClientAlreadyExistsException ex, Locale locale) {
+        String errorMessage = messageSource.getMessage("client.error.alreadyExists", null, locale);
+        return new ResponseEntity<>(errorMessage, HttpStatus.CONFLICT);
+    }
+
     // Generic exception handler for any other unhandled exceptions
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handleGenericException(Exception ex, Locale locale) {
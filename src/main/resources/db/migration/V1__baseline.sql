@@ -0,0 +1,109 @@
+-- Schema as of the switch from hibernate.ddl-auto to versioned migrations: the tables in docs/sql, with the column
+-- types the JPA entities map to. Databases that ddl-auto already created are baselined at this version instead
+-- (spring.flyway.baseline-on-migrate), so later migrations must only ever build on top of it.
+
+CREATE TABLE oauth2_registered_client (
+    id varchar(100) NOT NULL,
+    client_id varchar(100) NOT NULL,
+    client_id_issued_at timestamp with time zone DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    client_secret varchar(200) DEFAULT NULL,
+    client_secret_expires_at timestamp with time zone DEFAULT NULL,
+    client_name varchar(200) NOT NULL,
+    client_authentication_methods varchar(1000) DEFAULT NULL,
+    authorization_grant_types varchar(1000) DEFAULT NULL,
+    redirect_uris varchar(1000) DEFAULT NULL,
+    post_logout_redirect_uris varchar(1000) DEFAULT NULL,
+    scopes varchar(1000) DEFAULT NULL,
+    client_settings varchar(2000) DEFAULT NULL,
+    token_settings varchar(2000) DEFAULT NULL,
+    client_authentication_methods_v2 text[] DEFAULT NULL,
+    authorization_grant_types_v2 text[] DEFAULT NULL,
+    redirect_uris_v2 text[] DEFAULT NULL,
+    post_logout_redirect_uris_v2 text[] DEFAULT NULL,
+    scopes_v2 text[] DEFAULT NULL,
+    client_settings_v2 jsonb DEFAULT NULL,
+    token_settings_v2 jsonb DEFAULT NULL,
+    PRIMARY KEY (id)
+);
+CREATE UNIQUE INDEX ux_oauth2_registered_client_client_id ON oauth2_registered_client (client_id);
+CREATE INDEX ix_oauth2_registered_client_scopes_v2 ON oauth2_registered_client USING gin (scopes_v2);
+CREATE INDEX ix_oauth2_registered_client_grant_types_v2 ON oauth2_registered_client USING gin (authorization_grant_types_v2);
+
+CREATE TABLE oauth2_authorization (
+    id varchar(100) NOT NULL,
+    registered_client_id varchar(100) NOT NULL,
+    principal_name varchar(200) NOT NULL,
+    authorization_grant_type varchar(100) NOT NULL,
+    authorized_scopes varchar(1000) DEFAULT NULL,
+    attributes text DEFAULT NULL,
+    state varchar(500) DEFAULT NULL,
+    authorization_code_value text DEFAULT NULL,
+    authorization_code_hash char(64) DEFAULT NULL,
+    authorization_code_issued_at timestamp with time zone DEFAULT NULL,
+    authorization_code_expires_at timestamp with time zone DEFAULT NULL,
+    authorization_code_metadata text DEFAULT NULL,
+    access_token_value text DEFAULT NULL,
+    access_token_hash char(64) DEFAULT NULL,
+    access_token_issued_at timestamp with time zone DEFAULT NULL,
+    access_token_expires_at timestamp with time zone DEFAULT NULL,
+    access_token_metadata text DEFAULT NULL,
+    access_token_type varchar(100) DEFAULT NULL,
+    access_token_scopes varchar(1000) DEFAULT NULL,
+    oidc_id_token_value text DEFAULT NULL,
+    oidc_id_token_hash char(64) DEFAULT NULL,
+    oidc_id_token_issued_at timestamp with time zone DEFAULT NULL,
+    oidc_id_token_expires_at timestamp with time zone DEFAULT NULL,
+    oidc_id_token_metadata text DEFAULT NULL,
+    refresh_token_value text DEFAULT NULL,
+    refresh_token_hash char(64) DEFAULT NULL,
+    refresh_token_issued_at timestamp with time zone DEFAULT NULL,
+    refresh_token_expires_at timestamp with time zone DEFAULT NULL,
+    refresh_token_metadata text DEFAULT NULL,
+    user_code_value text DEFAULT NULL,
+    user_code_hash char(64) DEFAULT NULL,
+    user_code_issued_at timestamp with time zone DEFAULT NULL,
+    user_code_expires_at timestamp with time zone DEFAULT NULL,
+    user_code_metadata text DEFAULT NULL,
+    device_code_value text DEFAULT NULL,
+    device_code_hash char(64) DEFAULT NULL,
+    device_code_issued_at timestamp with time zone DEFAULT NULL,
+    device_code_expires_at timestamp with time zone DEFAULT NULL,
+    device_code_metadata text DEFAULT NULL,
+    expires_at timestamp with time zone DEFAULT NULL,
+    PRIMARY KEY (id)
+);
+CREATE INDEX ix_oauth2_authorization_state ON oauth2_authorization (state);
+CREATE INDEX ix_oauth2_authorization_code_hash ON oauth2_authorization (authorization_code_hash);
+CREATE INDEX ix_oauth2_authorization_access_token_hash ON oauth2_authorization (access_token_hash);
+CREATE INDEX ix_oauth2_authorization_refresh_token_hash ON oauth2_authorization (refresh_token_hash);
+CREATE INDEX ix_oauth2_authorization_oidc_id_token_hash ON oauth2_authorization (oidc_id_token_hash);
+CREATE INDEX ix_oauth2_authorization_user_code_hash ON oauth2_authorization (user_code_hash);
+CREATE INDEX ix_oauth2_authorization_device_code_hash ON oauth2_authorization (device_code_hash);
+CREATE INDEX ix_oauth2_authorization_expires_at ON oauth2_authorization (expires_at);
+
+CREATE TABLE oauth2_authorization_consent (
+    registered_client_id varchar(100) NOT NULL,
+    principal_name varchar(200) NOT NULL,
+    authorities varchar(1000) NOT NULL,
+    PRIMARY KEY (registered_client_id, principal_name)
+);
+
+CREATE TABLE oauth2_revoked_token (
+    feed_version bigint GENERATED BY DEFAULT AS IDENTITY,
+    jti varchar(255) NOT NULL,
+    revoked_at timestamp with time zone NOT NULL,
+    expires_at timestamp with time zone NOT NULL,
+    PRIMARY KEY (feed_version),
+    CONSTRAINT uk_oauth2_revoked_token_jti UNIQUE (jti)
+);
+CREATE INDEX ix_oauth2_revoked_token_expires_at ON oauth2_revoked_token (expires_at);
+
+CREATE TABLE oauth2_signing_key (
+    kid varchar(100) NOT NULL,
+    algorithm varchar(20) NOT NULL,
+    private_jwk text NOT NULL,
+    created_at timestamp with time zone NOT NULL,
+    activate_at timestamp with time zone NOT NULL,
+    expire_at timestamp with time zone DEFAULT NULL,
+    PRIMARY KEY (kid)
+);
@@ -0,0 +1,3 @@
+-- Row version of a registered client for optimistic concurrency on the admin API (ETag / If-Match). Every write
+-- through the admin API or a bulk import increments it.
+ALTER TABLE oauth2_registered_client ADD COLUMN version bigint DEFAULT 0 NOT NULL;
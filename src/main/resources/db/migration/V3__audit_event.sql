@@ -0,0 +1,15 @@
+-- Token and client audit trail, written in batches by the audit log when daem.oauth2.audit.database is set. Rows
+-- are never purged by the server; retention is up to the operator.
+CREATE TABLE oauth2_audit_event (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    occurred_at timestamp with time zone NOT NULL,
+    type varchar(32) NOT NULL,
+    client_id varchar(100),
+    principal_name varchar(200),
+    grant_type varchar(100),
+    token_id varchar(255),
+    token_hash char(64),
+    refresh_token_hash char(64),
+    PRIMARY KEY (id)
+);
+CREATE INDEX ix_oauth2_audit_event_occurred_at ON oauth2_audit_event (occurred_at);
@@ -0,0 +1,10 @@
+-- Tenants of the multi-issuer mode (daem.oauth2.multi-tenancy). A tenant is registered when its first client is
+-- written; signing keys belong to a tenant, and rows from before this migration to the default tenant.
+CREATE TABLE oauth2_tenant (
+    id varchar(63) NOT NULL,
+    created_at timestamp with time zone DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    PRIMARY KEY (id)
+);
+
+ALTER TABLE oauth2_signing_key ADD COLUMN tenant_id varchar(63) DEFAULT 'default' NOT NULL;
+CREATE INDEX ix_oauth2_signing_key_tenant_id ON oauth2_signing_key (tenant_id, activate_at);
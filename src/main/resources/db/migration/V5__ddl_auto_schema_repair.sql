@@ -0,0 +1,61 @@
+-- Databases that hibernate.ddl-auto created were baselined at V1 without running it. They have the tables, but not
+-- the indexes of V1, and ddl-auto may have typed the Instant columns as timestamp without time zone. This adds what is
+-- missing; on a database V1 created it changes nothing.
+DO $$
+DECLARE
+    col record;
+BEGIN
+    -- Hibernate wrote those columns in the session time zone (the JVM's), which is also the one this cast reads
+    -- them in, so migrate with the time zone the nodes run with
+    FOR col IN
+        SELECT table_name, column_name FROM information_schema.columns
+        WHERE table_schema = current_schema()
+          AND data_type = 'timestamp without time zone'
+          AND (table_name, column_name) IN (
+              ('oauth2_registered_client', 'client_id_issued_at'),
+              ('oauth2_registered_client', 'client_secret_expires_at'),
+              ('oauth2_authorization', 'authorization_code_issued_at'),
+              ('oauth2_authorization', 'authorization_code_expires_at'),
+              ('oauth2_authorization', 'access_token_issued_at'),
+              ('oauth2_authorization', 'access_token_expires_at'),
+              ('oauth2_authorization', 'oidc_id_token_issued_at'),
+              ('oauth2_authorization', 'oidc_id_token_expires_at'),
+              ('oauth2_authorization', 'refresh_token_issued_at'),
+              ('oauth2_authorization', 'refresh_token_expires_at'),
+              ('oauth2_authorization', 'user_code_issued_at'),
+              ('oauth2_authorization', 'user_code_expires_at'),
+              ('oauth2_authorization', 'device_code_issued_at'),
+              ('oauth2_authorization', 'device_code_expires_at'),
+              ('oauth2_authorization', 'expires_at'),
+              ('oauth2_revoked_token', 'revoked_at'),
+              ('oauth2_revoked_token', 'expires_at'),
+              ('oauth2_signing_key', 'created_at'),
+              ('oauth2_signing_key', 'activate_at'),
+              ('oauth2_signing_key', 'expire_at'))
+    LOOP
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN %I TYPE timestamp with time zone', col.table_name, col.column_name);
+    END LOOP;
+
+    -- ddl-auto names its unique constraint on client_id itself; a second unique index would only cost writes
+    IF NOT EXISTS (
+        SELECT 1 FROM pg_index i
+        JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = i.indkey[0]
+        WHERE i.indrelid = 'oauth2_registered_client'::regclass AND i.indisunique AND i.indnatts = 1
+          AND a.attname = 'client_id') THEN
+        CREATE UNIQUE INDEX ux_oauth2_registered_client_client_id ON oauth2_registered_client (client_id);
+    END IF;
+END $$;
+
+CREATE INDEX IF NOT EXISTS ix_oauth2_registered_client_scopes_v2 ON oauth2_registered_client USING gin (scopes_v2);
+CREATE INDEX IF NOT EXISTS ix_oauth2_registered_client_grant_types_v2 ON oauth2_registered_client USING gin (authorization_grant_types_v2);
+
+CREATE INDEX IF NOT EXISTS ix_oauth2_authorization_state ON oauth2_authorization (state);
+CREATE INDEX IF NOT EXISTS ix_oauth2_authorization_code_hash ON oauth2_authorization (authorization_code_hash);
+CREATE INDEX IF NOT EXISTS ix_oauth2_authorization_access_token_hash ON oauth2_authorization (access_token_hash);
+CREATE INDEX IF NOT EXISTS ix_oauth2_authorization_refresh_token_hash ON oauth2_authorization (refresh_token_hash);
+CREATE INDEX IF NOT EXISTS ix_oauth2_authorization_oidc_id_token_hash ON oauth2_authorization (oidc_id_token_hash);
+CREATE INDEX IF NOT EXISTS ix_oauth2_authorization_user_code_hash ON oauth2_authorization (user_code_hash);
+CREATE INDEX IF NOT EXISTS ix_oauth2_authorization_device_code_hash ON oauth2_authorization (device_code_hash);
+CREATE INDEX IF NOT EXISTS ix_oauth2_authorization_expires_at ON oauth2_authorization (expires_at);
+
+CREATE INDEX IF NOT EXISTS ix_oauth2_revoked_token_expires_at ON oauth2_revoked_token (expires_at);
@@ -0,0 +1,24 @@
+-- expires_at is when the last token of an authorization expires and drives the background purge. Rows written before
+-- the column existed have none and would never be purged. They get what OAuth2AuthorizationServiceAdapter writes:
+-- the expiry of their longest-lived token, or the default pending-authorization-time-to-live (1h) if they have no
+-- token yet. Rows with a token that never expires keep NULL, so they are never purged.
+UPDATE oauth2_authorization
+SET expires_at = CASE
+        WHEN authorization_code_value IS NULL AND access_token_value IS NULL AND refresh_token_value IS NULL
+            AND oidc_id_token_value IS NULL AND user_code_value IS NULL AND device_code_value IS NULL
+            THEN now() + interval '1 hour'
+        ELSE GREATEST(
+            CASE WHEN authorization_code_value IS NOT NULL THEN authorization_code_expires_at END,
+            CASE WHEN access_token_value IS NOT NULL THEN access_token_expires_at END,
+            CASE WHEN refresh_token_value IS NOT NULL THEN refresh_token_expires_at END,
+            CASE WHEN oidc_id_token_value IS NOT NULL THEN oidc_id_token_expires_at END,
+            CASE WHEN user_code_value IS NOT NULL THEN user_code_expires_at END,
+            CASE WHEN device_code_value IS NOT NULL THEN device_code_expires_at END)
+    END
+WHERE expires_at IS NULL
+  AND NOT (authorization_code_value IS NOT NULL AND authorization_code_expires_at IS NULL)
+  AND NOT (access_token_value IS NOT NULL AND access_token_expires_at IS NULL)
+  AND NOT (refresh_token_value IS NOT NULL AND refresh_token_expires_at IS NULL)
+  AND NOT (oidc_id_token_value IS NOT NULL AND oidc_id_token_expires_at IS NULL)
+  AND NOT (user_code_value IS NOT NULL AND user_code_expires_at IS NULL)
+  AND NOT (device_code_value IS NOT NULL AND device_code_expires_at IS NULL);
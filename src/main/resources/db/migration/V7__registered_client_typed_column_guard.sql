@@ -0,0 +1,34 @@
+-- While the typed client columns are rolled out, nodes that predate them still write registered clients, and they
+-- only update the legacy JSON columns. Reads prefer the typed columns, which such a write would leave stale. An update
+-- that changes the legacy columns but leaves every typed column as it was is such a write: it clears the typed columns,
+-- so reads fall back to the legacy ones until TypedColumnBackfill converts the row again. TYPED mode writes NULL legacy
+-- columns and is never mistaken for it.
+CREATE OR REPLACE FUNCTION oauth2_registered_client_clear_stale_typed_columns() RETURNS trigger AS $$
+BEGIN
+    IF NEW.authorization_grant_types IS NOT NULL
+        AND (NEW.client_authentication_methods, NEW.authorization_grant_types, NEW.redirect_uris,
+             NEW.post_logout_redirect_uris, NEW.scopes, NEW.client_settings, NEW.token_settings)
+            IS DISTINCT FROM (OLD.client_authentication_methods, OLD.authorization_grant_types, OLD.redirect_uris,
+                              OLD.post_logout_redirect_uris, OLD.scopes, OLD.client_settings, OLD.token_settings)
+        AND (NEW.client_authentication_methods_v2, NEW.authorization_grant_types_v2, NEW.redirect_uris_v2,
+             NEW.post_logout_redirect_uris_v2, NEW.scopes_v2, NEW.client_settings_v2, NEW.token_settings_v2)
+            IS NOT DISTINCT FROM (OLD.client_authentication_methods_v2, OLD.authorization_grant_types_v2,
+                                  OLD.redirect_uris_v2, OLD.post_logout_redirect_uris_v2, OLD.scopes_v2,
+                                  OLD.client_settings_v2, OLD.token_settings_v2)
+    THEN
+        NEW.client_authentication_methods_v2 := NULL;
+        NEW.authorization_grant_types_v2 := NULL;
+        NEW.redirect_uris_v2 := NULL;
+        NEW.post_logout_redirect_uris_v2 := NULL;
+        NEW.scopes_v2 := NULL;
+        NEW.client_settings_v2 := NULL;
+        NEW.token_settings_v2 := NULL;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS tr_oauth2_registered_client_stale_typed_columns ON oauth2_registered_client;
+CREATE TRIGGER tr_oauth2_registered_client_stale_typed_columns
+    BEFORE UPDATE ON oauth2_registered_client
+    FOR EACH ROW EXECUTE FUNCTION oauth2_registered_client_clear_stale_typed_columns();
@@ -0,0 +1,90 @@
+-- Client and token settings of the typed layout get a column each, so that loading a client parses no JSON;
+-- client_settings_v2 and token_settings_v2 only keep the settings without a column. Adding nullable columns without
+-- defaults is a catalog-only change.
+ALTER TABLE oauth2_registered_client
+    ADD COLUMN IF NOT EXISTS require_proof_key boolean,
+    ADD COLUMN IF NOT EXISTS require_authorization_consent boolean,
+    ADD COLUMN IF NOT EXISTS jwk_set_url varchar(1000),
+    ADD COLUMN IF NOT EXISTS token_endpoint_authentication_signing_algorithm varchar(32),
+    ADD COLUMN IF NOT EXISTS x509_certificate_subject_dn varchar(1000),
+    ADD COLUMN IF NOT EXISTS reuse_access_token boolean,
+    ADD COLUMN IF NOT EXISTS token_requests_per_second double precision,
+    ADD COLUMN IF NOT EXISTS token_request_burst integer,
+    ADD COLUMN IF NOT EXISTS authorization_code_time_to_live interval,
+    ADD COLUMN IF NOT EXISTS access_token_time_to_live interval,
+    ADD COLUMN IF NOT EXISTS access_token_format varchar(32),
+    ADD COLUMN IF NOT EXISTS device_code_time_to_live interval,
+    ADD COLUMN IF NOT EXISTS reuse_refresh_tokens boolean,
+    ADD COLUMN IF NOT EXISTS refresh_token_time_to_live interval,
+    ADD COLUMN IF NOT EXISTS id_token_signature_algorithm varchar(32),
+    ADD COLUMN IF NOT EXISTS x509_certificate_bound_access_tokens boolean;
+
+-- The setting columns are typed columns too: the guard of V7 has to see them change, and clear them with the others
+CREATE OR REPLACE FUNCTION oauth2_registered_client_clear_stale_typed_columns() RETURNS trigger AS $$
+BEGIN
+    IF NEW.authorization_grant_types IS NOT NULL
+        AND (NEW.client_authentication_methods, NEW.authorization_grant_types, NEW.redirect_uris,
+             NEW.post_logout_redirect_uris, NEW.scopes, NEW.client_settings, NEW.token_settings)
+            IS DISTINCT FROM (OLD.client_authentication_methods, OLD.authorization_grant_types, OLD.redirect_uris,
+                              OLD.post_logout_redirect_uris, OLD.scopes, OLD.client_settings, OLD.token_settings)
+        AND (NEW.client_authentication_methods_v2, NEW.authorization_grant_types_v2, NEW.redirect_uris_v2,
+             NEW.post_logout_redirect_uris_v2, NEW.scopes_v2, NEW.client_settings_v2, NEW.token_settings_v2,
+             NEW.require_proof_key, NEW.require_authorization_consent, NEW.jwk_set_url,
+             NEW.token_endpoint_authentication_signing_algorithm, NEW.x509_certificate_subject_dn,
+             NEW.reuse_access_token, NEW.token_requests_per_second, NEW.token_request_burst,
+             NEW.authorization_code_time_to_live, NEW.access_token_time_to_live, NEW.access_token_format,
+             NEW.device_code_time_to_live, NEW.reuse_refresh_tokens, NEW.refresh_token_time_to_live,
+             NEW.id_token_signature_algorithm, NEW.x509_certificate_bound_access_tokens)
+            IS NOT DISTINCT FROM (OLD.client_authentication_methods_v2, OLD.authorization_grant_types_v2,
+                                  OLD.redirect_uris_v2, OLD.post_logout_redirect_uris_v2, OLD.scopes_v2,
+                                  OLD.client_settings_v2, OLD.token_settings_v2,
+                                  OLD.require_proof_key, OLD.require_authorization_consent, OLD.jwk_set_url,
+                                  OLD.token_endpoint_authentication_signing_algorithm, OLD.x509_certificate_subject_dn,
+                                  OLD.reuse_access_token, OLD.token_requests_per_second, OLD.token_request_burst,
+                                  OLD.authorization_code_time_to_live, OLD.access_token_time_to_live,
+                                  OLD.access_token_format, OLD.device_code_time_to_live, OLD.reuse_refresh_tokens,
+                                  OLD.refresh_token_time_to_live, OLD.id_token_signature_algorithm,
+                                  OLD.x509_certificate_bound_access_tokens)
+    THEN
+        NEW.client_authentication_methods_v2 := NULL;
+        NEW.authorization_grant_types_v2 := NULL;
+        NEW.redirect_uris_v2 := NULL;
+        NEW.post_logout_redirect_uris_v2 := NULL;
+        NEW.scopes_v2 := NULL;
+        NEW.client_settings_v2 := NULL;
+        NEW.token_settings_v2 := NULL;
+        NEW.require_proof_key := NULL;
+        NEW.require_authorization_consent := NULL;
+        NEW.jwk_set_url := NULL;
+        NEW.token_endpoint_authentication_signing_algorithm := NULL;
+        NEW.x509_certificate_subject_dn := NULL;
+        NEW.reuse_access_token := NULL;
+        NEW.token_requests_per_second := NULL;
+        NEW.token_request_burst := NULL;
+        NEW.authorization_code_time_to_live := NULL;
+        NEW.access_token_time_to_live := NULL;
+        NEW.access_token_format := NULL;
+        NEW.device_code_time_to_live := NULL;
+        NEW.reuse_refresh_tokens := NULL;
+        NEW.refresh_token_time_to_live := NULL;
+        NEW.id_token_signature_algorithm := NULL;
+        NEW.x509_certificate_bound_access_tokens := NULL;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Typed rows written before this migration hold all their settings as JSON. They still read correctly, but the ones
+-- that also have the legacy columns are handed back to TypedColumnBackfill, which rewrites them with setting columns;
+-- until then they are read from the legacy columns. Rows without legacy columns (TYPED mode) keep their JSON settings.
+UPDATE oauth2_registered_client
+SET client_authentication_methods_v2 = NULL,
+    authorization_grant_types_v2 = NULL,
+    redirect_uris_v2 = NULL,
+    post_logout_redirect_uris_v2 = NULL,
+    scopes_v2 = NULL,
+    client_settings_v2 = NULL,
+    token_settings_v2 = NULL
+WHERE authorization_grant_types_v2 IS NOT NULL
+  AND authorization_grant_types IS NOT NULL
+  AND (client_settings_v2 IS NOT NULL OR token_settings_v2 IS NOT NULL);
@@ -0,0 +1,42 @@
+-- With multi-tenancy every tenant registers its own clients, so a client id only has to be unique within its tenant.
+-- The tenant, so far only the settings.client.tenant client setting, gets a column of its own and the unique index
+-- moves from client_id to (client_id, tenant_id); client_id leads, so that lookups by client id alone and the keyset
+-- of the client listing keep using it.
+--
+-- Nodes that predate this migration write with ON CONFLICT (client_id), which no unique index backs any more, and do
+-- not write tenant_id: while it is rolled out, route admin API writes to upgraded nodes only.
+ALTER TABLE oauth2_registered_client
+    ADD COLUMN IF NOT EXISTS tenant_id varchar(63) DEFAULT 'default' NOT NULL;
+
+UPDATE oauth2_registered_client
+SET tenant_id = client_settings_v2 ->> 'settings.client.tenant'
+WHERE client_settings_v2 ->> 'settings.client.tenant' IS NOT NULL;
+
+UPDATE oauth2_registered_client
+SET tenant_id = client_settings::jsonb ->> 'settings.client.tenant'
+WHERE client_settings_v2 IS NULL
+  AND client_settings LIKE '%settings.client.tenant%'
+  AND client_settings::jsonb ->> 'settings.client.tenant' IS NOT NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_oauth2_registered_client_client_id_tenant
+    ON oauth2_registered_client (client_id, tenant_id);
+
+-- ddl-auto schemas (see V5) have a unique constraint on client_id rather than the index
+DROP INDEX IF EXISTS ux_oauth2_registered_client_client_id;
+DO $$
+DECLARE
+    constraint_name text;
+BEGIN
+    FOR constraint_name IN
+        SELECT c.conname
+        FROM pg_constraint c
+                 JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+        WHERE c.conrelid = 'oauth2_registered_client'::regclass
+          AND c.contype = 'u'
+          AND array_length(c.conkey, 1) = 1
+          AND a.attname = 'client_id'
+    LOOP
+        EXECUTE format('ALTER TABLE oauth2_registered_client DROP CONSTRAINT %I', constraint_name);
+    END LOOP;
+END
+$$;
@@ -8,20 +8,27 @@ export interface Client {
     // Add other properties as needed
 }
 
+export interface ClientPage {
+    items: Client[];
+    nextCursor: string | null;
+}
+
 interface ClientsState {
     clients: Client[];
+    nextCursor: string | null;
     status: 'idle' | 'loading' | 'succeeded' | 'failed';
     error: string | null;
 }
 
 const initialState: ClientsState = {
     clients: [],
+    nextCursor: null,
     status: 'idle',
     error: null,
 };
 
-export const fetchClients = createAsyncThunk('clients/fetchClients', async () => {
-    const response = await axios.get('/api/clients');
+export const fetchClients = createAsyncThunk('clients/fetchClients', async (cursor?: string) => {
+    const response = await axios.get<ClientPage>('/api/clients', { params: { cursor } });
     return response.data;
 });
 
@@ -36,7 +43,8 @@ const clientsSlice = createSlice({
             })
             .addCase(fetchClients.fulfilled, (state, action) => {
                 state.status = 'succeeded';
-                state.clients = action.payload;
+                state.clients = action.meta.arg ? [...state.clients, ...action.payload.items] : action.payload.items;
+                state.nextCursor = action.payload.nextCursor;
             })
             .addCase(fetchClients.rejected, (state, action) => {
                 state.status = 'failed';
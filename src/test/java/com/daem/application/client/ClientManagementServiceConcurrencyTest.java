@@ -0,0 +1,119 @@
+package com.daem.application.client;
+
+import com.daem.application.client.dto.ClientDto;
+import com.daem.application.client.dto.VersionedClientDto;
+import com.daem.application.exception.ClientConcurrentModificationException;
+import com.daem.application.exception.ClientVersionConflictException;
+import com.daem.domain.client.ClientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Versioned client writes racing with a change another request commits between their read and their write.
+ * <p>
+ * The race goes through both JPA and the PostgreSQL-only JDBC statements, so this needs a PostgreSQL database and
+ * only runs when {@code DAEM_TEST_DATABASE_URL} names one, e.g.
+ * {@code DAEM_TEST_DATABASE_URL=jdbc:postgresql://localhost:5432/oauth-server DAEM_TEST_DATABASE_USERNAME=postgres
+ * DAEM_TEST_DATABASE_PASSWORD=... mvn test}. Flyway migrates it; the test only adds and deletes its own clients.
+ */
+@SpringBootTest(properties = "management.server.port=")
+@ActiveProfiles("dev")
+@EnabledIfEnvironmentVariable(named = "DAEM_TEST_DATABASE_URL", matches = ".+")
+class ClientManagementServiceConcurrencyTest {
+
+    @Autowired
+    private ClientManagementService clientManagementService;
+
+    @MockitoSpyBean(name = "registeredClientRepository")
+    private ClientRepository clientRepository;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("DAEM_TEST_DATABASE_URL"));
+        registry.add("spring.datasource.username", () -> System.getenv("DAEM_TEST_DATABASE_USERNAME"));
+        registry.add("spring.datasource.password", () -> System.getenv("DAEM_TEST_DATABASE_PASSWORD"));
+    }
+
+    private final AtomicInteger concurrentChanges = new AtomicInteger();
+    private String clientId;
+
+    @BeforeEach
+    void createClient() {
+        clientId = "concurrency-test-" + UUID.randomUUID();
+        clientManagementService.create(new ClientDto(clientId, "secret", Set.of("client_secret_basic"),
+                Set.of("client_credentials"), Set.of(), Set.of("read"), null, null, null, null));
+        Thread testThread = Thread.currentThread();
+        // Before each of the first concurrentChanges writes of the test thread, another request changes the scopes
+        doAnswer(invocation -> {
+            if (Thread.currentThread() == testThread && concurrentChanges.getAndDecrement() > 0) {
+                CompletableFuture.runAsync(() -> clientManagementService.patch(null, clientId,
+                        scopes("read", "write-" + concurrentChanges.get()), null)).join();
+            }
+            return invocation.callRealMethod();
+        }).when(clientRepository).upsert(any(RegisteredClient.class), any());
+    }
+
+    @AfterEach
+    void deleteClient() {
+        concurrentChanges.set(0);
+        clientManagementService.delete(null, clientId);
+    }
+
+    @Test
+    void writeWithoutExpectedVersionIsAppliedOnTopOfConcurrentChange() {
+        concurrentChanges.set(1);
+
+        long version = clientManagementService.patch(null, clientId, burst(7), null);
+
+        VersionedClientDto stored = clientManagementService.get(null, clientId);
+        assertThat(version).isEqualTo(2);
+        assertThat(stored.version()).isEqualTo(2);
+        assertThat(stored.client().tokenRequestBurst()).isEqualTo(7);
+        assertThat(stored.client().scopes()).containsExactlyInAnyOrder("read", "write-0");
+    }
+
+    @Test
+    void writeWithoutExpectedVersionConflictsWhenClientKeepsChanging() {
+        concurrentChanges.set(Integer.MAX_VALUE);
+
+        assertThatThrownBy(() -> clientManagementService.patch(null, clientId, burst(7), null))
+                .isInstanceOf(ClientConcurrentModificationException.class);
+        assertThat(clientManagementService.get(null, clientId).client().tokenRequestBurst()).isNull();
+    }
+
+    @Test
+    void writeWithExpectedVersionFailsItsPreconditionAfterConcurrentChange() {
+        concurrentChanges.set(1);
+
+        assertThatThrownBy(() -> clientManagementService.patch(null, clientId, burst(7), 0L))
+                .isInstanceOf(ClientVersionConflictException.class);
+        assertThat(clientManagementService.get(null, clientId).version()).isEqualTo(1);
+    }
+
+    private static ClientDto scopes(String... scopes) {
+        return new ClientDto(null, null, null, null, null, Set.of(scopes), null, null, null, null);
+    }
+
+    private static ClientDto burst(int burst) {
+        return new ClientDto(null, null, null, null, null, null, null, null, burst, null);
+    }
+}
@@ -0,0 +1,195 @@
+package com.daem.infrastructure.audit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The ring buffer and the rotating file of {@link AuditLog}, without Spring and without a database.
+ */
+class AuditLogTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void everyEventOfConcurrentProducersIsWrittenOnceAndInOrder() throws Exception {
+        int producers = 4;
+        int eventsPerProducer = 5_000;
+        // A ring much smaller than the events, so that it wraps many times, and files small enough to rotate
+        AuditLog auditLog = auditLog(256, 32, AuditProperties.OverflowPolicy.BLOCK, Duration.ofSeconds(30),
+                DataSize.ofKilobytes(64));
+        auditLog.start();
+        CountDownLatch ready = new CountDownLatch(producers);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            String producer = "producer-" + p;
+            Thread thread = new Thread(() -> {
+                ready.countDown();
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < eventsPerProducer; i++) {
+                    auditLog.record(AuditEventType.TOKEN_ISSUED, producer, Integer.toString(i), "client_credentials",
+                            "token-" + i, null);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        ready.await();
+        go.countDown();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.MINUTES.toMillis(1));
+        }
+        auditLog.destroy();
+
+        assertThat(events("dropped")).isZero();
+        assertThat(events("written")).isEqualTo(producers * eventsPerProducer);
+        List<Path> files = auditFiles();
+        assertThat(files).hasSizeGreaterThan(1);
+        for (Path file : files) {
+            assertThat(Files.size(file)).isLessThanOrEqualTo(DataSize.ofKilobytes(64).toBytes());
+        }
+        int[] next = new int[producers];
+        for (JsonNode event : readEvents(files)) {
+            int producer = Integer.parseInt(event.get("client_id").textValue().substring("producer-".length()));
+            assertThat(Integer.parseInt(event.get("principal").textValue()))
+                    .as("next event of %s", event.get("client_id").textValue())
+                    .isEqualTo(next[producer]);
+            next[producer]++;
+        }
+        assertThat(next).containsOnly(eventsPerProducer);
+    }
+
+    @Test
+    void dropPolicyDropsAtOnceWhenRingIsFull() throws Exception {
+        AuditLog auditLog = auditLog(4, 4, AuditProperties.OverflowPolicy.DROP, Duration.ofSeconds(30),
+                DataSize.ofMegabytes(1));
+
+        // The writer is not started, so nothing frees a slot
+        long start = System.nanoTime();
+        for (int i = 0; i < 6; i++) {
+            record(auditLog, i);
+        }
+        long elapsed = System.nanoTime() - start;
+        auditLog.start();
+        auditLog.destroy();
+
+        assertThat(elapsed).isLessThan(TimeUnit.SECONDS.toNanos(1));
+        assertThat(events("dropped")).isEqualTo(2);
+        assertThat(principals()).containsExactly("0", "1", "2", "3");
+    }
+
+    @Test
+    void blockPolicyDropsOnlyAfterTimeout() throws Exception {
+        AuditLog auditLog = auditLog(4, 4, AuditProperties.OverflowPolicy.BLOCK, Duration.ofMillis(100),
+                DataSize.ofMegabytes(1));
+        for (int i = 0; i < 4; i++) {
+            record(auditLog, i);
+        }
+
+        long start = System.nanoTime();
+        record(auditLog, 4);
+        long elapsed = System.nanoTime() - start;
+        auditLog.start();
+        auditLog.destroy();
+
+        assertThat(elapsed).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(events("dropped")).isEqualTo(1);
+        assertThat(principals()).containsExactly("0", "1", "2", "3");
+    }
+
+    @Test
+    void blockPolicyWaitsForWriterToFreeRoom() throws Exception {
+        AuditLog auditLog = auditLog(4, 4, AuditProperties.OverflowPolicy.BLOCK, Duration.ofSeconds(30),
+                DataSize.ofMegabytes(1));
+        for (int i = 0; i < 4; i++) {
+            record(auditLog, i);
+        }
+        Thread starter = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            auditLog.start();
+        });
+        starter.start();
+
+        record(auditLog, 4);
+        starter.join();
+        auditLog.destroy();
+
+        assertThat(events("dropped")).isZero();
+        assertThat(principals()).containsExactly("0", "1", "2", "3", "4");
+    }
+
+    private AuditLog auditLog(int capacity, int batchSize, AuditProperties.OverflowPolicy overflow,
+                              Duration blockTimeout, DataSize maxFileSize) {
+        AuditProperties properties = new AuditProperties(true, capacity, batchSize, Duration.ofMillis(20), overflow,
+                blockTimeout, directory.resolve("audit.log"), maxFileSize, 1_000, AuditProperties.FsyncPolicy.NEVER,
+                Duration.ofSeconds(1), false);
+        return new AuditLog(properties, null, meterRegistry);
+    }
+
+    private static void record(AuditLog auditLog, int i) {
+        auditLog.record(AuditEventType.TOKEN_ISSUED, "client", Integer.toString(i), "client_credentials", null, null);
+    }
+
+    private double events(String outcome) {
+        return meterRegistry.get("daem.oauth2.audit.events").tag("outcome", outcome).counter().count();
+    }
+
+    /**
+     * The audit file and its rotations, oldest first.
+     */
+    private List<Path> auditFiles() {
+        List<Path> files = new ArrayList<>();
+        for (int i = 1_000; i >= 1; i--) {
+            Path rotated = directory.resolve("audit.log." + i);
+            if (Files.exists(rotated)) {
+                files.add(rotated);
+            }
+        }
+        files.add(directory.resolve("audit.log"));
+        return files;
+    }
+
+    private static List<JsonNode> readEvents(List<Path> files) throws IOException {
+        List<JsonNode> events = new ArrayList<>();
+        for (Path file : files) {
+            for (String line : Files.readAllLines(file)) {
+                events.add(OBJECT_MAPPER.readTree(line));
+            }
+        }
+        return events;
+    }
+
+    private List<String> principals() throws IOException {
+        return readEvents(auditFiles()).stream().map(event -> event.get("principal").textValue()).toList();
+    }
+}
@@ -0,0 +1,86 @@
+package com.daem.infrastructure.security.revocation;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The encoding is decoded by resource servers outside this repository, so its bytes must never change unnoticed.
+ */
+class RevokedTokenSetEncodingTest {
+
+    @Test
+    void encodesGoldenVector() {
+        // Keys 0x5964da055ae31cf8 (jti-1), 0x91966648f80cc277 (jti-3) and 0xe9ca9b79c1c6c696 (jti-2): the last two
+        // have the sign bit set, so a signed sort would put them first
+        byte[] encoded = RevokedTokenSetEncoding.encode(List.of(
+                new RevokedTokenSetEncoding.Entry("jti-2", Instant.ofEpochSecond(1767229200)),
+                new RevokedTokenSetEncoding.Entry("jti-1", Instant.ofEpochSecond(1767225600)),
+                new RevokedTokenSetEncoding.Entry("jti-3", Instant.ofEpochSecond(1767232800))));
+
+        assertThat(HexFormat.of().formatHex(encoded)).isEqualTo(
+                "f8b98cd7d5c0b6b259" + "80f2d6ca06"
+                        + "ffcaa6e9b988e39838" + "a0aad7ca06"
+                        + "9f88e8cd8ca68d9a58" + "908ed7ca06");
+    }
+
+    @Test
+    void keyIsFirstEightBytesOfSha256() {
+        assertThat(RevokedTokenSetEncoding.key("jti-1")).isEqualTo(0x5964da055ae31cf8L);
+        assertThat(RevokedTokenSetEncoding.key("jti-2")).isEqualTo(0xe9ca9b79c1c6c696L);
+    }
+
+    @Test
+    void encodesEmptySetAsNoBytes() {
+        assertThat(RevokedTokenSetEncoding.encode(List.of())).isEmpty();
+    }
+
+    @Test
+    void decodesToEveryKeyWithItsExpiry() {
+        List<RevokedTokenSetEncoding.Entry> entries = new ArrayList<>();
+        Map<Long, Long> expected = new LinkedHashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            Instant expiresAt = Instant.ofEpochSecond(1767225600L + i * 37L);
+            entries.add(new RevokedTokenSetEncoding.Entry("jti-" + i, expiresAt));
+            expected.put(RevokedTokenSetEncoding.key("jti-" + i), expiresAt.getEpochSecond());
+        }
+        assertThat(expected.keySet()).anyMatch(key -> key < 0).anyMatch(key -> key >= 0);
+
+        Map<Long, Long> decoded = decode(RevokedTokenSetEncoding.encode(entries));
+
+        assertThat(decoded).containsExactlyInAnyOrderEntriesOf(expected);
+        assertThat(new ArrayList<>(decoded.keySet())).isSortedAccordingTo(Long::compareUnsigned);
+    }
+
+    /**
+     * What a resource server does: key deltas and expiries as unsigned LEB128 pairs, keys accumulated modulo 2^64.
+     */
+    private static Map<Long, Long> decode(byte[] encoded) {
+        Map<Long, Long> entries = new LinkedHashMap<>();
+        int[] position = {0};
+        long key = 0;
+        while (position[0] < encoded.length) {
+            key += readVarint(encoded, position);
+            entries.put(key, readVarint(encoded, position));
+        }
+        return entries;
+    }
+
+    private static long readVarint(byte[] encoded, int[] position) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = encoded[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}